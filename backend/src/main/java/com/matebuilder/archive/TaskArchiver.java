@@ -0,0 +1,324 @@
+package com.matebuilder.archive;
+
+import com.matebuilder.entity.TaskArchiveProgress;
+import com.matebuilder.entity.UserPrivateTask;
+import com.matebuilder.sharding.TaskShards;
+import com.matebuilder.sharding.TaskShards.Shard;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * 已完成私人任务的冷热分离
+ * 任务日期早于 今天 - archive.private-task.horizon-days 的已完成任务定期从 tb_user_private_task 搬到按月分表的归档表
+ * （tb_user_private_task_archive_yyyyMM，每个分片各自一套），热表只保留近期和未完成的任务。
+ * 每一轮在每个分片上按主键顺序分批处理：每批最多 batch-size 条，在分片的一个事务中锁定、复制到分表、从热表删除并记录进度，
+ * 批与批之间暂停 pause-ms，避免长事务和持续占用数据库；进度（本轮截止日期、已处理到的ID）记在分片的 tb_task_archive_progress，
+ * 中断后从记录的ID继续本轮，不会重复归档。
+ * 查询指定日期且该月份已有分表时同时读取热表和该分表，不指定日期时读取热表和全部分表（见 UserPrivateTaskServiceImpl）；
+ * 归档后的任务只读，按ID修改或删除不会命中。
+ */
+@Slf4j
+@Component
+public class TaskArchiver {
+
+    private static final String JOB = "user_private_task";
+    private static final String TABLE_PREFIX = "tb_user_private_task_archive_";
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    /**
+     * 查询的月份不在缓存的分表中时，最多每隔这么久重新读取一次分表登记
+     */
+    private static final long PARTITION_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final TaskShards shards;
+    private final boolean enabled;
+    private final int horizonDays;
+    private final int batchSize;
+    private final long pauseMs;
+
+    private final Map<String, Partitions> partitions = new ConcurrentHashMap<>();
+    private final AtomicLong archived = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong resumed = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong movedArchived = new AtomicLong();
+    /**
+     * 归档和分表搬迁互斥；两者都可由请求线程触发并持锁访问数据库，用 ReentrantLock 而非 synchronized，避免虚拟线程占住载体线程
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile LocalDateTime lastRun;
+    private volatile long lastRunMs;
+
+    /**
+     * 一个分片上已创建的分表
+     */
+    private static final class Partitions {
+        final Set<String> tables;
+        final long loadedAt;
+
+        Partitions(List<String> tables) {
+            this.tables = Collections.unmodifiableSet(new LinkedHashSet<>(tables));
+            this.loadedAt = System.nanoTime();
+        }
+    }
+
+    public TaskArchiver(TaskShards shards,
+                        @Value("${archive.private-task.enabled:true}") boolean enabled,
+                        @Value("${archive.private-task.horizon-days:90}") int horizonDays,
+                        @Value("${archive.private-task.batch-size:1000}") int batchSize,
+                        @Value("${archive.private-task.pause-ms:100}") long pauseMs) {
+        this.shards = shards;
+        this.enabled = enabled;
+        this.horizonDays = horizonDays;
+        this.batchSize = batchSize;
+        this.pauseMs = pauseMs;
+    }
+
+    @Scheduled(initialDelayString = "${archive.private-task.interval-ms:3600000}",
+            fixedDelayString = "${archive.private-task.interval-ms:3600000}")
+    public void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            run();
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            log.warn("Private task archiving failed, will resume on next run. Error: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 在所有分片上执行一轮归档，返回本次归档的任务数
+     */
+    public long run() {
+        lock.lock();
+        try {
+            return runAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long runAll() {
+        long start = System.currentTimeMillis();
+        LocalDate cutoff = LocalDate.now().minusDays(horizonDays);
+        long rows = 0;
+        for (Shard shard : shards.all()) {
+            rows += run(shard, cutoff);
+        }
+        lastRun = LocalDateTime.now();
+        lastRunMs = System.currentTimeMillis() - start;
+        log.info("Archived {} completed private tasks older than {} in {} ms", rows, cutoff, lastRunMs);
+        return rows;
+    }
+
+    private long run(Shard shard, LocalDate cutoff) {
+        TaskArchiveProgress progress = shard.archive().selectProgress(JOB);
+        long lastId = 0;
+        if (progress == null) {
+            shard.archive().insertProgress(JOB, cutoff);
+        } else if ("running".equals(progress.getState())) {
+            // 上一轮未完成：沿用它的截止日期继续，完成后下一轮再用新的截止日期
+            cutoff = progress.getCutoffDate();
+            lastId = progress.getLastId();
+            resumed.incrementAndGet();
+            log.info("Resuming private task archiving on shard {} after id {}", shard.name(), lastId);
+        } else {
+            shard.archive().startProgress(JOB, cutoff);
+        }
+        LocalDate runCutoff = cutoff;
+        long rows = 0;
+        while (true) {
+            List<UserPrivateTask> candidates = shard.archive().selectCandidates(lastId, runCutoff, batchSize);
+            if (candidates.isEmpty()) {
+                break;
+            }
+            long batchLastId = candidates.get(candidates.size() - 1).getId();
+            // 建表是 DDL，会隐式提交，放在事务之外
+            candidates.stream().map(task -> partitionTable(task.getTaskDate())).distinct()
+                    .forEach(table -> ensurePartition(shard, table));
+            List<Integer> ids = TaskShards.ids(candidates);
+            Integer moved = shard.transaction().execute(status -> {
+                List<UserPrivateTask> locked = shard.archive().lockCandidates(ids, runCutoff);
+                Map<String, List<Integer>> byTable = locked.stream().collect(Collectors.groupingBy(
+                        task -> partitionTable(task.getTaskDate()), TreeMap::new,
+                        Collectors.mapping(UserPrivateTask::getId, Collectors.toList())));
+                byTable.forEach((table, tableIds) -> shard.archive().copyToPartition(table, tableIds));
+                if (!locked.isEmpty()) {
+                    shard.tasks().deleteBatchIds(TaskShards.ids(locked));
+                }
+                shard.archive().advanceProgress(JOB, batchLastId, locked.size());
+                return locked.size();
+            });
+            lastId = batchLastId;
+            rows += moved;
+            archived.addAndGet(moved);
+            batches.incrementAndGet();
+            if (candidates.size() < batchSize) {
+                break;
+            }
+            pause();
+        }
+        shard.archive().finishProgress(JOB, runCutoff);
+        return rows;
+    }
+
+    private void pause() {
+        if (pauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while archiving private tasks", e);
+        }
+    }
+
+    /**
+     * 任务日期所在月份的分表名
+     */
+    public static String partitionTable(LocalDate taskDate) {
+        return TABLE_PREFIX + MONTH.format(taskDate);
+    }
+
+    /**
+     * 在分片上创建分表并登记，已存在时忽略
+     */
+    public void ensurePartition(Shard shard, String table) {
+        if (cached(shard).tables.contains(table)) {
+            return;
+        }
+        shard.archive().createPartition(table);
+        try {
+            LocalDate month = LocalDate.parse(table.substring(TABLE_PREFIX.length()) + "01", DateTimeFormatter.BASIC_ISO_DATE);
+            shard.archive().insertPartition(table, month);
+        } catch (DuplicateKeyException e) {
+            // 其他节点已登记
+        }
+        partitions.put(shard.name(), new Partitions(shard.archive().selectPartitions()));
+    }
+
+    /**
+     * 查询需要读取的分表：日期所在月份已有分表且查询的不只是未完成任务时返回分表名，否则返回 null
+     */
+    public String archivedTable(Shard shard, LocalDate taskDate, String taskStatus) {
+        if (taskDate == null || "in_progress".equals(taskStatus)) {
+            return null;
+        }
+        String table = partitionTable(taskDate);
+        Partitions current = cached(shard);
+        if (!current.tables.contains(table) && System.nanoTime() - current.loadedAt > PARTITION_REFRESH_NANOS) {
+            current = new Partitions(shard.archive().selectPartitions());
+            partitions.put(shard.name(), current);
+        }
+        return current.tables.contains(table) ? table : null;
+    }
+
+    /**
+     * 分页查询需要读取的分表：只查未完成任务时不读分表；指定日期时为该月份的分表（见 archivedTable）；
+     * 不指定日期时为分片上的全部分表，归档后的任务仍出现在列表中
+     */
+    public List<String> archivedTables(Shard shard, LocalDate taskDate, String taskStatus) {
+        if (taskDate != null) {
+            String table = archivedTable(shard, taskDate, taskStatus);
+            return table == null ? List.of() : List.of(table);
+        }
+        return "in_progress".equals(taskStatus) ? List.of() : partitions(shard);
+    }
+
+    /**
+     * 分片上已创建的分表，按月份升序；缓存超过 PARTITION_REFRESH_NANOS 时重新读取，以便看到其他节点新建的分表
+     */
+    public List<String> partitions(Shard shard) {
+        Partitions current = cached(shard);
+        if (System.nanoTime() - current.loadedAt > PARTITION_REFRESH_NANOS) {
+            current = new Partitions(shard.archive().selectPartitions());
+            partitions.put(shard.name(), current);
+        }
+        return new ArrayList<>(current.tables);
+    }
+
+    private Partitions cached(Shard shard) {
+        return partitions.computeIfAbsent(shard.name(), name -> new Partitions(shard.archive().selectPartitions()));
+    }
+
+    /**
+     * 增加分片后把归档任务搬到各用户所属的分片（热表由 TaskShards.rebalance 搬迁），返回搬迁的任务数
+     * 与热表相同，先在目标分表按ID删除再写入，最后删除源分表中该用户的任务，中断后重新执行不会产生重复。
+     */
+    public long rebalance() {
+        lock.lock();
+        try {
+            return doRebalance();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long doRebalance() {
+        long moved = 0;
+        for (Shard source : shards.all()) {
+            for (String table : source.archive().selectPartitions()) {
+                for (Integer userId : source.archive().selectUserIds(table)) {
+                    Shard owner = shards.shard(userId);
+                    if (owner == source) {
+                        continue;
+                    }
+                    List<UserPrivateTask> tasks = source.archive().selectByUser(table, userId);
+                    if (tasks.isEmpty()) {
+                        continue;
+                    }
+                    ensurePartition(owner, table);
+                    owner.archive().deleteByIds(table, TaskShards.ids(tasks));
+                    owner.archive().insertBatch(table, tasks);
+                    source.archive().deleteByUser(table, userId);
+                    moved += tasks.size();
+                }
+            }
+        }
+        movedArchived.addAndGet(moved);
+        log.info("Moved {} archived private tasks to their shards", moved);
+        return moved;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("horizonDays", horizonDays);
+        stats.put("batchSize", batchSize);
+        stats.put("archived", archived.get());
+        stats.put("batches", batches.get());
+        stats.put("resumed", resumed.get());
+        stats.put("failures", failures.get());
+        stats.put("movedArchived", movedArchived.get());
+        stats.put("lastRun", lastRun);
+        stats.put("lastRunMs", lastRunMs);
+        Map<String, Object> progress = new LinkedHashMap<>();
+        for (Shard shard : shards.all()) {
+            progress.put(shard.name(), shard.archive().selectProgress(JOB));
+        }
+        stats.put("progress", progress);
+        return stats;
+    }
+}
@@ -0,0 +1,110 @@
+package com.matebuilder.autocomplete;
+
+import com.matebuilder.common.event.EntityChangeEvent;
+import com.matebuilder.entity.CommunityLabel;
+import com.matebuilder.entity.User;
+import com.matebuilder.mapper.CommunityLabelMapper;
+import com.matebuilder.mapper.UserMapper;
+import com.matebuilder.vo.SuggestionVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 用户名与社区标签的输入补全
+ * 启动时流式扫描 tb_user / tb_community_label 构建 PrefixTrie，之后随写事件增量更新，
+ * 查询不访问数据库。用户按等级排序，标签按名称长度和字典序排序。
+ */
+@Slf4j
+@Component
+public class Autocomplete {
+
+    private final UserMapper userMapper;
+    private final CommunityLabelMapper communityLabelMapper;
+    private final PrefixTrie users;
+    private final PrefixTrie labels;
+    private final int maxLimit;
+
+    public Autocomplete(UserMapper userMapper,
+                        CommunityLabelMapper communityLabelMapper,
+                        @Value("${autocomplete.max-limit:20}") int maxLimit) {
+        this.userMapper = userMapper;
+        this.communityLabelMapper = communityLabelMapper;
+        this.maxLimit = maxLimit;
+        this.users = new PrefixTrie(maxLimit);
+        this.labels = new PrefixTrie(maxLimit);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        try {
+            userMapper.scanPublicUsernames(context -> putUser(context.getResultObject()));
+            communityLabelMapper.scanLabelNames(context -> putLabel(context.getResultObject()));
+            log.info("Autocomplete loaded {} users and {} labels in {} ms",
+                    users.size(), labels.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("Autocomplete warm-up failed, suggestions will fill from writes only. Error: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        if (event.isFor(User.class)) {
+            Integer id = (Integer) event.getId();
+            if (event.getAction() == EntityChangeEvent.Action.REMOVE) {
+                users.remove(id);
+                return;
+            }
+            User user = event.getEntity(User.class);
+            if (user.getPublicUsername() == null || user.getLevel() == null) {
+                // 部分字段更新，重新读取
+                user = userMapper.selectById(id);
+            }
+            if (user != null) {
+                putUser(user);
+            }
+        } else if (event.isFor(CommunityLabel.class)) {
+            Integer id = (Integer) event.getId();
+            if (event.getAction() == EntityChangeEvent.Action.REMOVE) {
+                labels.remove(id);
+                return;
+            }
+            CommunityLabel label = event.getEntity(CommunityLabel.class);
+            if (label.getLabelName() == null) {
+                label = communityLabelMapper.selectById(id);
+            }
+            if (label != null) {
+                putLabel(label);
+            }
+        }
+    }
+
+    public List<SuggestionVO> users(String prefix, int limit) {
+        return toVO(users.complete(prefix, Math.min(limit, maxLimit)));
+    }
+
+    public List<SuggestionVO> labels(String prefix, int limit) {
+        return toVO(labels.complete(prefix, Math.min(limit, maxLimit)));
+    }
+
+    private void putUser(User user) {
+        users.put(user.getId(), user.getPublicUsername(), user.getLevel() == null ? 0 : user.getLevel());
+    }
+
+    private void putLabel(CommunityLabel label) {
+        labels.put(label.getId(), label.getLabelName(), 0);
+    }
+
+    private static List<SuggestionVO> toVO(List<PrefixTrie.Entry> entries) {
+        return entries.stream()
+                .map(e -> new SuggestionVO(e.getId(), e.getText(), e.getRank()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,321 @@
+package com.matebuilder.autocomplete;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 前缀补全字典树（压缩前缀树）
+ * 单子节点且无条目结尾的链合并为一条边，节点数不超过条目数的两倍，与文本总长度无关；
+ * 子节点以边首字符的有序数组保存并二分查找。每个节点缓存其子树中排名最高的 capacity 个条目，
+ * 查询只需定位前缀所在的边并拷贝其下节点的缓存，与子树大小无关，代价是每个节点多占
+ * capacity 个引用。写入时沿路径插入缓存，必要时拆分边；删除时自底向上由子节点缓存
+ * 合并重建受影响的节点，并把重新变成单链的节点与子节点合并。匹配忽略大小写。
+ */
+public class PrefixTrie {
+
+    /**
+     * 排名高者优先，其次较短的文本，再按文本和ID
+     */
+    private static final Comparator<Entry> ORDER = Comparator.comparingInt(Entry::getRank).reversed()
+            .thenComparingInt((Entry e) -> e.getText().length())
+            .thenComparing(Entry::getText)
+            .thenComparingInt(Entry::getId);
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    @Getter
+    public static final class Entry {
+        private final int id;
+        private final String text;
+        private final int rank;
+
+        Entry(int id, String text, int rank) {
+            this.id = id;
+            this.text = text;
+            this.rank = rank;
+        }
+    }
+
+    private static final class Node {
+        /**
+         * 从父节点到本节点的边上的字符，根节点为空串
+         */
+        private String label;
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        /**
+         * 以该节点结尾的条目（文本可重复）
+         */
+        private Entry[] terminals = NO_ENTRIES;
+        private Entry[] top = NO_ENTRIES;
+        private int size;
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        void addChild(Node node) {
+            char c = node.label.charAt(0);
+            int at = -Arrays.binarySearch(keys, c) - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            newKeys[at] = c;
+            newChildren[at] = node;
+            System.arraycopy(keys, at, newKeys, at + 1, keys.length - at);
+            System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        void replaceChild(Node node) {
+            children[Arrays.binarySearch(keys, node.label.charAt(0))] = node;
+        }
+
+        void removeChild(char c) {
+            int at = Arrays.binarySearch(keys, c);
+            if (at < 0) {
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            System.arraycopy(keys, at + 1, newKeys, at, keys.length - at - 1);
+            System.arraycopy(children, at + 1, newChildren, at, children.length - at - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+    }
+
+    private final int capacity;
+    private final Node root = new Node("");
+    private final Map<Integer, Entry> byId = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param capacity 每个前缀最多可返回的条目数
+     */
+    public PrefixTrie(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * 新增或替换条目，text 为空时等同删除
+     */
+    public void put(int id, String text, int rank) {
+        lock.writeLock().lock();
+        try {
+            Entry old = byId.get(id);
+            if (old != null) {
+                if (old.text.equals(text) && old.rank == rank) {
+                    return;
+                }
+                delete(old);
+            }
+            if (text == null || text.isEmpty()) {
+                return;
+            }
+            Entry entry = new Entry(id, text, rank);
+            byId.put(id, entry);
+            String key = normalize(text);
+            Node node = root;
+            offer(node, entry);
+            int i = 0;
+            while (i < key.length()) {
+                Node child = node.child(key.charAt(i));
+                if (child == null) {
+                    child = new Node(key.substring(i));
+                    node.addChild(child);
+                } else {
+                    int common = commonPrefix(child.label, key, i);
+                    if (common < child.label.length()) {
+                        child = split(node, child, common);
+                    }
+                }
+                offer(child, entry);
+                node = child;
+                i += child.label.length();
+            }
+            node.terminals = append(node.terminals, entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            Entry old = byId.get(id);
+            if (old != null) {
+                delete(old);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 以 prefix 开头的条目，按排名降序，最多 min(limit, capacity) 个
+     */
+    public List<Entry> complete(String prefix, int limit) {
+        String key = normalize(prefix == null ? "" : prefix);
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int i = 0;
+            while (node != null && i < key.length()) {
+                node = node.child(key.charAt(i));
+                if (node != null) {
+                    // 前缀可以止于边的中间，此时边下节点的子树即全部匹配
+                    int common = commonPrefix(node.label, key, i);
+                    if (common < Math.min(node.label.length(), key.length() - i)) {
+                        node = null;
+                    } else {
+                        i += node.label.length();
+                    }
+                }
+            }
+            if (node == null || node.top.length == 0 || limit <= 0) {
+                return Collections.emptyList();
+            }
+            int n = Math.min(limit, node.top.length);
+            return new ArrayList<>(Arrays.asList(node.top).subList(0, n));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void delete(Entry entry) {
+        byId.remove(entry.id);
+        String key = normalize(entry.text);
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        for (int i = 0; i < key.length(); ) {
+            Node node = path.get(path.size() - 1).child(key.charAt(i));
+            path.add(node);
+            i += node.label.length();
+        }
+        Node leaf = path.get(path.size() - 1);
+        leaf.terminals = without(leaf.terminals, entry);
+        for (int depth = path.size() - 1; depth >= 0; depth--) {
+            Node node = path.get(depth);
+            node.size--;
+            if (depth > 0 && node.size == 0) {
+                path.get(depth - 1).removeChild(node.label.charAt(0));
+                continue;
+            }
+            if (Arrays.asList(node.top).contains(entry)) {
+                rebuildTop(node);
+            }
+            if (depth > 0 && node.terminals.length == 0 && node.children.length == 1) {
+                merge(node);
+            }
+        }
+    }
+
+    /**
+     * 在 at 处拆分 child 的边，返回新插入的中间节点，其子树与原 child 相同
+     */
+    private static Node split(Node parent, Node child, int at) {
+        Node middle = new Node(child.label.substring(0, at));
+        child.label = child.label.substring(at);
+        middle.keys = new char[]{child.label.charAt(0)};
+        middle.children = new Node[]{child};
+        middle.top = child.top;
+        middle.size = child.size;
+        parent.replaceChild(middle);
+        return middle;
+    }
+
+    /**
+     * 把唯一的子节点并入本节点，两者子树相同，缓存无需变化
+     */
+    private static void merge(Node node) {
+        Node child = node.children[0];
+        node.label = node.label + child.label;
+        node.keys = child.keys;
+        node.children = child.children;
+        node.terminals = child.terminals;
+    }
+
+    private void offer(Node node, Entry entry) {
+        node.size++;
+        Entry[] top = node.top;
+        int at = Arrays.binarySearch(top, entry, ORDER);
+        at = at >= 0 ? at : -at - 1;
+        if (at >= capacity) {
+            return;
+        }
+        int length = Math.min(top.length + 1, capacity);
+        Entry[] next = new Entry[length];
+        System.arraycopy(top, 0, next, 0, at);
+        next[at] = entry;
+        System.arraycopy(top, at, next, at + 1, length - at - 1);
+        node.top = next;
+    }
+
+    /**
+     * 子节点缓存已是各自子树的前 capacity 名，合并即得本节点的前 capacity 名
+     */
+    private void rebuildTop(Node node) {
+        List<Entry> candidates = new ArrayList<>(Arrays.asList(node.terminals));
+        for (Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        candidates.sort(ORDER);
+        node.top = candidates.subList(0, Math.min(capacity, candidates.size())).toArray(NO_ENTRIES);
+    }
+
+    private static Entry[] append(Entry[] entries, Entry entry) {
+        Entry[] next = Arrays.copyOf(entries, entries.length + 1);
+        next[entries.length] = entry;
+        return next;
+    }
+
+    private static Entry[] without(Entry[] entries, Entry entry) {
+        List<Entry> rest = new ArrayList<>(Arrays.asList(entries));
+        rest.remove(entry);
+        return rest.toArray(NO_ENTRIES);
+    }
+
+    private static int commonPrefix(String label, String key, int from) {
+        int n = Math.min(label.length(), key.length() - from);
+        int i = 0;
+        while (i < n && label.charAt(i) == key.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+}
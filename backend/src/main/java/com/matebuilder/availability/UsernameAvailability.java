@@ -0,0 +1,164 @@
+package com.matebuilder.availability;
+
+import com.matebuilder.common.event.EntityChangeEvent;
+import com.matebuilder.entity.User;
+import com.matebuilder.mapper.UserMapper;
+import com.matebuilder.vo.UsernameAvailabilityVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * 用户名可用性检查
+ * 公共/私人用户名各有一个布隆过滤器，过滤器判定不存在时直接返回可用，
+ * 只有可能存在时才查询数据库确认。过滤器定期由流式扫描重建，新增和修改用户时即时加入。
+ * tb_user 没有逻辑删除，表中每一行的用户名都占用唯一索引，扫描和确认查询均不加过滤条件。
+ */
+@Slf4j
+@Component
+public class UsernameAvailability {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private static final class Filters {
+        private final BloomFilter publicNames;
+        private final BloomFilter privateNames;
+
+        Filters(long expected, double fpp) {
+            this.publicNames = new BloomFilter(expected, fpp);
+            this.privateNames = new BloomFilter(expected, fpp);
+        }
+
+        void put(User user) {
+            if (user.getPublicUsername() != null) {
+                publicNames.put(normalize(user.getPublicUsername()));
+            }
+            if (user.getPrivateUsername() != null) {
+                privateNames.put(normalize(user.getPrivateUsername()));
+            }
+        }
+    }
+
+    private final UserMapper userMapper;
+    private final long minExpectedInsertions;
+    private final double fpp;
+
+    /**
+     * 未完成首次加载前为 null，此时所有检查直接查库
+     */
+    private volatile Filters filters;
+    /**
+     * 重建中的过滤器，期间的写入同时加入新旧两个过滤器
+     */
+    private volatile Filters building;
+
+    private final AtomicLong filteredChecks = new AtomicLong();
+    private final AtomicLong databaseChecks = new AtomicLong();
+
+    public UsernameAvailability(UserMapper userMapper,
+                                @Value("${availability.expected-insertions:1000000}") long minExpectedInsertions,
+                                @Value("${availability.fpp:0.01}") double fpp) {
+        this.userMapper = userMapper;
+        this.minExpectedInsertions = minExpectedInsertions;
+        this.fpp = fpp;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("Username bloom filter load failed, availability checks will query the database. Error: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 定期重建以清除已删除或改名用户留下的假阳性
+     */
+    @Scheduled(initialDelayString = "${availability.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${availability.rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        long expected = Math.max(minExpectedInsertions, userMapper.selectCount(null) * 2);
+        Filters next = new Filters(expected, fpp);
+        building = next;
+        try {
+            userMapper.scanUsernames(context -> next.put(context.getResultObject()));
+            filters = next;
+            log.info("Username bloom filters rebuilt for {} expected users in {} ms",
+                    expected, System.currentTimeMillis() - start);
+        } finally {
+            building = null;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        if (!event.isFor(User.class) || event.getAction() == EntityChangeEvent.Action.REMOVE) {
+            return;
+        }
+        User user = event.getEntity(User.class);
+        Filters current = filters;
+        if (current != null) {
+            current.put(user);
+        }
+        Filters next = building;
+        if (next != null) {
+            next.put(user);
+        }
+    }
+
+    public UsernameAvailabilityVO check(String publicUsername, String privateUsername) {
+        UsernameAvailabilityVO vo = new UsernameAvailabilityVO();
+        Filters current = filters;
+        if (publicUsername != null) {
+            vo.setPublicUsername(current != null && !current.publicNames.mightContain(normalize(publicUsername))
+                    ? countFiltered() : !countDatabase(userMapper.existsPublicUsername(publicUsername)));
+        }
+        if (privateUsername != null) {
+            vo.setPrivateUsername(current != null && !current.privateNames.mightContain(normalize(privateUsername))
+                    ? countFiltered() : !countDatabase(userMapper.existsPrivateUsername(privateUsername)));
+        }
+        return vo;
+    }
+
+    public long getFilteredChecks() {
+        return filteredChecks.get();
+    }
+
+    public long getDatabaseChecks() {
+        return databaseChecks.get();
+    }
+
+    private boolean countFiltered() {
+        filteredChecks.incrementAndGet();
+        return true;
+    }
+
+    private boolean countDatabase(boolean exists) {
+        databaseChecks.incrementAndGet();
+        return exists;
+    }
+
+    /**
+     * 比 utf8mb4_general_ci 更粗的归一化（忽略大小写、重音和尾部空格），
+     * 保证数据库视为相同的用户名在过滤器中也相同，只会多出假阳性而不会漏判
+     */
+    static String normalize(String username) {
+        String folded = MARKS.matcher(Normalizer.normalize(username, Normalizer.Form.NFD)).replaceAll("");
+        int end = folded.length();
+        while (end > 0 && folded.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return folded.substring(0, end).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,250 @@
+package com.matebuilder.chain;
+
+import com.matebuilder.entity.User;
+import com.matebuilder.entity.UserAbility;
+import com.matebuilder.mapper.UserMapper;
+import com.matebuilder.wallet.WalletDirectory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.abi.datatypes.generated.Uint8;
+import org.web3j.protocol.core.DefaultBlockParameter;
+
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 链上能力值批量同步
+ * 扫描已绑定钱包的用户，按 batch-size 分批，每批以一次 JSON-RPC 批量请求调用
+ * UserAbility.getAllAbilityScores(address)，最多 concurrency 批同时进行；
+ * 与 tb_user_ability 比较后只写入变化的行。同一批内的调用固定在同一区块高度，结果互相一致。
+ * 未部署 Multicall 合约的节点（如本地 Hardhat）同样适用。
+ */
+@Slf4j
+@Component
+public class AbilitySync {
+
+    private final ChainClient chainClient;
+    private final ChainEventProjector projector;
+    private final UserMapper userMapper;
+    private final boolean enabled;
+    private final int batchSize;
+    private final ExecutorService workers;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong users = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong rpcRequests = new AtomicLong();
+    private final AtomicLong ethCalls = new AtomicLong();
+    private final AtomicLong failedCalls = new AtomicLong();
+    private final AtomicLong invalidWallets = new AtomicLong();
+    private final AtomicLong changedRows = new AtomicLong();
+    private final AtomicLong totalBatchMillis = new AtomicLong();
+    private final AtomicLong maxBatchMillis = new AtomicLong();
+    private final AtomicLong lastBatchMillis = new AtomicLong();
+    private final AtomicLong lastRunMillis = new AtomicLong();
+
+    public AbilitySync(ChainClient chainClient,
+                       ChainEventProjector projector,
+                       UserMapper userMapper,
+                       @Value("${chain.ability-sync.enabled:false}") boolean enabled,
+                       @Value("${chain.ability-sync.batch-size:200}") int batchSize,
+                       @Value("${chain.ability-sync.concurrency:4}") int concurrency) {
+        this.chainClient = chainClient;
+        this.projector = projector;
+        this.userMapper = userMapper;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.workers = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "chain-ability-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        workers.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${chain.ability-sync.interval-ms:600000}")
+    public void scheduledSync() {
+        try {
+            trySync();
+        } catch (Exception e) {
+            log.warn("Chain ability sync failed. Error: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 未启用或未配置 UserAbility 合约地址时为 false
+     */
+    public boolean isEnabled() {
+        return enabled && !chainClient.getUserAbilityAddress().isEmpty();
+    }
+
+    /**
+     * 同步全部已绑定钱包用户的能力值，返回变化的行数；未启用或已有一轮同步在进行时不执行，返回 null
+     * 定时任务和手动触发都经过这里，同一时刻最多一轮同步
+     */
+    public Long trySync() throws Exception {
+        if (!isEnabled() || !running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            return sync();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private long sync() throws Exception {
+        long start = System.currentTimeMillis();
+        List<User> wallets = new ArrayList<>();
+        AtomicLong invalid = new AtomicLong();
+        userMapper.scanWallets(context -> {
+            User user = context.getResultObject();
+            // 格式非法的地址无法编码为调用参数，会使整批失败，跳过并计数
+            String address = WalletDirectory.normalize(user.getWalletAddress());
+            if (address == null) {
+                invalid.incrementAndGet();
+                return;
+            }
+            user.setWalletAddress(address);
+            wallets.add(user);
+        });
+        if (invalid.get() > 0) {
+            invalidWallets.addAndGet(invalid.get());
+            log.warn("Chain ability sync skipped {} users with malformed wallet addresses", invalid.get());
+        }
+        DefaultBlockParameter block = DefaultBlockParameter.valueOf(BigInteger.valueOf(chainClient.blockNumber()));
+
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < wallets.size(); i += batchSize) {
+            List<User> batch = wallets.subList(i, Math.min(wallets.size(), i + batchSize));
+            futures.add(workers.submit(() -> syncBatch(batch, block)));
+        }
+        long changed = 0;
+        for (Future<Integer> future : futures) {
+            try {
+                changed += future.get();
+            } catch (ExecutionException e) {
+                failedBatches.incrementAndGet();
+                log.warn("Chain ability sync batch failed. Error: {}", e.getCause().getMessage());
+            }
+        }
+        runs.incrementAndGet();
+        users.addAndGet(wallets.size());
+        lastRunMillis.set(System.currentTimeMillis() - start);
+        log.info("Chain ability sync checked {} users in {} batches, {} rows changed in {} ms",
+                wallets.size(), futures.size(), changed, lastRunMillis.get());
+        return changed;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long batchCount = batches.get();
+        stats.put("enabled", enabled);
+        stats.put("running", running.get());
+        stats.put("runs", runs.get());
+        stats.put("users", users.get());
+        stats.put("batches", batchCount);
+        stats.put("failedBatches", failedBatches.get());
+        stats.put("rpcRequests", rpcRequests.get());
+        stats.put("ethCalls", ethCalls.get());
+        stats.put("failedCalls", failedCalls.get());
+        stats.put("invalidWallets", invalidWallets.get());
+        stats.put("changedRows", changedRows.get());
+        stats.put("lastBatchMillis", lastBatchMillis.get());
+        stats.put("avgBatchMillis", batchCount == 0 ? 0 : totalBatchMillis.get() / batchCount);
+        stats.put("maxBatchMillis", maxBatchMillis.get());
+        stats.put("lastRunMillis", lastRunMillis.get());
+        return stats;
+    }
+
+    private int syncBatch(List<User> batch, DefaultBlockParameter block) throws Exception {
+        long start = System.currentTimeMillis();
+        List<Function> calls = new ArrayList<>(batch.size());
+        for (User user : batch) {
+            calls.add(getAllAbilityScores(user.getWalletAddress()));
+        }
+        List<List<Type>> results = chainClient.batchCall(chainClient.getUserAbilityAddress(), calls, block);
+        rpcRequests.incrementAndGet();
+        ethCalls.addAndGet(calls.size());
+
+        // 链上未返回的类别视为零分，由 writeAbilities 把已有的非零行改为零
+        List<UserAbility> abilities = new ArrayList<>(batch.size() * ContractEvents.categoryNames().size());
+        for (int i = 0; i < batch.size(); i++) {
+            List<Type> result = results.get(i);
+            if (result == null) {
+                failedCalls.incrementAndGet();
+                continue;
+            }
+            Map<String, BigDecimal> scores = scores(result);
+            for (String name : ContractEvents.categoryNames()) {
+                UserAbility ability = new UserAbility();
+                ability.setUserId(batch.get(i).getId());
+                ability.setAbilityName(name);
+                ability.setAbilityScore(scores.getOrDefault(name, BigDecimal.ZERO));
+                abilities.add(ability);
+            }
+        }
+        int changed = projector.writeAbilities(abilities);
+
+        long elapsed = System.currentTimeMillis() - start;
+        batches.incrementAndGet();
+        changedRows.addAndGet(changed);
+        totalBatchMillis.addAndGet(elapsed);
+        lastBatchMillis.set(elapsed);
+        maxBatchMillis.accumulateAndGet(elapsed, Math::max);
+        return changed;
+    }
+
+    private static Function getAllAbilityScores(String wallet) {
+        return new Function("getAllAbilityScores",
+                Collections.singletonList(new Address(wallet)),
+                Arrays.asList(new TypeReference<DynamicArray<Uint8>>() {
+                }, new TypeReference<DynamicArray<Uint256>>() {
+                }));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, BigDecimal> scores(List<Type> result) {
+        Map<String, BigDecimal> scores = new HashMap<>();
+        if (result.size() < 2) {
+            return scores;
+        }
+        List<Uint8> categories = ((DynamicArray<Uint8>) result.get(0)).getValue();
+        List<Uint256> values = ((DynamicArray<Uint256>) result.get(1)).getValue();
+        for (int i = 0; i < categories.size() && i < values.size(); i++) {
+            String name = ContractEvents.categoryName(categories.get(i).getValue().intValue());
+            if (name != null) {
+                scores.put(name, new BigDecimal(values.get(i).getValue()));
+            }
+        }
+        return scores;
+    }
+}
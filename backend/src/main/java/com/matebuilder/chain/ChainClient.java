@@ -0,0 +1,242 @@
+package com.matebuilder.chain;
+
+import com.matebuilder.entity.UserCommunity;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.FunctionReturnDecoder;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Bool;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.abi.datatypes.generated.Uint8;
+import org.web3j.crypto.Credentials;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.BatchRequest;
+import org.web3j.protocol.core.BatchResponse;
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.request.Transaction;
+import org.web3j.protocol.core.methods.response.EthBlock;
+import org.web3j.protocol.core.methods.response.EthCall;
+import org.web3j.protocol.core.methods.response.EthLog;
+import org.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.web3j.protocol.core.methods.response.Log;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.protocol.http.HttpService;
+import org.web3j.tx.RawTransactionManager;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * 链上 JSON-RPC 访问
+ * 封装 web3j 客户端和各合约地址，RPC 返回错误时抛出 ChainRpcException 以便调用方缩小请求范围或重试。
+ */
+@Component
+public class ChainClient {
+
+    private final Web3j web3j;
+
+    @Getter
+    private final String communityAddress;
+    @Getter
+    private final String submissionManagerAddress;
+    @Getter
+    private final String userAbilityAddress;
+
+    /**
+     * 发送交易使用的账户私钥，为空时只能只读访问
+     */
+    private final String privateKey;
+    private final long chainId;
+
+    public ChainClient(@Value("${chain.rpc-url:http://127.0.0.1:8545}") String rpcUrl,
+                       @Value("${chain.contracts.community:}") String communityAddress,
+                       @Value("${chain.contracts.submission-manager:}") String submissionManagerAddress,
+                       @Value("${chain.contracts.user-ability:}") String userAbilityAddress,
+                       @Value("${chain.private-key:}") String privateKey,
+                       @Value("${chain.chain-id:31337}") long chainId) {
+        this.web3j = Web3j.build(new HttpService(rpcUrl));
+        this.communityAddress = communityAddress.toLowerCase(Locale.ROOT);
+        this.submissionManagerAddress = submissionManagerAddress.toLowerCase(Locale.ROOT);
+        this.userAbilityAddress = userAbilityAddress.toLowerCase(Locale.ROOT);
+        this.privateKey = privateKey;
+        this.chainId = chainId;
+    }
+
+    @PreDestroy
+    public void close() {
+        web3j.shutdown();
+    }
+
+    public Web3j web3j() {
+        return web3j;
+    }
+
+    /**
+     * 已配置的合约地址
+     */
+    public List<String> contractAddresses() {
+        return Arrays.asList(communityAddress, submissionManagerAddress, userAbilityAddress).stream()
+                .filter(address -> !address.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    public long blockNumber() throws IOException {
+        return check(web3j.ethBlockNumber().send()).getBlockNumber().longValueExact();
+    }
+
+    public String blockHash(long blockNumber) throws IOException {
+        EthBlock.Block block = check(web3j.ethGetBlockByNumber(DefaultBlockParameter.valueOf(BigInteger.valueOf(blockNumber)), false)
+                .send()).getBlock();
+        if (block == null) {
+            throw new ChainRpcException("Block " + blockNumber + " not found");
+        }
+        return block.getHash();
+    }
+
+    /**
+     * 获取区间 [fromBlock, toBlock] 内各合约的指定事件日志
+     */
+    public List<Log> getLogs(long fromBlock, long toBlock, List<String> topics) throws IOException {
+        EthFilter filter = new EthFilter(DefaultBlockParameter.valueOf(BigInteger.valueOf(fromBlock)),
+                DefaultBlockParameter.valueOf(BigInteger.valueOf(toBlock)), contractAddresses());
+        filter.addOptionalTopics(topics.toArray(new String[0]));
+        EthLog response = check(web3j.ethGetLogs(filter).send());
+        if (response.getLogs() == null) {
+            return Collections.emptyList();
+        }
+        List<Log> logs = new ArrayList<>(response.getLogs().size());
+        for (EthLog.LogResult<?> result : response.getLogs()) {
+            logs.add((Log) result.get());
+        }
+        return logs;
+    }
+
+    /**
+     * 只读调用合约方法
+     */
+    public List<Type> call(String contract, Function function, DefaultBlockParameter block) throws IOException {
+        EthCall response = check(web3j.ethCall(
+                Transaction.createEthCallTransaction(null, contract, FunctionEncoder.encode(function)), block).send());
+        if (response.isReverted()) {
+            throw new ChainRpcException("Call " + function.getName() + " reverted: " + response.getRevertReason());
+        }
+        return FunctionReturnDecoder.decode(response.getValue(), function.getOutputParameters());
+    }
+
+    /**
+     * 签名并发送交易，返回交易哈希
+     */
+    public String sendTransaction(String contract, Function function, BigInteger gasLimit) throws IOException {
+        if (privateKey.isEmpty()) {
+            throw new ChainRpcException("chain.private-key is not configured");
+        }
+        RawTransactionManager manager = new RawTransactionManager(web3j, Credentials.create(privateKey), chainId);
+        BigInteger gasPrice = check(web3j.ethGasPrice().send()).getGasPrice();
+        EthSendTransaction sent = check(manager.sendTransaction(gasPrice, gasLimit, contract,
+                FunctionEncoder.encode(function), BigInteger.ZERO));
+        return sent.getTransactionHash();
+    }
+
+    /**
+     * 交易回执，尚未打包时为空
+     */
+    public Optional<TransactionReceipt> receipt(String txHash) throws IOException {
+        return check(web3j.ethGetTransactionReceipt(txHash).send()).getTransactionReceipt();
+    }
+
+    /**
+     * 以一次 JSON-RPC 批量请求发送多个只读调用，结果与 functions 一一对应，单个调用失败时对应位置为 null
+     */
+    public List<List<Type>> batchCall(String contract, List<Function> functions, DefaultBlockParameter block) throws IOException {
+        BatchRequest batch = web3j.newBatch();
+        List<Long> ids = new ArrayList<>(functions.size());
+        for (Function function : functions) {
+            Request<?, EthCall> request = web3j.ethCall(
+                    Transaction.createEthCallTransaction(null, contract, FunctionEncoder.encode(function)), block);
+            ids.add(request.getId());
+            batch.add(request);
+        }
+        BatchResponse response = batch.send();
+        // 按请求ID对应，不依赖节点返回顺序
+        Map<Long, Response<?>> byId = new HashMap<>();
+        for (Response<?> item : response.getResponses()) {
+            byId.put(item.getId(), item);
+        }
+        List<List<Type>> results = new ArrayList<>(functions.size());
+        for (int i = 0; i < functions.size(); i++) {
+            Response<?> item = byId.get(ids.get(i));
+            if (!(item instanceof EthCall) || item.hasError() || ((EthCall) item).isReverted()) {
+                results.add(null);
+            } else {
+                results.add(FunctionReturnDecoder.decode(((EthCall) item).getValue(), functions.get(i).getOutputParameters()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 读取链上社区的名称、描述和结束时间（communities(uint256) 的公开 getter）
+     */
+    public UserCommunity community(long chainCommunityId, long blockNumber) throws IOException {
+        Function getter = new Function("communities",
+                Collections.singletonList(new Uint256(chainCommunityId)),
+                Arrays.asList(new TypeReference<Uint256>() {
+                }, new TypeReference<Utf8String>() {
+                }, new TypeReference<Utf8String>() {
+                }, new TypeReference<Address>() {
+                }, new TypeReference<Uint256>() {
+                }, new TypeReference<Uint256>() {
+                }, new TypeReference<Utf8String>() {
+                }, new TypeReference<Uint256>() {
+                }, new TypeReference<Uint256>() {
+                }, new TypeReference<Uint256>() {
+                }, new TypeReference<Uint256>() {
+                }, new TypeReference<Uint256>() {
+                }, new TypeReference<Uint256>() {
+                }, new TypeReference<Bool>() {
+                }, new TypeReference<Uint8>() {
+                }, new TypeReference<Uint256>() {
+                }));
+        List<Type> values = call(communityAddress, getter,
+                DefaultBlockParameter.valueOf(BigInteger.valueOf(blockNumber)));
+        if (values.size() < 6) {
+            throw new ChainRpcException("Unexpected communities(" + chainCommunityId + ") result");
+        }
+        UserCommunity community = new UserCommunity();
+        community.setChainCommunityId(chainCommunityId);
+        community.setCommunityName((String) values.get(1).getValue());
+        community.setCommunityDescription((String) values.get(2).getValue());
+        long endTime = ((BigInteger) values.get(5).getValue()).longValue();
+        community.setExpireTime(LocalDateTime.ofInstant(Instant.ofEpochSecond(endTime), ZoneId.systemDefault()));
+        return community;
+    }
+
+    private static <T extends org.web3j.protocol.core.Response<?>> T check(T response) {
+        if (response.hasError()) {
+            throw new ChainRpcException(response.getError().getCode() + ": " + response.getError().getMessage());
+        }
+        return response;
+    }
+}
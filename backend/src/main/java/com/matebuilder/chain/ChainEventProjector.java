@@ -0,0 +1,328 @@
+package com.matebuilder.chain;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.matebuilder.entity.ChainEvent;
+import com.matebuilder.entity.CommunityLabel;
+import com.matebuilder.entity.CommunityMember;
+import com.matebuilder.entity.UserAbility;
+import com.matebuilder.entity.UserCommunity;
+import com.matebuilder.mapper.ChainCheckpointMapper;
+import com.matebuilder.mapper.ChainEventMapper;
+import com.matebuilder.mapper.CommunityLabelMapper;
+import com.matebuilder.mapper.CommunityMemberMapper;
+import com.matebuilder.mapper.UserAbilityMapper;
+import com.matebuilder.mapper.UserCommunityMapper;
+import com.matebuilder.service.ICommunityMemberService;
+import com.matebuilder.service.IUserAbilityService;
+import com.matebuilder.service.IUserCommunityService;
+import com.matebuilder.wallet.WalletDirectory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 链上事件投影
+ * 将一批已解码的事件写入 tb_user_community / tb_community_member / tb_user_ability，
+ * 原始事件写入 tb_chain_event，同步进度与数据在同一事务内提交。写入经由 Service 完成，
+ * 内存排行榜、搜索索引等通过 EntityChangeEvent 同步更新。钱包地址未绑定用户的事件只记录不投影。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ChainEventProjector {
+
+    public static final String CHECKPOINT = "events";
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String ROLE_CREATOR = "creator";
+    private static final String ROLE_MEMBER = "member";
+
+    private final ChainEventMapper chainEventMapper;
+    private final ChainCheckpointMapper chainCheckpointMapper;
+    private final WalletDirectory walletDirectory;
+    private final UserCommunityMapper userCommunityMapper;
+    private final CommunityMemberMapper communityMemberMapper;
+    private final CommunityLabelMapper communityLabelMapper;
+    private final UserAbilityMapper userAbilityMapper;
+    private final IUserCommunityService userCommunityService;
+    private final ICommunityMemberService communityMemberService;
+    private final IUserAbilityService userAbilityService;
+
+    /**
+     * 应用一批按区块顺序排列的事件并推进同步进度
+     * @param created CommunityCreated 事件对应的链上社区详情，按链上社区ID索引
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void apply(List<ChainEvent> events, Map<Long, UserCommunity> created, long blockNumber, String blockHash) {
+        if (!events.isEmpty()) {
+            Map<String, Integer> users = resolveUsers(events);
+            Map<Long, Integer> communities = projectCommunities(events, created, users);
+            projectMembers(events, users, communities);
+            projectAbilities(events, users);
+            for (List<ChainEvent> batch : partition(events)) {
+                chainEventMapper.insertIgnoreBatch(batch);
+            }
+        }
+        chainCheckpointMapper.upsert(CHECKPOINT, blockNumber, blockHash);
+    }
+
+    /**
+     * 撤销 forkBlock 之后的事件及其投影，forkHash 为 null 时清除同步进度
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public int rollback(long forkBlock, String forkHash) {
+        List<ChainEvent> orphaned = chainEventMapper.selectList(new LambdaQueryWrapper<ChainEvent>()
+                .gt(ChainEvent::getBlockNumber, forkBlock)
+                .orderByDesc(ChainEvent::getBlockNumber)
+                .orderByDesc(ChainEvent::getLogIndex));
+        if (!orphaned.isEmpty()) {
+            Map<String, Integer> users = resolveUsers(orphaned);
+            Map<Long, Integer> communities = selectCommunities(orphaned);
+
+            // 能力值每次加一，回滚到被撤销的最小新值减一
+            Map<String, UserAbility> abilities = new LinkedHashMap<>();
+            for (ChainEvent event : orphaned) {
+                Integer userId = users.get(event.getAccount());
+                String name = ContractEvents.categoryName(event.getCategory());
+                if (ContractEvents.ABILITY_SCORE_INCREASED.getName().equals(event.getEventName())
+                        && userId != null && name != null) {
+                    UserAbility ability = new UserAbility();
+                    ability.setUserId(userId);
+                    ability.setAbilityName(name);
+                    ability.setAbilityScore(event.getAmount().subtract(BigDecimal.ONE));
+                    abilities.merge(userId + ":" + name, ability,
+                            (a, b) -> a.getAbilityScore().compareTo(b.getAbilityScore()) <= 0 ? a : b);
+                }
+            }
+            writeAbilities(abilities.values());
+
+            List<Integer> memberIds = new ArrayList<>();
+            List<Integer> communityIds = new ArrayList<>();
+            for (ChainEvent event : orphaned) {
+                Integer communityId = communities.get(event.getChainCommunityId());
+                if (communityId == null) {
+                    continue;
+                }
+                if (ContractEvents.MEMBER_JOINED.getName().equals(event.getEventName())
+                        && users.containsKey(event.getAccount())) {
+                    CommunityMember member = communityMemberMapper.selectOne(new LambdaQueryWrapper<CommunityMember>()
+                            .select(CommunityMember::getId)
+                            .eq(CommunityMember::getCommunityId, communityId)
+                            .eq(CommunityMember::getUserId, users.get(event.getAccount()))
+                            .eq(CommunityMember::getMemberRole, ROLE_MEMBER));
+                    if (member != null) {
+                        memberIds.add(member.getId());
+                    }
+                } else if (ContractEvents.COMMUNITY_CREATED.getName().equals(event.getEventName())) {
+                    communityIds.add(communityId);
+                    communityMemberMapper.selectList(new LambdaQueryWrapper<CommunityMember>()
+                                    .select(CommunityMember::getId)
+                                    .eq(CommunityMember::getCommunityId, communityId))
+                            .forEach(member -> memberIds.add(member.getId()));
+                }
+            }
+            if (!memberIds.isEmpty()) {
+                communityMemberService.removeByIds(memberIds.stream().distinct().collect(Collectors.toList()));
+            }
+            if (!communityIds.isEmpty()) {
+                userCommunityService.removeByIds(communityIds);
+            }
+            chainEventMapper.delete(new LambdaQueryWrapper<ChainEvent>().gt(ChainEvent::getBlockNumber, forkBlock));
+        }
+        if (forkHash == null) {
+            chainCheckpointMapper.deleteById(CHECKPOINT);
+        } else {
+            chainCheckpointMapper.upsert(CHECKPOINT, forkBlock, forkHash);
+        }
+        return orphaned.size();
+    }
+
+    /**
+     * 钱包地址（小写） -> 用户ID
+     */
+    private Map<String, Integer> resolveUsers(List<ChainEvent> events) {
+        List<String> addresses = events.stream()
+                .flatMap(event -> Stream.of(event.getAccount(), event.getCounterparty()))
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<String, Integer> users = new HashMap<>();
+        walletDirectory.resolveAll(addresses).forEach((address, userId) -> {
+            if (userId != null) {
+                users.put(address, userId);
+            }
+        });
+        return users;
+    }
+
+    /**
+     * 链上社区ID -> 社区ID
+     */
+    private Map<Long, Integer> selectCommunities(List<ChainEvent> events) {
+        List<Long> chainIds = events.stream()
+                .map(ChainEvent::getChainCommunityId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, Integer> communities = new HashMap<>();
+        for (List<Long> chunk : partition(chainIds)) {
+            userCommunityMapper.selectList(new LambdaQueryWrapper<UserCommunity>()
+                            .select(UserCommunity::getId, UserCommunity::getChainCommunityId)
+                            .in(UserCommunity::getChainCommunityId, chunk))
+                    .forEach(community -> communities.put(community.getChainCommunityId(), community.getId()));
+        }
+        return communities;
+    }
+
+    private Map<Long, Integer> projectCommunities(List<ChainEvent> events, Map<Long, UserCommunity> created,
+                                                  Map<String, Integer> users) {
+        Map<Long, Integer> communities = selectCommunities(events);
+        Map<String, Integer> labels = communityLabelMapper.selectList(new LambdaQueryWrapper<CommunityLabel>()
+                        .in(CommunityLabel::getLabelName, ContractEvents.categoryNames()))
+                .stream()
+                .collect(Collectors.toMap(CommunityLabel::getLabelName, CommunityLabel::getId, (a, b) -> a));
+
+        Map<Long, UserCommunity> inserts = new LinkedHashMap<>();
+        for (ChainEvent event : events) {
+            if (!ContractEvents.COMMUNITY_CREATED.getName().equals(event.getEventName())
+                    || communities.containsKey(event.getChainCommunityId())) {
+                continue;
+            }
+            Integer creatorId = users.get(event.getAccount());
+            UserCommunity details = created.get(event.getChainCommunityId());
+            if (creatorId == null || details == null) {
+                log.debug("Skip community {}: creator {} not bound to a user", event.getChainCommunityId(), event.getAccount());
+                continue;
+            }
+            UserCommunity community = new UserCommunity();
+            community.setChainCommunityId(event.getChainCommunityId());
+            community.setUserId(creatorId);
+            community.setCommunityName(details.getCommunityName());
+            community.setCommunityDescription(details.getCommunityDescription());
+            community.setExpireTime(details.getExpireTime());
+            community.setCommunityLabelId(labels.get(ContractEvents.categoryName(event.getCategory())));
+            inserts.put(event.getChainCommunityId(), community);
+        }
+        if (!inserts.isEmpty()) {
+            userCommunityService.saveBatch(inserts.values(), BATCH_SIZE);
+            inserts.forEach((chainId, community) -> communities.put(chainId, community.getId()));
+        }
+        return communities;
+    }
+
+    private void projectMembers(List<ChainEvent> events, Map<String, Integer> users, Map<Long, Integer> communities) {
+        Map<String, CommunityMember> members = new LinkedHashMap<>();
+        for (ChainEvent event : events) {
+            boolean creator = ContractEvents.COMMUNITY_CREATED.getName().equals(event.getEventName());
+            if (!creator && !ContractEvents.MEMBER_JOINED.getName().equals(event.getEventName())) {
+                continue;
+            }
+            Integer communityId = communities.get(event.getChainCommunityId());
+            Integer userId = users.get(event.getAccount());
+            if (communityId == null || userId == null) {
+                continue;
+            }
+            CommunityMember member = new CommunityMember();
+            member.setCommunityId(communityId);
+            member.setUserId(userId);
+            member.setMemberRole(creator ? ROLE_CREATOR : ROLE_MEMBER);
+            members.putIfAbsent(communityId + ":" + userId, member);
+        }
+        if (members.isEmpty()) {
+            return;
+        }
+        Set<Integer> communityIds = members.values().stream().map(CommunityMember::getCommunityId).collect(Collectors.toSet());
+        Set<Integer> userIds = members.values().stream().map(CommunityMember::getUserId).collect(Collectors.toSet());
+        communityMemberMapper.selectList(new LambdaQueryWrapper<CommunityMember>()
+                        .select(CommunityMember::getCommunityId, CommunityMember::getUserId)
+                        .in(CommunityMember::getCommunityId, communityIds)
+                        .in(CommunityMember::getUserId, userIds))
+                .forEach(existing -> members.remove(existing.getCommunityId() + ":" + existing.getUserId()));
+        if (!members.isEmpty()) {
+            communityMemberService.saveBatch(members.values(), BATCH_SIZE);
+        }
+    }
+
+    private void projectAbilities(List<ChainEvent> events, Map<String, Integer> users) {
+        // AbilityScoreIncreased 携带的是累计值，同一用户同一类别只保留最后一次
+        Map<String, UserAbility> latest = new LinkedHashMap<>();
+        for (ChainEvent event : events) {
+            if (!ContractEvents.ABILITY_SCORE_INCREASED.getName().equals(event.getEventName())) {
+                continue;
+            }
+            Integer userId = users.get(event.getAccount());
+            String name = ContractEvents.categoryName(event.getCategory());
+            if (userId == null || name == null) {
+                continue;
+            }
+            UserAbility ability = new UserAbility();
+            ability.setUserId(userId);
+            ability.setAbilityName(name);
+            ability.setAbilityScore(event.getAmount());
+            latest.put(userId + ":" + name, ability);
+        }
+        writeAbilities(latest.values());
+    }
+
+    /**
+     * 按 (用户, 能力名称) 更新已有行或插入新行，分数为零且不存在的行不插入
+     * @return 实际更新和插入的行数
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public int writeAbilities(Collection<UserAbility> abilities) {
+        if (abilities.isEmpty()) {
+            return 0;
+        }
+        Set<Integer> userIds = abilities.stream().map(UserAbility::getUserId).collect(Collectors.toSet());
+        Set<String> names = abilities.stream().map(UserAbility::getAbilityName).collect(Collectors.toSet());
+        Map<String, UserAbility> existing = userAbilityMapper.selectList(new LambdaQueryWrapper<UserAbility>()
+                        .select(UserAbility::getId, UserAbility::getUserId, UserAbility::getAbilityName, UserAbility::getAbilityScore)
+                        .in(UserAbility::getUserId, userIds)
+                        .in(UserAbility::getAbilityName, names))
+                .stream()
+                .collect(Collectors.toMap(a -> a.getUserId() + ":" + a.getAbilityName(), Function.identity(), (a, b) -> a));
+        List<UserAbility> updates = new ArrayList<>();
+        List<UserAbility> inserts = new ArrayList<>();
+        for (UserAbility ability : abilities) {
+            UserAbility current = existing.get(ability.getUserId() + ":" + ability.getAbilityName());
+            if (current == null) {
+                if (ability.getAbilityScore().signum() != 0) {
+                    inserts.add(ability);
+                }
+            } else if (current.getAbilityScore() == null || current.getAbilityScore().compareTo(ability.getAbilityScore()) != 0) {
+                ability.setId(current.getId());
+                updates.add(ability);
+            }
+        }
+        if (!updates.isEmpty()) {
+            userAbilityService.updateBatchById(updates, BATCH_SIZE);
+        }
+        if (!inserts.isEmpty()) {
+            userAbilityService.saveBatch(inserts, BATCH_SIZE);
+        }
+        return updates.size() + inserts.size();
+    }
+
+    private static <T> List<List<T>> partition(List<T> items) {
+        List<List<T>> batches = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += BATCH_SIZE) {
+            batches.add(items.subList(i, Math.min(items.size(), i + BATCH_SIZE)));
+        }
+        return batches;
+    }
+}
@@ -0,0 +1,273 @@
+package com.matebuilder.chain;
+
+import com.matebuilder.entity.ChainCheckpoint;
+import com.matebuilder.entity.ChainEvent;
+import com.matebuilder.entity.UserCommunity;
+import com.matebuilder.mapper.ChainCheckpointMapper;
+import com.matebuilder.mapper.ChainEventMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.web3j.protocol.core.methods.response.Log;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 链上事件同步
+ * 定时从检查点之后拉取到 (最新高度 - 确认数)，每轮把待同步区间切成若干段并行 eth_getLogs；
+ * 段大小自适应：RPC 报错（结果过多、超时等）时对半拆分重试并缩小，结果稀疏时逐步放大。
+ * 每轮的事件与检查点在同一事务内写入。开始前校验检查点区块哈希，不一致时沿已记录事件的区块
+ * 向前找到分叉点，撤销其后的事件与投影后重新同步。
+ */
+@Slf4j
+@Component
+public class ChainIndexer {
+
+    private final ChainClient chainClient;
+    private final ChainEventProjector projector;
+    private final ChainCheckpointMapper chainCheckpointMapper;
+    private final ChainEventMapper chainEventMapper;
+
+    private final boolean enabled;
+    private final long startBlock;
+    private final int confirmations;
+    private final int parallelism;
+    private final int minRange;
+    private final int maxRange;
+    private final int targetLogs;
+    private final int maxReorgDepth;
+    private final int maxRoundsPerPoll;
+
+    private final ExecutorService fetchPool;
+    private final AtomicInteger rangeSize;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final AtomicLong syncedBlock = new AtomicLong(-1);
+    private final AtomicLong headBlock = new AtomicLong(-1);
+    private final AtomicLong indexedEvents = new AtomicLong();
+    private final AtomicLong splits = new AtomicLong();
+    private final AtomicLong reorgs = new AtomicLong();
+
+    public ChainIndexer(ChainClient chainClient,
+                        ChainEventProjector projector,
+                        ChainCheckpointMapper chainCheckpointMapper,
+                        ChainEventMapper chainEventMapper,
+                        @Value("${chain.indexer.enabled:false}") boolean enabled,
+                        @Value("${chain.indexer.start-block:0}") long startBlock,
+                        @Value("${chain.indexer.confirmations:12}") int confirmations,
+                        @Value("${chain.indexer.parallelism:4}") int parallelism,
+                        @Value("${chain.indexer.initial-range:2000}") int initialRange,
+                        @Value("${chain.indexer.min-range:1}") int minRange,
+                        @Value("${chain.indexer.max-range:10000}") int maxRange,
+                        @Value("${chain.indexer.target-logs:2000}") int targetLogs,
+                        @Value("${chain.indexer.max-reorg-depth:128}") int maxReorgDepth,
+                        @Value("${chain.indexer.max-rounds-per-poll:50}") int maxRoundsPerPoll) {
+        this.chainClient = chainClient;
+        this.projector = projector;
+        this.chainCheckpointMapper = chainCheckpointMapper;
+        this.chainEventMapper = chainEventMapper;
+        this.enabled = enabled;
+        this.startBlock = startBlock;
+        this.confirmations = confirmations;
+        this.parallelism = parallelism;
+        this.minRange = minRange;
+        this.maxRange = maxRange;
+        this.targetLogs = targetLogs;
+        this.maxReorgDepth = maxReorgDepth;
+        this.maxRoundsPerPoll = maxRoundsPerPoll;
+        this.rangeSize = new AtomicInteger(initialRange);
+        this.fetchPool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "chain-log-fetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        fetchPool.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${chain.indexer.interval-ms:5000}")
+    public void poll() {
+        try {
+            trySync();
+        } catch (Exception e) {
+            log.warn("Chain indexer round failed, will retry from checkpoint. Error: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 未启用或未配置合约地址时为 false
+     */
+    public boolean isEnabled() {
+        return enabled && !chainClient.contractAddresses().isEmpty();
+    }
+
+    /**
+     * 同步到当前安全高度，返回本次写入的事件数；未启用或已有一轮同步在进行时不执行，返回 null
+     * 定时轮询和手动触发都经过这里，同一时刻最多一轮同步
+     */
+    public Long trySync() throws IOException {
+        if (!isEnabled() || !running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            return sync();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private long sync() throws IOException {
+        long head = chainClient.blockNumber();
+        headBlock.set(head);
+        long safeHead = head - confirmations;
+
+        ChainCheckpoint checkpoint = chainCheckpointMapper.selectById(ChainEventProjector.CHECKPOINT);
+        long from = startBlock;
+        if (checkpoint != null) {
+            if (checkpoint.getBlockNumber() <= head
+                    && !checkpoint.getBlockHash().equalsIgnoreCase(chainClient.blockHash(checkpoint.getBlockNumber()))) {
+                recoverFromReorg(checkpoint);
+                return 0;
+            }
+            from = checkpoint.getBlockNumber() + 1;
+            syncedBlock.set(checkpoint.getBlockNumber());
+        }
+
+        long written = 0;
+        for (int round = 0; round < maxRoundsPerPoll && from <= safeHead; round++) {
+            List<long[]> ranges = plan(from, safeHead);
+            long to = ranges.get(ranges.size() - 1)[1];
+            // 先取终点哈希：若拉取日志期间发生重组，下一轮校验检查点时即可发现
+            String toHash = chainClient.blockHash(to);
+
+            List<CompletableFuture<List<Log>>> futures = new ArrayList<>(ranges.size());
+            for (long[] range : ranges) {
+                futures.add(CompletableFuture.supplyAsync(() -> fetch(range[0], range[1]), fetchPool));
+            }
+            List<ChainEvent> events = new ArrayList<>();
+            try {
+                for (CompletableFuture<List<Log>> future : futures) {
+                    for (Log entry : future.join()) {
+                        ChainEvent event = ContractEvents.decode(entry);
+                        if (event != null) {
+                            events.add(event);
+                        }
+                    }
+                }
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) e.getCause()).getCause();
+                }
+                throw e;
+            }
+            events.sort(Comparator.comparing(ChainEvent::getBlockNumber).thenComparing(ChainEvent::getLogIndex));
+
+            projector.apply(events, loadCreatedCommunities(events), to, toHash);
+            written += events.size();
+            indexedEvents.addAndGet(events.size());
+            syncedBlock.set(to);
+            from = to + 1;
+        }
+        return written;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("headBlock", headBlock.get());
+        stats.put("syncedBlock", syncedBlock.get());
+        stats.put("confirmations", confirmations);
+        stats.put("rangeSize", rangeSize.get());
+        stats.put("indexedEvents", indexedEvents.get());
+        stats.put("rangeSplits", splits.get());
+        stats.put("reorgs", reorgs.get());
+        return stats;
+    }
+
+    /**
+     * 按当前段大小切出最多 parallelism 段
+     */
+    private List<long[]> plan(long from, long to) {
+        List<long[]> ranges = new ArrayList<>(parallelism);
+        int size = rangeSize.get();
+        for (long start = from; start <= to && ranges.size() < parallelism; start += size) {
+            ranges.add(new long[]{start, Math.min(to, start + size - 1)});
+        }
+        return ranges;
+    }
+
+    private List<Log> fetch(long from, long to) {
+        try {
+            List<Log> logs = chainClient.getLogs(from, to, ContractEvents.topics());
+            int span = (int) (to - from + 1);
+            if (logs.size() < targetLogs / 2 && span >= rangeSize.get()) {
+                rangeSize.updateAndGet(size -> Math.min(maxRange, size * 2));
+            }
+            return logs;
+        } catch (ChainRpcException | IOException e) {
+            if (from == to) {
+                throw e instanceof IOException ? new UncheckedIOException((IOException) e) : (RuntimeException) e;
+            }
+            // 节点拒绝或超时，对半拆分并缩小后续段大小
+            long mid = from + (to - from) / 2;
+            int half = (int) (mid - from + 1);
+            rangeSize.updateAndGet(size -> Math.max(minRange, Math.min(size, half)));
+            splits.incrementAndGet();
+            List<Log> logs = new ArrayList<>(fetch(from, mid));
+            logs.addAll(fetch(mid + 1, to));
+            return logs;
+        }
+    }
+
+    private Map<Long, UserCommunity> loadCreatedCommunities(List<ChainEvent> events) throws IOException {
+        Map<Long, UserCommunity> created = new HashMap<>();
+        for (ChainEvent event : events) {
+            if (ContractEvents.COMMUNITY_CREATED.getName().equals(event.getEventName())
+                    && event.getContractAddress().equals(chainClient.getCommunityAddress())) {
+                created.put(event.getChainCommunityId(),
+                        chainClient.community(event.getChainCommunityId(), event.getBlockNumber()));
+            }
+        }
+        return created;
+    }
+
+    /**
+     * 已记录事件的区块中哈希仍与链上一致的最高区块即分叉点（区块哈希链保证其之前的历史相同）
+     */
+    private void recoverFromReorg(ChainCheckpoint checkpoint) throws IOException {
+        long floor = Math.max(startBlock - 1, checkpoint.getBlockNumber() - maxReorgDepth);
+        long fork = floor;
+        for (ChainEvent block : chainEventMapper.selectBlocksAbove(floor)) {
+            if (block.getBlockNumber() <= checkpoint.getBlockNumber()
+                    && block.getBlockHash().equalsIgnoreCase(chainClient.blockHash(block.getBlockNumber()))) {
+                fork = block.getBlockNumber();
+                break;
+            }
+        }
+        String forkHash = fork >= 0 ? chainClient.blockHash(fork) : null;
+        int removed = projector.rollback(fork, forkHash);
+        reorgs.incrementAndGet();
+        syncedBlock.set(fork);
+        log.warn("Chain reorg detected at checkpoint {}, rolled back {} events to block {}",
+                checkpoint.getBlockNumber(), removed, fork);
+    }
+}
@@ -0,0 +1,11 @@
+package com.matebuilder.chain;
+
+/**
+ * JSON-RPC 返回错误
+ */
+public class ChainRpcException extends RuntimeException {
+
+    public ChainRpcException(String message) {
+        super(message);
+    }
+}
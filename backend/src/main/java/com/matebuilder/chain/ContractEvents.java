@@ -0,0 +1,171 @@
+package com.matebuilder.chain;
+
+import com.matebuilder.entity.ChainEvent;
+import org.web3j.abi.EventEncoder;
+import org.web3j.abi.EventValues;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Event;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.abi.datatypes.generated.Uint8;
+import org.web3j.protocol.core.methods.response.Log;
+import org.web3j.tx.Contract;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 需要同步的合约事件定义及解码
+ * 与 chainend/contracts 中的事件签名保持一致；Category 枚举按 ABI 编码为 uint8。
+ * community.sol 与 SubmissionManager.sol 的 ScoreSubmitted 签名相同，按合约地址区分来源。
+ */
+public final class ContractEvents {
+
+    public static final Event COMMUNITY_CREATED = new Event("CommunityCreated", Arrays.asList(
+            new TypeReference<Uint256>(true) {
+            }, new TypeReference<Address>() {
+            }, new TypeReference<Uint8>() {
+            }));
+
+    public static final Event MEMBER_JOINED = new Event("MemberJoined", Arrays.asList(
+            new TypeReference<Uint256>(true) {
+            }, new TypeReference<Address>() {
+            }));
+
+    public static final Event REWARD_CLAIMED = new Event("RewardClaimed", Arrays.asList(
+            new TypeReference<Uint256>(true) {
+            }, new TypeReference<Address>() {
+            }, new TypeReference<Uint256>() {
+            }));
+
+    public static final Event SCORE_SUBMITTED = new Event("ScoreSubmitted", Arrays.asList(
+            new TypeReference<Uint256>(true) {
+            }, new TypeReference<Address>(true) {
+            }, new TypeReference<Address>(true) {
+            }, new TypeReference<Uint256>() {
+            }));
+
+    public static final Event FINAL_SCORE_CALCULATED = new Event("FinalScoreCalculated", Arrays.asList(
+            new TypeReference<Uint256>(true) {
+            }, new TypeReference<Address>(true) {
+            }, new TypeReference<Uint256>() {
+            }));
+
+    public static final Event ABILITY_SCORE_INCREASED = new Event("AbilityScoreIncreased", Arrays.asList(
+            new TypeReference<Address>(true) {
+            }, new TypeReference<Uint8>(true) {
+            }, new TypeReference<Uint256>() {
+            }));
+
+    /**
+     * SubmissionManager 的内容提交事件，只用于核对凭证锚定交易，不参与事件同步
+     */
+    public static final Event SUBMISSION_CREATED = new Event("SubmissionCreated", Arrays.asList(
+            new TypeReference<Uint256>(true) {
+            }, new TypeReference<Address>(true) {
+            }, new TypeReference<Utf8String>() {
+            }));
+
+    /**
+     * CommunityTypes.Category 的名称，下标即枚举值，NONE 为 null
+     */
+    private static final String[] CATEGORY_NAMES = {
+            null, "Music", "Art", "Sports", "Education", "Technology", "Other"
+    };
+
+    private static final Map<String, Event> BY_TOPIC = new HashMap<>();
+
+    static {
+        for (Event event : Arrays.asList(COMMUNITY_CREATED, MEMBER_JOINED, REWARD_CLAIMED,
+                SCORE_SUBMITTED, FINAL_SCORE_CALCULATED, ABILITY_SCORE_INCREASED)) {
+            BY_TOPIC.put(EventEncoder.encode(event), event);
+        }
+    }
+
+    private ContractEvents() {
+    }
+
+    /**
+     * 全部事件的 topic0，用于 eth_getLogs 过滤
+     */
+    public static List<String> topics() {
+        return new ArrayList<>(BY_TOPIC.keySet());
+    }
+
+    public static List<String> categoryNames() {
+        List<String> names = new ArrayList<>(Arrays.asList(CATEGORY_NAMES).subList(1, CATEGORY_NAMES.length));
+        return Collections.unmodifiableList(names);
+    }
+
+    public static String categoryName(Integer category) {
+        return category == null || category < 0 || category >= CATEGORY_NAMES.length ? null : CATEGORY_NAMES[category];
+    }
+
+    /**
+     * 解码日志，非本表事件或已被移除的日志返回 null
+     */
+    public static ChainEvent decode(Log log) {
+        if (log.isRemoved() || log.getTopics() == null || log.getTopics().isEmpty()) {
+            return null;
+        }
+        Event event = BY_TOPIC.get(log.getTopics().get(0));
+        if (event == null) {
+            return null;
+        }
+        EventValues values = Contract.staticExtractEventParameters(event, log);
+        if (values == null) {
+            return null;
+        }
+        List<Type> indexed = values.getIndexedValues();
+        List<Type> data = values.getNonIndexedValues();
+
+        ChainEvent decoded = new ChainEvent();
+        decoded.setBlockNumber(log.getBlockNumber().longValueExact());
+        decoded.setBlockHash(log.getBlockHash());
+        decoded.setTxHash(log.getTransactionHash());
+        decoded.setLogIndex(log.getLogIndex().intValueExact());
+        decoded.setContractAddress(log.getAddress().toLowerCase(Locale.ROOT));
+        decoded.setEventName(event.getName());
+        if (event == ABILITY_SCORE_INCREASED) {
+            decoded.setAccount(address(indexed.get(0)));
+            decoded.setCategory(number(indexed.get(1)).intValueExact());
+            decoded.setAmount(new BigDecimal(number(data.get(0))));
+            return decoded;
+        }
+        decoded.setChainCommunityId(number(indexed.get(0)).longValueExact());
+        if (event == COMMUNITY_CREATED) {
+            decoded.setAccount(address(data.get(0)));
+            decoded.setCategory(number(data.get(1)).intValueExact());
+        } else if (event == MEMBER_JOINED) {
+            decoded.setAccount(address(data.get(0)));
+        } else if (event == REWARD_CLAIMED) {
+            decoded.setAccount(address(data.get(0)));
+            decoded.setAmount(new BigDecimal(number(data.get(1))));
+        } else if (event == SCORE_SUBMITTED) {
+            decoded.setAccount(address(indexed.get(1)));
+            decoded.setCounterparty(address(indexed.get(2)));
+            decoded.setAmount(new BigDecimal(number(data.get(0))));
+        } else {
+            decoded.setAccount(address(indexed.get(1)));
+            decoded.setAmount(new BigDecimal(number(data.get(0))));
+        }
+        return decoded;
+    }
+
+    private static String address(Type value) {
+        return ((Address) value).getValue().toLowerCase(Locale.ROOT);
+    }
+
+    private static BigInteger number(Type value) {
+        return (BigInteger) value.getValue();
+    }
+}
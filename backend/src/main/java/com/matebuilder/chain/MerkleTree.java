@@ -0,0 +1,108 @@
+package com.matebuilder.chain;
+
+import org.web3j.crypto.Hash;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * keccak256 默克尔树
+ * 叶子为 keccak256(0x00 ‖ uint256(proofId) ‖ utf8(cid))，内部节点为 keccak256(0x01 ‖ left ‖ right)，
+ * 前缀区分叶子与内部节点，防止用内部节点伪造叶子。某层节点数为奇数时最后一个节点直接上移，
+ * 因此验证时需要叶子序号和叶子总数来判断每层是否存在兄弟节点。
+ */
+public final class MerkleTree {
+
+    private static final byte LEAF_PREFIX = 0x00;
+    private static final byte NODE_PREFIX = 0x01;
+
+    /**
+     * levels[0] 为叶子，最后一层为根
+     */
+    private final List<byte[][]> levels = new ArrayList<>();
+
+    public MerkleTree(List<byte[]> leaves) {
+        if (leaves.isEmpty()) {
+            throw new IllegalArgumentException("Merkle tree needs at least one leaf");
+        }
+        byte[][] level = leaves.toArray(new byte[0][]);
+        levels.add(level);
+        while (level.length > 1) {
+            byte[][] next = new byte[(level.length + 1) / 2][];
+            for (int i = 0; i < next.length; i++) {
+                int left = i * 2;
+                next[i] = left + 1 < level.length ? node(level[left], level[left + 1]) : level[left];
+            }
+            levels.add(next);
+            level = next;
+        }
+    }
+
+    public static byte[] leaf(long proofId, String cid) {
+        byte[] content = cid.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 32 + content.length);
+        buffer.put(LEAF_PREFIX);
+        buffer.put(Numeric.toBytesPadded(BigInteger.valueOf(proofId), 32));
+        buffer.put(content);
+        return Hash.sha3(buffer.array());
+    }
+
+    public int size() {
+        return levels.get(0).length;
+    }
+
+    public byte[] root() {
+        return levels.get(levels.size() - 1)[0];
+    }
+
+    /**
+     * 叶子到根路径上的兄弟节点（自底向上，跳过无兄弟的层）
+     */
+    public List<byte[]> path(int index) {
+        List<byte[]> path = new ArrayList<>();
+        for (int depth = 0; depth < levels.size() - 1; depth++) {
+            byte[][] level = levels.get(depth);
+            int sibling = index ^ 1;
+            if (sibling < level.length) {
+                path.add(level[sibling]);
+            }
+            index >>= 1;
+        }
+        return path;
+    }
+
+    /**
+     * 由叶子、序号、叶子总数和路径重新计算根并与 root 比较
+     */
+    public static boolean verify(byte[] leaf, int index, int count, List<byte[]> path, byte[] root) {
+        if (index < 0 || index >= count) {
+            return false;
+        }
+        byte[] current = leaf;
+        int used = 0;
+        for (int n = count; n > 1; n = (n + 1) / 2) {
+            if ((index ^ 1) < n) {
+                if (used >= path.size()) {
+                    return false;
+                }
+                byte[] sibling = path.get(used++);
+                current = (index & 1) == 0 ? node(current, sibling) : node(sibling, current);
+            }
+            index >>= 1;
+        }
+        return used == path.size() && Arrays.equals(current, root);
+    }
+
+    private static byte[] node(byte[] left, byte[] right) {
+        byte[] buffer = new byte[1 + left.length + right.length];
+        buffer[0] = NODE_PREFIX;
+        System.arraycopy(left, 0, buffer, 1, left.length);
+        System.arraycopy(right, 0, buffer, 1 + left.length, right.length);
+        return Hash.sha3(buffer);
+    }
+}
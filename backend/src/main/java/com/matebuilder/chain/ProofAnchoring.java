@@ -0,0 +1,333 @@
+package com.matebuilder.chain;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.matebuilder.entity.CommunityTaskProof;
+import com.matebuilder.entity.ProofAnchor;
+import com.matebuilder.entity.ProofAnchorBatch;
+import com.matebuilder.mapper.CommunityTaskProofMapper;
+import com.matebuilder.mapper.ProofAnchorBatchMapper;
+import com.matebuilder.mapper.ProofAnchorMapper;
+import com.matebuilder.vo.ProofAnchorVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.web3j.abi.EventEncoder;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.abi.datatypes.generated.Uint8;
+import org.web3j.protocol.core.methods.response.Log;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.tx.Contract;
+import org.web3j.utils.Numeric;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * 凭证CID批量锚定上链
+ * 每个时间窗口收集尚未锚定的凭证，按ID顺序构建默克尔树，只把根以
+ * SubmissionManager.submitContent(anchor-community-id, "merkle:0x…", anchor-category) 一笔交易上链；
+ * 每个凭证的叶子序号和路径写入 tb_proof_anchor，验证时由路径还原根并核对交易回执中的 SubmissionCreated 事件。
+ * 批次先落库（pending）再发送交易，发送失败或交易回滚的批次在后续窗口重试；
+ * 发送后超过 chain.anchor.submit-timeout-ms 仍查不到回执（交易被丢弃或替换）的批次同样退回重试，
+ * 提交次数达到 chain.anchor.max-attempts 后标记为失败。
+ * 已确认批次的链上核对结果按批次缓存，验证凭证时不再每次查询交易回执。
+ */
+@Slf4j
+@Component
+public class ProofAnchoring {
+
+    public static final String STATUS_PENDING = "pending";
+    public static final String STATUS_SUBMITTED = "submitted";
+    public static final String STATUS_CONFIRMED = "confirmed";
+    public static final String STATUS_FAILED = "failed";
+
+    private static final String ROOT_PREFIX = "merkle:";
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private final ChainClient chainClient;
+    private final CommunityTaskProofMapper communityTaskProofMapper;
+    private final ProofAnchorMapper proofAnchorMapper;
+    private final ProofAnchorBatchMapper proofAnchorBatchMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final int maxLeaves;
+    private final long anchorCommunityId;
+    private final int anchorCategory;
+    private final BigInteger gasLimit;
+    private final int maxAttempts;
+    private final long submitTimeoutMs;
+    private final AtomicBoolean running = new AtomicBoolean();
+    /**
+     * 已确认批次ID -> 回执中是否记录了该批次的根，确认后的回执不再变化
+     */
+    private final Map<Long, Boolean> confirmedOnChain = new ConcurrentHashMap<>();
+
+    public ProofAnchoring(ChainClient chainClient,
+                          CommunityTaskProofMapper communityTaskProofMapper,
+                          ProofAnchorMapper proofAnchorMapper,
+                          ProofAnchorBatchMapper proofAnchorBatchMapper,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${chain.anchor.enabled:false}") boolean enabled,
+                          @Value("${chain.anchor.max-leaves:65536}") int maxLeaves,
+                          @Value("${chain.anchor.community-id:0}") long anchorCommunityId,
+                          @Value("${chain.anchor.category:0}") int anchorCategory,
+                          @Value("${chain.anchor.gas-limit:300000}") long gasLimit,
+                          @Value("${chain.anchor.max-attempts:5}") int maxAttempts,
+                          @Value("${chain.anchor.submit-timeout-ms:3600000}") long submitTimeoutMs) {
+        this.chainClient = chainClient;
+        this.communityTaskProofMapper = communityTaskProofMapper;
+        this.proofAnchorMapper = proofAnchorMapper;
+        this.proofAnchorBatchMapper = proofAnchorBatchMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.maxLeaves = maxLeaves;
+        this.anchorCommunityId = anchorCommunityId;
+        this.anchorCategory = anchorCategory;
+        this.gasLimit = BigInteger.valueOf(gasLimit);
+        this.maxAttempts = maxAttempts;
+        this.submitTimeoutMs = submitTimeoutMs;
+    }
+
+    @Scheduled(fixedDelayString = "${chain.anchor.window-ms:600000}")
+    public void scheduledAnchor() {
+        try {
+            tryAnchor();
+        } catch (Exception e) {
+            log.warn("Proof anchoring window failed, will retry next window. Error: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 未启用或未配置 SubmissionManager 合约地址时为 false
+     */
+    public boolean isEnabled() {
+        return enabled && !chainClient.getSubmissionManagerAddress().isEmpty();
+    }
+
+    /**
+     * 处理一个窗口：确认已提交的批次，为新凭证建批次，提交待上链批次。返回新锚定的凭证数；
+     * 未启用或已有窗口在处理时不执行，返回 null。定时任务和手动触发都经过这里
+     */
+    public Integer tryAnchor() throws IOException {
+        if (!isEnabled() || !running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            return anchor();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int anchor() throws IOException {
+        confirmSubmitted();
+        int anchored = 0;
+        ProofAnchorBatch batch;
+        while ((batch = buildBatch()) != null) {
+            anchored += batch.getLeafCount();
+            log.info("Proof anchor batch {} built with {} proofs, root {}",
+                    batch.getId(), batch.getLeafCount(), batch.getMerkleRoot());
+            if (batch.getLeafCount() < maxLeaves) {
+                break;
+            }
+        }
+        submitPending();
+        return anchored;
+    }
+
+    /**
+     * 凭证的锚定证明；未锚定时返回 null
+     */
+    public ProofAnchorVO proof(Integer proofId) throws IOException {
+        ProofAnchor anchor = proofAnchorMapper.selectOne(new LambdaQueryWrapper<ProofAnchor>()
+                .eq(ProofAnchor::getProofId, proofId));
+        if (anchor == null) {
+            return null;
+        }
+        ProofAnchorBatch batch = proofAnchorBatchMapper.selectById(anchor.getBatchId());
+        CommunityTaskProof proof = communityTaskProofMapper.selectById(proofId);
+        List<String> path = anchor.getMerklePath().isEmpty()
+                ? Collections.emptyList() : Arrays.asList(anchor.getMerklePath().split(","));
+
+        ProofAnchorVO vo = new ProofAnchorVO();
+        vo.setProofId(proofId);
+        vo.setProofHash(proof == null ? null : proof.getProofHash());
+        vo.setLeafHash(anchor.getLeafHash());
+        vo.setLeafIndex(anchor.getLeafIndex());
+        vo.setLeafCount(batch.getLeafCount());
+        vo.setMerklePath(path);
+        vo.setMerkleRoot(batch.getMerkleRoot());
+        vo.setStatus(batch.getStatus());
+        vo.setTxHash(batch.getTxHash());
+        vo.setBlockNumber(batch.getBlockNumber());
+        // 以凭证当前的CID重新计算叶子，凭证被篡改后无法还原出根
+        vo.setIncluded(proof != null && MerkleTree.verify(MerkleTree.leaf(proofId, proof.getProofHash()),
+                anchor.getLeafIndex(), batch.getLeafCount(),
+                path.stream().map(Numeric::hexStringToByteArray).collect(Collectors.toList()),
+                Numeric.hexStringToByteArray(batch.getMerkleRoot())));
+        if (batch.getTxHash() != null) {
+            vo.setAnchoredOnChain(anchoredOnChain(batch));
+        }
+        return vo;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        for (String status : Arrays.asList(STATUS_PENDING, STATUS_SUBMITTED, STATUS_CONFIRMED, STATUS_FAILED)) {
+            stats.put(status + "Batches", proofAnchorBatchMapper.selectCount(
+                    new LambdaQueryWrapper<ProofAnchorBatch>().eq(ProofAnchorBatch::getStatus, status)));
+        }
+        stats.put("anchoredProofs", proofAnchorMapper.selectCount(null));
+        return stats;
+    }
+
+    /**
+     * 取最多 maxLeaves 个未锚定凭证建树，批次和路径在同一事务内写入
+     */
+    private ProofAnchorBatch buildBatch() {
+        List<CommunityTaskProof> proofs = communityTaskProofMapper.selectUnanchored(maxLeaves);
+        if (proofs.isEmpty()) {
+            return null;
+        }
+        List<byte[]> leaves = new ArrayList<>(proofs.size());
+        for (CommunityTaskProof proof : proofs) {
+            leaves.add(MerkleTree.leaf(proof.getId(), proof.getProofHash()));
+        }
+        MerkleTree tree = new MerkleTree(leaves);
+
+        ProofAnchorBatch batch = new ProofAnchorBatch();
+        batch.setMerkleRoot(Numeric.toHexString(tree.root()));
+        batch.setLeafCount(tree.size());
+        batch.setStatus(STATUS_PENDING);
+        batch.setAttempts(0);
+        transactionTemplate.executeWithoutResult(status -> {
+            proofAnchorBatchMapper.insert(batch);
+            List<ProofAnchor> anchors = new ArrayList<>(proofs.size());
+            for (int i = 0; i < proofs.size(); i++) {
+                ProofAnchor anchor = new ProofAnchor();
+                anchor.setProofId(proofs.get(i).getId());
+                anchor.setBatchId(batch.getId());
+                anchor.setLeafIndex(i);
+                anchor.setLeafHash(Numeric.toHexString(leaves.get(i)));
+                anchor.setMerklePath(tree.path(i).stream().map(Numeric::toHexString).collect(Collectors.joining(",")));
+                anchors.add(anchor);
+                if (anchors.size() == INSERT_BATCH_SIZE) {
+                    proofAnchorMapper.insertBatch(anchors);
+                    anchors.clear();
+                }
+            }
+            if (!anchors.isEmpty()) {
+                proofAnchorMapper.insertBatch(anchors);
+            }
+        });
+        return batch;
+    }
+
+    private void submitPending() {
+        List<ProofAnchorBatch> pending = proofAnchorBatchMapper.selectList(new LambdaQueryWrapper<ProofAnchorBatch>()
+                .eq(ProofAnchorBatch::getStatus, STATUS_PENDING)
+                .orderByAsc(ProofAnchorBatch::getId));
+        for (ProofAnchorBatch batch : pending) {
+            ProofAnchorBatch update = new ProofAnchorBatch();
+            update.setId(batch.getId());
+            update.setAttempts(batch.getAttempts() + 1);
+            try {
+                Function submit = new Function("submitContent", Arrays.asList(
+                        new Uint256(anchorCommunityId),
+                        new Utf8String(ROOT_PREFIX + batch.getMerkleRoot()),
+                        new Uint8(anchorCategory)), Collections.emptyList());
+                update.setTxHash(chainClient.sendTransaction(chainClient.getSubmissionManagerAddress(), submit, gasLimit));
+                update.setStatus(STATUS_SUBMITTED);
+                update.setSubmitTime(LocalDateTime.now());
+                log.info("Proof anchor batch {} submitted in tx {}", batch.getId(), update.getTxHash());
+            } catch (Exception e) {
+                update.setStatus(update.getAttempts() >= maxAttempts ? STATUS_FAILED : STATUS_PENDING);
+                log.warn("Submit proof anchor batch {} failed (attempt {}). Error: {}",
+                        batch.getId(), update.getAttempts(), e.getMessage());
+            }
+            proofAnchorBatchMapper.updateById(update);
+        }
+    }
+
+    private void confirmSubmitted() throws IOException {
+        List<ProofAnchorBatch> submitted = proofAnchorBatchMapper.selectList(new LambdaQueryWrapper<ProofAnchorBatch>()
+                .eq(ProofAnchorBatch::getStatus, STATUS_SUBMITTED));
+        for (ProofAnchorBatch batch : submitted) {
+            Optional<TransactionReceipt> receipt = chainClient.receipt(batch.getTxHash());
+            ProofAnchorBatch update = new ProofAnchorBatch();
+            update.setId(batch.getId());
+            if (!receipt.isPresent()) {
+                LocalDateTime submitTime = batch.getSubmitTime() != null ? batch.getSubmitTime() : batch.getUpdateTime();
+                if (submitTime == null || submitTime.plus(submitTimeoutMs, ChronoUnit.MILLIS).isAfter(LocalDateTime.now())) {
+                    continue;
+                }
+                // 交易被丢弃或替换，重新提交；若原交易之后仍被打包，同一个根只是多记录一次
+                update.setStatus(batch.getAttempts() >= maxAttempts ? STATUS_FAILED : STATUS_PENDING);
+                log.warn("Proof anchor tx {} for batch {} has no receipt after {} ms, moved to {}",
+                        batch.getTxHash(), batch.getId(), submitTimeoutMs, update.getStatus());
+            } else if (receipt.get().isStatusOK()) {
+                update.setStatus(STATUS_CONFIRMED);
+                update.setBlockNumber(receipt.get().getBlockNumber().longValueExact());
+            } else {
+                // 交易回滚，重新提交
+                update.setStatus(batch.getAttempts() >= maxAttempts ? STATUS_FAILED : STATUS_PENDING);
+                log.warn("Proof anchor tx {} for batch {} reverted", batch.getTxHash(), batch.getId());
+            }
+            proofAnchorBatchMapper.updateById(update);
+        }
+    }
+
+    /**
+     * 查询批次交易回执并核对根；批次已确认时结果按批次缓存
+     */
+    private boolean anchoredOnChain(ProofAnchorBatch batch) throws IOException {
+        boolean confirmed = STATUS_CONFIRMED.equals(batch.getStatus());
+        if (confirmed) {
+            Boolean cached = confirmedOnChain.get(batch.getId());
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Optional<TransactionReceipt> receipt = chainClient.receipt(batch.getTxHash());
+        boolean anchored = receipt.isPresent() && receipt.get().isStatusOK()
+                && recordsRoot(receipt.get(), batch.getMerkleRoot());
+        if (confirmed && receipt.isPresent()) {
+            confirmedOnChain.put(batch.getId(), anchored);
+        }
+        return anchored;
+    }
+
+    private boolean recordsRoot(TransactionReceipt receipt, String merkleRoot) {
+        String topic = EventEncoder.encode(ContractEvents.SUBMISSION_CREATED);
+        for (Log entry : receipt.getLogs()) {
+            if (entry.getAddress().toLowerCase(Locale.ROOT).equals(chainClient.getSubmissionManagerAddress())
+                    && !entry.getTopics().isEmpty() && topic.equals(entry.getTopics().get(0))) {
+                String contentUrl = (String) Contract.staticExtractEventParameters(ContractEvents.SUBMISSION_CREATED, entry)
+                        .getNonIndexedValues().get(0).getValue();
+                if ((ROOT_PREFIX + merkleRoot).equalsIgnoreCase(contentUrl)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,150 @@
+package com.matebuilder.common.admission;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按客户端（用户或 IP）的准入控制
+ * 每个客户端两个令牌桶：请求数和请求体字节数，请求需同时取得两者，字节预算不足时归还已取的请求令牌。
+ * 桶放在 ConcurrentHashMap 中，已取得桶的客户端每次请求只有一次哈希查找和一两次 CAS，不加锁。
+ * 装满超过 idle 时长的桶会被清除（装满的桶与新建的桶等价，清除不影响限流结果），
+ * 清除在请求线程上顺带进行：距上次清除超过 idle 时长，或客户端数达到上限时；
+ * 清除后仍达到上限时，新客户端共用一个溢出桶，不再占用内存。
+ */
+public class AdmissionControl {
+
+    private final TokenBucket.Limit requestLimit;
+    private final TokenBucket.Limit byteLimit;
+    private final int maxClients;
+    private final long idleNanos;
+    private final ConcurrentHashMap<String, Client> clients = new ConcurrentHashMap<>();
+    private final Client overflow;
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private volatile long lastEviction;
+
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejectedRequests = new LongAdder();
+    private final LongAdder rejectedBytes = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    /**
+     * @param requestLimit 每个客户端的请求数预算
+     * @param byteLimit 每个客户端的请求体字节预算
+     * @param maxClients 最多保留的客户端数
+     * @param idleMs 桶装满多久后可以清除
+     */
+    public AdmissionControl(TokenBucket.Limit requestLimit, TokenBucket.Limit byteLimit, int maxClients, long idleMs) {
+        this.requestLimit = requestLimit;
+        this.byteLimit = byteLimit;
+        this.maxClients = maxClients;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMs);
+        long now = System.nanoTime();
+        this.overflow = new Client(requestLimit, byteLimit, now);
+        this.lastEviction = now;
+    }
+
+    /**
+     * 为 client 的一个请求取令牌
+     * @param client 客户端标识
+     * @param bytes 请求体字节数
+     * @return 0 表示准入；否则为建议等待的纳秒数
+     */
+    public long tryAcquire(String client, long bytes) {
+        return tryAcquire(client, bytes, System.nanoTime());
+    }
+
+    long tryAcquire(String client, long bytes, long now) {
+        if (now - lastEviction > idleNanos) {
+            evictIdle(now);
+        }
+        Client buckets = clients.get(client);
+        if (buckets == null) {
+            buckets = register(client, now);
+        }
+        long wait = buckets.requests.tryAcquire(1, now);
+        if (wait > 0) {
+            rejectedRequests.increment();
+            return wait;
+        }
+        wait = buckets.bytes.tryAcquire(bytes, now);
+        if (wait > 0) {
+            buckets.requests.release(1);
+            rejectedBytes.increment();
+            return wait;
+        }
+        admitted.increment();
+        return 0;
+    }
+
+    private Client register(String client, long now) {
+        if (clients.size() >= maxClients) {
+            evictIdle(now);
+            if (clients.size() >= maxClients) {
+                overflowed.increment();
+                return overflow;
+            }
+        }
+        return clients.computeIfAbsent(client, key -> new Client(requestLimit, byteLimit, now));
+    }
+
+    /**
+     * 清除装满超过 idle 时长的桶；已有线程在清除时直接返回
+     */
+    void evictIdle(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            lastEviction = now;
+            for (Iterator<Client> it = clients.values().iterator(); it.hasNext(); ) {
+                Client buckets = it.next();
+                if (buckets.requests.isFullSince(now, idleNanos) && buckets.bytes.isFullSince(now, idleNanos)) {
+                    it.remove();
+                    evicted.increment();
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    public int clientCount() {
+        return clients.size();
+    }
+
+    public long getRejectedRequests() {
+        return rejectedRequests.sum();
+    }
+
+    public long getRejectedBytes() {
+        return rejectedBytes.sum();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("clients", clients.size());
+        stats.put("maxClients", maxClients);
+        stats.put("admitted", admitted.sum());
+        stats.put("rejectedRequests", rejectedRequests.sum());
+        stats.put("rejectedBytes", rejectedBytes.sum());
+        stats.put("overflowed", overflowed.sum());
+        stats.put("evicted", evicted.sum());
+        return stats;
+    }
+
+    private static final class Client {
+        final TokenBucket requests;
+        final TokenBucket bytes;
+
+        Client(TokenBucket.Limit requestLimit, TokenBucket.Limit byteLimit, long now) {
+            this.requests = new TokenBucket(requestLimit, now);
+            this.bytes = new TokenBucket(byteLimit, now);
+        }
+    }
+}
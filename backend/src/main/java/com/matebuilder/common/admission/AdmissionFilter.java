@@ -0,0 +1,67 @@
+package com.matebuilder.common.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.matebuilder.common.api.R;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 写接口的准入过滤器
+ * 只处理 GET/HEAD/OPTIONS 以外的请求（任务增删改、凭证上传等），在读取请求体之前按客户端扣减请求数和字节预算，
+ * 预算不足时直接返回 429 和 Retry-After，100MB 的上传不会被读入。
+ * 客户端默认按来源 IP 区分（getRemoteAddr，经过可信代理时已由 RemoteIpValve 换成 X-Forwarded-For 中的客户端 IP）；配置了 userHeader 时按该请求头（网关写入的用户标识）区分，没有该请求头时仍按来源 IP。
+ * 应用本身没有登录认证，该请求头需由网关覆盖写入，不能信任客户端自带的值。
+ * 没有 Content-Length 的分块请求按 unknownLengthBytes 计。
+ */
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private final AdmissionControl admissionControl;
+    private final ObjectMapper objectMapper;
+    private final String userHeader;
+    private final long unknownLengthBytes;
+
+    public AdmissionFilter(AdmissionControl admissionControl, ObjectMapper objectMapper,
+                           String userHeader, long unknownLengthBytes) {
+        this.admissionControl = admissionControl;
+        this.objectMapper = objectMapper;
+        this.userHeader = userHeader;
+        this.unknownLengthBytes = unknownLengthBytes;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long bytes = request.getContentLengthLong();
+        long waitNanos = admissionControl.tryAcquire(clientKey(request), bytes < 0 ? unknownLengthBytes : bytes);
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), R.error(429, "请求过于频繁，请稍后重试"));
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        String user = userHeader.isEmpty() ? null : request.getHeader(userHeader);
+        return user != null && !user.isEmpty() ? "user:" + user : "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,88 @@
+package com.matebuilder.common.admission;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * 无锁令牌桶（GCRA 形式）
+ * 不保存令牌数，只保存桶重新装满的时刻 fullAt：剩余令牌 = capacity - (fullAt - now) / 每个令牌的补充时间。
+ * 取 cost 个令牌即把 fullAt 推后 cost 个令牌的补充时间，推后后超出一整桶的补充时间则拒绝；
+ * 判断和扣减由一次 CAS 完成，不需要补充令牌的定时任务。fullAt 不晚于当前时刻表示桶是满的，与新建的桶没有区别。
+ * 时间均为 System.nanoTime() 的纳秒值。
+ */
+public final class TokenBucket {
+
+    private static final AtomicLongFieldUpdater<TokenBucket> FULL_AT =
+            AtomicLongFieldUpdater.newUpdater(TokenBucket.class, "fullAt");
+
+    private final Limit limit;
+    private volatile long fullAt;
+
+    public TokenBucket(Limit limit, long now) {
+        this.limit = limit;
+        this.fullAt = now;
+    }
+
+    /**
+     * 取 cost 个令牌，超过桶容量的部分按容量计（即需要一整桶）
+     * @return 0 表示已扣减；否则为令牌足够前还需等待的纳秒数，桶不变
+     */
+    public long tryAcquire(long cost, long now) {
+        long costNanos = limit.nanos(cost);
+        for (;;) {
+            long current = fullAt;
+            long next = Math.max(current, now) + costNanos;
+            long wait = next - now - limit.burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (FULL_AT.compareAndSet(this, current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * 归还 tryAcquire 已扣减的令牌
+     */
+    public void release(long cost) {
+        FULL_AT.addAndGet(this, -limit.nanos(cost));
+    }
+
+    /**
+     * 桶在 now 之前至少 idleNanos 就已装满
+     */
+    public boolean isFullSince(long now, long idleNanos) {
+        return now - fullAt >= idleNanos;
+    }
+
+    /**
+     * 补充速率与容量，同一预算的所有桶共用
+     */
+    public static final class Limit {
+
+        private final long capacity;
+        private final double nanosPerToken;
+        private final long burstNanos;
+
+        /**
+         * @param perSecond 每秒补充的令牌数
+         * @param capacity 桶容量，即允许的突发量
+         */
+        public Limit(double perSecond, long capacity) {
+            if (perSecond <= 0 || capacity <= 0) {
+                throw new IllegalArgumentException("rate and capacity must be positive");
+            }
+            this.capacity = capacity;
+            this.nanosPerToken = 1e9 / perSecond;
+            this.burstNanos = nanos(capacity);
+        }
+
+        long nanos(long cost) {
+            return (long) Math.ceil(Math.min(cost, capacity) * nanosPerToken);
+        }
+
+        public long getCapacity() {
+            return capacity;
+        }
+    }
+}
@@ -7,6 +7,11 @@ import lombok.Data;
 @Data
 @ApiModel(value = "统一返回结果")
 public class R<T> {
+    /**
+     * 成功时的返回消息，RSerializer 以预编码形式写出
+     */
+    public static final String OK_MESSAGE = "操作成功";
+
     @ApiModelProperty(value = "状态码")
     private Integer code;
 
@@ -26,7 +31,7 @@ public class R<T> {
     public static <T> R<T> ok(T data) {
         R<T> r = new R<>();
         r.setCode(200);
-        r.setMessage("操作成功");
+        r.setMessage(OK_MESSAGE);
         r.setData(data);
         return r;
     }
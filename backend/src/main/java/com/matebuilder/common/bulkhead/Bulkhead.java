@@ -0,0 +1,131 @@
+package com.matebuilder.common.bulkhead;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 隔舱：固定线程数、有界队列的执行器
+ * 慢依赖（如 IPFS）的调用在这里执行，Tomcat 工作线程提交后立即返回；
+ * 线程和队列都占满时直接拒绝并抛出 BulkheadFullException，不在调用方线程上排队或回退执行，
+ * 因此慢依赖最多占用本隔舱的线程，不会拖慢其他接口。
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final int threads;
+    private final int queueCapacity;
+    private final long timeoutMs;
+    private final long retryAfterSeconds;
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    /**
+     * @param name 隔舱名，同时用作线程名前缀
+     * @param threads 线程数
+     * @param queueCapacity 等待队列长度
+     * @param timeoutMs 从提交到完成的最长时间，超时后返回的 future 以 BulkheadTimeoutException 结束，0 表示不限
+     * @param retryAfterSeconds 拒绝或超时时建议客户端的重试间隔
+     */
+    public Bulkhead(String name, int threads, int queueCapacity, long timeoutMs, long retryAfterSeconds) {
+        this.name = name;
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+        this.timeoutMs = timeoutMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bulkhead-" + name + "-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 提交一个任务
+     * @throws BulkheadFullException 线程和队列都已占满
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    // 排队期间已超时，调用方已收到响应，不再调用慢依赖
+                    return;
+                }
+                try {
+                    future.complete(task.get());
+                    completed.increment();
+                } catch (Throwable e) {
+                    failed.increment();
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new BulkheadFullException(name, retryAfterSeconds);
+        }
+        submitted.increment();
+        if (timeoutMs > 0) {
+            CompletableFuture.delayedExecutor(timeoutMs, TimeUnit.MILLISECONDS).execute(() -> {
+                if (future.completeExceptionally(new BulkheadTimeoutException(name, timeoutMs, retryAfterSeconds))) {
+                    timedOut.increment();
+                }
+            });
+        }
+        return future;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /**
+     * 当前排队中的任务数
+     */
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * 隔舱统计：容量、当前占用和累计计数
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("threads", threads);
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("timeoutMs", timeoutMs);
+        stats.put("active", executor.getActiveCount());
+        stats.put("queueDepth", queueDepth());
+        stats.put("submitted", submitted.sum());
+        stats.put("completed", completed.sum());
+        stats.put("failed", failed.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("timedOut", timedOut.sum());
+        return stats;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,25 @@
+package com.matebuilder.common.bulkhead;
+
+/**
+ * 隔舱任务未在超时时间内完成
+ * 任务本身不会被中断，仍在隔舱线程上执行完毕，只是调用方不再等待其结果。
+ */
+public class BulkheadTimeoutException extends RuntimeException {
+
+    private final String bulkhead;
+    private final long retryAfterSeconds;
+
+    public BulkheadTimeoutException(String bulkhead, long timeoutMs, long retryAfterSeconds) {
+        super("Bulkhead " + bulkhead + " task did not complete within " + timeoutMs + " ms");
+        this.bulkhead = bulkhead;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public String getBulkhead() {
+        return bulkhead;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
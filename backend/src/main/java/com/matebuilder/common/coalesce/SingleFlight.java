@@ -0,0 +1,145 @@
+package com.matebuilder.common.coalesce;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 相同请求合并（single flight）
+ * 同一个 key 同时只执行一次加载：第一个调用方在自己的线程上执行，之后到达的调用方等待同一个 future，
+ * 加载结束（成功或异常）后结果交给所有等待者，key 随即移除，之后的调用重新加载，不做缓存。
+ * 等待者最多等到该次加载开始后 timeoutMs，超时抛出 SingleFlightTimeoutException；
+ * 加载已超过 timeoutMs 时新到的调用方不再等待它，而是另起一次加载。
+ * 返回值由所有调用方共享，调用方不能修改。
+ */
+public class SingleFlight<K, V> implements MeterBinder {
+
+    private final String name;
+    private final long timeoutNanos;
+    private final ConcurrentHashMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    /**
+     * @param name 名称，用作指标标签
+     * @param timeoutMs 等待同一次加载的最长时间
+     */
+    public SingleFlight(String name, long timeoutMs) {
+        this.name = name;
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    }
+
+    /**
+     * 执行或加入 key 对应的加载
+     */
+    public V execute(K key, Supplier<V> loader) {
+        long now = System.nanoTime();
+        Flight<V> flight = new Flight<>(now);
+        for (;;) {
+            Flight<V> current = flights.putIfAbsent(key, flight);
+            if (current == null) {
+                return lead(key, flight, loader);
+            }
+            long remaining = current.start + timeoutNanos - now;
+            if (remaining > 0) {
+                collapsed.increment();
+                return await(current, remaining);
+            }
+            // 进行中的加载已超时，替换为新的一次
+            if (flights.replace(key, current, flight)) {
+                return lead(key, flight, loader);
+            }
+        }
+    }
+
+    private V lead(K key, Flight<V> flight, Supplier<V> loader) {
+        executed.increment();
+        try {
+            V value = loader.get();
+            flight.future.complete(value);
+            return value;
+        } catch (Throwable e) {
+            flight.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+
+    private V await(Flight<V> flight, long remainingNanos) {
+        try {
+            return flight.future.get(remainingNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            throw new SingleFlightTimeoutException(name, TimeUnit.NANOSECONDS.toMillis(timeoutNanos));
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + name, e);
+        }
+    }
+
+    /**
+     * 正在进行的加载数
+     */
+    public int inFlight() {
+        return flights.size();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("inFlight", flights.size());
+        stats.put("executed", executed.sum());
+        stats.put("collapsed", collapsed.sum());
+        stats.put("timedOut", timedOut.sum());
+        return stats;
+    }
+
+    /**
+     * singleflight.calls{name, result}：executed 为实际执行的加载，collapsed 为合并到已有加载的调用，
+     * timeout 为等待超时的调用（同时也计入 collapsed）
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counter(registry, "executed", executed);
+        counter(registry, "collapsed", collapsed);
+        counter(registry, "timeout", timedOut);
+    }
+
+    private void counter(MeterRegistry registry, String result, LongAdder adder) {
+        FunctionCounter.builder("singleflight.calls", adder, LongAdder::sum)
+                .tag("name", name)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static final class Flight<V> {
+        final long start;
+        final CompletableFuture<V> future = new CompletableFuture<>();
+
+        Flight(long start) {
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.matebuilder.common.coalesce;
+
+/**
+ * 等待合并的加载超时
+ * 加载本身不会被中断，由发起它的调用方继续执行完毕。
+ */
+public class SingleFlightTimeoutException extends RuntimeException {
+
+    private final String flight;
+
+    public SingleFlightTimeoutException(String flight, long timeoutMs) {
+        super("Single flight " + flight + " did not complete within " + timeoutMs + " ms");
+        this.flight = flight;
+    }
+
+    public String getFlight() {
+        return flight;
+    }
+}
@@ -0,0 +1,67 @@
+package com.matebuilder.common.coalesce;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 服务层读方法的请求合并
+ * 按名称区分多组 SingleFlight（同一组内的 key 类型需一致），首次使用时创建，等待超时均为 coalesce.timeout-ms；
+ * 指标注册表就绪后创建的组同样注册 singleflight.calls 指标。
+ * 只用于只读查询：合并后返回的实体或列表由并发的调用方共享，调用方不能修改；
+ * 写入后立即读取的场景可能拿到写入前已开始的那次查询的结果，这类调用不应经过这里。
+ */
+@Component
+public class SingleFlights implements MeterBinder {
+
+    private final long timeoutMs;
+    private final Map<String, SingleFlight<Object, Object>> flights = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    public SingleFlights(@Value("${coalesce.timeout-ms:5000}") long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * 执行或加入 name 组中 key 对应的加载
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> V execute(String name, K key, Supplier<V> loader) {
+        SingleFlight<Object, Object> flight = flights.get(name);
+        if (flight == null) {
+            flight = create(name);
+        }
+        return (V) flight.execute(key, (Supplier<Object>) loader);
+    }
+
+    private synchronized SingleFlight<Object, Object> create(String name) {
+        SingleFlight<Object, Object> flight = flights.get(name);
+        if (flight == null) {
+            flight = new SingleFlight<>(name, timeoutMs);
+            if (registry != null) {
+                flight.bindTo(registry);
+            }
+            flights.put(name, flight);
+        }
+        return flight;
+    }
+
+    @Override
+    public synchronized void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        flights.values().forEach(flight -> flight.bindTo(registry));
+    }
+
+    public List<Map<String, Object>> stats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        flights.values().forEach(flight -> stats.add(flight.stats()));
+        return stats;
+    }
+}
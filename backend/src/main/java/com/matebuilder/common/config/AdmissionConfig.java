@@ -0,0 +1,48 @@
+package com.matebuilder.common.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.matebuilder.common.admission.AdmissionControl;
+import com.matebuilder.common.admission.AdmissionFilter;
+import com.matebuilder.common.admission.TokenBucket;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 准入控制配置
+ * /api/* 下的写请求按客户端限流：请求数默认每秒5个、突发20个；请求体字节默认每秒1MB、突发200MB（两个100MB的凭证上传），
+ * 超出时返回 429。最多保留 max-clients 个客户端的桶，装满 idle-ms 后清除。
+ * admission.enabled=false 时不注册过滤器（如压测时所有客户端共用一个 IP）。
+ * 客户端默认按来源 IP 区分，来源 IP 由 server.forward-headers-strategy=native 从 X-Forwarded-For 还原，
+ * 只有来自 server.tomcat.remoteip.internal-proxies 的请求才采信该请求头；负载均衡不在内网地址段时需把它加入该列表，
+ * 否则所有客户端共用负载均衡的 IP，落在同一个桶里。admission.user-header 设置后按该请求头区分（如 X-User-Id），
+ * 只能在网关会覆盖写入该请求头时开启，否则客户端每次换一个值就能绕过限流。
+ */
+@Configuration
+public class AdmissionConfig {
+
+    @Bean
+    public AdmissionControl admissionControl(@Value("${admission.requests-per-second:5}") double requestsPerSecond,
+                                             @Value("${admission.request-burst:20}") long requestBurst,
+                                             @Value("${admission.bytes-per-second:1MB}") DataSize bytesPerSecond,
+                                             @Value("${admission.byte-burst:200MB}") DataSize byteBurst,
+                                             @Value("${admission.max-clients:100000}") int maxClients,
+                                             @Value("${admission.idle-ms:60000}") long idleMs) {
+        return new AdmissionControl(new TokenBucket.Limit(requestsPerSecond, requestBurst),
+                new TokenBucket.Limit(bytesPerSecond.toBytes(), byteBurst.toBytes()), maxClients, idleMs);
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionFilter> admissionFilter(AdmissionControl admissionControl, ObjectMapper objectMapper,
+                                                                   @Value("${admission.enabled:true}") boolean enabled,
+                                                                   @Value("${admission.user-header:}") String userHeader,
+                                                                   @Value("${spring.servlet.multipart.max-request-size:10MB}") DataSize unknownLength) {
+        FilterRegistrationBean<AdmissionFilter> registration = new FilterRegistrationBean<>(
+                new AdmissionFilter(admissionControl, objectMapper, userHeader, unknownLength.toBytes()));
+        registration.addUrlPatterns("/api/*");
+        registration.setEnabled(enabled);
+        return registration;
+    }
+}
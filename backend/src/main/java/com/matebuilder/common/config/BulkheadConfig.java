@@ -0,0 +1,24 @@
+package com.matebuilder.common.config;
+
+import com.matebuilder.common.bulkhead.Bulkhead;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 隔舱配置
+ * ipfsBulkhead 承载任务凭证的上传/下载：IPFS 守护进程变慢时，请求只在该隔舱的线程和队列里堆积，
+ * 占满后直接返回 429，/api/user、/api/community-label 等接口的 Tomcat 工作线程不受影响。
+ * 超时（bulkhead.ipfs.timeout-ms）需小于 Servlet 异步请求超时（Tomcat 默认30秒），以便返回 503 而不是容器的超时错误。
+ */
+@Configuration
+public class BulkheadConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public Bulkhead ipfsBulkhead(@Value("${bulkhead.ipfs.threads:16}") int threads,
+                                 @Value("${bulkhead.ipfs.queue-capacity:32}") int queueCapacity,
+                                 @Value("${bulkhead.ipfs.timeout-ms:25000}") long timeoutMs,
+                                 @Value("${bulkhead.ipfs.retry-after-seconds:5}") long retryAfterSeconds) {
+        return new Bulkhead("ipfs", threads, queueCapacity, timeoutMs, retryAfterSeconds);
+    }
+}
@@ -0,0 +1,49 @@
+package com.matebuilder.common.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 请求执行模式
+ * 默认（execution.mode=platform）沿用 Tomcat 的平台线程池（server.tomcat.threads.max，默认200）。
+ * execution.mode=virtual 时每个请求在独立的虚拟线程上执行，阻塞在 JDBC 或 IPFS 上的请求只占用虚拟线程，
+ * 并发上限改由 server.tomcat.max-connections、数据库连接池和 ipfs.virtual.max-concurrent-requests 约束
+ * （平台线程模式使用 ipfs.platform.max-concurrent-requests，默认不限制，见 IPFSUtil）；
+ * Spring MVC 异步请求和 @Async 使用的 applicationTaskExecutor 同样改为虚拟线程。
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "execution.mode", havingValue = "virtual")
+public class ExecutionModeConfig {
+
+    @Bean(destroyMethod = "close")
+    public ExecutorService virtualRequestExecutor() {
+        log.info("Request handling runs on virtual threads");
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-vt-", 0).factory());
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer(
+            ExecutorService virtualRequestExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualRequestExecutor);
+    }
+
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor();
+        executor.setThreadFactory(Thread.ofVirtual().name("task-vt-", 0).factory());
+        return executor;
+    }
+}
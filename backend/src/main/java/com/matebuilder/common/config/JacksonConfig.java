@@ -1,23 +1,94 @@
 package com.matebuilder.common.config;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.matebuilder.common.api.R;
+import com.matebuilder.common.json.IsoTimeModule;
+import com.matebuilder.common.json.PooledJsonFactory;
+import com.matebuilder.common.json.RSerializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Configuration
 public class JacksonConfig {
-    
+
+    /**
+     * 紧凑 JSON：信封字段名缩写为 c/m/d，并省略值为 null 的属性，供移动端通过 Accept 头选用
+     */
+    public static final MediaType COMPACT_JSON = MediaType.parseMediaType("application/vnd.matebuilder.compact+json");
+
+    @Bean
+    public ObjectMapper objectMapper(@Value("${jackson.blackbird.enabled:true}") boolean blackbird) {
+        return createObjectMapper(blackbird, false);
+    }
+
+    /**
+     * Accept 为 COMPACT_JSON 时，R 类型的响应改用紧凑 ObjectMapper 输出，其余请求不受影响
+     */
     @Bean
-    public ObjectMapper objectMapper() {
-        ObjectMapper objectMapper = new ObjectMapper();
+    public WebMvcConfigurer compactJsonConfigurer(ObjectMapper objectMapper,
+                                                  @Value("${jackson.blackbird.enabled:true}") boolean blackbird) {
+        ObjectMapper compact = createObjectMapper(blackbird, true);
+        return new WebMvcConfigurer() {
+            @Override
+            public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+                for (HttpMessageConverter<?> converter : converters) {
+                    if (converter instanceof MappingJackson2HttpMessageConverter) {
+                        // 为某类型注册映射后，该类型可输出的媒体类型仅限于注册的这些，因此默认的 JSON 类型也要一并注册，
+                        // 且 application/json 在前，未指定 Accept 的请求仍按原格式输出
+                        ((MappingJackson2HttpMessageConverter) converter).registerObjectMappersForType(R.class, mappers -> {
+                            Map<MediaType, ObjectMapper> ordered = new LinkedHashMap<>();
+                            ordered.put(MediaType.APPLICATION_JSON, objectMapper);
+                            ordered.put(COMPACT_JSON, compact);
+                            ordered.put(new MediaType("application", "*+json"), objectMapper);
+                            mappers.putAll(ordered);
+                        });
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * 构造应用使用的 ObjectMapper
+     * @param blackbird 是否启用 Blackbird 模块
+     * @param compact 是否使用紧凑格式
+     */
+    public static ObjectMapper createObjectMapper(boolean blackbird, boolean compact) {
+        ObjectMapper objectMapper = new ObjectMapper(new PooledJsonFactory());
         
         // 注册JavaTimeModule来处理Java 8时间类型
         objectMapper.registerModule(new JavaTimeModule());
+        // 默认格式的 LocalDate/LocalDateTime 直接写出数字，不经 DateTimeFormatter
+        objectMapper.registerModule(new IsoTimeModule());
         
         // 禁用将日期写成timestamp
         objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        // 以生成的访问器代替反射读写实体属性
+        if (blackbird) {
+            objectMapper.registerModule(new BlackbirdModule());
+        }
+
+        // R 信封使用预编码的字段名和成功消息
+        if (compact) {
+            objectMapper.registerModule(RSerializer.module("c", "m", "d", true));
+            objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        } else {
+            objectMapper.registerModule(RSerializer.module("code", "message", "data", false));
+        }
         
         return objectMapper;
     }
@@ -0,0 +1,72 @@
+package com.matebuilder.common.config;
+
+import com.matebuilder.availability.UsernameAvailability;
+import com.matebuilder.common.admission.AdmissionControl;
+import com.matebuilder.common.metrics.StatementTimingInterceptor;
+import com.matebuilder.wallet.WalletDirectory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 指标配置
+ * 接口耗时（http.server.requests）、Hikari 连接池、JVM GC 与分配速率由 Spring Boot Actuator 自动注册，
+ * 这里补充 MyBatis 语句耗时、内存目录的命中情况和准入控制的拒绝数；全部通过管理端口（management.server.port）上的 /actuator/prometheus 暴露。
+ * 命中情况沿用 Micrometer 缓存指标的命名（cache.gets，result=hit/miss），命中率为 hit / (hit + miss)：
+ * 钱包目录加载完成前回库的查询和在目录中没有查到的地址，以及用户名布隆过滤器判定“可能存在”后的查询，记为 miss。
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * MyBatis-Plus 自动配置会把容器中的 Interceptor 注册到 SqlSessionFactory
+     */
+    @Bean
+    public StatementTimingInterceptor statementTimingInterceptor() {
+        return new StatementTimingInterceptor();
+    }
+
+    @Bean
+    public MeterBinder walletDirectoryMetrics(WalletDirectory walletDirectory) {
+        return registry -> cacheGets(registry, "wallet-directory", walletDirectory,
+                WalletDirectory::getMemoryHits,
+                directory -> directory.getMemoryMisses() + directory.getDatabaseLookups());
+    }
+
+    @Bean
+    public MeterBinder usernameAvailabilityMetrics(UsernameAvailability usernameAvailability) {
+        return registry -> cacheGets(registry, "username-availability", usernameAvailability,
+                UsernameAvailability::getFilteredChecks, UsernameAvailability::getDatabaseChecks);
+    }
+
+    @Bean
+    public MeterBinder admissionMetrics(AdmissionControl admissionControl) {
+        return registry -> {
+            FunctionCounter.builder("admission.rejected", admissionControl, AdmissionControl::getRejectedRequests)
+                    .tag("budget", "requests")
+                    .register(registry);
+            FunctionCounter.builder("admission.rejected", admissionControl, AdmissionControl::getRejectedBytes)
+                    .tag("budget", "bytes")
+                    .register(registry);
+            Gauge.builder("admission.clients", admissionControl, AdmissionControl::clientCount)
+                    .register(registry);
+        };
+    }
+
+    private static <T> void cacheGets(MeterRegistry registry, String cache, T source,
+                                      ToDoubleFunction<T> hits, ToDoubleFunction<T> misses) {
+        FunctionCounter.builder("cache.gets", source, hits)
+                .tag("cache", cache)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", source, misses)
+                .tag("cache", cache)
+                .tag("result", "miss")
+                .register(registry);
+    }
+}
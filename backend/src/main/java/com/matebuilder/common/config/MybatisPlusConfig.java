@@ -3,10 +3,14 @@ package com.matebuilder.common.config;
 import com.baomidou.mybatisplus.annotation.DbType;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.matebuilder.sharding.SegmentIdGenerator;
 import org.mybatis.spring.annotation.MapperScan;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import javax.sql.DataSource;
+
 @Configuration
 @MapperScan("com.matebuilder.mapper")
 public class MybatisPlusConfig {
@@ -16,4 +20,12 @@ public class MybatisPlusConfig {
         interceptor.addInnerInterceptor(new PaginationInnerInterceptor(DbType.MYSQL));
         return interceptor;
     }
+
+    /**
+     * IdType.ASSIGN_ID 的主键生成器，由 MyBatis-Plus 自动配置注入 GlobalConfig
+     */
+    @Bean
+    public SegmentIdGenerator segmentIdGenerator(DataSource dataSource, @Value("${id.segment.step:1000}") int step) {
+        return new SegmentIdGenerator(dataSource, step);
+    }
 }
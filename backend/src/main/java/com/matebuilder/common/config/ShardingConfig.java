@@ -0,0 +1,107 @@
+package com.matebuilder.common.config;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.baomidou.mybatisplus.core.config.GlobalConfig;
+import com.baomidou.mybatisplus.core.incrementer.IdentifierGenerator;
+import com.baomidou.mybatisplus.core.toolkit.GlobalConfigUtils;
+import com.matebuilder.mapper.TaskArchiveMapper;
+import com.matebuilder.mapper.UserPrivateTaskMapper;
+import com.matebuilder.sharding.TaskShards;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.plugin.Interceptor;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.mybatis.spring.transaction.SpringManagedTransactionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.PropertyResolver;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 用户私人任务分片配置
+ * sharding.private-task.shards 为逗号分隔的分片名称，为空时不分片（只有主库一个分片）；
+ * 每个分片的数据源为 sharding.private-task.datasource.{名称}.url / username / password / driver-class-name，
+ * 用户名和密码默认与主库相同，驱动默认按 url 推断。分片名称决定环上的位置，增加分片时已有分片的名称不能改。
+ * 各分片的 MyBatis 配置与主库一致（下划线转驼峰、同一组拦截器、号段ID生成器），只注册 UserPrivateTaskMapper 和 TaskArchiveMapper；
+ * 分片上的语句各自提交，不参与主库的事务，归档搬迁使用分片自己数据源上的事务。
+ */
+@Configuration
+public class ShardingConfig {
+
+    private static final String PREFIX = "sharding.private-task.datasource.";
+
+    @Bean(destroyMethod = "close")
+    public TaskShards taskShards(UserPrivateTaskMapper primaryMapper,
+                                 TaskArchiveMapper primaryArchiveMapper,
+                                 PlatformTransactionManager transactionManager,
+                                 List<Interceptor> interceptors,
+                                 IdentifierGenerator identifierGenerator,
+                                 PropertyResolver properties,
+                                 @Value("${sharding.private-task.shards:}") String names,
+                                 @Value("${sharding.private-task.virtual-nodes:160}") int virtualNodes,
+                                 @Value("${sharding.private-task.parallelism:8}") int parallelism,
+                                 @Value("${sharding.private-task.pool-size:10}") int poolSize) {
+        List<TaskShards.Shard> shards = new ArrayList<>();
+        List<AutoCloseable> resources = new ArrayList<>();
+        for (String name : names.split(",")) {
+            name = name.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            HikariDataSource dataSource = dataSource(name, properties, poolSize);
+            resources.add(dataSource);
+            shards.add(shard(name, dataSource, interceptors, identifierGenerator));
+        }
+        if (shards.isEmpty()) {
+            shards.add(new TaskShards.Shard("primary", primaryMapper, primaryArchiveMapper,
+                    new TransactionTemplate(transactionManager)));
+        }
+        return new TaskShards(shards, virtualNodes, parallelism, resources);
+    }
+
+    private static HikariDataSource dataSource(String name, PropertyResolver properties, int poolSize) {
+        String url = properties.getProperty(PREFIX + name + ".url");
+        if (url == null) {
+            throw new IllegalStateException("Missing " + PREFIX + name + ".url");
+        }
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("task-shard-" + name);
+        config.setJdbcUrl(url);
+        config.setUsername(properties.getProperty(PREFIX + name + ".username",
+                properties.getProperty("spring.datasource.username", "")));
+        config.setPassword(properties.getProperty(PREFIX + name + ".password",
+                properties.getProperty("spring.datasource.password", "")));
+        String driver = properties.getProperty(PREFIX + name + ".driver-class-name");
+        if (driver != null) {
+            config.setDriverClassName(driver);
+        }
+        config.setMaximumPoolSize(poolSize);
+        return new HikariDataSource(config);
+    }
+
+    private static TaskShards.Shard shard(String name, HikariDataSource dataSource,
+                                          List<Interceptor> interceptors, IdentifierGenerator identifierGenerator) {
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.setEnvironment(new Environment("task-shard-" + name, new SpringManagedTransactionFactory(), dataSource));
+        interceptors.forEach(configuration::addInterceptor);
+        GlobalConfig globalConfig = GlobalConfigUtils.defaults();
+        globalConfig.setBanner(false);
+        globalConfig.setIdentifierGenerator(identifierGenerator);
+        GlobalConfigUtils.setGlobalConfig(configuration, globalConfig);
+        configuration.addMapper(UserPrivateTaskMapper.class);
+        configuration.addMapper(TaskArchiveMapper.class);
+        SqlSessionTemplate session = new SqlSessionTemplate(new MybatisSqlSessionFactoryBuilder().build(configuration));
+        return new TaskShards.Shard(name, session.getMapper(UserPrivateTaskMapper.class),
+                session.getMapper(TaskArchiveMapper.class),
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+    }
+}
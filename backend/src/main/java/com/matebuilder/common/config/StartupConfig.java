@@ -0,0 +1,100 @@
+package com.matebuilder.common.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.filter.OncePerRequestFilter;
+import springfox.documentation.spring.web.plugins.DocumentationPluginsBootstrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 启动相关配置
+ * fast-startup 环境（见 application.yml）开启全局懒加载并推迟 springfox 扫描，供自动扩缩容和滚动发布使用：
+ * IPFSUtil、控制器、服务等在第一次被请求用到时才创建；带 @Scheduled 的组件仍在启动时创建，否则定时任务不会注册；
+ * 接口文档在第一次访问文档地址时才扫描控制器。
+ * startup.exit-on-started=true 时应用在启动完成（预热之前）后立即退出，用于打包时生成 AppCDS 归档（见 pom.xml 的 cds 配置）。
+ */
+@Slf4j
+@Configuration
+public class StartupConfig {
+
+    private static final String[] DOCUMENTATION_PATHS = {"/v3/api-docs", "/v2/api-docs", "/swagger-resources", "/swagger-ui"};
+
+    /**
+     * 懒加载时仍需立即创建的组件：定时任务只在 Bean 创建时注册
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter scheduledComponentsExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> beanType != null && !MethodIntrospector.selectMethods(beanType,
+                (MethodIntrospector.MetadataLookup<Scheduled>) method ->
+                        AnnotatedElementUtils.findMergedAnnotation(method, Scheduled.class)).isEmpty();
+    }
+
+    /**
+     * springfox.documentation.auto-startup=false 时，第一次访问文档地址再扫描控制器生成文档
+     */
+    @Bean
+    @ConditionalOnProperty(name = "springfox.documentation.auto-startup", havingValue = "false")
+    public FilterRegistrationBean<OncePerRequestFilter> lazyDocumentationFilter(
+            ObjectProvider<DocumentationPluginsBootstrapper> bootstrapper) {
+        OncePerRequestFilter filter = new OncePerRequestFilter() {
+            private volatile boolean started;
+
+            @Override
+            protected boolean shouldNotFilter(HttpServletRequest request) {
+                if (started) {
+                    return true;
+                }
+                String path = request.getRequestURI().substring(request.getContextPath().length());
+                for (String prefix : DOCUMENTATION_PATHS) {
+                    if (path.startsWith(prefix)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                synchronized (this) {
+                    if (!started) {
+                        long start = System.nanoTime();
+                        bootstrapper.ifAvailable(DocumentationPluginsBootstrapper::start);
+                        started = true;
+                        log.info("API documentation scanned on first request in {} ms", (System.nanoTime() - start) / 1000000);
+                    }
+                }
+                chain.doFilter(request, response);
+            }
+        };
+        return new FilterRegistrationBean<>(filter);
+    }
+
+    /**
+     * 生成 AppCDS 归档的训练运行：启动完成后关闭上下文并退出，JVM 退出时写出归档
+     */
+    @Bean
+    @ConditionalOnProperty(name = "startup.exit-on-started", havingValue = "true")
+    public ApplicationListener<ApplicationStartedEvent> exitOnStarted() {
+        return event -> {
+            log.info("startup.exit-on-started is set, exiting after startup");
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        };
+    }
+}
@@ -0,0 +1,55 @@
+package com.matebuilder.common.event;
+
+import lombok.Getter;
+
+import java.io.Serializable;
+
+/**
+ * 实体变更事件
+ * 由 BaseServiceImpl 在 save/update/remove 成功后发布，供内存索引等订阅方增量更新。
+ * 部分更新（如只带ID和个别字段的 updateById）时 entity 只包含被修改的字段，订阅方需要完整数据时应按ID重新读取。
+ * 其他节点的写入由 InvalidationBus 从失效日志读到后以 remote=true 重新发布，此时 entity 是按ID重新读取的完整数据。
+ */
+@Getter
+public class EntityChangeEvent {
+
+    public enum Action {
+        SAVE, UPDATE, REMOVE
+    }
+
+    private final Action action;
+
+    private final Class<?> entityClass;
+
+    private final Serializable id;
+
+    /**
+     * 删除事件时为 null
+     */
+    private final Object entity;
+
+    /**
+     * 是否为其他节点的写入
+     */
+    private final boolean remote;
+
+    public EntityChangeEvent(Action action, Class<?> entityClass, Serializable id, Object entity) {
+        this(action, entityClass, id, entity, false);
+    }
+
+    public EntityChangeEvent(Action action, Class<?> entityClass, Serializable id, Object entity, boolean remote) {
+        this.action = action;
+        this.entityClass = entityClass;
+        this.id = id;
+        this.entity = entity;
+        this.remote = remote;
+    }
+
+    public boolean isFor(Class<?> type) {
+        return type == entityClass;
+    }
+
+    public <T> T getEntity(Class<T> type) {
+        return type.cast(entity);
+    }
+}
@@ -1,6 +1,12 @@
 package com.matebuilder.common.exception;
 
 import com.matebuilder.common.api.R;
+import com.matebuilder.common.bulkhead.BulkheadFullException;
+import com.matebuilder.common.bulkhead.BulkheadTimeoutException;
+import com.matebuilder.common.coalesce.SingleFlightTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -13,6 +19,27 @@ public class GlobalExceptionHandler {
         return R.error(400, "文件大小超过限制，最大允许10MB");
     }
 
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<R<Void>> handleBulkheadFullException(BulkheadFullException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(R.error(429, "服务繁忙，请稍后重试"));
+    }
+
+    @ExceptionHandler(BulkheadTimeoutException.class)
+    public ResponseEntity<R<Void>> handleBulkheadTimeoutException(BulkheadTimeoutException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(R.error(503, "处理超时，请稍后重试"));
+    }
+
+    @ExceptionHandler(SingleFlightTimeoutException.class)
+    public ResponseEntity<R<Void>> handleSingleFlightTimeoutException(SingleFlightTimeoutException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(R.error(503, "处理超时，请稍后重试"));
+    }
+
     @ExceptionHandler(Exception.class)
     public R<Void> handleException(Exception e) {
         return R.error(500, "服务器内部错误：" + e.getMessage());
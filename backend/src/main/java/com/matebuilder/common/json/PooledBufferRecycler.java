@@ -0,0 +1,94 @@
+package com.matebuilder.common.json;
+
+import com.fasterxml.jackson.core.util.BufferRecycler;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 跨线程共享的 Jackson 缓冲区池
+ * Jackson 默认把 BufferRecycler 放在 ThreadLocal 中，每个虚拟线程只处理一个请求，线程本地的缓冲区从不被复用。
+ * 这里每种缓冲区保留固定数量的槽位，分配时从随线程散列的起点开始取走一个，释放时放回一个空槽，
+ * 全部通过 CAS 完成、不加锁；池空时新分配，池满时丢弃，占用内存有上限。
+ */
+class PooledBufferRecycler extends BufferRecycler {
+
+    private final int mask;
+    private final AtomicReferenceArray<byte[]>[] bytePools;
+    private final AtomicReferenceArray<char[]>[] charPools;
+
+    @SuppressWarnings("unchecked")
+    PooledBufferRecycler(int slots) {
+        int size = Integer.highestOneBit(Math.max(1, slots - 1)) << 1;
+        this.mask = size - 1;
+        this.bytePools = new AtomicReferenceArray[_byteBuffers.length()];
+        for (int i = 0; i < bytePools.length; i++) {
+            bytePools[i] = new AtomicReferenceArray<>(size);
+        }
+        this.charPools = new AtomicReferenceArray[_charBuffers.length()];
+        for (int i = 0; i < charPools.length; i++) {
+            charPools[i] = new AtomicReferenceArray<>(size);
+        }
+    }
+
+    @Override
+    public byte[] allocByteBuffer(int ix, int minSize) {
+        int size = Math.max(minSize, byteBufferLength(ix));
+        AtomicReferenceArray<byte[]> pool = bytePools[ix];
+        int start = probe();
+        for (int i = 0; i <= mask; i++) {
+            int slot = (start + i) & mask;
+            byte[] buffer = pool.get(slot);
+            if (buffer != null && buffer.length >= size && pool.compareAndSet(slot, buffer, null)) {
+                return buffer;
+            }
+        }
+        return balloc(size);
+    }
+
+    @Override
+    public void releaseByteBuffer(int ix, byte[] buffer) {
+        AtomicReferenceArray<byte[]> pool = bytePools[ix];
+        int start = probe();
+        for (int i = 0; i <= mask; i++) {
+            int slot = (start + i) & mask;
+            if (pool.get(slot) == null && pool.compareAndSet(slot, null, buffer)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public char[] allocCharBuffer(int ix, int minSize) {
+        int size = Math.max(minSize, charBufferLength(ix));
+        AtomicReferenceArray<char[]> pool = charPools[ix];
+        int start = probe();
+        for (int i = 0; i <= mask; i++) {
+            int slot = (start + i) & mask;
+            char[] buffer = pool.get(slot);
+            if (buffer != null && buffer.length >= size && pool.compareAndSet(slot, buffer, null)) {
+                return buffer;
+            }
+        }
+        return calloc(size);
+    }
+
+    @Override
+    public void releaseCharBuffer(int ix, char[] buffer) {
+        AtomicReferenceArray<char[]> pool = charPools[ix];
+        int start = probe();
+        for (int i = 0; i <= mask; i++) {
+            int slot = (start + i) & mask;
+            if (pool.get(slot) == null && pool.compareAndSet(slot, null, buffer)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 按线程ID散列的起始槽位，减少并发线程在同一槽位上的竞争
+     */
+    private int probe() {
+        long id = Thread.currentThread().threadId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+}
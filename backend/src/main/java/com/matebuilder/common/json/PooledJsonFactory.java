@@ -0,0 +1,40 @@
+package com.matebuilder.common.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.util.BufferRecycler;
+
+/**
+ * 虚拟线程上改用共享缓冲区池的 JsonFactory
+ * 平台线程（Tomcat 线程池、JMH 线程等）会反复处理请求，仍使用 Jackson 默认的线程本地 BufferRecycler；
+ * 虚拟线程（execution.mode=virtual）从 PooledBufferRecycler 取用和归还读写缓冲区。
+ */
+public class PooledJsonFactory extends JsonFactory {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient PooledBufferRecycler pool;
+
+    public PooledJsonFactory() {
+        this.pool = new PooledBufferRecycler(4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    protected PooledJsonFactory(PooledJsonFactory src, ObjectCodec codec) {
+        super(src, codec);
+        this.pool = src.pool;
+    }
+
+    @Override
+    public JsonFactory copy() {
+        _checkInvalidCopy(PooledJsonFactory.class);
+        return new PooledJsonFactory(this, null);
+    }
+
+    @Override
+    public BufferRecycler _getBufferRecycler() {
+        if (pool != null && Thread.currentThread().isVirtual()) {
+            return pool;
+        }
+        return super._getBufferRecycler();
+    }
+}
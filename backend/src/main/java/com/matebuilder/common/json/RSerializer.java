@@ -0,0 +1,77 @@
+package com.matebuilder.common.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.matebuilder.common.api.R;
+
+import java.io.IOException;
+
+/**
+ * R 的序列化器
+ * 字段名和成功消息预先编码为 SerializedString，UTF8JsonGenerator 直接复制其中缓存的 UTF-8 字节，
+ * 不再每次对“操作成功”做字符转义和编码；data 仍按运行时类型交给对应的序列化器。
+ * 默认字段名且不省略 null 时，输出与 Jackson 自带的 BeanSerializer 逐字节相同。
+ */
+public class RSerializer extends StdSerializer<R<?>> {
+
+    private static final SerializedString OK_MESSAGE = new SerializedString(R.OK_MESSAGE);
+
+    private final SerializedString codeField;
+    private final SerializedString messageField;
+    private final SerializedString dataField;
+    private final boolean omitNulls;
+
+    /**
+     * @param omitNulls 是否省略值为 null 的字段
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public RSerializer(String codeField, String messageField, String dataField, boolean omitNulls) {
+        super((Class) R.class);
+        this.codeField = new SerializedString(codeField);
+        this.messageField = new SerializedString(messageField);
+        this.dataField = new SerializedString(dataField);
+        this.omitNulls = omitNulls;
+    }
+
+    /**
+     * 注册 RSerializer 的模块
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static SimpleModule module(String codeField, String messageField, String dataField, boolean omitNulls) {
+        SimpleModule module = new SimpleModule("RSerializer");
+        module.addSerializer((Class) R.class, new RSerializer(codeField, messageField, dataField, omitNulls));
+        return module;
+    }
+
+    @Override
+    public void serialize(R<?> value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(value);
+        if (value.getCode() != null) {
+            gen.writeFieldName(codeField);
+            gen.writeNumber(value.getCode());
+        } else if (!omitNulls) {
+            gen.writeFieldName(codeField);
+            gen.writeNull();
+        }
+        String message = value.getMessage();
+        if (message != null) {
+            gen.writeFieldName(messageField);
+            if (R.OK_MESSAGE.equals(message)) {
+                gen.writeString(OK_MESSAGE);
+            } else {
+                gen.writeString(message);
+            }
+        } else if (!omitNulls) {
+            gen.writeFieldName(messageField);
+            gen.writeNull();
+        }
+        if (value.getData() != null || !omitNulls) {
+            gen.writeFieldName(dataField);
+            provider.defaultSerializeValue(value.getData(), gen);
+        }
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,72 @@
+package com.matebuilder.common.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IPFS 调用指标
+ * ipfs.requests：按 operation（add/cat）和 outcome（success/error）区分的耗时，包含等待并发许可的时间，错误数即 outcome=error 的计数；
+ * ipfs.bytes：成功调用上传/下载的字节数。
+ * 计量器在构造时全部注册好，记录时不再按标签查找。
+ */
+public class IpfsMetrics {
+
+    /**
+     * 未接入指标注册表时使用，记录操作为空操作
+     */
+    public static final IpfsMetrics NOOP = new IpfsMetrics(new CompositeMeterRegistry());
+
+    private final Timer addSuccess;
+    private final Timer addError;
+    private final Timer catSuccess;
+    private final Timer catError;
+    private final DistributionSummary addBytes;
+    private final DistributionSummary catBytes;
+
+    public IpfsMetrics(MeterRegistry registry) {
+        this.addSuccess = timer(registry, "add", "success");
+        this.addError = timer(registry, "add", "error");
+        this.catSuccess = timer(registry, "cat", "success");
+        this.catError = timer(registry, "cat", "error");
+        this.addBytes = bytes(registry, "add");
+        this.catBytes = bytes(registry, "cat");
+    }
+
+    public void recordAdd(long nanos, long bytes, boolean success) {
+        if (success) {
+            addSuccess.record(nanos, TimeUnit.NANOSECONDS);
+            addBytes.record(bytes);
+        } else {
+            addError.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordCat(long nanos, long bytes, boolean success) {
+        if (success) {
+            catSuccess.record(nanos, TimeUnit.NANOSECONDS);
+            catBytes.record(bytes);
+        } else {
+            catError.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Timer timer(MeterRegistry registry, String operation, String outcome) {
+        return Timer.builder("ipfs.requests")
+                .description("IPFS 调用耗时")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static DistributionSummary bytes(MeterRegistry registry, String operation) {
+        return DistributionSummary.builder("ipfs.bytes")
+                .description("IPFS 上传/下载的字节数")
+                .baseUnit("bytes")
+                .tag("operation", operation)
+                .register(registry);
+    }
+}
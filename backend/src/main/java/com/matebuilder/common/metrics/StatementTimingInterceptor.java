@@ -0,0 +1,75 @@
+package com.matebuilder.common.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MyBatis 语句耗时
+ * 以 mybatis.statement 计时器记录每条映射语句（statement 标签为 Mapper 全限定名.方法名）的执行耗时，
+ * 流式扫描记录整个扫描过程；outcome 区分成功与异常。
+ * 标签数量受映射语句数量限制；计时器按语句缓存，每次调用只有一次 ConcurrentHashMap 查找和两次 nanoTime。
+ * 以 MeterBinder 的方式在注册表创建后接入（注册表创建时会初始化依赖映射器的组件，构造时注入会形成循环依赖），
+ * 接入之前执行的语句不计时。
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class})
+})
+public class StatementTimingInterceptor implements Interceptor, MeterBinder {
+
+    private final Map<String, Timer[]> timers = new ConcurrentHashMap<>();
+    private volatile MeterRegistry registry;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MeterRegistry registry = this.registry;
+        if (registry == null) {
+            return invocation.proceed();
+        }
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Object result = invocation.proceed();
+            success = true;
+            return result;
+        } finally {
+            Timer[] pair = timers.computeIfAbsent(statement.getId(), id -> new Timer[]{
+                    timer(registry, id, statement, "success"), timer(registry, id, statement, "error")});
+            (success ? pair[0] : pair[1]).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Timer timer(MeterRegistry registry, String id, MappedStatement statement, String outcome) {
+        return Timer.builder("mybatis.statement")
+                .description("MyBatis 映射语句执行耗时")
+                .tag("statement", id)
+                .tag("type", statement.getSqlCommandType().name().toLowerCase())
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
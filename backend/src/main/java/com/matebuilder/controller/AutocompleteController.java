@@ -0,0 +1,43 @@
+package com.matebuilder.controller;
+
+import com.matebuilder.autocomplete.Autocomplete;
+import com.matebuilder.common.api.R;
+import com.matebuilder.vo.SuggestionVO;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/autocomplete")
+@Api(tags = "输入补全")
+public class AutocompleteController {
+
+    @Autowired
+    private Autocomplete autocomplete;
+
+    @ApiOperation("按前缀补全公共用户名（按等级排序）")
+    @GetMapping("/users")
+    public R<List<SuggestionVO>> users(
+            @ApiParam("前缀") @RequestParam String prefix,
+            @ApiParam("数量") @RequestParam(defaultValue = "10") Integer limit) {
+        if (limit < 1) {
+            return R.error(400, "数量必须大于0");
+        }
+        return R.ok(autocomplete.users(prefix, limit));
+    }
+
+    @ApiOperation("按前缀补全社区标签名称")
+    @GetMapping("/labels")
+    public R<List<SuggestionVO>> labels(
+            @ApiParam("前缀") @RequestParam String prefix,
+            @ApiParam("数量") @RequestParam(defaultValue = "10") Integer limit) {
+        if (limit < 1) {
+            return R.error(400, "数量必须大于0");
+        }
+        return R.ok(autocomplete.labels(prefix, limit));
+    }
+}
@@ -0,0 +1,85 @@
+package com.matebuilder.controller;
+
+import com.matebuilder.chain.AbilitySync;
+import com.matebuilder.chain.ChainIndexer;
+import com.matebuilder.chain.ProofAnchoring;
+import com.matebuilder.common.api.R;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/chain")
+@Api(tags = "链上数据同步")
+public class ChainController {
+
+    @Autowired
+    private ChainIndexer chainIndexer;
+
+    @Autowired
+    private AbilitySync abilitySync;
+
+    @Autowired
+    private ProofAnchoring proofAnchoring;
+
+    @ApiOperation("获取链上事件同步状态")
+    @GetMapping("/indexer/stats")
+    public R<Map<String, Object>> indexerStats() {
+        return R.ok(chainIndexer.stats());
+    }
+
+    @ApiOperation("立即同步链上事件")
+    @PostMapping("/indexer/sync")
+    public R<Long> sync() throws IOException {
+        if (!chainIndexer.isEnabled()) {
+            return R.error(409, "链上事件同步未启用");
+        }
+        Long written = chainIndexer.trySync();
+        if (written == null) {
+            return R.error(409, "链上事件同步正在进行，请稍后重试");
+        }
+        return R.ok(written);
+    }
+
+    @ApiOperation("获取链上能力值同步状态")
+    @GetMapping("/ability-sync/stats")
+    public R<Map<String, Object>> abilitySyncStats() {
+        return R.ok(abilitySync.stats());
+    }
+
+    @ApiOperation("立即同步全部用户的链上能力值")
+    @PostMapping("/ability-sync")
+    public R<Long> syncAbilities() throws Exception {
+        if (!abilitySync.isEnabled()) {
+            return R.error(409, "链上能力值同步未启用");
+        }
+        Long changed = abilitySync.trySync();
+        if (changed == null) {
+            return R.error(409, "链上能力值同步正在进行，请稍后重试");
+        }
+        return R.ok(changed);
+    }
+
+    @ApiOperation("获取凭证锚定批次状态")
+    @GetMapping("/anchor/stats")
+    public R<Map<String, Object>> anchorStats() {
+        return R.ok(proofAnchoring.stats());
+    }
+
+    @ApiOperation("立即锚定未上链的凭证")
+    @PostMapping("/anchor")
+    public R<Integer> anchor() throws IOException {
+        if (!proofAnchoring.isEnabled()) {
+            return R.error(409, "凭证锚定未启用");
+        }
+        Integer anchored = proofAnchoring.tryAnchor();
+        if (anchored == null) {
+            return R.error(409, "凭证锚定正在进行，请稍后重试");
+        }
+        return R.ok(anchored);
+    }
+}
@@ -4,12 +4,18 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.matebuilder.common.api.R;
 import com.matebuilder.entity.CommunityMember;
+import com.matebuilder.export.ExportColumns;
+import com.matebuilder.export.StreamingExporter;
 import com.matebuilder.service.ICommunityMemberService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
 
 @RestController
 @RequestMapping("/api/community-member")
@@ -19,6 +25,9 @@ public class CommunityMemberController {
     @Autowired
     private ICommunityMemberService communityMemberService;
 
+    @Autowired
+    private StreamingExporter streamingExporter;
+
     @ApiOperation("分页查询社区成员")
     @GetMapping("/list")
     public R<Page<CommunityMember>> list(
@@ -37,6 +46,18 @@ public class CommunityMemberController {
         return R.ok(communityMemberService.page(page, queryWrapper));
     }
 
+    @ApiOperation("流式导出社区成员（ndjson/csv，可选gzip）")
+    @GetMapping("/community/{communityId}/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @ApiParam("社区ID") @PathVariable Integer communityId,
+            @ApiParam("导出格式：ndjson/csv") @RequestParam(defaultValue = "ndjson") String format,
+            @ApiParam("是否gzip压缩") @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletRequest request) {
+        return streamingExporter.export(request, "community-" + communityId + "-members", format, gzip,
+                ExportColumns.COMMUNITY_MEMBER,
+                handler -> communityMemberService.scanByCommunity(communityId, handler));
+    }
+
     @ApiOperation("获取成员详情")
     @GetMapping("/{id}")
     public R<CommunityMember> getById(@ApiParam("成员ID") @PathVariable Integer id) {
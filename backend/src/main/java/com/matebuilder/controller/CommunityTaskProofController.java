@@ -1,15 +1,34 @@
 package com.matebuilder.controller;
 
+import com.matebuilder.chain.ProofAnchoring;
 import com.matebuilder.common.api.R;
+import com.matebuilder.common.bulkhead.Bulkhead;
 import com.matebuilder.entity.CommunityTaskProof;
+import com.matebuilder.export.ExportColumns;
+import com.matebuilder.export.StreamingExporter;
 import com.matebuilder.service.CommunityTaskProofService;
+import com.matebuilder.vo.ProofAnchorVO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * 社区任务凭证
+ * 上传需要调用 IPFS，在 ipfsBulkhead 上异步执行，Tomcat 工作线程提交后立即释放；
+ * 隔舱占满时返回 429，执行超时返回 503，均带 Retry-After 头。
+ * 超时时上传可能仍在进行，凭证按成员、任务标题和 IPFS 哈希去重，客户端收到 503 后按原文件重试不会产生重复凭证。
+ * 重复上传返回已有凭证；若该凭证已被拒绝，则重新进入待审核，审核意见、审核人和审核时间被清空。
+ */
 @Tag(name = "社区任务凭证")
 @RestController
 @RequestMapping("/api/community/task/proof")
@@ -18,17 +37,22 @@ public class CommunityTaskProofController {
 
     private final CommunityTaskProofService communityTaskProofService;
 
+    private final ProofAnchoring proofAnchoring;
+
+    private final Bulkhead ipfsBulkhead;
+
+    private final StreamingExporter streamingExporter;
+
     @Operation(summary = "上传任务凭证")
     @PostMapping("/upload")
-    public R<CommunityTaskProof> uploadTaskProof(
+    public CompletableFuture<R<CommunityTaskProof>> uploadTaskProof(
             @RequestParam Integer communityId,
             @RequestParam Integer memberId,
             @RequestParam String taskTitle,
             @RequestParam(required = false) String taskDescription,
             @RequestParam MultipartFile proofFile) {
-        CommunityTaskProof proof = communityTaskProofService.uploadTaskProof(
-                communityId, memberId, taskTitle, taskDescription, proofFile);
-        return R.ok(proof);
+        return ipfsBulkhead.submit(() -> R.ok(communityTaskProofService.uploadTaskProof(
+                communityId, memberId, taskTitle, taskDescription, proofFile)));
     }
 
     @Operation(summary = "获取成员的任务凭证列表")
@@ -44,4 +68,41 @@ public class CommunityTaskProofController {
         List<CommunityTaskProof> proofs = communityTaskProofService.getCommunityTaskProofs(communityId);
         return R.ok(proofs);
     }
+
+    @Operation(summary = "流式导出成员的任务凭证（ndjson/csv，可选gzip）")
+    @GetMapping("/member/{memberId}/export")
+    public ResponseEntity<StreamingResponseBody> exportMemberTaskProofs(
+            @PathVariable Integer memberId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletRequest request) {
+        return streamingExporter.export(request, "member-" + memberId + "-proofs", format, gzip,
+                ExportColumns.TASK_PROOF,
+                handler -> communityTaskProofService.scanMemberTaskProofs(memberId, handler));
+    }
+
+    @Operation(summary = "流式导出社区的任务凭证（ndjson/csv，可选gzip）")
+    @GetMapping("/community/{communityId}/export")
+    public ResponseEntity<StreamingResponseBody> exportCommunityTaskProofs(
+            @PathVariable Integer communityId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletRequest request) {
+        return streamingExporter.export(request, "community-" + communityId + "-proofs", format, gzip,
+                ExportColumns.TASK_PROOF,
+                handler -> communityTaskProofService.scanCommunityTaskProofs(communityId, handler));
+    }
+
+    @Operation(summary = "获取任务凭证的上链锚定证明")
+    @GetMapping("/{id}/anchor")
+    public R<ProofAnchorVO> getAnchorProof(@PathVariable Integer id) throws IOException {
+        ProofAnchorVO anchor = proofAnchoring.proof(id);
+        return anchor != null ? R.ok(anchor) : R.error(404, "凭证尚未锚定");
+    }
+
+    @Operation(summary = "获取 IPFS 隔舱的队列深度和拒绝计数")
+    @GetMapping("/bulkhead/stats")
+    public R<Map<String, Object>> getBulkheadStats() {
+        return R.ok(ipfsBulkhead.stats());
+    }
 }
@@ -0,0 +1,25 @@
+package com.matebuilder.controller;
+
+import com.matebuilder.common.api.R;
+import com.matebuilder.invalidation.InvalidationBus;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/invalidation")
+@Api(tags = "跨节点缓存失效")
+public class InvalidationController {
+
+    @Autowired
+    private InvalidationBus invalidationBus;
+
+    @ApiOperation("获取失效日志的读取位置和延迟")
+    @GetMapping("/stats")
+    public R<Map<String, Object>> stats() {
+        return R.ok(invalidationBus.stats());
+    }
+}
@@ -0,0 +1,62 @@
+package com.matebuilder.controller;
+
+import com.matebuilder.common.api.R;
+import com.matebuilder.leaderboard.AbilityLeaderboard;
+import com.matebuilder.vo.LeaderboardEntryVO;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/leaderboard")
+@Api(tags = "能力排行榜")
+public class LeaderboardController {
+
+    private static final int MAX_LIMIT = 100;
+
+    @Autowired
+    private AbilityLeaderboard abilityLeaderboard;
+
+    @ApiOperation("获取全部能力榜单及人数")
+    @GetMapping("/abilities")
+    public R<Map<String, Integer>> abilities() {
+        return R.ok(abilityLeaderboard.sizes());
+    }
+
+    @ApiOperation("获取能力排行榜前N名")
+    @GetMapping("/{abilityName}/top")
+    public R<List<LeaderboardEntryVO>> top(
+            @ApiParam("子能力名称") @PathVariable String abilityName,
+            @ApiParam("数量") @RequestParam(defaultValue = "10") Integer n) {
+        if (n < 1) {
+            return R.error(400, "数量必须大于0");
+        }
+        return R.ok(abilityLeaderboard.top(abilityName, Math.min(n, MAX_LIMIT)));
+    }
+
+    @ApiOperation("获取用户在能力排行榜中的名次")
+    @GetMapping("/{abilityName}/rank/{userId}")
+    public R<LeaderboardEntryVO> rank(
+            @ApiParam("子能力名称") @PathVariable String abilityName,
+            @ApiParam("用户ID") @PathVariable Integer userId) {
+        LeaderboardEntryVO entry = abilityLeaderboard.rankOf(abilityName, userId);
+        return entry != null ? R.ok(entry) : R.error(404, "用户不在该能力排行榜中");
+    }
+
+    @ApiOperation("获取用户附近的排名窗口")
+    @GetMapping("/{abilityName}/around/{userId}")
+    public R<List<LeaderboardEntryVO>> around(
+            @ApiParam("子能力名称") @PathVariable String abilityName,
+            @ApiParam("用户ID") @PathVariable Integer userId,
+            @ApiParam("上下各取的人数") @RequestParam(defaultValue = "5") Integer window) {
+        if (window < 0) {
+            return R.error(400, "窗口大小不能小于0");
+        }
+        return R.ok(abilityLeaderboard.around(abilityName, userId, Math.min(window, MAX_LIMIT)));
+    }
+}
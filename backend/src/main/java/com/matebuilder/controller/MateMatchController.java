@@ -0,0 +1,72 @@
+package com.matebuilder.controller;
+
+import com.matebuilder.common.api.R;
+import com.matebuilder.matching.MatchQuery;
+import com.matebuilder.matching.MateMatcher;
+import com.matebuilder.vo.MateMatchVO;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/mate-match")
+@Api(tags = "学伴匹配")
+public class MateMatchController {
+
+    private static final int MAX_K = 100;
+
+    @Autowired
+    private MateMatcher mateMatcher;
+
+    @ApiOperation("按能力向量匹配学伴")
+    @GetMapping("/{userId}")
+    public R<List<MateMatchVO>> match(
+            @ApiParam("用户ID") @PathVariable Integer userId,
+            @ApiParam("返回数量") @RequestParam(defaultValue = "10") Integer k,
+            @ApiParam("度量方式：cosine/weighted") @RequestParam(defaultValue = "cosine") String metric,
+            @ApiParam("能力权重，格式：能力名:权重,能力名:权重") @RequestParam(required = false) String weights,
+            @ApiParam("社区标签ID") @RequestParam(required = false) Integer labelId,
+            @ApiParam("最低等级") @RequestParam(required = false) Integer minLevel,
+            @ApiParam("最高等级") @RequestParam(required = false) Integer maxLevel,
+            @ApiParam("使用近似索引") @RequestParam(defaultValue = "false") Boolean approximate) {
+        MatchQuery query = new MatchQuery();
+        query.setK(Math.max(1, Math.min(k, MAX_K)));
+        if ("weighted".equalsIgnoreCase(metric)) {
+            query.setMetric(MatchQuery.Metric.WEIGHTED_DISTANCE);
+        } else if (!"cosine".equalsIgnoreCase(metric)) {
+            return R.error(400, "不支持的度量方式：" + metric);
+        }
+        if (weights != null && !weights.isEmpty()) {
+            Map<String, Float> weightsByName = new HashMap<>();
+            for (String pair : weights.split(",")) {
+                int idx = pair.lastIndexOf(':');
+                if (idx <= 0) {
+                    return R.error(400, "能力权重格式错误：" + pair);
+                }
+                try {
+                    weightsByName.put(pair.substring(0, idx).trim(), Float.parseFloat(pair.substring(idx + 1).trim()));
+                } catch (NumberFormatException e) {
+                    return R.error(400, "能力权重格式错误：" + pair);
+                }
+            }
+            query.setWeights(mateMatcher.weightsOf(weightsByName));
+        }
+        query.setLabelId(labelId);
+        query.setMinLevel(minLevel);
+        query.setMaxLevel(maxLevel);
+        query.setApproximate(approximate);
+        return R.ok(mateMatcher.match(userId, query));
+    }
+
+    @ApiOperation("获取匹配引擎状态")
+    @GetMapping("/stats")
+    public R<Map<String, Object>> stats() {
+        return R.ok(mateMatcher.stats());
+    }
+}
@@ -0,0 +1,50 @@
+package com.matebuilder.controller;
+
+import com.matebuilder.common.api.R;
+import com.matebuilder.recommend.CommunityRecommender;
+import com.matebuilder.vo.RecommendationVO;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/recommend")
+@Api(tags = "推荐")
+public class RecommendController {
+
+    @Autowired
+    private CommunityRecommender communityRecommender;
+
+    @ApiOperation("可能认识的人")
+    @GetMapping("/users/{userId}")
+    public R<List<RecommendationVO>> users(
+            @ApiParam("用户ID") @PathVariable Integer userId,
+            @ApiParam("数量") @RequestParam(defaultValue = "10") Integer limit) {
+        if (limit < 1) {
+            return R.error(400, "数量必须大于0");
+        }
+        return R.ok(communityRecommender.similarUsers(userId, limit));
+    }
+
+    @ApiOperation("可能喜欢的社区")
+    @GetMapping("/communities/{userId}")
+    public R<List<RecommendationVO>> communities(
+            @ApiParam("用户ID") @PathVariable Integer userId,
+            @ApiParam("数量") @RequestParam(defaultValue = "10") Integer limit) {
+        if (limit < 1) {
+            return R.error(400, "数量必须大于0");
+        }
+        return R.ok(communityRecommender.suggestedCommunities(userId, limit));
+    }
+
+    @ApiOperation("获取推荐引擎状态")
+    @GetMapping("/stats")
+    public R<Map<String, Object>> stats() {
+        return R.ok(communityRecommender.stats());
+    }
+}
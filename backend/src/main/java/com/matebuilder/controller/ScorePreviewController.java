@@ -0,0 +1,69 @@
+package com.matebuilder.controller;
+
+import com.matebuilder.common.api.R;
+import com.matebuilder.scoring.ScorePreview;
+import com.matebuilder.scoring.SenateScoring;
+import com.matebuilder.vo.ScorePreviewVO;
+import com.matebuilder.vo.ScoreWhatIfVO;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiParam;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/scoring")
+@Api(tags = "参议院评分预览")
+public class ScorePreviewController {
+
+    @Autowired
+    private ScorePreview scorePreview;
+
+    @ApiOperation("预览待结算提交此时结算的最终分")
+    @GetMapping("/preview")
+    public R<Map<Long, List<ScorePreviewVO>>> preview(
+            @ApiParam("链上社区ID，为空时预览全部社区") @RequestParam(required = false) List<Long> chainCommunityIds) {
+        return R.ok(scorePreview.preview(chainCommunityIds));
+    }
+
+    @ApiOperation("按假设的评分和信誉度预览最终分")
+    @PostMapping("/what-if")
+    public R<Map<Long, List<ScorePreviewVO>>> whatIf(@ApiParam("假设条件") @RequestBody ScoreWhatIfVO whatIf) {
+        if (whatIf.getScores() != null) {
+            for (ScoreWhatIfVO.Score score : whatIf.getScores()) {
+                if (score.getScore() != null && (score.getScore() < 0 || score.getScore() > SenateScoring.MAX_SCORE)) {
+                    return R.error(400, "分数必须在0到" + SenateScoring.MAX_SCORE + "之间");
+                }
+            }
+        }
+        if (whatIf.getReputations() != null) {
+            for (Long reputation : whatIf.getReputations().values()) {
+                if (reputation == null || reputation < 0 || reputation > ScorePreview.MAX_REPUTATION) {
+                    return R.error(400, "信誉度必须在0到" + ScorePreview.MAX_REPUTATION + "之间");
+                }
+            }
+        }
+        return R.ok(scorePreview.whatIf(whatIf));
+    }
+
+    @ApiOperation("获取参议员当前信誉度")
+    @GetMapping("/reputation/{senator}")
+    public R<Long> reputation(@ApiParam("参议员钱包地址") @PathVariable String senator) {
+        return R.ok(scorePreview.reputation(senator));
+    }
+
+    @ApiOperation("获取评分重放状态")
+    @GetMapping("/stats")
+    public R<Map<String, Object>> stats() {
+        return R.ok(scorePreview.stats());
+    }
+
+    @ApiOperation("立即从已同步的链上事件重放评分")
+    @PostMapping("/replay")
+    public R<Integer> replay() {
+        return R.ok(scorePreview.replay());
+    }
+}
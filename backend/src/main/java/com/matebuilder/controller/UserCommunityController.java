@@ -4,7 +4,10 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.matebuilder.common.api.R;
 import com.matebuilder.entity.UserCommunity;
+import com.matebuilder.search.CommunitySearchIndex;
 import com.matebuilder.service.IUserCommunityService;
+import com.matebuilder.vo.CommunitySearchVO;
+import com.matebuilder.vo.JoinedCommunityVO;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -13,6 +16,7 @@ import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/user-community")
@@ -22,6 +26,9 @@ public class UserCommunityController {
     @Autowired
     private IUserCommunityService userCommunityService;
 
+    @Autowired
+    private CommunitySearchIndex communitySearchIndex;
+
     @ApiOperation("分页查询用户社区")
     @GetMapping("/list")
     public R<Page<UserCommunity>> list(
@@ -36,10 +43,40 @@ public class UserCommunityController {
         return R.ok(userCommunityService.page(page, queryWrapper));
     }
 
+    @ApiOperation("全文搜索社区")
+    @GetMapping("/search")
+    public R<Page<CommunitySearchVO>> search(
+            @ApiParam("关键字") @RequestParam(required = false) String keyword,
+            @ApiParam("社区标签ID") @RequestParam(required = false) Integer labelId,
+            @ApiParam("只返回未到期的社区") @RequestParam(defaultValue = "false") Boolean notExpired,
+            @ApiParam("页码") @RequestParam(defaultValue = "1") Integer current,
+            @ApiParam("每页数量") @RequestParam(defaultValue = "10") Integer size) throws IOException {
+        if (current < 1 || size < 1) {
+            return R.error(400, "页码和每页数量必须大于0");
+        }
+        if ((long) current * size > CommunitySearchIndex.MAX_WINDOW) {
+            return R.error(400, "只能查看前" + CommunitySearchIndex.MAX_WINDOW + "条搜索结果，请缩小搜索范围");
+        }
+        return R.ok(communitySearchIndex.search(keyword, labelId, notExpired, current, size));
+    }
+
+    @ApiOperation("重建社区搜索索引")
+    @PostMapping("/search/rebuild")
+    public R<Boolean> rebuildSearchIndex() throws Exception {
+        communitySearchIndex.rebuild();
+        return R.ok(true);
+    }
+
+    @ApiOperation("获取用户加入的社区概览")
+    @GetMapping("/joined/{userId}")
+    public R<List<JoinedCommunityVO>> listJoined(@ApiParam("用户ID") @PathVariable Integer userId) {
+        return R.ok(userCommunityService.listJoinedCommunities(userId));
+    }
+
     @ApiOperation("获取社区详情")
     @GetMapping("/{id}")
     public R<UserCommunity> getById(@ApiParam("社区ID") @PathVariable Integer id) {
-        return R.ok(userCommunityService.getById(id));
+        return R.ok(userCommunityService.getByIdCoalesced(id));
     }
 
     @ApiOperation("创建社区")
@@ -74,7 +111,7 @@ public class UserCommunityController {
     @ApiOperation("获取社区logo")
     @GetMapping(value = "/{id}/logo", produces = MediaType.IMAGE_JPEG_VALUE)
     public byte[] getLogo(@ApiParam("社区ID") @PathVariable Integer id) {
-        UserCommunity community = userCommunityService.getById(id);
+        UserCommunity community = userCommunityService.getByIdCoalesced(id);
         return community != null ? community.getCommunityLogo() : null;
     }
 }
@@ -1,15 +1,21 @@
 package com.matebuilder.controller;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.matebuilder.availability.UsernameAvailability;
 import com.matebuilder.common.api.R;
 import com.matebuilder.entity.User;
 import com.matebuilder.service.IUserService;
+import com.matebuilder.vo.UsernameAvailabilityVO;
+import com.matebuilder.wallet.WalletDirectory;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/user")
 @Api(tags = "用户管理")
@@ -18,6 +24,12 @@ public class UserController {
     @Autowired
     private IUserService userService;
 
+    @Autowired
+    private UsernameAvailability usernameAvailability;
+
+    @Autowired
+    private WalletDirectory walletDirectory;
+
     @ApiOperation("分页查询用户")
     @GetMapping("/list")
     public R<Page<User>> list(
@@ -27,6 +39,36 @@ public class UserController {
         return R.ok(userService.page(page));
     }
 
+    @ApiOperation("检查用户名是否可用")
+    @GetMapping("/availability")
+    public R<UsernameAvailabilityVO> availability(
+            @ApiParam("公共用户名") @RequestParam(required = false) String publicUsername,
+            @ApiParam("私人用户名") @RequestParam(required = false) String privateUsername) {
+        return R.ok(usernameAvailability.check(publicUsername, privateUsername));
+    }
+
+    @ApiOperation("批量解析钱包地址对应的用户ID")
+    @PostMapping("/wallet/resolve")
+    public R<Map<String, Integer>> resolveWallets(@ApiParam("钱包地址列表") @RequestBody List<String> walletAddresses) {
+        if (walletAddresses.size() > walletDirectory.getMaxBatch()) {
+            return R.error(400, "一次最多解析 " + walletDirectory.getMaxBatch() + " 个地址");
+        }
+        return R.ok(walletDirectory.resolveAll(walletAddresses));
+    }
+
+    @ApiOperation("根据钱包地址获取用户详情")
+    @GetMapping("/wallet/{walletAddress}")
+    public R<User> getByWallet(@ApiParam("钱包地址") @PathVariable String walletAddress) {
+        Integer userId = walletDirectory.resolve(walletAddress);
+        return userId != null ? R.ok(userService.getById(userId)) : R.error(404, "该钱包地址未绑定用户");
+    }
+
+    @ApiOperation("获取钱包地址索引状态")
+    @GetMapping("/wallet/stats")
+    public R<Map<String, Object>> walletStats() {
+        return R.ok(walletDirectory.stats());
+    }
+
     @ApiOperation("获取用户详情")
     @GetMapping("/{id}")
     public R<User> getById(@ApiParam("用户ID") @PathVariable Integer id) {
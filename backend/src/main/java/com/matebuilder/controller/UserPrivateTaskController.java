@@ -1,19 +1,27 @@
 package com.matebuilder.controller;
 
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.matebuilder.archive.TaskArchiver;
 import com.matebuilder.common.api.R;
 import com.matebuilder.entity.UserPrivateTask;
+import com.matebuilder.export.ExportColumns;
+import com.matebuilder.export.StreamingExporter;
 import com.matebuilder.service.IUserPrivateTaskService;
+import com.matebuilder.sharding.TaskShards;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/user-private-task")
@@ -23,6 +31,15 @@ public class UserPrivateTaskController {
     @Autowired
     private IUserPrivateTaskService userPrivateTaskService;
 
+    @Autowired
+    private StreamingExporter streamingExporter;
+
+    @Autowired
+    private TaskShards taskShards;
+
+    @Autowired
+    private TaskArchiver taskArchiver;
+
     @ApiOperation("分页查询用户任务")
     @GetMapping("/list")
     public R<Page<UserPrivateTask>> list(
@@ -32,23 +49,19 @@ public class UserPrivateTaskController {
             @ApiParam("任务状态") @RequestParam(required = false) String taskStatus,
             @ApiParam("任务日期") @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate taskDate) {
         
-        Page<UserPrivateTask> page = new Page<>(current, size);
-        QueryWrapper<UserPrivateTask> queryWrapper = new QueryWrapper<>();
-        
-        if (userId != null) {
-            queryWrapper.eq("user_id", userId);
-        }
-        if (taskStatus != null) {
-            queryWrapper.eq("task_status", taskStatus);
-        }
-        if (taskDate != null) {
-            queryWrapper.eq("task_date", taskDate);
-        }
-        
-        queryWrapper.orderByDesc("priority")
-                   .orderByAsc("task_date");
-        
-        return R.ok(userPrivateTaskService.page(page, queryWrapper));
+        return R.ok(userPrivateTaskService.pageTasks(current, size, userId, taskStatus, taskDate));
+    }
+
+    @ApiOperation("流式导出用户的全部任务（ndjson/csv，可选gzip）")
+    @GetMapping("/export/{userId}")
+    public ResponseEntity<StreamingResponseBody> export(
+            @ApiParam("用户ID") @PathVariable Integer userId,
+            @ApiParam("导出格式：ndjson/csv") @RequestParam(defaultValue = "ndjson") String format,
+            @ApiParam("是否gzip压缩") @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletRequest request) {
+        return streamingExporter.export(request, "user-" + userId + "-tasks", format, gzip,
+                ExportColumns.PRIVATE_TASK,
+                handler -> userPrivateTaskService.scanByUser(userId, handler));
     }
 
     @ApiOperation("获取任务详情")
@@ -60,6 +73,9 @@ public class UserPrivateTaskController {
     @ApiOperation("创建任务")
     @PostMapping
     public R<Boolean> save(@ApiParam("任务信息") @RequestBody UserPrivateTask userPrivateTask) {
+        if (userPrivateTask.getUserId() == null) {
+            return R.error(400, "用户ID不能为空");
+        }
         return R.ok(userPrivateTaskService.save(userPrivateTask));
     }
 
@@ -92,11 +108,30 @@ public class UserPrivateTaskController {
     @ApiOperation("获取用户当天任务列表")
     @GetMapping("/today/{userId}")
     public R<List<UserPrivateTask>> getTodayTasks(@ApiParam("用户ID") @PathVariable Integer userId) {
-        QueryWrapper<UserPrivateTask> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("user_id", userId)
-                   .eq("task_date", LocalDate.now())
-                   .orderByDesc("priority")
-                   .orderByAsc("start_time");
-        return R.ok(userPrivateTaskService.list(queryWrapper));
+        return R.ok(userPrivateTaskService.listByUserAndDate(userId, LocalDate.now()));
+    }
+
+    @ApiOperation("获取任务分片状态")
+    @GetMapping("/shards/stats")
+    public R<Map<String, Object>> shardStats() {
+        return R.ok(taskShards.stats());
+    }
+
+    @ApiOperation("增加分片后把任务搬到各用户所属的分片")
+    @PostMapping("/shards/rebalance")
+    public R<Long> rebalanceShards() {
+        return R.ok(taskShards.rebalance() + taskArchiver.rebalance());
+    }
+
+    @ApiOperation("立即执行一轮已完成任务的归档")
+    @PostMapping("/archive/run")
+    public R<Long> runArchive() {
+        return R.ok(taskArchiver.run());
+    }
+
+    @ApiOperation("获取任务归档状态")
+    @GetMapping("/archive/stats")
+    public R<Map<String, Object>> archiveStats() {
+        return R.ok(taskArchiver.stats());
     }
 }
@@ -0,0 +1,29 @@
+package com.matebuilder.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@TableName("tb_chain_checkpoint")
+@ApiModel(value = "ChainCheckpoint对象", description = "链上同步进度表")
+public class ChainCheckpoint {
+
+    @TableId(value = "name", type = IdType.INPUT)
+    @ApiModelProperty(value = "同步任务名称")
+    private String name;
+
+    @ApiModelProperty(value = "已同步到的区块高度")
+    private Long blockNumber;
+
+    @ApiModelProperty(value = "已同步到的区块哈希")
+    private String blockHash;
+
+    @ApiModelProperty(value = "修改时间")
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,57 @@
+package com.matebuilder.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@TableName("tb_chain_event")
+@ApiModel(value = "ChainEvent对象", description = "链上事件表")
+public class ChainEvent {
+
+    @TableId(value = "id", type = IdType.AUTO)
+    @ApiModelProperty(value = "事件ID")
+    private Long id;
+
+    @ApiModelProperty(value = "区块高度")
+    private Long blockNumber;
+
+    @ApiModelProperty(value = "区块哈希")
+    private String blockHash;
+
+    @ApiModelProperty(value = "交易哈希")
+    private String txHash;
+
+    @ApiModelProperty(value = "日志在区块中的序号")
+    private Integer logIndex;
+
+    @ApiModelProperty(value = "合约地址")
+    private String contractAddress;
+
+    @ApiModelProperty(value = "事件名称")
+    private String eventName;
+
+    @ApiModelProperty(value = "链上社区ID")
+    private Long chainCommunityId;
+
+    @ApiModelProperty(value = "事件主体地址（创建者/成员/用户）")
+    private String account;
+
+    @ApiModelProperty(value = "事件相关方地址（参议员）")
+    private String counterparty;
+
+    @ApiModelProperty(value = "社区类别")
+    private Integer category;
+
+    @ApiModelProperty(value = "数值（分数/奖励/能力值）")
+    private BigDecimal amount;
+
+    @ApiModelProperty(value = "创建时间")
+    private LocalDateTime createTime;
+}
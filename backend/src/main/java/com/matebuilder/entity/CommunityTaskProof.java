@@ -26,6 +26,10 @@ public class CommunityTaskProof {
     
     private String fileName;
     
+    private Long fileSize;
+    
+    private String mimeType;
+    
     private Integer createBy;
     
     private LocalDateTime createTime;
@@ -0,0 +1,35 @@
+package com.matebuilder.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@TableName("tb_invalidation_log")
+@ApiModel(value = "InvalidationRecord对象", description = "缓存失效日志表")
+public class InvalidationRecord {
+
+    @TableId(value = "id", type = IdType.AUTO)
+    @ApiModelProperty(value = "日志ID，同时作为版本号")
+    private Long id;
+
+    @ApiModelProperty(value = "实体类名")
+    private String entityType;
+
+    @ApiModelProperty(value = "实体主键")
+    private String entityId;
+
+    @ApiModelProperty(value = "操作：SAVE/UPDATE/REMOVE")
+    private String action;
+
+    @ApiModelProperty(value = "写入节点")
+    private String origin;
+
+    @ApiModelProperty(value = "写入时间（数据库时钟）")
+    private LocalDateTime createTime;
+}
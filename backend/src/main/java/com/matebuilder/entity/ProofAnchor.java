@@ -0,0 +1,38 @@
+package com.matebuilder.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@TableName("tb_proof_anchor")
+@ApiModel(value = "ProofAnchor对象", description = "凭证锚定表")
+public class ProofAnchor {
+
+    @TableId(value = "id", type = IdType.AUTO)
+    @ApiModelProperty(value = "ID")
+    private Long id;
+
+    @ApiModelProperty(value = "凭证ID")
+    private Integer proofId;
+
+    @ApiModelProperty(value = "批次ID")
+    private Long batchId;
+
+    @ApiModelProperty(value = "叶子序号")
+    private Integer leafIndex;
+
+    @ApiModelProperty(value = "叶子哈希")
+    private String leafHash;
+
+    @ApiModelProperty(value = "默克尔路径（兄弟节点哈希，逗号分隔）")
+    private String merklePath;
+
+    @ApiModelProperty(value = "创建时间")
+    private LocalDateTime createTime;
+}
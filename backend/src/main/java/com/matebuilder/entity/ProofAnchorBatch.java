@@ -0,0 +1,47 @@
+package com.matebuilder.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@TableName("tb_proof_anchor_batch")
+@ApiModel(value = "ProofAnchorBatch对象", description = "凭证锚定批次表")
+public class ProofAnchorBatch {
+
+    @TableId(value = "id", type = IdType.AUTO)
+    @ApiModelProperty(value = "批次ID")
+    private Long id;
+
+    @ApiModelProperty(value = "默克尔根")
+    private String merkleRoot;
+
+    @ApiModelProperty(value = "叶子数量")
+    private Integer leafCount;
+
+    @ApiModelProperty(value = "状态：pending/submitted/confirmed/failed")
+    private String status;
+
+    @ApiModelProperty(value = "上链交易哈希")
+    private String txHash;
+
+    @ApiModelProperty(value = "上链区块高度")
+    private Long blockNumber;
+
+    @ApiModelProperty(value = "提交次数")
+    private Integer attempts;
+
+    @ApiModelProperty(value = "最近一次发送交易的时间")
+    private LocalDateTime submitTime;
+
+    @ApiModelProperty(value = "创建时间")
+    private LocalDateTime createTime;
+
+    @ApiModelProperty(value = "修改时间")
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,36 @@
+package com.matebuilder.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@TableName("tb_task_archive_progress")
+@ApiModel(value = "TaskArchiveProgress对象", description = "任务归档进度表")
+public class TaskArchiveProgress {
+
+    @TableId(value = "name", type = IdType.INPUT)
+    @ApiModelProperty(value = "归档任务名称")
+    private String name;
+
+    @ApiModelProperty(value = "本轮归档的截止日期（不含）")
+    private LocalDate cutoffDate;
+
+    @ApiModelProperty(value = "本轮已处理到的任务ID")
+    private Long lastId;
+
+    @ApiModelProperty(value = "本轮已归档的任务数")
+    private Long archivedRows;
+
+    @ApiModelProperty(value = "状态：running/done")
+    private String state;
+
+    @ApiModelProperty(value = "修改时间")
+    private LocalDateTime updateTime;
+}
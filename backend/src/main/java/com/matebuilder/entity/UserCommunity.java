@@ -36,4 +36,7 @@ public class UserCommunity extends BaseEntity {
     
     @ApiModelProperty(value = "到期时间")
     private LocalDateTime expireTime;
+
+    @ApiModelProperty(value = "链上社区ID")
+    private Long chainCommunityId;
 }
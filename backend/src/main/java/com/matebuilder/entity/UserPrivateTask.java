@@ -18,7 +18,7 @@ import java.time.LocalDateTime;
 @ApiModel(value = "UserPrivateTask对象", description = "用户私人任务表")
 public class UserPrivateTask extends BaseEntity {
     
-    @TableId(value = "id", type = IdType.AUTO)
+    @TableId(value = "id", type = IdType.ASSIGN_ID)
     @ApiModelProperty(value = "任务ID")
     private Integer id;
     
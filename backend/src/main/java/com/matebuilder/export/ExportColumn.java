@@ -0,0 +1,29 @@
+package com.matebuilder.export;
+
+import java.util.function.Function;
+
+/**
+ * CSV 导出列：表头与取值函数
+ */
+public final class ExportColumn<T> {
+
+    private final String header;
+    private final Function<T, Object> getter;
+
+    private ExportColumn(String header, Function<T, Object> getter) {
+        this.header = header;
+        this.getter = getter;
+    }
+
+    public static <T> ExportColumn<T> of(String header, Function<T, Object> getter) {
+        return new ExportColumn<>(header, getter);
+    }
+
+    public String getHeader() {
+        return header;
+    }
+
+    public Object value(T row) {
+        return getter.apply(row);
+    }
+}
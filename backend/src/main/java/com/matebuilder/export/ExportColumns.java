@@ -0,0 +1,49 @@
+package com.matebuilder.export;
+
+import com.matebuilder.entity.CommunityMember;
+import com.matebuilder.entity.CommunityTaskProof;
+import com.matebuilder.entity.UserPrivateTask;
+
+import java.util.List;
+
+/**
+ * 各导出接口的 CSV 列，顺序与映射器中的查询列一致
+ */
+public final class ExportColumns {
+
+    public static final List<ExportColumn<CommunityTaskProof>> TASK_PROOF = List.of(
+            ExportColumn.of("id", CommunityTaskProof::getId),
+            ExportColumn.of("communityId", CommunityTaskProof::getCommunityId),
+            ExportColumn.of("memberId", CommunityTaskProof::getMemberId),
+            ExportColumn.of("taskTitle", CommunityTaskProof::getTaskTitle),
+            ExportColumn.of("taskDescription", CommunityTaskProof::getTaskDescription),
+            ExportColumn.of("proofType", CommunityTaskProof::getProofType),
+            ExportColumn.of("proofHash", CommunityTaskProof::getProofHash),
+            ExportColumn.of("fileName", CommunityTaskProof::getFileName),
+            ExportColumn.of("fileSize", CommunityTaskProof::getFileSize),
+            ExportColumn.of("mimeType", CommunityTaskProof::getMimeType),
+            ExportColumn.of("createTime", CommunityTaskProof::getCreateTime));
+
+    public static final List<ExportColumn<CommunityMember>> COMMUNITY_MEMBER = List.of(
+            ExportColumn.of("id", CommunityMember::getId),
+            ExportColumn.of("communityId", CommunityMember::getCommunityId),
+            ExportColumn.of("userId", CommunityMember::getUserId),
+            ExportColumn.of("memberRole", CommunityMember::getMemberRole),
+            ExportColumn.of("createTime", CommunityMember::getCreateTime));
+
+    public static final List<ExportColumn<UserPrivateTask>> PRIVATE_TASK = List.of(
+            ExportColumn.of("id", UserPrivateTask::getId),
+            ExportColumn.of("userId", UserPrivateTask::getUserId),
+            ExportColumn.of("taskTitle", UserPrivateTask::getTaskTitle),
+            ExportColumn.of("taskDescription", UserPrivateTask::getTaskDescription),
+            ExportColumn.of("taskDate", UserPrivateTask::getTaskDate),
+            ExportColumn.of("taskStatus", UserPrivateTask::getTaskStatus),
+            ExportColumn.of("priority", UserPrivateTask::getPriority),
+            ExportColumn.of("startTime", UserPrivateTask::getStartTime),
+            ExportColumn.of("endTime", UserPrivateTask::getEndTime),
+            ExportColumn.of("completionTime", UserPrivateTask::getCompletionTime),
+            ExportColumn.of("createTime", UserPrivateTask::getCreateTime));
+
+    private ExportColumns() {
+    }
+}
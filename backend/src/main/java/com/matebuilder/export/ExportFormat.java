@@ -0,0 +1,49 @@
+package com.matebuilder.export;
+
+import java.util.Locale;
+
+/**
+ * 导出格式
+ */
+public enum ExportFormat {
+
+    /**
+     * 每行一个 JSON 对象，字段与列表接口返回的实体一致
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /**
+     * 带表头的 CSV（RFC 4180），UTF-8 编码
+     */
+    CSV("text/csv;charset=UTF-8", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * 按名称解析，不区分大小写，未知格式返回 null
+     */
+    public static ExportFormat of(String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
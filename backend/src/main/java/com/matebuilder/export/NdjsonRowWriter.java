@@ -0,0 +1,41 @@
+package com.matebuilder.export;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * NDJSON：每行一个 JSON 对象，以 \n 结尾
+ * 所有行共用一个 JsonGenerator，写完一行不刷出，由生成器的缓冲区满时批量写到输出流。
+ */
+class NdjsonRowWriter<T> implements RowWriter<T> {
+
+    private final ObjectWriter writer;
+    private final JsonGenerator generator;
+
+    NdjsonRowWriter(OutputStream out, ObjectWriter writer) throws IOException {
+        this.writer = writer;
+        this.generator = writer.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // 根级值之间默认以空格分隔，这里改为每行显式写换行
+        this.generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void begin() {
+    }
+
+    @Override
+    public void write(T row) throws IOException {
+        writer.writeValue(generator, row);
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        generator.flush();
+    }
+}
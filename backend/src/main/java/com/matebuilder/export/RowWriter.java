@@ -0,0 +1,21 @@
+package com.matebuilder.export;
+
+import java.io.IOException;
+
+/**
+ * 逐行写出导出结果，实现只持有固定大小的缓冲区
+ */
+interface RowWriter<T> {
+
+    /**
+     * 写出表头等前置内容
+     */
+    void begin() throws IOException;
+
+    void write(T row) throws IOException;
+
+    /**
+     * 刷出缓冲区中剩余的内容，不关闭底层输出流
+     */
+    void finish() throws IOException;
+}
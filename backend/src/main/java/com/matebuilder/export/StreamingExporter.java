@@ -0,0 +1,109 @@
+package com.matebuilder.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.matebuilder.common.api.R;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.ResultHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 流式导出
+ * 映射器以 FORWARD_ONLY + fetchSize 流式扫描（连接串已开启 useCursorFetch），
+ * 每读到一行就经 RowWriter 写入固定大小的缓冲区，缓冲区满时写到响应流，内存占用与行数无关。
+ * 写出在 Spring MVC 的异步线程上进行，开始写出时把该请求的异步超时放宽到 export.timeout-ms，
+ * 不受默认30秒异步超时的限制；扫描期间占用一个数据库连接。
+ * 响应已开始写出后出错只能中断连接，客户端会看到不完整的分块传输，而不是一个看似完整的文件。
+ */
+@Slf4j
+@Component
+public class StreamingExporter {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final ObjectWriter jsonWriter;
+    private final long timeoutMs;
+
+    public StreamingExporter(ObjectMapper objectMapper,
+                             @Value("${export.timeout-ms:600000}") long timeoutMs) {
+        this.jsonWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * 构造流式导出响应
+     * @param request 当前请求，用于放宽异步超时
+     * @param fileName 下载文件名（不含扩展名）
+     * @param formatName 导出格式名（ndjson/csv），不支持时返回 R.error(400)
+     * @param gzip 是否以 Content-Encoding: gzip 压缩
+     * @param columns CSV 列
+     * @param scan 以给定的 ResultHandler 执行流式查询
+     * 返回类型须声明为 ResponseEntity&lt;StreamingResponseBody&gt;，Spring MVC 据此选择流式写出，否则会按消息转换器处理而失败
+     */
+    public <T> ResponseEntity<StreamingResponseBody> export(HttpServletRequest request, String fileName, String formatName, boolean gzip,
+                                                            List<ExportColumn<T>> columns, Consumer<ResultHandler<T>> scan) {
+        ExportFormat format = ExportFormat.of(formatName);
+        if (format == null) {
+            R<Void> error = R.error(400, "不支持的导出格式：" + formatName);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(out -> jsonWriter.writeValue(out, error));
+        }
+        StreamingResponseBody body = out -> {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().setTimeout(timeoutMs);
+            }
+            OutputStream target = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : out;
+            RowWriter<T> writer = format == ExportFormat.CSV
+                    ? new CsvRowWriter<>(target, columns, BUFFER_SIZE)
+                    : new NdjsonRowWriter<>(target, jsonWriter);
+            try {
+                writer.begin();
+                scan.accept(context -> {
+                    try {
+                        writer.write(context.getResultObject());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writer.finish();
+                if (target instanceof GZIPOutputStream) {
+                    ((GZIPOutputStream) target).finish();
+                }
+            } catch (RuntimeException e) {
+                // 写响应失败（多为客户端断开）时 MyBatis 会层层包装，这里还原为 IOException
+                for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                    if (cause instanceof UncheckedIOException) {
+                        throw ((UncheckedIOException) cause).getCause();
+                    }
+                }
+                log.error("Export {} failed", fileName, e);
+                throw e;
+            }
+        };
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(format.getContentType()));
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(fileName + "." + format.getExtension(), StandardCharsets.UTF_8)
+                .build());
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+}
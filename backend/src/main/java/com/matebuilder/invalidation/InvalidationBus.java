@@ -0,0 +1,270 @@
+package com.matebuilder.invalidation;
+
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.matebuilder.common.event.EntityChangeEvent;
+import com.matebuilder.entity.InvalidationRecord;
+import com.matebuilder.mapper.InvalidationLogMapper;
+import com.matebuilder.service.IBaseService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 跨节点的缓存失效
+ * 多实例部署时，内存索引（钱包目录、用户名过滤器、自动补全、搜索索引、排行榜等）只能收到本节点的 EntityChangeEvent。
+ * 这里把 invalidation.entities 中实体的写入追加到 tb_invalidation_log（实体、主键、操作，日志ID即版本号）：
+ * 监听器同步执行，在事务内写入时与数据一起提交或回滚。
+ * 每个节点每 invalidation.poll-interval-ms 按主键范围读取新记录（见 LogCursor），跳过本节点写入的记录，
+ * 同一实体只取版本最高的一条，按主键重新读取完整实体后以 remote=true 重新发布 EntityChangeEvent，
+ * 各内存索引沿用已有的增量更新逻辑；读取时实体已被删除的跳过，由随后的删除记录处理。
+ * 启动时从当前最大ID开始读取，之前的变更已包含在各索引启动时的全量加载中。
+ * 延迟以数据库时钟计算（轮询时的数据库时间减去记录的写入时间，加上本地处理时间），记入 invalidation.staleness；
+ * 正常情况下不超过轮询间隔加一次轮询的耗时，超过 invalidation.max-staleness-ms 时计数并告警。
+ * 超过 invalidation.retention-hours 的记录定期删除。
+ */
+@Slf4j
+@Component
+public class InvalidationBus {
+
+    private static final int PURGE_BATCH = 10000;
+
+    private final InvalidationLogMapper logMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<String, IBaseService<?>> services = new HashMap<>();
+    private final Set<String> entities;
+    private final String nodeId;
+    private final int batchSize;
+    private final long gapTimeoutMs;
+    private final int maxGaps;
+    private final long maxStalenessMs;
+    private final int retentionHours;
+
+    private volatile LogCursor cursor;
+    private Timer staleness;
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder appendFailures = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder ownSkipped = new LongAdder();
+    private final LongAdder exceeded = new LongAdder();
+    private final LongAdder pollFailures = new LongAdder();
+    private volatile long maxObservedStalenessMs;
+
+    public InvalidationBus(InvalidationLogMapper logMapper,
+                           ApplicationEventPublisher eventPublisher,
+                           List<IBaseService<?>> services,
+                           @Value("${invalidation.entities:User,CommunityLabel,UserCommunity,CommunityMember,UserAbility}") String entities,
+                           @Value("${invalidation.node-id:}") String nodeId,
+                           @Value("${invalidation.batch-size:500}") int batchSize,
+                           @Value("${invalidation.gap-timeout-ms:60000}") long gapTimeoutMs,
+                           @Value("${invalidation.max-gaps:10000}") int maxGaps,
+                           @Value("${invalidation.max-staleness-ms:5000}") long maxStalenessMs,
+                           @Value("${invalidation.retention-hours:24}") int retentionHours) {
+        this.logMapper = logMapper;
+        this.eventPublisher = eventPublisher;
+        for (IBaseService<?> service : services) {
+            this.services.put(service.getEntityClass().getSimpleName(), service);
+        }
+        this.entities = Arrays.stream(entities.split(",")).map(String::trim).filter(s -> !s.isEmpty())
+                .collect(Collectors.toSet());
+        this.nodeId = nodeId.isEmpty() ? UUID.randomUUID().toString() : nodeId;
+        this.batchSize = batchSize;
+        this.gapTimeoutMs = gapTimeoutMs;
+        this.maxGaps = maxGaps;
+        this.maxStalenessMs = maxStalenessMs;
+        this.retentionHours = retentionHours;
+    }
+
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry registry) {
+        this.staleness = Timer.builder("invalidation.staleness")
+                .description("其他节点的写入到本节点重新发布变更事件的延迟（数据库时钟）")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(60))
+                .register(registry);
+        FunctionCounter.builder("invalidation.records", appended, LongAdder::sum).tag("result", "appended").register(registry);
+        FunctionCounter.builder("invalidation.records", applied, LongAdder::sum).tag("result", "applied").register(registry);
+        FunctionCounter.builder("invalidation.records", exceeded, LongAdder::sum).tag("result", "exceeded").register(registry);
+        FunctionCounter.builder("invalidation.records", appendFailures, LongAdder::sum).tag("result", "append_failed").register(registry);
+    }
+
+    /**
+     * 本节点的写入追加到失效日志；其他节点重新发布的事件不再追加
+     * 不在事务中时数据已经提交，追加失败只记录日志和计数，不抛给写入方；其他节点的索引要等下次全量重建才能看到这次变更
+     */
+    @EventListener
+    public void onEntityChange(EntityChangeEvent event) {
+        String entityType = event.getEntityClass().getSimpleName();
+        if (event.isRemote() || event.getId() == null || !entities.contains(entityType)) {
+            return;
+        }
+        InvalidationRecord record = new InvalidationRecord();
+        record.setEntityType(entityType);
+        record.setEntityId(event.getId().toString());
+        record.setAction(event.getAction().name());
+        record.setOrigin(nodeId);
+        try {
+            logMapper.insert(record);
+            appended.increment();
+        } catch (Exception e) {
+            appendFailures.increment();
+            log.error("Invalidation log append failed for {} {} {}, other nodes will not see this change. Error: {}",
+                    event.getAction(), entityType, event.getId(), e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try {
+            cursor = new LogCursor(logMapper.selectMaxId(), TimeUnit.MILLISECONDS.toNanos(gapTimeoutMs), maxGaps);
+            log.info("Invalidation bus started as node {} at log position {}", nodeId, cursor.position());
+        } catch (Exception e) {
+            log.warn("Invalidation bus could not read the log position, will retry on next poll. Error: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${invalidation.poll-interval-ms:1000}")
+    public void poll() {
+        try {
+            if (cursor == null) {
+                start();
+                return;
+            }
+            LocalDateTime databaseNow = logMapper.selectNow();
+            long polledAt = System.nanoTime();
+            List<InvalidationRecord> records = logMapper.selectAfter(cursor.position(), batchSize);
+            List<Long> gaps = cursor.pendingGaps(polledAt);
+            if (!gaps.isEmpty()) {
+                records.addAll(logMapper.selectByIdList(gaps));
+            }
+            for (InvalidationRecord record : records) {
+                cursor.seen(record.getId(), polledAt);
+            }
+            apply(records, databaseNow, polledAt);
+        } catch (Exception e) {
+            pollFailures.increment();
+            log.warn("Invalidation log poll failed: {}", e.getMessage());
+        }
+    }
+
+    private void apply(List<InvalidationRecord> records, LocalDateTime databaseNow, long polledAt) {
+        // 同一实体只处理版本最高的一条
+        Map<String, InvalidationRecord> latest = new LinkedHashMap<>();
+        for (InvalidationRecord record : records) {
+            if (nodeId.equals(record.getOrigin())) {
+                ownSkipped.increment();
+                continue;
+            }
+            latest.merge(record.getEntityType() + ":" + record.getEntityId(), record,
+                    (a, b) -> a.getId() >= b.getId() ? a : b);
+        }
+        long maxLagMs = 0;
+        for (InvalidationRecord record : latest.values()) {
+            publish(record);
+            applied.increment();
+            long lagMs = Duration.between(record.getCreateTime(), databaseNow).toMillis()
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - polledAt);
+            if (staleness != null) {
+                staleness.record(Math.max(0, lagMs), TimeUnit.MILLISECONDS);
+            }
+            maxLagMs = Math.max(maxLagMs, lagMs);
+            if (lagMs > maxStalenessMs) {
+                exceeded.increment();
+            }
+        }
+        maxObservedStalenessMs = Math.max(maxObservedStalenessMs, maxLagMs);
+        if (maxLagMs > maxStalenessMs) {
+            log.warn("Invalidation records applied {} ms after write, above the {} ms bound", maxLagMs, maxStalenessMs);
+        }
+    }
+
+    private void publish(InvalidationRecord record) {
+        IBaseService<?> service = services.get(record.getEntityType());
+        if (service == null) {
+            return;
+        }
+        Class<?> entityClass = service.getEntityClass();
+        Serializable id = parseId(entityClass, record.getEntityId());
+        EntityChangeEvent.Action action = EntityChangeEvent.Action.valueOf(record.getAction());
+        Object entity = null;
+        if (action != EntityChangeEvent.Action.REMOVE) {
+            entity = service.getById(id);
+            if (entity == null) {
+                return;
+            }
+        }
+        eventPublisher.publishEvent(new EntityChangeEvent(action, entityClass, id, entity, true));
+    }
+
+    private static Serializable parseId(Class<?> entityClass, String value) {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(entityClass);
+        Class<?> keyType = tableInfo != null ? tableInfo.getKeyType() : null;
+        if (keyType == Integer.class || keyType == int.class) {
+            return Integer.valueOf(value);
+        }
+        if (keyType == Long.class || keyType == long.class) {
+            return Long.valueOf(value);
+        }
+        return value;
+    }
+
+    @Scheduled(fixedDelayString = "${invalidation.purge-interval-ms:3600000}",
+            initialDelayString = "${invalidation.purge-interval-ms:3600000}")
+    public void purge() {
+        try {
+            LocalDateTime before = logMapper.selectNow().minusHours(retentionHours);
+            int deleted;
+            do {
+                deleted = logMapper.deleteBefore(before, PURGE_BATCH);
+            } while (deleted == PURGE_BATCH);
+        } catch (Exception e) {
+            log.warn("Invalidation log purge failed: {}", e.getMessage());
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public Map<String, Object> stats() {
+        LogCursor current = cursor;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("nodeId", nodeId);
+        stats.put("entities", new HashSet<>(entities));
+        stats.put("position", current != null ? current.position() : null);
+        stats.put("pendingGaps", current != null ? current.gapCount() : 0);
+        stats.put("droppedGaps", current != null ? current.droppedGaps() : 0);
+        stats.put("appended", appended.sum());
+        stats.put("appendFailures", appendFailures.sum());
+        stats.put("applied", applied.sum());
+        stats.put("ownSkipped", ownSkipped.sum());
+        stats.put("exceeded", exceeded.sum());
+        stats.put("pollFailures", pollFailures.sum());
+        stats.put("maxStalenessMs", maxObservedStalenessMs);
+        return stats;
+    }
+}
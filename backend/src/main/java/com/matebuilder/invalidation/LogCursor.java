@@ -0,0 +1,72 @@
+package com.matebuilder.invalidation;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 失效日志的读取位置
+ * 自增ID按分配顺序而不是提交顺序可见：事务 A 先分配到 10、B 分配到 11，B 先提交时读到 11 而 10 尚不可见。
+ * 因此推进位置时把跳过的ID记为缺口，之后每次轮询按ID补查，补到或超过 gapTimeout 后移除；
+ * 缺口数超过 maxGaps 时丢弃最早的缺口（如 auto_increment_increment 大于1 时的固定间隔）。
+ * 只在轮询线程上使用，不是线程安全的。
+ */
+class LogCursor {
+
+    private final long gapTimeoutNanos;
+    private final int maxGaps;
+    private final TreeMap<Long, Long> gaps = new TreeMap<>();
+    private long position;
+    private long droppedGaps;
+
+    LogCursor(long position, long gapTimeoutNanos, int maxGaps) {
+        this.position = position;
+        this.gapTimeoutNanos = gapTimeoutNanos;
+        this.maxGaps = maxGaps;
+    }
+
+    long position() {
+        return position;
+    }
+
+    /**
+     * 读到 id 的记录：大于当前位置时推进，中间跳过的ID记为缺口；是缺口时将其移除
+     */
+    void seen(long id, long now) {
+        if (id <= position) {
+            gaps.remove(id);
+            return;
+        }
+        for (long missing = Math.max(position + 1, id - maxGaps); missing < id; missing++) {
+            gaps.put(missing, now);
+        }
+        droppedGaps += Math.max(0, id - 1 - position - maxGaps);
+        position = id;
+        while (gaps.size() > maxGaps) {
+            gaps.pollFirstEntry();
+            droppedGaps++;
+        }
+    }
+
+    /**
+     * 移除超时的缺口，返回仍需补查的ID
+     */
+    List<Long> pendingGaps(long now) {
+        for (Iterator<Map.Entry<Long, Long>> it = gaps.entrySet().iterator(); it.hasNext(); ) {
+            if (now - it.next().getValue() >= gapTimeoutNanos) {
+                it.remove();
+            }
+        }
+        return new ArrayList<>(gaps.keySet());
+    }
+
+    int gapCount() {
+        return gaps.size();
+    }
+
+    long droppedGaps() {
+        return droppedGaps;
+    }
+}
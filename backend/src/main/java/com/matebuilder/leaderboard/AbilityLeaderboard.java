@@ -0,0 +1,174 @@
+package com.matebuilder.leaderboard;
+
+import com.matebuilder.common.event.EntityChangeEvent;
+import com.matebuilder.entity.UserAbility;
+import com.matebuilder.mapper.UserAbilityMapper;
+import com.matebuilder.vo.LeaderboardEntryVO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 能力排行榜
+ * 每个能力名称维护一个内存 ScoreBoard，启动时从 tb_user_ability 流式加载，
+ * 之后通过 EntityChangeEvent 随能力的新增/修改/删除增量更新，查询不访问数据库。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AbilityLeaderboard {
+
+    private final UserAbilityMapper userAbilityMapper;
+
+    private final Map<String, ScoreBoard> boards = new ConcurrentHashMap<>();
+
+    /**
+     * 能力行ID -> 所在排行榜位置，用于删除和能力名称变更
+     */
+    private final Map<Integer, RowRef> rows = new ConcurrentHashMap<>();
+
+    private static final class RowRef {
+        private final String abilityName;
+        private final int userId;
+
+        RowRef(String abilityName, int userId) {
+            this.abilityName = abilityName;
+            this.userId = userId;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        try {
+            userAbilityMapper.scanAll(context -> {
+                UserAbility row = context.getResultObject();
+                // 预热期间已由写事件处理过的行以事件为准
+                if (!rows.containsKey(row.getId())) {
+                    apply(row);
+                }
+            });
+            log.info("Ability leaderboard loaded {} rows into {} boards in {} ms",
+                    rows.size(), boards.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("Ability leaderboard warm-up failed, boards will fill from writes only. Error: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        if (!event.isFor(UserAbility.class)) {
+            return;
+        }
+        Integer id = (Integer) event.getId();
+        switch (event.getAction()) {
+            case SAVE:
+            case UPDATE:
+                UserAbility row = event.getEntity(UserAbility.class);
+                if (row.getUserId() == null || row.getAbilityName() == null || row.getAbilityScore() == null) {
+                    // 部分字段更新，重新读取完整行
+                    row = userAbilityMapper.selectById(id);
+                }
+                if (row != null) {
+                    apply(row);
+                }
+                break;
+            case REMOVE:
+                drop(id);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * 前N名
+     */
+    public List<LeaderboardEntryVO> top(String abilityName, int n) {
+        ScoreBoard board = boards.get(abilityName);
+        if (board == null) {
+            return Collections.emptyList();
+        }
+        return toVO(abilityName, board.top(n));
+    }
+
+    /**
+     * 用户在某能力上的名次，不在榜上返回null
+     */
+    public LeaderboardEntryVO rankOf(String abilityName, int userId) {
+        ScoreBoard board = boards.get(abilityName);
+        ScoreBoard.Entry entry = board == null ? null : board.rankOf(userId);
+        return entry == null ? null : toVO(abilityName, entry);
+    }
+
+    /**
+     * 用户上下各 window 名
+     */
+    public List<LeaderboardEntryVO> around(String abilityName, int userId, int window) {
+        ScoreBoard board = boards.get(abilityName);
+        if (board == null) {
+            return Collections.emptyList();
+        }
+        return toVO(abilityName, board.around(userId, window));
+    }
+
+    /**
+     * 各能力榜单人数
+     */
+    public Map<String, Integer> sizes() {
+        return boards.entrySet().stream()
+                .filter(e -> !e.getValue().isEmpty())
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().size()));
+    }
+
+    private void apply(UserAbility row) {
+        RowRef ref = new RowRef(row.getAbilityName(), row.getUserId());
+        RowRef old = rows.put(row.getId(), ref);
+        if (old != null && (old.userId != ref.userId || !old.abilityName.equals(ref.abilityName))) {
+            ScoreBoard oldBoard = boards.get(old.abilityName);
+            if (oldBoard != null) {
+                oldBoard.remove(old.userId, row.getId());
+            }
+        }
+        boards.computeIfAbsent(ref.abilityName, k -> new ScoreBoard())
+                .update(ref.userId, toCents(row.getAbilityScore()), row.getId());
+    }
+
+    private void drop(Integer id) {
+        RowRef old = rows.remove(id);
+        if (old == null) {
+            return;
+        }
+        ScoreBoard board = boards.get(old.abilityName);
+        if (board != null) {
+            board.remove(old.userId, id);
+        }
+    }
+
+    private static long toCents(BigDecimal score) {
+        if (score == null) {
+            return 0L;
+        }
+        return score.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+
+    private static List<LeaderboardEntryVO> toVO(String abilityName, List<ScoreBoard.Entry> entries) {
+        return entries.stream().map(e -> toVO(abilityName, e)).collect(Collectors.toList());
+    }
+
+    private static LeaderboardEntryVO toVO(String abilityName, ScoreBoard.Entry entry) {
+        return new LeaderboardEntryVO(entry.getRank(), entry.getUserId(), abilityName,
+                BigDecimal.valueOf(entry.getScore(), 2));
+    }
+}
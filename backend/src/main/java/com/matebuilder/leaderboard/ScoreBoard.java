@@ -0,0 +1,229 @@
+package com.matebuilder.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 单个能力的排行榜
+ * 跳表按 (分数降序, 用户ID升序) 排序，另有 userId -> 条目 的哈希索引用于定位。
+ * 分数以“分”为单位的 long 保存（对应 decimal(10,2)），避免比较时的 BigDecimal 开销。
+ * 跳表没有子树计数，名次查询借助按分数分桶的树状数组：先统计更高分桶的人数，再只遍历本桶内排在前面的条目。
+ * 同一用户的更新在 ConcurrentHashMap.compute 中串行执行；并发读取可能短暂看不到正在移动的条目，名次也可能短暂偏差1。
+ */
+public class ScoreBoard {
+
+    /**
+     * 默认分桶宽度 0.10 分，共 65536 个桶（覆盖 0 ~ 6553.60），超出范围的分数落入最高桶
+     */
+    private static final long DEFAULT_BUCKET_WIDTH = 10;
+
+    private static final int DEFAULT_BUCKETS = 1 << 16;
+
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparingLong((Entry e) -> -e.score)
+            .thenComparingInt(e -> e.userId);
+
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(ORDER);
+
+    private final ConcurrentHashMap<Integer, Entry> byUser = new ConcurrentHashMap<>();
+
+    private final long bucketWidth;
+
+    private final int buckets;
+
+    /**
+     * 树状数组（下标从1开始），第 i 个桶保存分数落在 [i*width, (i+1)*width) 的人数
+     */
+    private final AtomicLongArray counts;
+
+    public ScoreBoard() {
+        this(DEFAULT_BUCKET_WIDTH, DEFAULT_BUCKETS);
+    }
+
+    /**
+     * @param bucketWidth 分桶宽度（单位：分）
+     * @param buckets 分桶数量
+     */
+    public ScoreBoard(long bucketWidth, int buckets) {
+        this.bucketWidth = bucketWidth;
+        this.buckets = buckets;
+        this.counts = new AtomicLongArray(buckets + 1);
+    }
+
+    /**
+     * 排行榜条目，rank 只在查询结果中填充
+     */
+    public static final class Entry {
+        private final int userId;
+        private final long score;
+        private final int rowId;
+        private final int rank;
+
+        Entry(int userId, long score, int rowId, int rank) {
+            this.userId = userId;
+            this.score = score;
+            this.rowId = rowId;
+            this.rank = rank;
+        }
+
+        public int getUserId() {
+            return userId;
+        }
+
+        public long getScore() {
+            return score;
+        }
+
+        public int getRowId() {
+            return rowId;
+        }
+
+        public int getRank() {
+            return rank;
+        }
+
+        Entry withRank(int rank) {
+            return new Entry(userId, score, rowId, rank);
+        }
+    }
+
+    /**
+     * 写入或更新用户分数
+     * @param userId 用户ID
+     * @param score 分数（单位：分）
+     * @param rowId 对应 tb_user_ability 的行ID
+     */
+    public void update(int userId, long score, int rowId) {
+        Entry entry = new Entry(userId, score, rowId, 0);
+        byUser.compute(userId, (k, old) -> {
+            if (old != null) {
+                ranking.remove(old);
+                addCount(bucketOf(old.score), -1);
+            }
+            ranking.add(entry);
+            addCount(bucketOf(score), 1);
+            return entry;
+        });
+    }
+
+    /**
+     * 移除用户，仅当当前条目来自该行时才移除，避免重复行互相覆盖
+     */
+    public void remove(int userId, int rowId) {
+        byUser.computeIfPresent(userId, (k, old) -> {
+            if (old.rowId != rowId) {
+                return old;
+            }
+            ranking.remove(old);
+            addCount(bucketOf(old.score), -1);
+            return null;
+        });
+    }
+
+    public int size() {
+        return byUser.size();
+    }
+
+    public boolean isEmpty() {
+        return byUser.isEmpty();
+    }
+
+    /**
+     * 前N名
+     */
+    public List<Entry> top(int n) {
+        List<Entry> result = new ArrayList<>(Math.min(n, 128));
+        Iterator<Entry> it = ranking.iterator();
+        int rank = 0;
+        while (it.hasNext() && rank < n) {
+            result.add(it.next().withRank(++rank));
+        }
+        return result;
+    }
+
+    /**
+     * 用户名次（从1开始），不在榜上返回null
+     */
+    public Entry rankOf(int userId) {
+        Entry entry = byUser.get(userId);
+        if (entry == null) {
+            return null;
+        }
+        return entry.withRank(rankOf(entry));
+    }
+
+    /**
+     * 用户上下各 window 名组成的窗口，按名次升序
+     */
+    public List<Entry> around(int userId, int window) {
+        Entry key = byUser.get(userId);
+        if (key == null) {
+            return Collections.emptyList();
+        }
+        Entry self = key.withRank(rankOf(key));
+        List<Entry> above = take(ranking.headSet(key, false).descendingSet(), window);
+        List<Entry> below = take(ranking.tailSet(key, false), window);
+
+        List<Entry> result = new ArrayList<>(above.size() + below.size() + 1);
+        int rank = self.rank - above.size();
+        for (int i = above.size() - 1; i >= 0; i--) {
+            result.add(above.get(i).withRank(rank++));
+        }
+        result.add(self);
+        rank = self.rank;
+        for (Entry entry : below) {
+            result.add(entry.withRank(++rank));
+        }
+        return result;
+    }
+
+    private int rankOf(Entry entry) {
+        int bucket = bucketOf(entry.score);
+        long higher = prefixCount(buckets - 1) - prefixCount(bucket);
+        long upper = bucket == buckets - 1 ? Long.MAX_VALUE : (bucket + 1) * bucketWidth - 1;
+        Entry bucketHead = new Entry(Integer.MIN_VALUE, upper, 0, 0);
+        int sameBucket = ranking.subSet(bucketHead, true, entry, false).size();
+        return (int) (higher + sameBucket + 1);
+    }
+
+    private int bucketOf(long score) {
+        if (score <= 0) {
+            return 0;
+        }
+        long bucket = score / bucketWidth;
+        return bucket >= buckets ? buckets - 1 : (int) bucket;
+    }
+
+    private void addCount(int bucket, long delta) {
+        for (int i = bucket + 1; i <= buckets; i += i & -i) {
+            counts.addAndGet(i, delta);
+        }
+    }
+
+    /**
+     * 桶 [0, bucket] 的总人数
+     */
+    private long prefixCount(int bucket) {
+        long sum = 0;
+        for (int i = bucket + 1; i > 0; i -= i & -i) {
+            sum += counts.get(i);
+        }
+        return sum;
+    }
+
+    private static List<Entry> take(NavigableSet<Entry> set, int n) {
+        List<Entry> result = new ArrayList<>(n);
+        Iterator<Entry> it = set.iterator();
+        while (it.hasNext() && result.size() < n) {
+            result.add(it.next());
+        }
+        return result;
+    }
+}
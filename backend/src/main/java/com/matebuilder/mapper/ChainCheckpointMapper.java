@@ -0,0 +1,19 @@
+package com.matebuilder.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.matebuilder.entity.ChainCheckpoint;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+@Mapper
+public interface ChainCheckpointMapper extends BaseMapper<ChainCheckpoint> {
+
+    /**
+     * 写入或覆盖同步进度
+     */
+    @Insert("INSERT INTO tb_chain_checkpoint (name, block_number, block_hash) "
+            + "VALUES (#{name}, #{blockNumber}, #{blockHash}) "
+            + "ON DUPLICATE KEY UPDATE block_number = VALUES(block_number), block_hash = VALUES(block_hash)")
+    int upsert(@Param("name") String name, @Param("blockNumber") long blockNumber, @Param("blockHash") String blockHash);
+}
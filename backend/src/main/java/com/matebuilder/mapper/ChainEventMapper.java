@@ -0,0 +1,53 @@
+package com.matebuilder.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.matebuilder.entity.ChainEvent;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.List;
+
+@Mapper
+public interface ChainEventMapper extends BaseMapper<ChainEvent> {
+
+    /**
+     * 批量写入事件，同一区块的同一日志重复写入时忽略
+     */
+    @Insert("<script>"
+            + "INSERT IGNORE INTO tb_chain_event (block_number, block_hash, tx_hash, log_index, contract_address, "
+            + "event_name, chain_community_id, account, counterparty, category, amount) VALUES "
+            + "<foreach collection='events' item='e' separator=','>"
+            + "(#{e.blockNumber}, #{e.blockHash}, #{e.txHash}, #{e.logIndex}, #{e.contractAddress}, "
+            + "#{e.eventName}, #{e.chainCommunityId}, #{e.account}, #{e.counterparty}, #{e.category}, #{e.amount})"
+            + "</foreach>"
+            + "</script>")
+    int insertIgnoreBatch(@Param("events") List<ChainEvent> events);
+
+    /**
+     * 查询某高度之上包含事件的区块，按高度倒序
+     */
+    @Select("SELECT DISTINCT block_number, block_hash FROM tb_chain_event "
+            + "WHERE block_number > #{fromBlock} ORDER BY block_number DESC")
+    List<ChainEvent> selectBlocksAbove(@Param("fromBlock") long fromBlock);
+
+    /**
+     * 按链上顺序流式扫描某合约的指定事件
+     */
+    @Select("<script>"
+            + "SELECT block_number, log_index, event_name, chain_community_id, account, counterparty, amount "
+            + "FROM tb_chain_event WHERE contract_address = #{contractAddress} AND event_name IN "
+            + "<foreach collection='eventNames' item='name' open='(' separator=',' close=')'>#{name}</foreach> "
+            + "ORDER BY block_number, log_index"
+            + "</script>")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = 1000)
+    @ResultType(ChainEvent.class)
+    void scanEvents(@Param("contractAddress") String contractAddress,
+                    @Param("eventNames") List<String> eventNames,
+                    ResultHandler<ChainEvent> handler);
+}
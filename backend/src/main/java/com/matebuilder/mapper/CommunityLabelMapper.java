@@ -3,7 +3,20 @@ package com.matebuilder.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.matebuilder.entity.CommunityLabel;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
 
 @Mapper
 public interface CommunityLabelMapper extends BaseMapper<CommunityLabel> {
+
+    /**
+     * 流式扫描全部社区标签名称
+     */
+    @Select("SELECT id, label_name FROM tb_community_label")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = 1000)
+    @ResultType(CommunityLabel.class)
+    void scanLabelNames(ResultHandler<CommunityLabel> handler);
 }
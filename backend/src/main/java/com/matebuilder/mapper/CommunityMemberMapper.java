@@ -2,8 +2,52 @@ package com.matebuilder.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.matebuilder.entity.CommunityMember;
+import com.matebuilder.vo.UserLabelVO;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.List;
 
 @Mapper
 public interface CommunityMemberMapper extends BaseMapper<CommunityMember> {
+
+    /**
+     * 流式扫描全部成员关系
+     */
+    @Select("SELECT user_id, community_id FROM tb_community_member")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = 1000)
+    @ResultType(CommunityMember.class)
+    void scanMemberships(ResultHandler<CommunityMember> handler);
+
+    /**
+     * 流式扫描社区的成员（按ID升序）
+     */
+    @Select("SELECT id, community_id, user_id, member_role, create_time "
+            + "FROM tb_community_member WHERE community_id = #{communityId} ORDER BY id")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = 1000)
+    @ResultType(CommunityMember.class)
+    void scanByCommunity(@Param("communityId") Integer communityId, ResultHandler<CommunityMember> handler);
+
+    /**
+     * 流式扫描用户所在社区的标签
+     */
+    @Select("SELECT DISTINCT m.user_id, c.community_label_id AS label_id "
+            + "FROM tb_community_member m JOIN tb_user_community c ON c.id = m.community_id "
+            + "WHERE c.community_label_id IS NOT NULL")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = 1000)
+    @ResultType(UserLabelVO.class)
+    void scanUserLabels(ResultHandler<UserLabelVO> handler);
+
+    /**
+     * 查询单个用户所在社区的标签
+     */
+    @Select("SELECT DISTINCT c.community_label_id "
+            + "FROM tb_community_member m JOIN tb_user_community c ON c.id = m.community_id "
+            + "WHERE m.user_id = #{userId} AND c.community_label_id IS NOT NULL")
+    List<Integer> selectLabelIdsByUser(@Param("userId") Integer userId);
 }
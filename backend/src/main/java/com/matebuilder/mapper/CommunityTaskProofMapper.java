@@ -3,7 +3,43 @@ package com.matebuilder.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.matebuilder.entity.CommunityTaskProof;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.List;
 
 @Mapper
 public interface CommunityTaskProofMapper extends BaseMapper<CommunityTaskProof> {
+
+    /**
+     * 查询尚未锚定上链的凭证（按ID升序）
+     */
+    @Select("SELECT p.id, p.proof_hash FROM tb_community_task_proof p "
+            + "LEFT JOIN tb_proof_anchor a ON a.proof_id = p.id "
+            + "WHERE a.id IS NULL ORDER BY p.id LIMIT #{limit}")
+    List<CommunityTaskProof> selectUnanchored(@Param("limit") int limit);
+
+    /**
+     * 流式扫描社区的任务凭证（按ID升序）
+     */
+    @Select("SELECT id, community_id, member_id, task_title, task_description, proof_type, proof_hash, "
+            + "file_name, file_size, mime_type, create_time "
+            + "FROM tb_community_task_proof WHERE community_id = #{communityId} ORDER BY id")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = 1000)
+    @ResultType(CommunityTaskProof.class)
+    void scanByCommunity(@Param("communityId") Integer communityId, ResultHandler<CommunityTaskProof> handler);
+
+    /**
+     * 流式扫描成员的任务凭证（按ID升序）
+     */
+    @Select("SELECT id, community_id, member_id, task_title, task_description, proof_type, proof_hash, "
+            + "file_name, file_size, mime_type, create_time "
+            + "FROM tb_community_task_proof WHERE member_id = #{memberId} ORDER BY id")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = 1000)
+    @ResultType(CommunityTaskProof.class)
+    void scanByMember(@Param("memberId") Integer memberId, ResultHandler<CommunityTaskProof> handler);
 }
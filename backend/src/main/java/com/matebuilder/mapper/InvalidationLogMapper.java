@@ -0,0 +1,39 @@
+package com.matebuilder.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.matebuilder.entity.InvalidationRecord;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Mapper
+public interface InvalidationLogMapper extends BaseMapper<InvalidationRecord> {
+
+    /**
+     * 按主键范围读取 afterId 之后的记录
+     */
+    @Select("SELECT id, entity_type, entity_id, action, origin, create_time FROM tb_invalidation_log "
+            + "WHERE id > #{afterId} ORDER BY id LIMIT #{limit}")
+    List<InvalidationRecord> selectAfter(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    @Select("<script>SELECT id, entity_type, entity_id, action, origin, create_time FROM tb_invalidation_log "
+            + "WHERE id IN <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    List<InvalidationRecord> selectByIdList(@Param("ids") Collection<Long> ids);
+
+    @Select("SELECT COALESCE(MAX(id), 0) FROM tb_invalidation_log")
+    long selectMaxId();
+
+    /**
+     * 数据库当前时间，与 create_time 使用同一时钟计算延迟
+     */
+    @Select("SELECT CURRENT_TIMESTAMP(3)")
+    LocalDateTime selectNow();
+
+    @Delete("DELETE FROM tb_invalidation_log WHERE create_time < #{before} LIMIT #{limit}")
+    int deleteBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
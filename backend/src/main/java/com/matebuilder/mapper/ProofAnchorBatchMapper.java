@@ -0,0 +1,9 @@
+package com.matebuilder.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.matebuilder.entity.ProofAnchorBatch;
+import org.apache.ibatis.annotations.Mapper;
+
+@Mapper
+public interface ProofAnchorBatchMapper extends BaseMapper<ProofAnchorBatch> {
+}
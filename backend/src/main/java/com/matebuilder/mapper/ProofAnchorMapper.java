@@ -0,0 +1,24 @@
+package com.matebuilder.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.matebuilder.entity.ProofAnchor;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+@Mapper
+public interface ProofAnchorMapper extends BaseMapper<ProofAnchor> {
+
+    /**
+     * 批量写入凭证的默克尔路径
+     */
+    @Insert("<script>"
+            + "INSERT INTO tb_proof_anchor (proof_id, batch_id, leaf_index, leaf_hash, merkle_path) VALUES "
+            + "<foreach collection='anchors' item='a' separator=','>"
+            + "(#{a.proofId}, #{a.batchId}, #{a.leafIndex}, #{a.leafHash}, #{a.merklePath})"
+            + "</foreach>"
+            + "</script>")
+    int insertBatch(@Param("anchors") List<ProofAnchor> anchors);
+}
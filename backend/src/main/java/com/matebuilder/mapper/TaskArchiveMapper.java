@@ -0,0 +1,166 @@
+package com.matebuilder.mapper;
+
+import com.matebuilder.entity.TaskArchiveProgress;
+import com.matebuilder.entity.UserPrivateTask;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 已完成任务的归档（见 TaskArchiver）
+ * 归档表按任务日期的月份分表（tb_user_private_task_archive_yyyyMM），已创建的分表登记在 tb_task_archive_partition；
+ * ${table} 只由 TaskArchiver.partitionTable 根据日期生成，不来自外部输入。
+ */
+@Mapper
+public interface TaskArchiveMapper {
+
+    String COLUMNS = "id, user_id, task_title, task_description, task_date, task_status, priority, "
+            + "start_time, end_time, completion_time, create_by, create_time, update_by, update_time";
+
+    /**
+     * 创建月份分表，字段与 tb_user_private_task 相同；索引名带表名，H2 中索引名须在整个 schema 内唯一
+     */
+    @Update("CREATE TABLE IF NOT EXISTS ${table} ("
+            + "id int NOT NULL, user_id int NOT NULL, task_title varchar(255) NOT NULL, task_description text, "
+            + "task_date date NOT NULL, task_status enum('in_progress','completed') NOT NULL DEFAULT 'completed', "
+            + "priority int DEFAULT '0', start_time time DEFAULT NULL, end_time time DEFAULT NULL, "
+            + "completion_time timestamp NULL DEFAULT NULL, create_by int DEFAULT NULL, create_time timestamp NULL DEFAULT NULL, "
+            + "update_by int DEFAULT NULL, update_time timestamp NULL DEFAULT NULL, "
+            + "PRIMARY KEY (id), KEY ${table}_user_date (user_id, task_date))")
+    void createPartition(@Param("table") String table);
+
+    @Insert("INSERT INTO tb_task_archive_partition (table_name, partition_month) VALUES (#{table}, #{month})")
+    int insertPartition(@Param("table") String table, @Param("month") LocalDate month);
+
+    /**
+     * 已创建的分表，按月份升序
+     */
+    @Select("SELECT table_name FROM tb_task_archive_partition ORDER BY partition_month")
+    List<String> selectPartitions();
+
+    /**
+     * 按主键顺序取 afterId 之后待归档的任务（只含ID和任务日期）
+     */
+    @Select("SELECT id, task_date FROM tb_user_private_task "
+            + "WHERE id > #{afterId} AND task_status = 'completed' AND task_date < #{cutoff} ORDER BY id LIMIT #{limit}")
+    List<UserPrivateTask> selectCandidates(@Param("afterId") long afterId, @Param("cutoff") LocalDate cutoff,
+                                           @Param("limit") int limit);
+
+    /**
+     * 在事务内锁定仍满足归档条件的任务，避免与并发的状态修改交错
+     */
+    @Select("<script>SELECT id, task_date FROM tb_user_private_task WHERE id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> "
+            + "AND task_status = 'completed' AND task_date &lt; #{cutoff} FOR UPDATE</script>")
+    List<UserPrivateTask> lockCandidates(@Param("ids") Collection<Integer> ids, @Param("cutoff") LocalDate cutoff);
+
+    @Insert("<script>INSERT INTO ${table} (" + COLUMNS + ") SELECT " + COLUMNS + " FROM tb_user_private_task WHERE id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    int copyToPartition(@Param("table") String table, @Param("ids") Collection<Integer> ids);
+
+    /**
+     * 列表查询的筛选条件，热表和各分表相同
+     */
+    String LIST_FILTER = "<where>"
+            + "<if test='taskDate != null'>task_date = #{taskDate}</if>"
+            + "<if test='userId != null'> AND user_id = #{userId}</if>"
+            + "<if test='taskStatus != null'> AND task_status = #{taskStatus}</if>"
+            + "</where>";
+
+    String LIST_ORDER = " ORDER BY priority DESC, task_date ASC";
+
+    /**
+     * 热表和 tables 中各分表合并后的一页，按 ORDER BY priority DESC, task_date ASC
+     * 一条语句完成：每个来源先各取排序后的前 limit（offset + size）条，UNION ALL 后再排序截取本页，
+     * 数据库不需要物化各来源的全部匹配行。
+     * 分支中的 LIMIT 直接写入数值（limit 由服务端计算，不来自外部输入）：H2 复用会话中缓存的语句时不会重新读取 UNION 分支里 LIMIT 的参数
+     */
+    @Select("<script>SELECT " + COLUMNS + " FROM ("
+            + "(SELECT " + COLUMNS + " FROM tb_user_private_task" + LIST_FILTER + LIST_ORDER + " LIMIT ${limit})"
+            + "<foreach collection='tables' item='table'>"
+            + " UNION ALL (SELECT " + COLUMNS + " FROM ${table}" + LIST_FILTER + LIST_ORDER + " LIMIT ${limit})"
+            + "</foreach>) merged" + LIST_ORDER + " LIMIT #{size} OFFSET #{offset}</script>")
+    List<UserPrivateTask> selectMergedPage(@Param("tables") List<String> tables,
+                                           @Param("userId") Integer userId, @Param("taskStatus") String taskStatus,
+                                           @Param("taskDate") LocalDate taskDate,
+                                           @Param("offset") long offset, @Param("size") long size,
+                                           @Param("limit") long limit);
+
+    /**
+     * 热表和 tables 中各分表满足条件的任务总数，一条语句中各来源的 COUNT 相加
+     */
+    @Select("<script>SELECT (SELECT COUNT(*) FROM tb_user_private_task" + LIST_FILTER + ")"
+            + "<foreach collection='tables' item='table'> + (SELECT COUNT(*) FROM ${table}" + LIST_FILTER + ")</foreach>"
+            + "</script>")
+    long countMerged(@Param("tables") List<String> tables,
+                     @Param("userId") Integer userId, @Param("taskStatus") String taskStatus,
+                     @Param("taskDate") LocalDate taskDate);
+
+    @Select("SELECT " + COLUMNS + " FROM ${table} WHERE user_id = #{userId} AND task_date = #{taskDate}")
+    List<UserPrivateTask> selectByUserAndDate(@Param("table") String table, @Param("userId") Integer userId,
+                                              @Param("taskDate") LocalDate taskDate);
+
+    /**
+     * 流式扫描用户在一张分表中的任务（按任务日期、ID升序），字段与 UserPrivateTaskMapper.scanByUser 相同
+     */
+    @Select("SELECT id, user_id, task_title, task_description, task_date, task_status, priority, "
+            + "start_time, end_time, completion_time, create_time "
+            + "FROM ${table} WHERE user_id = #{userId} ORDER BY task_date, id")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = 1000)
+    @ResultType(UserPrivateTask.class)
+    void scanByUser(@Param("table") String table, @Param("userId") Integer userId, ResultHandler<UserPrivateTask> handler);
+
+    @Select("SELECT DISTINCT user_id FROM ${table}")
+    List<Integer> selectUserIds(@Param("table") String table);
+
+    @Select("SELECT " + COLUMNS + " FROM ${table} WHERE user_id = #{userId}")
+    List<UserPrivateTask> selectByUser(@Param("table") String table, @Param("userId") Integer userId);
+
+    @Insert("<script>INSERT INTO ${table} (" + COLUMNS + ") VALUES "
+            + "<foreach collection='tasks' item='t' separator=','>(#{t.id}, #{t.userId}, #{t.taskTitle}, #{t.taskDescription}, "
+            + "#{t.taskDate}, #{t.taskStatus}, #{t.priority}, #{t.startTime}, #{t.endTime}, #{t.completionTime}, "
+            + "#{t.createBy}, #{t.createTime}, #{t.updateBy}, #{t.updateTime})</foreach></script>")
+    int insertBatch(@Param("table") String table, @Param("tasks") List<UserPrivateTask> tasks);
+
+    @Delete("<script>DELETE FROM ${table} WHERE id IN "
+            + "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    int deleteByIds(@Param("table") String table, @Param("ids") Collection<Integer> ids);
+
+    @Delete("DELETE FROM ${table} WHERE user_id = #{userId}")
+    int deleteByUser(@Param("table") String table, @Param("userId") Integer userId);
+
+    @Select("SELECT name, cutoff_date, last_id, archived_rows, state, update_time FROM tb_task_archive_progress WHERE name = #{name}")
+    TaskArchiveProgress selectProgress(@Param("name") String name);
+
+    @Insert("INSERT INTO tb_task_archive_progress (name, cutoff_date, last_id, archived_rows, state) "
+            + "VALUES (#{name}, #{cutoff}, 0, 0, 'running')")
+    int insertProgress(@Param("name") String name, @Param("cutoff") LocalDate cutoff);
+
+    /**
+     * 开始新一轮
+     */
+    @Update("UPDATE tb_task_archive_progress SET cutoff_date = #{cutoff}, last_id = 0, archived_rows = 0, state = 'running' "
+            + "WHERE name = #{name}")
+    int startProgress(@Param("name") String name, @Param("cutoff") LocalDate cutoff);
+
+    /**
+     * 记录一批的进度，与该批的搬迁在同一事务中提交
+     */
+    @Update("UPDATE tb_task_archive_progress SET last_id = GREATEST(last_id, #{lastId}), archived_rows = archived_rows + #{rows} "
+            + "WHERE name = #{name}")
+    int advanceProgress(@Param("name") String name, @Param("lastId") long lastId, @Param("rows") int rows);
+
+    @Update("UPDATE tb_task_archive_progress SET state = 'done' WHERE name = #{name} AND cutoff_date = #{cutoff}")
+    int finishProgress(@Param("name") String name, @Param("cutoff") LocalDate cutoff);
+}
@@ -3,7 +3,20 @@ package com.matebuilder.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.matebuilder.entity.UserAbility;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
 
 @Mapper
 public interface UserAbilityMapper extends BaseMapper<UserAbility> {
+
+    /**
+     * 流式扫描全部能力记录，用于预热内存索引
+     */
+    @Select("SELECT id, user_id, ability_name, ability_score FROM tb_user_ability")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = 1000)
+    @ResultType(UserAbility.class)
+    void scanAll(ResultHandler<UserAbility> handler);
 }
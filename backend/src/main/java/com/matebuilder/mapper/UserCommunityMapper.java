@@ -2,8 +2,27 @@ package com.matebuilder.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.matebuilder.entity.UserCommunity;
+import com.matebuilder.vo.JoinedCommunityVO;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
 
 @Mapper
 public interface UserCommunityMapper extends BaseMapper<UserCommunity> {
+
+    /**
+     * 一次联表查询用户加入的全部社区（不读取logo字段）
+     * 成员数通过 uk_community_user 索引的相关子查询统计
+     */
+    @Select("SELECT c.id AS community_id, c.community_name, c.community_label_id, l.label_name, "
+            + "m.member_role, c.expire_time, "
+            + "(SELECT COUNT(*) FROM tb_community_member cm WHERE cm.community_id = c.id) AS member_count "
+            + "FROM tb_community_member m "
+            + "JOIN tb_user_community c ON c.id = m.community_id "
+            + "LEFT JOIN tb_community_label l ON l.id = c.community_label_id "
+            + "WHERE m.user_id = #{userId} "
+            + "ORDER BY m.create_time DESC")
+    List<JoinedCommunityVO> selectJoinedCommunities(@Param("userId") Integer userId);
 }
@@ -3,7 +3,64 @@ package com.matebuilder.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.matebuilder.entity.User;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
 
 @Mapper
 public interface UserMapper extends BaseMapper<User> {
+
+    /**
+     * 流式扫描全部用户的等级
+     */
+    @Select("SELECT id, level FROM tb_user")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = 1000)
+    @ResultType(User.class)
+    void scanLevels(ResultHandler<User> handler);
+
+    /**
+     * 流式扫描全部用户的公共用户名和等级
+     */
+    @Select("SELECT id, public_username, level FROM tb_user")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = 1000)
+    @ResultType(User.class)
+    void scanPublicUsernames(ResultHandler<User> handler);
+
+    /**
+     * 流式扫描全部用户名
+     */
+    @Select("SELECT id, public_username, private_username FROM tb_user")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = 1000)
+    @ResultType(User.class)
+    void scanUsernames(ResultHandler<User> handler);
+
+    /**
+     * 公共用户名是否已被占用
+     */
+    @Select("SELECT COUNT(*) > 0 FROM tb_user WHERE public_username = #{username}")
+    boolean existsPublicUsername(@Param("username") String username);
+
+    /**
+     * 私人用户名是否已被占用
+     */
+    @Select("SELECT COUNT(*) > 0 FROM tb_user WHERE private_username = #{username}")
+    boolean existsPrivateUsername(@Param("username") String username);
+
+    /**
+     * 流式扫描已绑定钱包地址的用户
+     */
+    @Select("SELECT id, wallet_address FROM tb_user WHERE wallet_address IS NOT NULL AND wallet_address <> ''")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = 1000)
+    @ResultType(User.class)
+    void scanWallets(ResultHandler<User> handler);
+
+    /**
+     * 绑定该钱包地址的最小用户ID，walletAddress 为归一化后的 0x 地址
+     * 库中地址可能缺少 0x 前缀，两种写法都匹配；大小写由 utf8mb4_general_ci 排序规则忽略
+     */
+    @Select("SELECT MIN(id) FROM tb_user WHERE wallet_address IN (#{walletAddress}, SUBSTRING(#{walletAddress}, 3))")
+    Integer selectIdByWallet(@Param("walletAddress") String walletAddress);
 }
@@ -3,7 +3,31 @@ package com.matebuilder.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.matebuilder.entity.UserPrivateTask;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.List;
 
 @Mapper
 public interface UserPrivateTaskMapper extends BaseMapper<UserPrivateTask> {
+
+    /**
+     * 流式扫描用户的全部任务（按任务日期、ID升序，走 idx_user_date）
+     */
+    @Select("SELECT id, user_id, task_title, task_description, task_date, task_status, priority, "
+            + "start_time, end_time, completion_time, create_time "
+            + "FROM tb_user_private_task WHERE user_id = #{userId} ORDER BY task_date, id")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = 1000)
+    @ResultType(UserPrivateTask.class)
+    void scanByUser(@Param("userId") Integer userId, ResultHandler<UserPrivateTask> handler);
+
+    /**
+     * 表中有任务的全部用户ID，用于分片搬迁
+     */
+    @Select("SELECT DISTINCT user_id FROM tb_user_private_task")
+    List<Integer> selectUserIds();
 }
@@ -0,0 +1,239 @@
+package com.matebuilder.matching;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 能力矩阵快照（CSR格式）
+ * 行按 userId 升序排列，通过二分查找定位用户；结构构建后不再修改，
+ * 只有 shadowed 位图会在用户进入增量覆盖层时置位，使扫描跳过该行的旧数据。
+ */
+public final class AbilityMatrix {
+
+    public static final AbilityMatrix EMPTY = new Builder().build();
+
+    final int[] userIds;
+    final int[] rowPtr;
+    final int[] cols;
+    final float[] vals;
+    final float[] norms;
+    final int[] levels;
+    final int dim;
+    final Map<Integer, BitSet> rowsByLabel;
+    private final AtomicLongArray shadowed;
+
+    private AbilityMatrix(int[] userIds, int[] rowPtr, int[] cols, float[] vals, int[] levels,
+                          Map<Integer, BitSet> rowsByLabel) {
+        this.userIds = userIds;
+        this.rowPtr = rowPtr;
+        this.cols = cols;
+        this.vals = vals;
+        this.levels = levels;
+        this.rowsByLabel = rowsByLabel;
+        this.shadowed = new AtomicLongArray((userIds.length + 63) >>> 6);
+        this.norms = new float[userIds.length];
+        int maxCol = -1;
+        for (int row = 0; row < userIds.length; row++) {
+            double sum = 0;
+            for (int p = rowPtr[row]; p < rowPtr[row + 1]; p++) {
+                sum += vals[p] * vals[p];
+                maxCol = Math.max(maxCol, cols[p]);
+            }
+            norms[row] = (float) Math.sqrt(sum);
+        }
+        this.dim = maxCol + 1;
+    }
+
+    public int rows() {
+        return userIds.length;
+    }
+
+    public int nonZeros() {
+        return cols.length;
+    }
+
+    public int rowOf(int userId) {
+        int row = Arrays.binarySearch(userIds, userId);
+        return row >= 0 ? row : -1;
+    }
+
+    /**
+     * 取出某行作为 UserVector，标签不回填（仅用于作为查询向量）
+     */
+    UserVector rowVector(int row) {
+        int from = rowPtr[row];
+        int to = rowPtr[row + 1];
+        return new UserVector(userIds[row], Arrays.copyOfRange(cols, from, to),
+                Arrays.copyOfRange(vals, from, to), levels[row], new int[0], 0);
+    }
+
+    void shadow(int row) {
+        long mask = 1L << row;
+        int word = row >>> 6;
+        long current;
+        do {
+            current = shadowed.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!shadowed.compareAndSet(word, current, current | mask));
+    }
+
+    boolean isShadowed(int row) {
+        return (shadowed.get(row >>> 6) & (1L << row)) != 0;
+    }
+
+    /**
+     * 以三元组方式累积数据后一次性生成CSR，只使用原始数组
+     */
+    public static final class Builder {
+        private int[] tripletUsers = new int[1024];
+        private int[] tripletCols = new int[1024];
+        private float[] tripletVals = new float[1024];
+        private int size;
+
+        private int[] levelUsers = new int[256];
+        private int[] levelValues = new int[256];
+        private int levelSize;
+
+        private int[] labelUsers = new int[256];
+        private int[] labelIds = new int[256];
+        private int labelSize;
+
+        public Builder add(int userId, int col, float value) {
+            if (size == tripletUsers.length) {
+                tripletUsers = Arrays.copyOf(tripletUsers, size * 2);
+                tripletCols = Arrays.copyOf(tripletCols, size * 2);
+                tripletVals = Arrays.copyOf(tripletVals, size * 2);
+            }
+            tripletUsers[size] = userId;
+            tripletCols[size] = col;
+            tripletVals[size] = value;
+            size++;
+            return this;
+        }
+
+        public Builder level(int userId, int level) {
+            if (levelSize == levelUsers.length) {
+                levelUsers = Arrays.copyOf(levelUsers, levelSize * 2);
+                levelValues = Arrays.copyOf(levelValues, levelSize * 2);
+            }
+            levelUsers[levelSize] = userId;
+            levelValues[levelSize] = level;
+            levelSize++;
+            return this;
+        }
+
+        public Builder label(int userId, int labelId) {
+            if (labelSize == labelUsers.length) {
+                labelUsers = Arrays.copyOf(labelUsers, labelSize * 2);
+                labelIds = Arrays.copyOf(labelIds, labelSize * 2);
+            }
+            labelUsers[labelSize] = userId;
+            labelIds[labelSize] = labelId;
+            labelSize++;
+            return this;
+        }
+
+        public Builder add(UserVector vector) {
+            for (int i = 0; i < vector.cols.length; i++) {
+                add(vector.userId, vector.cols[i], vector.vals[i]);
+            }
+            level(vector.userId, vector.level);
+            for (int label : vector.labels) {
+                label(vector.userId, label);
+            }
+            return this;
+        }
+
+        public AbilityMatrix build() {
+            // 去重后的用户即为行
+            int[] sortedUsers = Arrays.copyOf(tripletUsers, size);
+            Arrays.sort(sortedUsers);
+            int distinct = 0;
+            for (int i = 0; i < sortedUsers.length; i++) {
+                if (i == 0 || sortedUsers[i] != sortedUsers[i - 1]) {
+                    sortedUsers[distinct++] = sortedUsers[i];
+                }
+            }
+            int rows = distinct;
+            int[] userIds = Arrays.copyOf(sortedUsers, rows);
+
+            int[] rowPtr = new int[rows + 1];
+            int[] rowOfTriplet = new int[size];
+            for (int i = 0; i < size; i++) {
+                rowOfTriplet[i] = Arrays.binarySearch(userIds, tripletUsers[i]);
+                rowPtr[rowOfTriplet[i] + 1]++;
+            }
+            for (int row = 0; row < rows; row++) {
+                rowPtr[row + 1] += rowPtr[row];
+            }
+            int[] cols = new int[size];
+            float[] vals = new float[size];
+            int[] cursor = Arrays.copyOf(rowPtr, rows);
+            for (int i = 0; i < size; i++) {
+                int p = cursor[rowOfTriplet[i]]++;
+                cols[p] = tripletCols[i];
+                vals[p] = tripletVals[i];
+            }
+
+            // 行内按列排序，重复的列保留后写入的值
+            int[] compactPtr = new int[rows + 1];
+            int out = 0;
+            for (int row = 0; row < rows; row++) {
+                int from = rowPtr[row];
+                int to = rowPtr[row + 1];
+                sortRow(cols, vals, from, to);
+                for (int p = from; p < to; p++) {
+                    if (out > compactPtr[row] && cols[out - 1] == cols[p]) {
+                        vals[out - 1] = vals[p];
+                    } else {
+                        cols[out] = cols[p];
+                        vals[out] = vals[p];
+                        out++;
+                    }
+                }
+                compactPtr[row + 1] = out;
+            }
+
+            int[] levels = new int[rows];
+            for (int i = 0; i < levelSize; i++) {
+                int row = Arrays.binarySearch(userIds, levelUsers[i]);
+                if (row >= 0) {
+                    levels[row] = levelValues[i];
+                }
+            }
+            Map<Integer, BitSet> rowsByLabel = new HashMap<>();
+            for (int i = 0; i < labelSize; i++) {
+                int row = Arrays.binarySearch(userIds, labelUsers[i]);
+                if (row >= 0) {
+                    rowsByLabel.computeIfAbsent(labelIds[i], k -> new BitSet(rows)).set(row);
+                }
+            }
+            return new AbilityMatrix(userIds, compactPtr, Arrays.copyOf(cols, out), Arrays.copyOf(vals, out),
+                    levels, Collections.unmodifiableMap(rowsByLabel));
+        }
+
+        /**
+         * 行内插入排序，单个用户的能力数量很少
+         */
+        private static void sortRow(int[] cols, float[] vals, int from, int to) {
+            for (int i = from + 1; i < to; i++) {
+                int c = cols[i];
+                float v = vals[i];
+                int j = i - 1;
+                while (j >= from && cols[j] > c) {
+                    cols[j + 1] = cols[j];
+                    vals[j + 1] = vals[j];
+                    j--;
+                }
+                cols[j + 1] = c;
+                vals[j + 1] = v;
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.matebuilder.matching;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * 随机超平面局部敏感哈希（SimHash），用于大用户量下的近似余弦近邻查询
+ * 每张表对所有行计算 bits 位签名，按签名排序后用二分查找取出与查询同桶的行作为候选。
+ */
+public final class LshIndex {
+
+    private final int tables;
+    private final int bits;
+    private final int dim;
+    /**
+     * [table * bits + bit][dim] 展平后的超平面
+     */
+    private final float[] planes;
+    private final int[][] sortedSignatures;
+    private final int[][] sortedRows;
+
+    /**
+     * @param bits 每张表的签名位数，不超过30以保证签名非负
+     */
+    public LshIndex(AbilityMatrix matrix, int tables, int bits, long seed) {
+        if (bits < 1 || bits > 30) {
+            throw new IllegalArgumentException("bits must be between 1 and 30");
+        }
+        this.tables = tables;
+        this.bits = bits;
+        this.dim = matrix.dim;
+        this.planes = new float[tables * bits * dim];
+        Random random = new Random(seed);
+        for (int i = 0; i < planes.length; i++) {
+            planes[i] = (float) random.nextGaussian();
+        }
+        int rows = matrix.rows();
+        this.sortedSignatures = new int[tables][];
+        this.sortedRows = new int[tables][];
+        long[] packed = new long[rows];
+        for (int t = 0; t < tables; t++) {
+            for (int row = 0; row < rows; row++) {
+                int signature = rowSignature(matrix, row, t);
+                // 高32位签名、低32位行号，排序后同桶的行相邻
+                packed[row] = ((long) signature << 32) | row;
+            }
+            Arrays.sort(packed);
+            int[] signatures = new int[rows];
+            int[] rowIds = new int[rows];
+            for (int i = 0; i < rows; i++) {
+                signatures[i] = (int) (packed[i] >> 32);
+                rowIds[i] = (int) packed[i];
+            }
+            sortedSignatures[t] = signatures;
+            sortedRows[t] = rowIds;
+        }
+    }
+
+    /**
+     * 返回与查询向量在任一表中同桶的行
+     */
+    BitSet candidates(float[] query) {
+        BitSet result = new BitSet();
+        for (int t = 0; t < tables; t++) {
+            int signature = querySignature(query, t);
+            int[] signatures = sortedSignatures[t];
+            int pos = lowerBound(signatures, signature);
+            for (int i = pos; i < signatures.length && signatures[i] == signature; i++) {
+                result.set(sortedRows[t][i]);
+            }
+        }
+        return result;
+    }
+
+    private int rowSignature(AbilityMatrix matrix, int row, int table) {
+        int signature = 0;
+        for (int b = 0; b < bits; b++) {
+            int base = (table * bits + b) * dim;
+            float dot = 0;
+            for (int p = matrix.rowPtr[row]; p < matrix.rowPtr[row + 1]; p++) {
+                dot += matrix.vals[p] * planes[base + matrix.cols[p]];
+            }
+            if (dot >= 0) {
+                signature |= 1 << b;
+            }
+        }
+        return signature;
+    }
+
+    private int querySignature(float[] query, int table) {
+        int signature = 0;
+        int n = Math.min(dim, query.length);
+        for (int b = 0; b < bits; b++) {
+            int base = (table * bits + b) * dim;
+            float dot = 0;
+            for (int c = 0; c < n; c++) {
+                dot += query[c] * planes[base + c];
+            }
+            if (dot >= 0) {
+                signature |= 1 << b;
+            }
+        }
+        return signature;
+    }
+
+    private static int lowerBound(int[] values, int key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,257 @@
+package com.matebuilder.matching;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 能力向量近邻搜索
+ * 精确查询把矩阵行切分后在 ForkJoinPool 上并行扫描，每个分片维护自己的 TopK 再归并；
+ * 近似查询先从 LSH 取候选再精确重排，候选不足K个时退回精确扫描。增量覆盖层的用户总是逐个计算。
+ */
+public final class MatchEngine {
+
+    /**
+     * 单个任务扫描的最少行数
+     */
+    private static final int SPLIT_THRESHOLD = 8192;
+
+    private final ForkJoinPool pool;
+
+    public MatchEngine(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * 匹配结果，score 对余弦为相似度，对加权距离为距离
+     */
+    public static final class Match {
+        private final int userId;
+        private final float score;
+
+        Match(int userId, float score) {
+            this.userId = userId;
+            this.score = score;
+        }
+
+        public int getUserId() {
+            return userId;
+        }
+
+        public float getScore() {
+            return score;
+        }
+    }
+
+    /**
+     * @param matrix 能力矩阵快照
+     * @param lsh 近似索引，可为null
+     * @param overlay 快照之后变更过的用户
+     * @param self 查询用户的向量
+     * @param query 查询条件
+     */
+    public List<Match> search(AbilityMatrix matrix, LshIndex lsh, Collection<UserVector> overlay,
+                              UserVector self, MatchQuery query) {
+        Scorer scorer = new Scorer(matrix, self, query);
+        if (scorer.degenerate) {
+            return new ArrayList<>();
+        }
+        TopK top = null;
+        if (query.isApproximate() && lsh != null && query.getMetric() == MatchQuery.Metric.COSINE) {
+            top = scanCandidates(matrix, lsh.candidates(scorer.q), scorer, query.getK());
+            if (top.size() < query.getK()) {
+                top = null;
+            }
+        }
+        if (top == null) {
+            top = matrix.rows() <= SPLIT_THRESHOLD
+                    ? new ScanTask(matrix, scorer, 0, matrix.rows(), query.getK()).compute()
+                    : pool.invoke(new ScanTask(matrix, scorer, 0, matrix.rows(), query.getK()));
+        }
+        for (UserVector vector : overlay) {
+            if (vector.userId != self.userId && !vector.isEmpty() && !inSnapshot(matrix, vector.userId)
+                    && scorer.accepts(vector)) {
+                top.offer(vector.userId, scorer.score(vector));
+            }
+        }
+        TopK.Result sorted = top.drainSorted();
+        List<Match> result = new ArrayList<>(sorted.ids.length);
+        for (int i = 0; i < sorted.ids.length; i++) {
+            result.add(new Match(sorted.ids[i], scorer.output(sorted.scores[i])));
+        }
+        return result;
+    }
+
+    /**
+     * 快照中该用户的行未被遮蔽时，覆盖层条目已并入快照（切换快照后、清理覆盖层前），以快照为准避免重复
+     */
+    private static boolean inSnapshot(AbilityMatrix matrix, int userId) {
+        int row = matrix.rowOf(userId);
+        return row >= 0 && !matrix.isShadowed(row);
+    }
+
+    private static TopK scanCandidates(AbilityMatrix matrix, BitSet candidates, Scorer scorer, int k) {
+        TopK top = new TopK(k);
+        for (int row = candidates.nextSetBit(0); row >= 0; row = candidates.nextSetBit(row + 1)) {
+            if (scorer.accepts(row)) {
+                top.offer(matrix.userIds[row], scorer.score(row));
+            }
+        }
+        return top;
+    }
+
+    private static final class ScanTask extends RecursiveTask<TopK> {
+        private final AbilityMatrix matrix;
+        private final Scorer scorer;
+        private final int from;
+        private final int to;
+        private final int k;
+
+        ScanTask(AbilityMatrix matrix, Scorer scorer, int from, int to, int k) {
+            this.matrix = matrix;
+            this.scorer = scorer;
+            this.from = from;
+            this.to = to;
+            this.k = k;
+        }
+
+        @Override
+        protected TopK compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                TopK top = new TopK(k);
+                for (int row = from; row < to; row++) {
+                    if (scorer.accepts(row)) {
+                        top.offer(matrix.userIds[row], scorer.score(row));
+                    }
+                }
+                return top;
+            }
+            int mid = (from + to) >>> 1;
+            ScanTask left = new ScanTask(matrix, scorer, from, mid, k);
+            left.fork();
+            TopK right = new ScanTask(matrix, scorer, mid, to, k).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    /**
+     * 把查询向量展开为稠密数组，对每行只遍历其非零项
+     * 加权距离 d² = Σw·q² + Σ_{x非零} w·(x² - 2qx)，第一项对所有行相同只需计算一次。
+     */
+    private static final class Scorer {
+        private final AbilityMatrix matrix;
+        private final int selfRow;
+        private final boolean cosine;
+        private final float[] q;
+        private final float[] w;
+        private final float qNorm;
+        private final float qWeightedSquare;
+        private final BitSet labelRows;
+        private final Integer labelId;
+        private final int minLevel;
+        private final int maxLevel;
+        private final boolean degenerate;
+
+        Scorer(AbilityMatrix matrix, UserVector self, MatchQuery query) {
+            this.matrix = matrix;
+            this.selfRow = matrix.rowOf(self.userId);
+            this.cosine = query.getMetric() == MatchQuery.Metric.COSINE;
+            int dim = matrix.dim;
+            for (int c : self.cols) {
+                dim = Math.max(dim, c + 1);
+            }
+            this.q = new float[dim];
+            for (int i = 0; i < self.cols.length; i++) {
+                q[self.cols[i]] = self.vals[i];
+            }
+            this.w = new float[dim];
+            float[] weights = query.getWeights();
+            float weightedSquare = 0;
+            for (int c = 0; c < dim; c++) {
+                w[c] = weights != null && c < weights.length ? weights[c] : 1f;
+                weightedSquare += w[c] * q[c] * q[c];
+            }
+            this.qWeightedSquare = weightedSquare;
+            this.qNorm = self.norm;
+            this.labelId = query.getLabelId();
+            this.labelRows = labelId == null ? null : matrix.rowsByLabel.getOrDefault(labelId, new BitSet());
+            this.minLevel = query.getMinLevel() == null ? Integer.MIN_VALUE : query.getMinLevel();
+            this.maxLevel = query.getMaxLevel() == null ? Integer.MAX_VALUE : query.getMaxLevel();
+            this.degenerate = cosine && qNorm == 0;
+        }
+
+        boolean accepts(int row) {
+            if (row == selfRow || matrix.isShadowed(row)) {
+                return false;
+            }
+            int level = matrix.levels[row];
+            if (level < minLevel || level > maxLevel) {
+                return false;
+            }
+            return labelRows == null || labelRows.get(row);
+        }
+
+        boolean accepts(UserVector vector) {
+            if (vector.level < minLevel || vector.level > maxLevel) {
+                return false;
+            }
+            return labelId == null || vector.hasLabel(labelId);
+        }
+
+        float score(int row) {
+            int from = matrix.rowPtr[row];
+            int to = matrix.rowPtr[row + 1];
+            if (cosine) {
+                float norm = matrix.norms[row];
+                if (norm == 0) {
+                    return -1f;
+                }
+                float dot = 0;
+                for (int p = from; p < to; p++) {
+                    dot += matrix.vals[p] * q[matrix.cols[p]];
+                }
+                return dot / (norm * qNorm);
+            }
+            float acc = qWeightedSquare;
+            for (int p = from; p < to; p++) {
+                int c = matrix.cols[p];
+                float x = matrix.vals[p];
+                acc += w[c] * (x * x - 2 * q[c] * x);
+            }
+            return (float) -Math.sqrt(Math.max(acc, 0));
+        }
+
+        float score(UserVector vector) {
+            if (cosine) {
+                if (vector.norm == 0) {
+                    return -1f;
+                }
+                float dot = 0;
+                for (int i = 0; i < vector.cols.length; i++) {
+                    int c = vector.cols[i];
+                    dot += c < q.length ? vector.vals[i] * q[c] : 0;
+                }
+                return dot / (vector.norm * qNorm);
+            }
+            float acc = qWeightedSquare;
+            for (int i = 0; i < vector.cols.length; i++) {
+                int c = vector.cols[i];
+                float x = vector.vals[i];
+                float qc = c < q.length ? q[c] : 0;
+                float wc = c < w.length ? w[c] : 1f;
+                acc += wc * (x * x - 2 * qc * x);
+            }
+            return (float) -Math.sqrt(Math.max(acc, 0));
+        }
+
+        /**
+         * 内部统一按“越大越好”排序，加权距离输出时还原为正数距离
+         */
+        float output(float score) {
+            return cosine ? score : -score;
+        }
+    }
+}
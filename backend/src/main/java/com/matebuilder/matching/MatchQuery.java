@@ -0,0 +1,44 @@
+package com.matebuilder.matching;
+
+import lombok.Data;
+
+/**
+ * 匹配查询条件
+ */
+@Data
+public class MatchQuery {
+
+    public enum Metric {
+        /**
+         * 余弦相似度，越大越相似
+         */
+        COSINE,
+        /**
+         * 加权欧氏距离，越小越相似
+         */
+        WEIGHTED_DISTANCE
+    }
+
+    private int k = 10;
+
+    private Metric metric = Metric.COSINE;
+
+    /**
+     * 按能力列号索引的权重，仅 WEIGHTED_DISTANCE 使用，缺省为1
+     */
+    private float[] weights;
+
+    /**
+     * 只匹配加入过该标签社区的用户
+     */
+    private Integer labelId;
+
+    private Integer minLevel;
+
+    private Integer maxLevel;
+
+    /**
+     * 允许使用近似索引（仅余弦相似度）
+     */
+    private boolean approximate;
+}
@@ -0,0 +1,375 @@
+package com.matebuilder.matching;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.matebuilder.common.event.EntityChangeEvent;
+import com.matebuilder.entity.CommunityMember;
+import com.matebuilder.entity.User;
+import com.matebuilder.entity.UserAbility;
+import com.matebuilder.entity.UserCommunity;
+import com.matebuilder.mapper.CommunityMemberMapper;
+import com.matebuilder.mapper.UserAbilityMapper;
+import com.matebuilder.mapper.UserMapper;
+import com.matebuilder.vo.MateMatchVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * 学伴匹配引擎
+ * 用户能力以CSR矩阵快照保存，快照之后变更的用户放入增量覆盖层（同时在快照中屏蔽旧行）。
+ * 写事件只标记脏用户，由定时任务按用户重新加载；覆盖层定期在内存中合并进新快照，
+ * 无法定位用户的删除类事件会触发一次全量重建。
+ */
+@Slf4j
+@Component
+public class MateMatcher {
+
+    private static final long LSH_SEED = 20240601L;
+
+    private final UserAbilityMapper userAbilityMapper;
+    private final UserMapper userMapper;
+    private final CommunityMemberMapper communityMemberMapper;
+    private final ForkJoinPool pool;
+    private final MatchEngine engine;
+    private final int approximateThreshold;
+    private final int lshTables;
+    private final int lshBits;
+
+    private final Map<String, Integer> columns = new ConcurrentHashMap<>();
+    private final AtomicInteger nextColumn = new AtomicInteger();
+    private final Map<Integer, UserVector> overlay = new ConcurrentHashMap<>();
+    private final Set<Integer> dirtyUsers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong versions = new AtomicLong();
+    /**
+     * 覆盖层的版本分配和写入与合并时读取截止版本互斥：截止版本之内的条目在读取时都已写入覆盖层，
+     * 合并时不会漏掉已取得版本但尚未写入的条目（否则随后按版本清理会把它丢掉）
+     */
+    private final ReentrantLock overlayLock = new ReentrantLock();
+    private volatile boolean fullRebuildPending;
+    private volatile Snapshot snapshot = new Snapshot(AbilityMatrix.EMPTY, null);
+
+    /**
+     * 矩阵与其近似索引必须同时切换，否则行号对不上
+     */
+    private static final class Snapshot {
+        private final AbilityMatrix matrix;
+        private final LshIndex lsh;
+
+        Snapshot(AbilityMatrix matrix, LshIndex lsh) {
+            this.matrix = matrix;
+            this.lsh = lsh;
+        }
+    }
+
+    public MateMatcher(UserAbilityMapper userAbilityMapper,
+                       UserMapper userMapper,
+                       CommunityMemberMapper communityMemberMapper,
+                       @Value("${matching.parallelism:0}") int parallelism,
+                       @Value("${matching.approximate-threshold:200000}") int approximateThreshold,
+                       @Value("${matching.lsh.tables:12}") int lshTables,
+                       @Value("${matching.lsh.bits:10}") int lshBits) {
+        this.userAbilityMapper = userAbilityMapper;
+        this.userMapper = userMapper;
+        this.communityMemberMapper = communityMemberMapper;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.engine = new MatchEngine(pool);
+        this.approximateThreshold = approximateThreshold;
+        this.lshTables = lshTables;
+        this.lshBits = lshBits;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            fullRebuild();
+        } catch (Exception e) {
+            log.warn("Mate matcher warm-up failed, will retry on next maintenance. Error: {}", e.getMessage());
+            fullRebuildPending = true;
+        }
+    }
+
+    /**
+     * 查询与用户能力最接近的K个用户
+     */
+    public List<MateMatchVO> match(int userId, MatchQuery query) {
+        Snapshot current = snapshot;
+        UserVector self = overlay.get(userId);
+        if (self == null) {
+            int row = current.matrix.rowOf(userId);
+            if (row < 0) {
+                return new ArrayList<>();
+            }
+            self = current.matrix.rowVector(row);
+        }
+        return engine.search(current.matrix, current.lsh, overlay.values(), self, query).stream()
+                .map(m -> new MateMatchVO(m.getUserId(), m.getScore()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 把按能力名称给出的权重转换为按列号索引的数组
+     */
+    public float[] weightsOf(Map<String, Float> weightsByName) {
+        float[] weights = new float[nextColumn.get()];
+        Arrays.fill(weights, 1f);
+        weightsByName.forEach((name, weight) -> {
+            Integer col = columns.get(name);
+            if (col != null && col < weights.length) {
+                weights[col] = weight;
+            }
+        });
+        return weights;
+    }
+
+    public Map<String, Object> stats() {
+        Snapshot current = snapshot;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("rows", current.matrix.rows());
+        stats.put("nonZeros", current.matrix.nonZeros());
+        stats.put("abilities", columns.size());
+        stats.put("overlay", overlay.size());
+        stats.put("dirty", dirtyUsers.size());
+        stats.put("approximateIndex", current.lsh != null);
+        return stats;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        EntityChangeEvent.Action action = event.getAction();
+        if (event.isFor(UserAbility.class)) {
+            if (action == EntityChangeEvent.Action.REMOVE) {
+                fullRebuildPending = true;
+                return;
+            }
+            Integer userId = event.getEntity(UserAbility.class).getUserId();
+            if (userId == null) {
+                UserAbility row = userAbilityMapper.selectById(event.getId());
+                userId = row == null ? null : row.getUserId();
+            }
+            markDirty(userId);
+        } else if (event.isFor(User.class)) {
+            if (action == EntityChangeEvent.Action.REMOVE || event.getEntity(User.class).getLevel() != null) {
+                markDirty((Integer) event.getId());
+            }
+        } else if (event.isFor(CommunityMember.class)) {
+            if (action == EntityChangeEvent.Action.REMOVE) {
+                fullRebuildPending = true;
+                return;
+            }
+            Integer userId = event.getEntity(CommunityMember.class).getUserId();
+            if (userId == null) {
+                CommunityMember member = communityMemberMapper.selectById(event.getId());
+                userId = member == null ? null : member.getUserId();
+            }
+            markDirty(userId);
+        } else if (event.isFor(UserCommunity.class)) {
+            // 社区标签变化影响全部成员
+            if (action == EntityChangeEvent.Action.REMOVE
+                    || (action == EntityChangeEvent.Action.UPDATE && event.getEntity(UserCommunity.class).getCommunityLabelId() != null)) {
+                fullRebuildPending = true;
+            }
+        }
+    }
+
+    /**
+     * 重新加载脏用户到覆盖层
+     */
+    @Scheduled(fixedDelayString = "${matching.refresh-interval-ms:1000}")
+    public void refreshDirty() {
+        Iterator<Integer> it = dirtyUsers.iterator();
+        while (it.hasNext()) {
+            Integer userId = it.next();
+            it.remove();
+            try {
+                refreshUser(userId);
+            } catch (Exception e) {
+                log.warn("Refresh ability vector of user {} failed: {}", userId, e.getMessage());
+                dirtyUsers.add(userId);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 合并覆盖层或全量重建
+     */
+    @Scheduled(fixedDelayString = "${matching.compact-interval-ms:60000}")
+    public void maintain() {
+        try {
+            if (fullRebuildPending) {
+                fullRebuild();
+            } else if (!overlay.isEmpty()) {
+                compact();
+            }
+        } catch (Exception e) {
+            log.warn("Mate matcher maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    private void markDirty(Integer userId) {
+        if (userId != null) {
+            dirtyUsers.add(userId);
+        }
+    }
+
+    private void refreshUser(int userId) {
+        List<UserAbility> abilities = userAbilityMapper.selectList(new LambdaQueryWrapper<UserAbility>()
+                .select(UserAbility::getAbilityName, UserAbility::getAbilityScore)
+                .eq(UserAbility::getUserId, userId));
+        User user = userMapper.selectOne(new LambdaQueryWrapper<User>()
+                .select(User::getId, User::getLevel)
+                .eq(User::getId, userId));
+        List<Integer> labels = user == null ? new ArrayList<>() : communityMemberMapper.selectLabelIdsByUser(userId);
+
+        AbilityMatrix.Builder builder = new AbilityMatrix.Builder();
+        if (user != null) {
+            for (UserAbility ability : abilities) {
+                builder.add(userId, columnOf(ability.getAbilityName()), scoreOf(ability));
+            }
+        }
+        AbilityMatrix single = builder.build();
+        int[] cols = single.rows() == 0 ? new int[0] : single.cols;
+        float[] vals = single.rows() == 0 ? new float[0] : single.vals;
+        int level = user == null || user.getLevel() == null ? 0 : user.getLevel();
+        int[] labelIds = labels.stream().mapToInt(Integer::intValue).toArray();
+
+        overlayLock.lock();
+        try {
+            overlay.put(userId, new UserVector(userId, cols, vals, level, labelIds, versions.incrementAndGet()));
+        } finally {
+            overlayLock.unlock();
+        }
+        AbilityMatrix matrix = snapshot.matrix;
+        int row = matrix.rowOf(userId);
+        if (row >= 0) {
+            matrix.shadow(row);
+        }
+    }
+
+    private synchronized void fullRebuild() {
+        fullRebuildPending = false;
+        long cutoff = cutoff();
+        long start = System.currentTimeMillis();
+        AbilityMatrix.Builder builder = new AbilityMatrix.Builder();
+        userAbilityMapper.scanAll(context -> {
+            UserAbility ability = context.getResultObject();
+            builder.add(ability.getUserId(), columnOf(ability.getAbilityName()), scoreOf(ability));
+        });
+        userMapper.scanLevels(context -> {
+            User user = context.getResultObject();
+            builder.level(user.getId(), user.getLevel() == null ? 0 : user.getLevel());
+        });
+        communityMemberMapper.scanUserLabels(context ->
+                builder.label(context.getResultObject().getUserId(), context.getResultObject().getLabelId()));
+        publish(builder.build(), cutoff);
+        log.info("Mate matcher rebuilt {} users in {} ms", snapshot.matrix.rows(), System.currentTimeMillis() - start);
+    }
+
+    private synchronized void compact() {
+        long cutoff;
+        List<UserVector> merged;
+        overlayLock.lock();
+        try {
+            cutoff = versions.get();
+            long limit = cutoff;
+            merged = overlay.values().stream()
+                    .filter(v -> v.version <= limit)
+                    .collect(Collectors.toList());
+        } finally {
+            overlayLock.unlock();
+        }
+        AbilityMatrix old = snapshot.matrix;
+        BitSet replaced = new BitSet(old.rows());
+        for (UserVector vector : merged) {
+            int row = old.rowOf(vector.userId);
+            if (row >= 0) {
+                replaced.set(row);
+            }
+        }
+        AbilityMatrix.Builder builder = new AbilityMatrix.Builder();
+        for (int row = replaced.nextClearBit(0); row < old.rows(); row = replaced.nextClearBit(row + 1)) {
+            int userId = old.userIds[row];
+            for (int p = old.rowPtr[row]; p < old.rowPtr[row + 1]; p++) {
+                builder.add(userId, old.cols[p], old.vals[p]);
+            }
+            builder.level(userId, old.levels[row]);
+        }
+        old.rowsByLabel.forEach((label, rows) -> {
+            for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+                if (!replaced.get(row)) {
+                    builder.label(old.userIds[row], label);
+                }
+            }
+        });
+        merged.forEach(builder::add);
+        publish(builder.build(), cutoff);
+    }
+
+    /**
+     * 先切换快照再清理已并入新快照的覆盖层条目，读者在任何时刻都至少能在一处看到变更过的用户；
+     * 两处都有时 MatchEngine 以未遮蔽的快照行为准，不会重复
+     */
+    private void publish(AbilityMatrix matrix, long cutoff) {
+        for (UserVector vector : overlay.values()) {
+            if (vector.version > cutoff) {
+                int row = matrix.rowOf(vector.userId);
+                if (row >= 0) {
+                    matrix.shadow(row);
+                }
+            }
+        }
+        LshIndex lsh = matrix.rows() >= approximateThreshold
+                ? new LshIndex(matrix, lshTables, lshBits, LSH_SEED) : null;
+        snapshot = new Snapshot(matrix, lsh);
+        overlay.values().removeIf(v -> v.version <= cutoff);
+        // 切换期间新进入覆盖层的用户
+        for (UserVector vector : overlay.values()) {
+            int row = matrix.rowOf(vector.userId);
+            if (row >= 0) {
+                matrix.shadow(row);
+            }
+        }
+    }
+
+    private long cutoff() {
+        overlayLock.lock();
+        try {
+            return versions.get();
+        } finally {
+            overlayLock.unlock();
+        }
+    }
+
+    private int columnOf(String abilityName) {
+        return columns.computeIfAbsent(abilityName, k -> nextColumn.getAndIncrement());
+    }
+
+    private static float scoreOf(UserAbility ability) {
+        return ability.getAbilityScore() == null ? 0f : ability.getAbilityScore().floatValue();
+    }
+}
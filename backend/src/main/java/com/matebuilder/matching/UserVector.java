@@ -0,0 +1,47 @@
+package com.matebuilder.matching;
+
+/**
+ * 单个用户的稀疏能力向量，作为快照之后的增量覆盖层条目
+ * cols 为升序能力列号，labels 为用户所在社区的标签ID。
+ */
+public final class UserVector {
+
+    final int userId;
+    final int[] cols;
+    final float[] vals;
+    final float norm;
+    final int level;
+    final int[] labels;
+    final long version;
+
+    public UserVector(int userId, int[] cols, float[] vals, int level, int[] labels, long version) {
+        this.userId = userId;
+        this.cols = cols;
+        this.vals = vals;
+        this.level = level;
+        this.labels = labels;
+        this.version = version;
+        double sum = 0;
+        for (float v : vals) {
+            sum += v * v;
+        }
+        this.norm = (float) Math.sqrt(sum);
+    }
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public boolean isEmpty() {
+        return cols.length == 0;
+    }
+
+    boolean hasLabel(int labelId) {
+        for (int label : labels) {
+            if (label == labelId) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,227 @@
+package com.matebuilder.recommend;
+
+import com.matebuilder.matching.TopK;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 共同成员关系相似度计算
+ * 设 A 为用户×社区的0/1矩阵，用户相似度取 A·Aᵀ 的一行，社区相似度取 Aᵀ·A 的一行，
+ * 均按余弦归一化：|交集| / sqrt(度数乘积)。逐行用稠密累加器（Gustavson算法）只访问非零项，
+ * 各行之间在 ForkJoinPool 上并行。成员数超过 maxCommunitySize 的超大社区不参与用户相似度累加，
+ * 否则其成员两两之间的计算量会随规模平方增长。
+ */
+public final class CoMembershipEngine {
+
+    private static final int MIN_CHUNK = 256;
+
+    private final ForkJoinPool pool;
+    private final int k;
+    private final int maxCommunitySize;
+
+    /**
+     * 每个工作线程复用的稠密累加器，避免每个分片都分配与用户数同长的数组
+     */
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    private static final class Scratch {
+        int[] acc = new int[0];
+        int[] touched = new int[0];
+        float[] floatAcc = new float[0];
+        int[] floatTouched = new int[0];
+
+        Scratch ensure(int intSize, int floatSize) {
+            if (acc.length < intSize) {
+                acc = new int[intSize];
+                touched = new int[intSize];
+            }
+            if (floatAcc.length < floatSize) {
+                floatAcc = new float[floatSize];
+                floatTouched = new int[floatSize];
+            }
+            return this;
+        }
+    }
+
+    public CoMembershipEngine(ForkJoinPool pool, int k, int maxCommunitySize) {
+        this.pool = pool;
+        this.k = k;
+        this.maxCommunitySize = maxCommunitySize;
+    }
+
+    /**
+     * 社区的相似社区，ids 为社区ID
+     */
+    public static final class Neighbors {
+        final int[] ids;
+        final float[] scores;
+
+        Neighbors(int[] ids, float[] scores) {
+            this.ids = ids;
+            this.scores = scores;
+        }
+    }
+
+    /**
+     * 计算指定社区行的相似社区
+     */
+    public void communityNeighbors(MembershipGraph g, int[] communityRows, Map<Integer, Neighbors> out) {
+        run(communityRows, (rows, from, to) -> {
+            Scratch s = scratch.get().ensure(g.communities(), 0);
+            int[] acc = s.acc;
+            int[] touched = s.touched;
+            for (int i = from; i < to; i++) {
+                int c = rows[i];
+                int touchedSize = 0;
+                for (int p = g.communityPtr[c]; p < g.communityPtr[c + 1]; p++) {
+                    int u = g.communityAdj[p];
+                    for (int q = g.userPtr[u]; q < g.userPtr[u + 1]; q++) {
+                        int other = g.userAdj[q];
+                        if (other != c && acc[other]++ == 0) {
+                            touched[touchedSize++] = other;
+                        }
+                    }
+                }
+                TopK top = new TopK(k);
+                double size = g.communitySize(c);
+                for (int t = 0; t < touchedSize; t++) {
+                    int other = touched[t];
+                    top.offer(g.communityIds[other], (float) (acc[other] / Math.sqrt(size * g.communitySize(other))));
+                    acc[other] = 0;
+                }
+                TopK.Result result = top.drainSorted();
+                out.put(g.communityIds[c], new Neighbors(result.ids, result.scores));
+            }
+        });
+    }
+
+    /**
+     * 计算指定用户行的相似用户和推荐社区
+     * 推荐社区分数为用户所在各社区的相似社区分数之和，排除已加入的社区。
+     */
+    public void userRecommendations(MembershipGraph g, int[] userRows, Map<Integer, Neighbors> communityNeighbors,
+                                    Map<Integer, Recommendations> out) {
+        run(userRows, (rows, from, to) -> {
+            Scratch s = scratch.get().ensure(g.users(), g.communities());
+            int[] acc = s.acc;
+            int[] touched = s.touched;
+            float[] communityAcc = s.floatAcc;
+            int[] communityTouched = s.floatTouched;
+            for (int i = from; i < to; i++) {
+                int u = rows[i];
+                int touchedSize = 0;
+                for (int p = g.userPtr[u]; p < g.userPtr[u + 1]; p++) {
+                    int c = g.userAdj[p];
+                    if (g.communitySize(c) > maxCommunitySize) {
+                        continue;
+                    }
+                    for (int q = g.communityPtr[c]; q < g.communityPtr[c + 1]; q++) {
+                        int other = g.communityAdj[q];
+                        if (other != u && acc[other]++ == 0) {
+                            touched[touchedSize++] = other;
+                        }
+                    }
+                }
+                TopK users = new TopK(k);
+                double degree = g.userDegree(u);
+                for (int t = 0; t < touchedSize; t++) {
+                    int other = touched[t];
+                    users.offer(g.userIds[other], (float) (acc[other] / Math.sqrt(degree * g.userDegree(other))));
+                    acc[other] = 0;
+                }
+
+                int communityTouchedSize = 0;
+                for (int p = g.userPtr[u]; p < g.userPtr[u + 1]; p++) {
+                    Neighbors neighbors = communityNeighbors.get(g.communityIds[g.userAdj[p]]);
+                    if (neighbors == null) {
+                        continue;
+                    }
+                    for (int n = 0; n < neighbors.ids.length; n++) {
+                        int c = g.communityRow(neighbors.ids[n]);
+                        if (c < 0) {
+                            continue;
+                        }
+                        if (communityAcc[c] == 0) {
+                            communityTouched[communityTouchedSize++] = c;
+                        }
+                        communityAcc[c] += neighbors.scores[n];
+                    }
+                }
+                TopK communities = new TopK(k);
+                for (int t = 0; t < communityTouchedSize; t++) {
+                    int c = communityTouched[t];
+                    if (!isMember(g, u, c)) {
+                        communities.offer(g.communityIds[c], communityAcc[c]);
+                    }
+                    communityAcc[c] = 0;
+                }
+                TopK.Result userResult = users.drainSorted();
+                TopK.Result communityResult = communities.drainSorted();
+                out.put(g.userIds[u], new Recommendations(userResult.ids, userResult.scores,
+                        communityResult.ids, communityResult.scores));
+            }
+        });
+    }
+
+    /**
+     * 全部行号 [0, n)
+     */
+    public static int[] allRows(int n) {
+        int[] rows = new int[n];
+        Arrays.setAll(rows, i -> i);
+        return rows;
+    }
+
+    public static Map<Integer, Neighbors> newNeighborMap() {
+        return new ConcurrentHashMap<>();
+    }
+
+    private static boolean isMember(MembershipGraph g, int u, int c) {
+        // 用户行内的社区行号按社区ID升序，即按行号升序
+        return Arrays.binarySearch(g.userAdj, g.userPtr[u], g.userPtr[u + 1], c) >= 0;
+    }
+
+    private interface RangeJob {
+        void run(int[] rows, int from, int to);
+    }
+
+    private void run(int[] rows, RangeJob job) {
+        // 每个线程约分到8个分片，兼顾负载均衡和调度开销
+        int chunk = Math.max(MIN_CHUNK, rows.length / (pool.getParallelism() * 8));
+        if (rows.length <= chunk) {
+            job.run(rows, 0, rows.length);
+        } else {
+            pool.invoke(new RangeTask(rows, 0, rows.length, chunk, job));
+        }
+    }
+
+    private static final class RangeTask extends RecursiveAction {
+        private final int[] rows;
+        private final int from;
+        private final int to;
+        private final int chunk;
+        private final RangeJob job;
+
+        RangeTask(int[] rows, int from, int to, int chunk, RangeJob job) {
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+            this.job = job;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunk) {
+                job.run(rows, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RangeTask(rows, from, mid, chunk, job), new RangeTask(rows, mid, to, chunk, job));
+        }
+    }
+}
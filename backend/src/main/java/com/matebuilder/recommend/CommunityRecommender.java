@@ -0,0 +1,199 @@
+package com.matebuilder.recommend;
+
+import com.matebuilder.common.event.EntityChangeEvent;
+import com.matebuilder.entity.CommunityMember;
+import com.matebuilder.mapper.CommunityMemberMapper;
+import com.matebuilder.vo.RecommendationVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * “可能认识的人 / 可能喜欢的社区”推荐
+ * 基于 tb_community_member 二部图预计算每个用户的 top-K 结果，请求只读内存表。
+ * 新增成员关系攒批后增量重算受影响的社区和用户；删除无法定位边，与定期全量刷新一起走全量重建，
+ * 同时修正增量计算中未重算的邻居归一化偏差。
+ */
+@Slf4j
+@Component
+public class CommunityRecommender {
+
+    private final CommunityMemberMapper communityMemberMapper;
+    private final ForkJoinPool pool;
+    private final CoMembershipEngine engine;
+    private final int maxIncrementalUsers;
+
+    private final ConcurrentLinkedQueue<Long> pendingEdges = new ConcurrentLinkedQueue<>();
+    private volatile boolean fullRebuildPending;
+    private volatile MembershipGraph graph = MembershipGraph.EMPTY;
+    private volatile Map<Integer, CoMembershipEngine.Neighbors> communityNeighbors = CoMembershipEngine.newNeighborMap();
+    private volatile Map<Integer, Recommendations> table = new ConcurrentHashMap<>();
+
+    public CommunityRecommender(CommunityMemberMapper communityMemberMapper,
+                                @Value("${recommend.parallelism:0}") int parallelism,
+                                @Value("${recommend.top-k:10}") int topK,
+                                @Value("${recommend.max-community-size:5000}") int maxCommunitySize,
+                                @Value("${recommend.max-incremental-users:50000}") int maxIncrementalUsers) {
+        this.communityMemberMapper = communityMemberMapper;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.engine = new CoMembershipEngine(pool, topK, maxCommunitySize);
+        this.maxIncrementalUsers = maxIncrementalUsers;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            fullRebuild();
+        } catch (Exception e) {
+            log.warn("Community recommender warm-up failed, will retry on next refresh. Error: {}", e.getMessage());
+            fullRebuildPending = true;
+        }
+    }
+
+    public List<RecommendationVO> similarUsers(int userId, int limit) {
+        Recommendations recs = table.getOrDefault(userId, Recommendations.EMPTY);
+        return toVO(recs.userIds, recs.userScores, limit);
+    }
+
+    public List<RecommendationVO> suggestedCommunities(int userId, int limit) {
+        Recommendations recs = table.getOrDefault(userId, Recommendations.EMPTY);
+        return toVO(recs.communityIds, recs.communityScores, limit);
+    }
+
+    public Map<String, Object> stats() {
+        MembershipGraph current = graph;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("users", current.users());
+        stats.put("communities", current.communities());
+        stats.put("memberships", current.edges());
+        stats.put("pendingMemberships", pendingEdges.size());
+        stats.put("precomputedUsers", table.size());
+        return stats;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        if (!event.isFor(CommunityMember.class)) {
+            return;
+        }
+        CommunityMember member = event.getEntity(CommunityMember.class);
+        if (event.getAction() == EntityChangeEvent.Action.SAVE
+                && member.getUserId() != null && member.getCommunityId() != null) {
+            pendingEdges.add(MembershipGraph.edge(member.getUserId(), member.getCommunityId()));
+        } else {
+            // 删除或修改成员关系，无法只靠事件定位旧边
+            fullRebuildPending = true;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${recommend.refresh-interval-ms:30000}")
+    public void refresh() {
+        try {
+            if (fullRebuildPending) {
+                fullRebuild();
+            } else if (!pendingEdges.isEmpty()) {
+                incrementalRefresh();
+            }
+        } catch (Exception e) {
+            log.warn("Community recommender refresh failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${recommend.full-refresh-interval-ms:3600000}",
+            initialDelayString = "${recommend.full-refresh-interval-ms:3600000}")
+    public void scheduleFullRebuild() {
+        fullRebuildPending = true;
+    }
+
+    private synchronized void fullRebuild() {
+        fullRebuildPending = false;
+        pendingEdges.clear();
+        long start = System.currentTimeMillis();
+        long[][] edges = {new long[1024]};
+        int[] size = {0};
+        communityMemberMapper.scanMemberships(context -> {
+            CommunityMember member = context.getResultObject();
+            if (size[0] == edges[0].length) {
+                edges[0] = Arrays.copyOf(edges[0], size[0] * 2);
+            }
+            edges[0][size[0]++] = MembershipGraph.edge(member.getUserId(), member.getCommunityId());
+        });
+        MembershipGraph g = MembershipGraph.of(edges[0], size[0]);
+
+        Map<Integer, CoMembershipEngine.Neighbors> neighbors = CoMembershipEngine.newNeighborMap();
+        engine.communityNeighbors(g, CoMembershipEngine.allRows(g.communities()), neighbors);
+        Map<Integer, Recommendations> recs = new ConcurrentHashMap<>(g.users() * 2);
+        engine.userRecommendations(g, CoMembershipEngine.allRows(g.users()), neighbors, recs);
+
+        graph = g;
+        communityNeighbors = neighbors;
+        table = recs;
+        log.info("Community recommender rebuilt {} users / {} communities / {} memberships in {} ms",
+                g.users(), g.communities(), g.edges(), System.currentTimeMillis() - start);
+    }
+
+    private synchronized void incrementalRefresh() {
+        List<Long> drained = new ArrayList<>();
+        Long edge;
+        while ((edge = pendingEdges.poll()) != null) {
+            drained.add(edge);
+        }
+        long[] added = drained.stream().mapToLong(Long::longValue).toArray();
+        MembershipGraph g = graph.with(added);
+
+        // 受影响的社区：新边的社区以及新成员已加入的其他社区
+        Set<Integer> communityRows = new HashSet<>();
+        for (long e : added) {
+            int userRow = g.userRow((int) (e >> 32));
+            for (int p = g.userPtr[userRow]; p < g.userPtr[userRow + 1]; p++) {
+                communityRows.add(g.userAdj[p]);
+            }
+        }
+        // 受影响的用户：上述社区的全部成员
+        Set<Integer> userRows = new HashSet<>();
+        for (int c : communityRows) {
+            for (int p = g.communityPtr[c]; p < g.communityPtr[c + 1]; p++) {
+                userRows.add(g.communityAdj[p]);
+            }
+        }
+        if (userRows.size() > maxIncrementalUsers) {
+            graph = g;
+            fullRebuildPending = true;
+            return;
+        }
+        Map<Integer, CoMembershipEngine.Neighbors> neighbors = communityNeighbors;
+        engine.communityNeighbors(g, communityRows.stream().mapToInt(Integer::intValue).toArray(), neighbors);
+        engine.userRecommendations(g, userRows.stream().mapToInt(Integer::intValue).toArray(), neighbors, table);
+        graph = g;
+    }
+
+    private static List<RecommendationVO> toVO(int[] ids, float[] scores, int limit) {
+        int n = Math.max(0, Math.min(limit, ids.length));
+        List<RecommendationVO> result = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            result.add(new RecommendationVO(ids[i], scores[i]));
+        }
+        return result;
+    }
+}
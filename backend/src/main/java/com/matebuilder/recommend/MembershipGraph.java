@@ -0,0 +1,141 @@
+package com.matebuilder.recommend;
+
+import java.util.Arrays;
+
+/**
+ * 用户-社区二部图（tb_community_member）的不可变CSR表示
+ * 同时保存按用户和按社区两个方向的邻接数组，邻接数组中存放对方的行号而不是ID。
+ * 边以 (userId << 32 | communityId) 打包为 long，排序去重后生成两个方向的CSR。
+ */
+public final class MembershipGraph {
+
+    public static final MembershipGraph EMPTY = of(new long[0], 0);
+
+    final int[] userIds;
+    final int[] userPtr;
+    final int[] userAdj;
+    final int[] communityIds;
+    final int[] communityPtr;
+    final int[] communityAdj;
+
+    private MembershipGraph(int[] userIds, int[] userPtr, int[] userAdj,
+                            int[] communityIds, int[] communityPtr, int[] communityAdj) {
+        this.userIds = userIds;
+        this.userPtr = userPtr;
+        this.userAdj = userAdj;
+        this.communityIds = communityIds;
+        this.communityPtr = communityPtr;
+        this.communityAdj = communityAdj;
+    }
+
+    public static long edge(int userId, int communityId) {
+        return ((long) userId << 32) | (communityId & 0xffffffffL);
+    }
+
+    /**
+     * @param edges 打包后的边，会被原地排序
+     * @param size 有效边数
+     */
+    public static MembershipGraph of(long[] edges, int size) {
+        Arrays.sort(edges, 0, size);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || edges[i] != edges[i - 1]) {
+                edges[distinct++] = edges[i];
+            }
+        }
+        int n = distinct;
+
+        int[] users = new int[n];
+        int[] communities = new int[n];
+        for (int i = 0; i < n; i++) {
+            users[i] = (int) (edges[i] >> 32);
+            communities[i] = (int) edges[i];
+        }
+        int[] userIds = uniqueSorted(users);
+        int[] communityIds = uniqueSorted(communities);
+
+        // 边已按 (user, community) 排序，按用户方向直接顺序填充
+        int[] userPtr = new int[userIds.length + 1];
+        int[] userAdj = new int[n];
+        int[] communityPtr = new int[communityIds.length + 1];
+        int[] userRowOfEdge = new int[n];
+        int[] communityRowOfEdge = new int[n];
+        for (int i = 0; i < n; i++) {
+            userRowOfEdge[i] = Arrays.binarySearch(userIds, users[i]);
+            communityRowOfEdge[i] = Arrays.binarySearch(communityIds, communities[i]);
+            userPtr[userRowOfEdge[i] + 1]++;
+            communityPtr[communityRowOfEdge[i] + 1]++;
+            userAdj[i] = communityRowOfEdge[i];
+        }
+        for (int i = 0; i < userIds.length; i++) {
+            userPtr[i + 1] += userPtr[i];
+        }
+        for (int i = 0; i < communityIds.length; i++) {
+            communityPtr[i + 1] += communityPtr[i];
+        }
+        int[] communityAdj = new int[n];
+        int[] cursor = Arrays.copyOf(communityPtr, communityIds.length);
+        for (int i = 0; i < n; i++) {
+            communityAdj[cursor[communityRowOfEdge[i]]++] = userRowOfEdge[i];
+        }
+        return new MembershipGraph(userIds, userPtr, userAdj, communityIds, communityPtr, communityAdj);
+    }
+
+    /**
+     * 在当前图上追加边，返回新图
+     */
+    public MembershipGraph with(long[] added) {
+        long[] edges = new long[userAdj.length + added.length];
+        int size = 0;
+        for (int row = 0; row < userIds.length; row++) {
+            for (int p = userPtr[row]; p < userPtr[row + 1]; p++) {
+                edges[size++] = edge(userIds[row], communityIds[userAdj[p]]);
+            }
+        }
+        System.arraycopy(added, 0, edges, size, added.length);
+        return of(edges, edges.length);
+    }
+
+    public int users() {
+        return userIds.length;
+    }
+
+    public int communities() {
+        return communityIds.length;
+    }
+
+    public int edges() {
+        return userAdj.length;
+    }
+
+    public int userRow(int userId) {
+        int row = Arrays.binarySearch(userIds, userId);
+        return row >= 0 ? row : -1;
+    }
+
+    public int communityRow(int communityId) {
+        int row = Arrays.binarySearch(communityIds, communityId);
+        return row >= 0 ? row : -1;
+    }
+
+    int userDegree(int row) {
+        return userPtr[row + 1] - userPtr[row];
+    }
+
+    int communitySize(int row) {
+        return communityPtr[row + 1] - communityPtr[row];
+    }
+
+    private static int[] uniqueSorted(int[] values) {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[n++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, n);
+    }
+}
@@ -0,0 +1,21 @@
+package com.matebuilder.recommend;
+
+/**
+ * 单个用户预计算好的推荐结果，均按分数降序
+ */
+public final class Recommendations {
+
+    public static final Recommendations EMPTY = new Recommendations(new int[0], new float[0], new int[0], new float[0]);
+
+    final int[] userIds;
+    final float[] userScores;
+    final int[] communityIds;
+    final float[] communityScores;
+
+    Recommendations(int[] userIds, float[] userScores, int[] communityIds, float[] communityScores) {
+        this.userIds = userIds;
+        this.userScores = userScores;
+        this.communityIds = communityIds;
+        this.communityScores = communityScores;
+    }
+}
@@ -0,0 +1,390 @@
+package com.matebuilder.scoring;
+
+import com.matebuilder.chain.ChainClient;
+import com.matebuilder.chain.ContractEvents;
+import com.matebuilder.entity.ChainEvent;
+import com.matebuilder.mapper.ChainEventMapper;
+import com.matebuilder.vo.ScorePreviewVO;
+import com.matebuilder.vo.ScoreWhatIfVO;
+import com.matebuilder.wallet.WalletDirectory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 参议院评分预览
+ * 按链上顺序重放已同步的 SubmissionManager 评分事件：ScoreSubmitted 累积到待结算提交，
+ * FinalScoreCalculated 时用 SenateScoring 结算并推进参议员信誉度，同时与事件中的最终分核对。
+ * 重放结果（信誉度快照和全部待结算提交）定期整体替换，预览和假设计算都只读快照，不调用RPC。
+ * 信誉度跨社区共享，只有事件同步从合约部署区块开始时预览才与链上一致。
+ */
+@Slf4j
+@Component
+public class ScorePreview {
+
+    private static final List<String> EVENT_NAMES = Arrays.asList(
+            ContractEvents.SCORE_SUBMITTED.getName(), ContractEvents.FINAL_SCORE_CALCULATED.getName());
+
+    /**
+     * 一个待结算的提交，分数取各参议员的最新评分
+     */
+    private static final class Pending {
+        private final long chainCommunityId;
+        private final String member;
+        private int[] slots = new int[4];
+        private int n;
+
+        Pending(long chainCommunityId, String member) {
+            this.chainCommunityId = chainCommunityId;
+            this.member = member;
+        }
+
+        void add(int slot) {
+            if (n == slots.length) {
+                slots = Arrays.copyOf(slots, n * 2);
+            }
+            slots[n++] = slot;
+        }
+    }
+
+    /**
+     * 重放结果，构建后不再修改
+     */
+    private static final class Snapshot {
+        private final Map<String, Integer> slotOf;
+        private final String[] senators;
+        private final long[] reputation;
+        /**
+         * 链上社区ID -> 待结算提交，每个提交的分数与 slots 一一对应
+         */
+        private final Map<Long, List<Pending>> pending;
+        private final Map<Pending, long[]> scores;
+
+        Snapshot(Map<String, Integer> slotOf, String[] senators, long[] reputation,
+                 Map<Long, List<Pending>> pending, Map<Pending, long[]> scores) {
+            this.slotOf = slotOf;
+            this.senators = senators;
+            this.reputation = reputation;
+            this.pending = pending;
+            this.scores = scores;
+        }
+    }
+
+    /**
+     * 假设信誉度的上限，保证 分数 x 信誉度 的加权求和不会溢出 long
+     */
+    public static final long MAX_REPUTATION = 1_000_000_000_000L;
+
+    private final ChainEventMapper chainEventMapper;
+    private final ChainClient chainClient;
+    private final WalletDirectory walletDirectory;
+    private final ExecutorService evaluatePool;
+    private final int parallelism;
+
+    private final ReentrantLock replayLock = new ReentrantLock();
+
+    private volatile Snapshot snapshot;
+
+    private final AtomicLong replayedSettlements = new AtomicLong();
+    private final AtomicLong mismatchedSettlements = new AtomicLong();
+    private final AtomicLong lastReplayMs = new AtomicLong();
+
+    public ScorePreview(ChainEventMapper chainEventMapper,
+                        ChainClient chainClient,
+                        WalletDirectory walletDirectory,
+                        @Value("${scoring.preview.parallelism:4}") int parallelism) {
+        this.chainEventMapper = chainEventMapper;
+        this.chainClient = chainClient;
+        this.walletDirectory = walletDirectory;
+        this.parallelism = parallelism;
+        this.evaluatePool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "score-preview");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        evaluatePool.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            replay();
+        } catch (Exception e) {
+            log.warn("Score preview replay failed, previews stay empty until the next refresh. Error: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${scoring.preview.refresh-interval-ms:30000}",
+            fixedDelayString = "${scoring.preview.refresh-interval-ms:30000}")
+    public void scheduledReplay() {
+        try {
+            replay();
+        } catch (Exception e) {
+            log.warn("Score preview replay failed, keeping previous snapshot. Error: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 从已同步的事件重放全部评分，返回待结算提交数
+     * 可由请求线程触发，用 ReentrantLock 串行化，避免虚拟线程持有监视器阻塞在数据库上
+     */
+    public int replay() {
+        replayLock.lock();
+        try {
+            return doReplay();
+        } finally {
+            replayLock.unlock();
+        }
+    }
+
+    private int doReplay() {
+        String contract = chainClient.getSubmissionManagerAddress();
+        if (contract.isEmpty()) {
+            return 0;
+        }
+        long start = System.currentTimeMillis();
+        Map<String, Integer> slotOf = new HashMap<>();
+        List<String> senators = new ArrayList<>();
+        long[][] reputation = {new long[64]};
+        Map<String, Pending> open = new LinkedHashMap<>();
+        Map<Pending, Map<Integer, Long>> openScores = new HashMap<>();
+        long[] stats = new long[SenateScoring.STATS_LENGTH];
+        long[] counters = new long[2];
+
+        chainEventMapper.scanEvents(contract, EVENT_NAMES, context -> {
+            ChainEvent event = context.getResultObject();
+            String key = event.getChainCommunityId() + ":" + event.getAccount();
+            if (ContractEvents.SCORE_SUBMITTED.getName().equals(event.getEventName())) {
+                Integer slot = slotOf.get(event.getCounterparty());
+                if (slot == null) {
+                    slot = senators.size();
+                    slotOf.put(event.getCounterparty(), slot);
+                    senators.add(event.getCounterparty());
+                    if (slot == reputation[0].length) {
+                        reputation[0] = Arrays.copyOf(reputation[0], slot * 2);
+                    }
+                    reputation[0][slot] = SenateScoring.INITIAL_REPUTATION;
+                }
+                Pending submission = open.computeIfAbsent(key,
+                        k -> new Pending(event.getChainCommunityId(), event.getAccount()));
+                submission.add(slot);
+                openScores.computeIfAbsent(submission, k -> new HashMap<>()).put(slot, event.getAmount().longValueExact());
+                return;
+            }
+            Pending submission = open.remove(key);
+            if (submission == null) {
+                // 评分事件早于同步起点，无法重放
+                counters[1]++;
+                return;
+            }
+            long[] scores = scoresOf(submission, openScores.remove(submission));
+            long finalScore = SenateScoring.settle(reputation[0], submission.slots, scores, submission.n, stats);
+            counters[0]++;
+            if (finalScore != event.getAmount().longValueExact()) {
+                counters[1]++;
+                log.warn("Replayed final score {} differs from chain {} for community {} member {}",
+                        finalScore, event.getAmount(), event.getChainCommunityId(), event.getAccount());
+            }
+        });
+
+        Map<Long, List<Pending>> pending = new HashMap<>();
+        Map<Pending, long[]> scores = new HashMap<>();
+        for (Pending submission : open.values()) {
+            pending.computeIfAbsent(submission.chainCommunityId, k -> new ArrayList<>()).add(submission);
+            scores.put(submission, scoresOf(submission, openScores.get(submission)));
+        }
+        snapshot = new Snapshot(slotOf, senators.toArray(new String[0]),
+                Arrays.copyOf(reputation[0], senators.size()), pending, scores);
+        replayedSettlements.set(counters[0]);
+        mismatchedSettlements.set(counters[1]);
+        lastReplayMs.set(System.currentTimeMillis() - start);
+        return open.size();
+    }
+
+    /**
+     * 预览指定社区（为空时全部社区）待结算提交此时结算的结果，各社区并行计算
+     */
+    public Map<Long, List<ScorePreviewVO>> preview(List<Long> chainCommunityIds) {
+        ScoreWhatIfVO none = new ScoreWhatIfVO();
+        none.setChainCommunityIds(chainCommunityIds);
+        return whatIf(none);
+    }
+
+    /**
+     * 在假设的信誉度和追加评分下预览，不影响快照
+     * 调用方需保证分数在 0..MAX_SCORE、信誉度在 0..MAX_REPUTATION 之间
+     */
+    public Map<Long, List<ScorePreviewVO>> whatIf(ScoreWhatIfVO whatIf) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, Long> reputations = new HashMap<>();
+        if (whatIf.getReputations() != null) {
+            whatIf.getReputations().forEach((address, value) ->
+                    reputations.put(WalletDirectory.normalize(address), value));
+        }
+        Map<Long, List<ScoreWhatIfVO.Score>> extra = new HashMap<>();
+        if (whatIf.getScores() != null) {
+            for (ScoreWhatIfVO.Score score : whatIf.getScores()) {
+                extra.computeIfAbsent(score.getChainCommunityId(), k -> new ArrayList<>()).add(score);
+            }
+        }
+        List<Long> ids;
+        if (whatIf.getChainCommunityIds() == null || whatIf.getChainCommunityIds().isEmpty()) {
+            // 假设评分可能为尚无评分的社区新建待结算提交
+            Set<Long> all = new LinkedHashSet<>(current.pending.keySet());
+            all.addAll(extra.keySet());
+            ids = new ArrayList<>(all);
+        } else {
+            ids = new ArrayList<>(new LinkedHashSet<>(whatIf.getChainCommunityIds()));
+        }
+
+        Map<Long, CompletableFuture<List<ScorePreviewVO>>> futures = new LinkedHashMap<>();
+        int chunk = Math.max(1, (ids.size() + parallelism - 1) / parallelism);
+        for (int from = 0; from < ids.size(); from += chunk) {
+            List<Long> part = ids.subList(from, Math.min(ids.size(), from + chunk));
+            CompletableFuture<Map<Long, List<ScorePreviewVO>>> future = CompletableFuture.supplyAsync(() -> {
+                Map<Long, List<ScorePreviewVO>> result = new LinkedHashMap<>();
+                for (Long id : part) {
+                    result.put(id, previewCommunity(current, id, reputations,
+                            extra.getOrDefault(id, Collections.emptyList())));
+                }
+                return result;
+            }, evaluatePool);
+            for (Long id : part) {
+                futures.put(id, future.thenApply(result -> result.get(id)));
+            }
+        }
+        Map<Long, List<ScorePreviewVO>> previews = new LinkedHashMap<>();
+        futures.forEach((id, future) -> previews.put(id, future.join()));
+        return previews;
+    }
+
+    public Map<String, Object> stats() {
+        Snapshot current = snapshot;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("loaded", current != null);
+        stats.put("senators", current == null ? 0 : current.senators.length);
+        stats.put("pendingSubmissions", current == null ? 0 : current.scores.size());
+        stats.put("replayedSettlements", replayedSettlements.get());
+        stats.put("mismatchedSettlements", mismatchedSettlements.get());
+        stats.put("lastReplayMs", lastReplayMs.get());
+        return stats;
+    }
+
+    /**
+     * 参议员当前信誉度（链上 scorerInfo.reputation，未参与过结算的为初始值）
+     */
+    public long reputation(String senator) {
+        Snapshot current = snapshot;
+        Integer slot = current == null ? null : current.slotOf.get(WalletDirectory.normalize(senator));
+        return slot == null ? SenateScoring.INITIAL_REPUTATION : current.reputation[slot];
+    }
+
+    private List<ScorePreviewVO> previewCommunity(Snapshot current, Long chainCommunityId,
+                                                  Map<String, Long> reputations, List<ScoreWhatIfVO.Score> extra) {
+        // 成员地址 -> (参议员地址列表, 分数列表)，保持链上评分顺序
+        Map<String, List<String>> senatorsOf = new LinkedHashMap<>();
+        Map<String, List<Long>> scoresOf = new HashMap<>();
+        for (Pending submission : current.pending.getOrDefault(chainCommunityId, Collections.emptyList())) {
+            long[] scores = current.scores.get(submission);
+            List<String> senators = new ArrayList<>(submission.n);
+            List<Long> values = new ArrayList<>(submission.n);
+            for (int i = 0; i < submission.n; i++) {
+                senators.add(current.senators[submission.slots[i]]);
+                values.add(scores[i]);
+            }
+            senatorsOf.put(submission.member, senators);
+            scoresOf.put(submission.member, values);
+        }
+        for (ScoreWhatIfVO.Score score : extra) {
+            String member = WalletDirectory.normalize(score.getMember());
+            String senator = WalletDirectory.normalize(score.getSenator());
+            if (member == null || senator == null || score.getScore() == null) {
+                continue;
+            }
+            List<String> senators = senatorsOf.computeIfAbsent(member, k -> new ArrayList<>());
+            List<Long> values = scoresOf.computeIfAbsent(member, k -> new ArrayList<>());
+            if (senators.contains(senator)) {
+                for (int i = 0; i < senators.size(); i++) {
+                    if (senators.get(i).equals(senator)) {
+                        values.set(i, score.getScore());
+                    }
+                }
+            } else {
+                senators.add(senator);
+                values.add(score.getScore());
+            }
+        }
+
+        List<ScorePreviewVO> previews = new ArrayList<>(senatorsOf.size());
+        long[] stats = new long[SenateScoring.STATS_LENGTH];
+        for (Map.Entry<String, List<String>> entry : senatorsOf.entrySet()) {
+            List<String> senators = entry.getValue();
+            List<Long> values = scoresOf.get(entry.getKey());
+            int n = senators.size();
+            long[] scores = new long[n];
+            long[] weights = new long[n];
+            List<Long> weightList = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                scores[i] = values.get(i);
+                Long override = reputations.get(senators.get(i));
+                weights[i] = override != null ? override : reputationOf(current, senators.get(i));
+                weightList.add(weights[i]);
+            }
+            long finalScore = SenateScoring.evaluate(scores, weights, n, stats, null);
+
+            ScorePreviewVO vo = new ScorePreviewVO();
+            vo.setChainCommunityId(chainCommunityId);
+            vo.setMember(entry.getKey());
+            vo.setUserId(walletDirectory.resolve(entry.getKey()));
+            vo.setSenators(senators);
+            vo.setScores(values);
+            vo.setWeights(weightList);
+            vo.setPreliminaryScore(stats[SenateScoring.PRELIMINARY_SCORE]);
+            vo.setStdDev(stats[SenateScoring.STD_DEV]);
+            vo.setIncludedScores((int) stats[SenateScoring.INCLUDED]);
+            vo.setReverted(finalScore == SenateScoring.REVERTED);
+            vo.setFinalScore(finalScore == SenateScoring.REVERTED ? null : finalScore);
+            previews.add(vo);
+        }
+        return previews;
+    }
+
+    private static long reputationOf(Snapshot current, String senator) {
+        Integer slot = current.slotOf.get(senator);
+        return slot == null ? SenateScoring.INITIAL_REPUTATION : current.reputation[slot];
+    }
+
+    private static long[] scoresOf(Pending submission, Map<Integer, Long> latest) {
+        long[] scores = new long[submission.n];
+        for (int i = 0; i < submission.n; i++) {
+            scores[i] = latest.get(submission.slots[i]);
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,178 @@
+package com.matebuilder.scoring;
+
+/**
+ * SubmissionManager._calculateFinalScore 的链下实现
+ * 与合约相同的整数运算（向下取整的除法、合约中的 sqrt）和相同的回滚条件：
+ * 评分少于3个、总权重为0、(初步分 - 2倍标准差) 下溢、纳入计算的总权重为0。
+ * 权重即评分者信誉度，未初始化的评分者按 INITIAL_REPUTATION 计。
+ * 同一参议员评过0分后可以再次评分，此时评分者列表中会重复出现，分数都取其最新评分，信誉度也按出现次数依次调整。
+ */
+public final class SenateScoring {
+
+    public static final long INITIAL_REPUTATION = 1000;
+    public static final long REPUTATION_INCREASE = 50;
+    public static final long REPUTATION_DECREASE = 10;
+    public static final int MIN_SCORES_REQUIRED = 3;
+    /**
+     * SubmissionManager.submitScore 接受的最高分
+     */
+    public static final long MAX_SCORE = 100;
+
+    /**
+     * 合约回滚时的最终分
+     */
+    public static final long REVERTED = -1;
+
+    /**
+     * evaluate 写入 stats 的下标
+     */
+    public static final int FINAL_SCORE = 0;
+    public static final int PRELIMINARY_SCORE = 1;
+    public static final int STD_DEV = 2;
+    public static final int INCLUDED = 3;
+    public static final int STATS_LENGTH = 4;
+
+    /**
+     * evaluate 写入 moves 的信誉度调整
+     */
+    public static final byte KEEP = 0;
+    public static final byte INCREASE = 1;
+    public static final byte DECREASE = 2;
+
+    private SenateScoring() {
+    }
+
+    /**
+     * 计算最终分，不修改信誉度
+     * @param scores 按评分顺序排列的分数
+     * @param weights 对应评分者当前的信誉度
+     * @param n 评分数
+     * @param stats 输出，长度至少 STATS_LENGTH；回滚时 FINAL_SCORE 为 REVERTED，其余为回滚前已算出的值
+     * @param moves 输出，可为 null；每个评分者的信誉度调整，回滚时全部为 KEEP
+     * @return 最终分或 REVERTED
+     */
+    public static long evaluate(long[] scores, long[] weights, int n, long[] stats, byte[] moves) {
+        stats[FINAL_SCORE] = REVERTED;
+        stats[PRELIMINARY_SCORE] = 0;
+        stats[STD_DEV] = 0;
+        stats[INCLUDED] = 0;
+        if (moves != null) {
+            for (int i = 0; i < n; i++) {
+                moves[i] = KEEP;
+            }
+        }
+        if (n < MIN_SCORES_REQUIRED) {
+            return REVERTED;
+        }
+
+        long totalWeight = 0;
+        long weightedTotal = 0;
+        for (int i = 0; i < n; i++) {
+            totalWeight = Math.addExact(totalWeight, weights[i]);
+            weightedTotal = Math.addExact(weightedTotal, Math.multiplyExact(scores[i], weights[i]));
+        }
+        if (totalWeight == 0) {
+            return REVERTED;
+        }
+        long preliminary = weightedTotal / totalWeight;
+        stats[PRELIMINARY_SCORE] = preliminary;
+
+        long variance = 0;
+        for (int i = 0; i < n; i++) {
+            long diff = scores[i] > preliminary ? scores[i] - preliminary : preliminary - scores[i];
+            variance = Math.addExact(variance, Math.multiplyExact(diff, diff));
+        }
+        long stdDev = sqrt(variance / n);
+        stats[STD_DEV] = stdDev;
+
+        long upper = Math.addExact(preliminary, Math.multiplyExact(2, stdDev));
+        long finalWeightedTotal = 0;
+        long finalTotalWeight = 0;
+        int included = 0;
+        for (int i = 0; i < n; i++) {
+            if (scores[i] > upper) {
+                continue;
+            }
+            // 合约只在上界条件成立时才计算下界，uint256 下溢即回滚
+            if (2 * stdDev > preliminary) {
+                if (moves != null) {
+                    for (int j = 0; j < n; j++) {
+                        moves[j] = KEEP;
+                    }
+                }
+                return REVERTED;
+            }
+            if (scores[i] < preliminary - 2 * stdDev) {
+                continue;
+            }
+            finalWeightedTotal = Math.addExact(finalWeightedTotal, Math.multiplyExact(scores[i], weights[i]));
+            finalTotalWeight = Math.addExact(finalTotalWeight, weights[i]);
+            included++;
+            if (moves != null) {
+                long diff = scores[i] > preliminary ? scores[i] - preliminary : preliminary - scores[i];
+                moves[i] = diff <= stdDev ? INCREASE : DECREASE;
+            }
+        }
+        stats[INCLUDED] = included;
+        if (finalTotalWeight == 0) {
+            if (moves != null) {
+                for (int i = 0; i < n; i++) {
+                    moves[i] = KEEP;
+                }
+            }
+            return REVERTED;
+        }
+        long finalScore = finalWeightedTotal / finalTotalWeight;
+        stats[FINAL_SCORE] = finalScore;
+        return finalScore;
+    }
+
+    /**
+     * 按评分者槽位结算一次评分：权重取自 reputation，成功时按合约顺序更新 reputation
+     * @param reputation 各评分者槽位的信誉度
+     * @param slots 每个评分对应的评分者槽位
+     */
+    public static long settle(long[] reputation, int[] slots, long[] scores, int n, long[] stats) {
+        long[] weights = new long[n];
+        for (int i = 0; i < n; i++) {
+            weights[i] = reputation[slots[i]];
+        }
+        byte[] moves = new byte[n];
+        long finalScore = evaluate(scores, weights, n, stats, moves);
+        if (finalScore != REVERTED) {
+            applyMoves(reputation, slots, moves, n);
+        }
+        return finalScore;
+    }
+
+    /**
+     * 按评分顺序应用信誉度调整，降低时不低于0
+     */
+    public static void applyMoves(long[] reputation, int[] slots, byte[] moves, int n) {
+        for (int i = 0; i < n; i++) {
+            int slot = slots[i];
+            if (moves[i] == INCREASE) {
+                reputation[slot] += REPUTATION_INCREASE;
+            } else if (moves[i] == DECREASE) {
+                reputation[slot] = reputation[slot] >= REPUTATION_DECREASE ? reputation[slot] - REPUTATION_DECREASE : 0;
+            }
+        }
+    }
+
+    /**
+     * 合约中的 sqrt：从 (x + 1) / 2 开始的巴比伦迭代，结果为向下取整的平方根
+     */
+    public static long sqrt(long x) {
+        if (x == 0) {
+            return 0;
+        }
+        // (x + 1) / 2，避免 x 为 Long.MAX_VALUE 时溢出
+        long z = (x >>> 1) + (x & 1);
+        long y = x;
+        while (z < y) {
+            y = z;
+            z = (x / z + z) / 2;
+        }
+        return y;
+    }
+}
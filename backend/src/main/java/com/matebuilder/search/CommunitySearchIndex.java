@@ -0,0 +1,381 @@
+package com.matebuilder.search;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.matebuilder.common.event.EntityChangeEvent;
+import com.matebuilder.entity.UserCommunity;
+import com.matebuilder.mapper.UserCommunityMapper;
+import com.matebuilder.vo.CommunitySearchVO;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.cn.smart.SmartChineseAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.QueryBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 社区全文索引
+ * 基于嵌入式 Lucene，使用 SmartChineseAnalyzer 对中文分词。写事件即时更新 IndexWriter，
+ * 由定时 maybeRefresh 在秒级内对搜索可见（近实时）；全量重建按ID区间多线程并行加载，不读取logo字段。
+ */
+@Slf4j
+@Component
+public class CommunitySearchIndex {
+
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_NAME = "name";
+    private static final String FIELD_DESCRIPTION = "description";
+    private static final String FIELD_LABEL = "labelId";
+    private static final String FIELD_EXPIRE = "expireTime";
+
+    /**
+     * 未设置到期时间视为永不过期
+     */
+    private static final long NEVER_EXPIRES = Long.MAX_VALUE;
+
+    private static final float NAME_BOOST = 2.0f;
+
+    /**
+     * 最多能翻到的结果条数，current * size 不能超过该值
+     */
+    public static final int MAX_WINDOW = 1000;
+
+    private final UserCommunityMapper userCommunityMapper;
+    private final Analyzer analyzer = new SmartChineseAnalyzer();
+    private final Directory directory;
+    /**
+     * 重建失败回滚时会关闭并重新打开
+     */
+    private volatile IndexWriter writer;
+    private volatile SearcherManager searcherManager;
+    private final int loaderThreads;
+    private final int loaderBatchSize;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private volatile boolean rebuilding;
+    /**
+     * 全量重建期间被写事件修改过的社区，重建结束后重新索引
+     */
+    private final Set<Integer> touchedDuringRebuild = ConcurrentHashMap.newKeySet();
+
+    public CommunitySearchIndex(UserCommunityMapper userCommunityMapper,
+                                @Value("${search.index.path:}") String indexPath,
+                                @Value("${search.loader.threads:4}") int loaderThreads,
+                                @Value("${search.loader.batch-size:5000}") int loaderBatchSize) throws IOException {
+        this.userCommunityMapper = userCommunityMapper;
+        this.directory = indexPath.isEmpty() ? new ByteBuffersDirectory() : FSDirectory.open(Paths.get(indexPath));
+        this.writer = openWriter();
+        this.searcherManager = new SearcherManager(writer, null);
+        this.loaderThreads = loaderThreads;
+        this.loaderBatchSize = loaderBatchSize;
+    }
+
+    private IndexWriter openWriter() throws IOException {
+        return new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("Community search index rebuild failed, index will fill from writes only. Error: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 搜索社区
+     * @param keyword 关键字，为空时只按条件过滤
+     * @param labelId 社区标签ID
+     * @param notExpired 只返回未到期的社区
+     * @param current 页码，从1开始
+     * @param size 每页数量，大于0，且 current * size 不超过 MAX_WINDOW
+     */
+    public Page<CommunitySearchVO> search(String keyword, Integer labelId, boolean notExpired,
+                                          long current, long size) throws IOException {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        if (keyword != null && !keyword.trim().isEmpty()) {
+            QueryBuilder builder = new QueryBuilder(analyzer);
+            BooleanQuery.Builder text = new BooleanQuery.Builder();
+            Query name = builder.createBooleanQuery(FIELD_NAME, keyword);
+            Query description = builder.createBooleanQuery(FIELD_DESCRIPTION, keyword);
+            if (name != null) {
+                text.add(new BoostQuery(name, NAME_BOOST), BooleanClause.Occur.SHOULD);
+            }
+            if (description != null) {
+                text.add(description, BooleanClause.Occur.SHOULD);
+            }
+            query.add(text.build(), BooleanClause.Occur.MUST);
+        } else {
+            query.add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        }
+        if (labelId != null) {
+            query.add(IntPoint.newExactQuery(FIELD_LABEL, labelId), BooleanClause.Occur.FILTER);
+        }
+        if (notExpired) {
+            query.add(LongPoint.newRangeQuery(FIELD_EXPIRE, System.currentTimeMillis() + 1, NEVER_EXPIRES),
+                    BooleanClause.Occur.FILTER);
+        }
+
+        if (current < 1 || size < 1 || current * size > MAX_WINDOW) {
+            throw new IllegalArgumentException("Page " + current + " x " + size + " is outside the search window");
+        }
+        Page<CommunitySearchVO> page = new Page<>(current, size);
+        int window = (int) (current * size);
+        SearcherManager manager = searcherManager;
+        IndexSearcher searcher = manager.acquire();
+        try {
+            TopDocs top = searcher.search(query.build(), window);
+            page.setTotal(top.totalHits.value);
+            List<CommunitySearchVO> records = new ArrayList<>();
+            long from = (current - 1) * size;
+            for (int i = (int) Math.min(from, top.scoreDocs.length); i < top.scoreDocs.length; i++) {
+                ScoreDoc hit = top.scoreDocs[i];
+                records.add(toVO(searcher.doc(hit.doc), hit.score));
+            }
+            page.setRecords(records);
+        } finally {
+            manager.release(searcher);
+        }
+        return page;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        if (!event.isFor(UserCommunity.class)) {
+            return;
+        }
+        Integer id = (Integer) event.getId();
+        // 先登记再写入：重建失败回滚时，写入可能落在被关闭的 IndexWriter 上，由登记的ID重新索引
+        if (rebuilding) {
+            touchedDuringRebuild.add(id);
+        }
+        try {
+            if (event.getAction() == EntityChangeEvent.Action.REMOVE) {
+                writer.deleteDocuments(new Term(FIELD_ID, String.valueOf(id)));
+            } else {
+                // 部分更新（如只上传logo）时重新读取可索引字段
+                UserCommunity community = event.getAction() == EntityChangeEvent.Action.SAVE
+                        ? event.getEntity(UserCommunity.class) : selectIndexable(id);
+                if (community != null) {
+                    index(community);
+                }
+            }
+        } catch (IOException | AlreadyClosedException e) {
+            log.warn("Update community search index for {} failed: {}", id, e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${search.refresh-interval-ms:1000}")
+    public void refresh() throws IOException {
+        if (!rebuilding) {
+            searcherManager.maybeRefresh();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${search.commit-interval-ms:60000}")
+    public void commit() throws IOException {
+        if (!rebuilding && writer.hasUncommittedChanges()) {
+            writer.commit();
+        }
+    }
+
+    /**
+     * 全量重建：按ID区间切分，多线程并行读取并写入索引，完成后一次性对搜索可见
+     * 重建期间搜索看到的是重建前的索引；任一批加载失败时回滚到重建前提交的索引，不会暴露空的或不完整的索引
+     * 可由请求线程触发，用 ReentrantLock 而非 synchronized 串行化，避免虚拟线程在持锁读库时占住载体线程
+     */
+    public void rebuild() throws Exception {
+        rebuildLock.lock();
+        try {
+            doRebuild();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void doRebuild() throws Exception {
+        long start = System.currentTimeMillis();
+        List<Map<String, Object>> bounds = userCommunityMapper.selectMaps(
+                new QueryWrapper<UserCommunity>().select("MIN(id) AS min_id", "MAX(id) AS max_id"));
+        Map<String, Object> range = bounds.isEmpty() ? null : bounds.get(0);
+        rebuilding = true;
+        touchedDuringRebuild.clear();
+        ExecutorService loader = Executors.newFixedThreadPool(loaderThreads);
+        boolean rebuilt = false;
+        try {
+            // 先提交已有的增量写入，失败回滚时回到这个完整的旧索引
+            writer.commit();
+            writer.deleteAll();
+            long loaded = 0;
+            if (range != null && range.get("min_id") != null) {
+                int minId = ((Number) range.get("min_id")).intValue();
+                int maxId = ((Number) range.get("max_id")).intValue();
+                List<Future<Integer>> batches = new ArrayList<>();
+                for (int from = minId; from <= maxId; from += loaderBatchSize) {
+                    int lower = from;
+                    int upper = (int) Math.min((long) from + loaderBatchSize - 1, maxId);
+                    batches.add(loader.submit(() -> loadRange(lower, upper)));
+                }
+                for (Future<Integer> batch : batches) {
+                    loaded += batch.get();
+                }
+            }
+            reindexTouched();
+            writer.commit();
+            rebuilt = true;
+            log.info("Community search index rebuilt with {} communities in {} ms", loaded, System.currentTimeMillis() - start);
+        } finally {
+            loader.shutdown();
+            loader.awaitTermination(1, TimeUnit.MINUTES);
+            if (rebuilt) {
+                rebuilding = false;
+                searcherManager.maybeRefresh();
+            } else {
+                rollback();
+                rebuilding = false;
+            }
+        }
+    }
+
+    /**
+     * 丢弃未完成的重建，重新打开上次提交的索引，并补上重建期间的写入
+     */
+    private void rollback() {
+        try {
+            writer.rollback();
+            IndexWriter reopened = openWriter();
+            SearcherManager previous = searcherManager;
+            searcherManager = new SearcherManager(reopened, null);
+            writer = reopened;
+            previous.close();
+            reindexTouched();
+            searcherManager.maybeRefresh();
+            log.warn("Community search index rebuild failed, kept the previous index");
+        } catch (Exception e) {
+            log.error("Community search index rollback failed", e);
+        }
+    }
+
+    private void reindexTouched() throws IOException {
+        for (Integer id : touchedDuringRebuild) {
+            UserCommunity community = selectIndexable(id);
+            if (community != null) {
+                index(community);
+            } else {
+                writer.deleteDocuments(new Term(FIELD_ID, String.valueOf(id)));
+            }
+        }
+    }
+
+    private int loadRange(int lower, int upper) throws IOException {
+        List<UserCommunity> communities = userCommunityMapper.selectList(indexableColumns()
+                .between(UserCommunity::getId, lower, upper));
+        for (UserCommunity community : communities) {
+            index(community);
+        }
+        return communities.size();
+    }
+
+    private UserCommunity selectIndexable(Integer id) {
+        return userCommunityMapper.selectOne(indexableColumns().eq(UserCommunity::getId, id));
+    }
+
+    private static LambdaQueryWrapper<UserCommunity> indexableColumns() {
+        return new LambdaQueryWrapper<UserCommunity>()
+                .select(UserCommunity::getId, UserCommunity::getUserId, UserCommunity::getCommunityName,
+                        UserCommunity::getCommunityDescription, UserCommunity::getCommunityLabelId,
+                        UserCommunity::getExpireTime);
+    }
+
+    private void index(UserCommunity community) throws IOException {
+        Document doc = new Document();
+        String id = String.valueOf(community.getId());
+        doc.add(new StringField(FIELD_ID, id, Field.Store.YES));
+        if (community.getCommunityName() != null) {
+            doc.add(new TextField(FIELD_NAME, community.getCommunityName(), Field.Store.YES));
+        }
+        if (community.getCommunityDescription() != null) {
+            doc.add(new TextField(FIELD_DESCRIPTION, community.getCommunityDescription(), Field.Store.YES));
+        }
+        if (community.getCommunityLabelId() != null) {
+            doc.add(new IntPoint(FIELD_LABEL, community.getCommunityLabelId()));
+            doc.add(new StoredField(FIELD_LABEL, community.getCommunityLabelId()));
+        }
+        long expire = community.getExpireTime() == null
+                ? NEVER_EXPIRES : community.getExpireTime().atZone(zone).toInstant().toEpochMilli();
+        doc.add(new LongPoint(FIELD_EXPIRE, expire));
+        doc.add(new StoredField(FIELD_EXPIRE, expire));
+        writer.updateDocument(new Term(FIELD_ID, id), doc);
+    }
+
+    private CommunitySearchVO toVO(Document doc, float score) {
+        CommunitySearchVO vo = new CommunitySearchVO();
+        vo.setCommunityId(Integer.valueOf(doc.get(FIELD_ID)));
+        vo.setCommunityName(doc.get(FIELD_NAME));
+        vo.setCommunityDescription(doc.get(FIELD_DESCRIPTION));
+        if (doc.getField(FIELD_LABEL) != null) {
+            vo.setCommunityLabelId(doc.getField(FIELD_LABEL).numericValue().intValue());
+        }
+        long expire = doc.getField(FIELD_EXPIRE).numericValue().longValue();
+        if (expire != NEVER_EXPIRES) {
+            vo.setExpireTime(LocalDateTime.ofInstant(Instant.ofEpochMilli(expire), zone));
+        }
+        vo.setScore(score);
+        return vo;
+    }
+}
@@ -2,6 +2,7 @@ package com.matebuilder.service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.matebuilder.entity.CommunityTaskProof;
+import org.apache.ibatis.session.ResultHandler;
 import org.springframework.web.multipart.MultipartFile;
 import java.util.List;
 
@@ -27,8 +28,23 @@ public interface CommunityTaskProofService extends IService<CommunityTaskProof>
 
     /**
      * 获取社区的任务凭证列表
+     * 同一社区的并发查询合并为一次，返回的列表由这些调用方共享，不能修改
      * @param communityId 社区ID
      * @return 凭证列表
      */
     List<CommunityTaskProof> getCommunityTaskProofs(Integer communityId);
+
+    /**
+     * 流式扫描成员的任务凭证（按ID升序），用于导出
+     * @param memberId 成员ID
+     * @param handler 逐行回调
+     */
+    void scanMemberTaskProofs(Integer memberId, ResultHandler<CommunityTaskProof> handler);
+
+    /**
+     * 流式扫描社区的任务凭证（按ID升序），用于导出
+     * @param communityId 社区ID
+     * @param handler 逐行回调
+     */
+    void scanCommunityTaskProofs(Integer communityId, ResultHandler<CommunityTaskProof> handler);
 }
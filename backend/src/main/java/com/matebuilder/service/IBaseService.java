@@ -2,5 +2,13 @@ package com.matebuilder.service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
 
+import java.io.Serializable;
+
 public interface IBaseService<T> extends IService<T> {
+
+    /**
+     * 按主键查询，同一主键的并发查询合并为一次（见 SingleFlights）
+     * 返回的实体由并发的调用方共享，只用于只读的热点接口
+     */
+    T getByIdCoalesced(Serializable id);
 }
@@ -1,6 +1,12 @@
 package com.matebuilder.service;
 
 import com.matebuilder.entity.CommunityMember;
+import org.apache.ibatis.session.ResultHandler;
 
 public interface ICommunityMemberService extends IBaseService<CommunityMember> {
+
+    /**
+     * 流式扫描社区的成员（按ID升序），用于导出
+     */
+    void scanByCommunity(Integer communityId, ResultHandler<CommunityMember> handler);
 }
@@ -1,6 +1,15 @@
 package com.matebuilder.service;
 
 import com.matebuilder.entity.UserCommunity;
+import com.matebuilder.vo.JoinedCommunityVO;
+
+import java.util.List;
 
 public interface IUserCommunityService extends IBaseService<UserCommunity> {
+    /**
+     * 获取用户加入的社区概览（名称、标签、角色、成员数、到期时间）
+     * @param userId 用户ID
+     * @return 社区概览列表
+     */
+    List<JoinedCommunityVO> listJoinedCommunities(Integer userId);
 }
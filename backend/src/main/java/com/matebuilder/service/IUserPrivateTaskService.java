@@ -1,6 +1,33 @@
 package com.matebuilder.service;
 
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.matebuilder.entity.UserPrivateTask;
+import org.apache.ibatis.session.ResultHandler;
 
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 用户私人任务Service
+ * 任务按用户分片存储（见 TaskShards）：save/updateById/removeById/getById 及以下方法按分片路由，
+ * IService 中以 Wrapper 为参数的通用查询只访问主库，分片后不能用于任务查询。
+ */
 public interface IUserPrivateTaskService extends IBaseService<UserPrivateTask> {
+
+    /**
+     * 流式扫描用户的全部任务，用于导出：先按月份扫描已归档的任务，再扫描热表，各自按任务日期、ID升序
+     */
+    void scanByUser(Integer userId, ResultHandler<UserPrivateTask> handler);
+
+    /**
+     * 分页查询任务，按优先级降序、任务日期升序
+     * 指定用户时只查询该用户的分片；不指定用户时并行查询所有分片后合并
+     * 包括已归档的任务：指定日期时只读该月份的分表，不指定日期时读全部分表；只查进行中的任务时只查询热表
+     */
+    Page<UserPrivateTask> pageTasks(long current, long size, Integer userId, String taskStatus, LocalDate taskDate);
+
+    /**
+     * 用户某一天的任务（包括已归档的），按优先级降序、开始时间升序
+     */
+    List<UserPrivateTask> listByUserAndDate(Integer userId, LocalDate taskDate);
 }
@@ -1,8 +1,103 @@
 package com.matebuilder.service.impl;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.matebuilder.common.coalesce.SingleFlights;
+import com.matebuilder.common.event.EntityChangeEvent;
+import com.matebuilder.common.event.EntityChangeEvent.Action;
 import com.matebuilder.service.IBaseService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.io.Serializable;
+import java.util.Collection;
+
+/**
+ * 通用Service实现
+ * 在写操作成功后发布 EntityChangeEvent，内存索引通过监听该事件保持与数据库一致；
+ * getByIdCoalesced 把同一主键的并发查询合并为一次。
+ */
 public class BaseServiceImpl<M extends BaseMapper<T>, T> extends ServiceImpl<M, T> implements IBaseService<T> {
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private SingleFlights singleFlights;
+
+    @Override
+    public T getByIdCoalesced(Serializable id) {
+        return singleFlights.execute(getEntityClass().getSimpleName() + ".getById", id, () -> getById(id));
+    }
+
+    @Override
+    public boolean save(T entity) {
+        boolean saved = super.save(entity);
+        if (saved) {
+            publish(Action.SAVE, entity);
+        }
+        return saved;
+    }
+
+    @Override
+    public boolean saveBatch(Collection<T> entityList, int batchSize) {
+        boolean saved = super.saveBatch(entityList, batchSize);
+        if (saved) {
+            entityList.forEach(entity -> publish(Action.SAVE, entity));
+        }
+        return saved;
+    }
+
+    @Override
+    public boolean updateById(T entity) {
+        boolean updated = super.updateById(entity);
+        if (updated) {
+            publish(Action.UPDATE, entity);
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean updateBatchById(Collection<T> entityList, int batchSize) {
+        boolean updated = super.updateBatchById(entityList, batchSize);
+        if (updated) {
+            entityList.forEach(entity -> publish(Action.UPDATE, entity));
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean removed = super.removeById(id);
+        if (removed) {
+            publishRemove(id);
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean removeByIds(Collection<?> list) {
+        boolean removed = super.removeByIds(list);
+        if (removed) {
+            for (Object id : list) {
+                publishRemove((Serializable) id);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * 发布写入事件，供不经过 baseMapper 写入的子类使用
+     */
+    protected void publish(Action action, T entity) {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(getEntityClass());
+        Serializable id = (Serializable) tableInfo.getPropertyValue(entity, tableInfo.getKeyProperty());
+        eventPublisher.publishEvent(new EntityChangeEvent(action, getEntityClass(), id, entity));
+    }
+
+    protected void publishRemove(Serializable id) {
+        eventPublisher.publishEvent(new EntityChangeEvent(Action.REMOVE, getEntityClass(), id, null));
+    }
 }
@@ -3,8 +3,14 @@ package com.matebuilder.service.impl;
 import com.matebuilder.entity.CommunityMember;
 import com.matebuilder.mapper.CommunityMemberMapper;
 import com.matebuilder.service.ICommunityMemberService;
+import org.apache.ibatis.session.ResultHandler;
 import org.springframework.stereotype.Service;
 
 @Service
 public class CommunityMemberServiceImpl extends BaseServiceImpl<CommunityMemberMapper, CommunityMember> implements ICommunityMemberService {
+
+    @Override
+    public void scanByCommunity(Integer communityId, ResultHandler<CommunityMember> handler) {
+        baseMapper.scanByCommunity(communityId, handler);
+    }
 }
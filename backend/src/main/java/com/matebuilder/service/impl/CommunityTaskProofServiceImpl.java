@@ -1,12 +1,16 @@
 package com.matebuilder.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.matebuilder.common.coalesce.SingleFlights;
 import com.matebuilder.entity.CommunityTaskProof;
 import com.matebuilder.mapper.CommunityTaskProofMapper;
 import com.matebuilder.service.CommunityTaskProofService;
 import com.matebuilder.utils.IPFSUtil;
 import lombok.RequiredArgsConstructor;
+import org.apache.ibatis.session.ResultHandler;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
@@ -19,6 +23,8 @@ public class CommunityTaskProofServiceImpl extends ServiceImpl<CommunityTaskProo
 
     private final IPFSUtil ipfsUtil;
 
+    private final SingleFlights singleFlights;
+
     @Override
     public CommunityTaskProof uploadTaskProof(Integer communityId, Integer memberId, String taskTitle,
                                             String taskDescription, MultipartFile proofFile) {
@@ -35,9 +41,28 @@ public class CommunityTaskProofServiceImpl extends ServiceImpl<CommunityTaskProo
             proof.setProofType(getProofType(proofFile.getContentType()));
             proof.setProofHash(proofHash);
             proof.setFileName(proofFile.getOriginalFilename());
+            proof.setFileSize(proofFile.getSize());
+            proof.setMimeType(proofFile.getContentType() != null ? proofFile.getContentType() : "application/octet-stream");
             
-            // 保存到数据库
-            save(proof);
+            // 保存到数据库；同一成员同一任务的同一文件只保存一次，超时后重试上传时返回已有的凭证
+            try {
+                save(proof);
+            } catch (DuplicateKeyException e) {
+                CommunityTaskProof existing = getOne(new LambdaQueryWrapper<CommunityTaskProof>()
+                        .eq(CommunityTaskProof::getMemberId, memberId)
+                        .eq(CommunityTaskProof::getTaskTitle, taskTitle)
+                        .eq(CommunityTaskProof::getProofHash, proofHash));
+                // 已被拒绝的凭证重新提交同一文件视为申请复审：回到待审核并清空上次的审核结果
+                update(new UpdateWrapper<CommunityTaskProof>()
+                        .set("status", "pending")
+                        .set("task_description", taskDescription)
+                        .set("review_comment", null)
+                        .set("review_time", null)
+                        .set("review_by", null)
+                        .eq("id", existing.getId())
+                        .eq("status", "rejected"));
+                return existing;
+            }
             
             return proof;
         } catch (Exception e) {
@@ -54,9 +79,20 @@ public class CommunityTaskProofServiceImpl extends ServiceImpl<CommunityTaskProo
 
     @Override
     public List<CommunityTaskProof> getCommunityTaskProofs(Integer communityId) {
-        return list(new LambdaQueryWrapper<CommunityTaskProof>()
-                .eq(CommunityTaskProof::getCommunityId, communityId)
-                .orderByDesc(CommunityTaskProof::getCreateTime));
+        return singleFlights.execute("CommunityTaskProof.byCommunity", communityId,
+                () -> list(new LambdaQueryWrapper<CommunityTaskProof>()
+                        .eq(CommunityTaskProof::getCommunityId, communityId)
+                        .orderByDesc(CommunityTaskProof::getCreateTime)));
+    }
+
+    @Override
+    public void scanMemberTaskProofs(Integer memberId, ResultHandler<CommunityTaskProof> handler) {
+        baseMapper.scanByMember(memberId, handler);
+    }
+
+    @Override
+    public void scanCommunityTaskProofs(Integer communityId, ResultHandler<CommunityTaskProof> handler) {
+        baseMapper.scanByCommunity(communityId, handler);
     }
 
     private String getProofType(String mimeType) {
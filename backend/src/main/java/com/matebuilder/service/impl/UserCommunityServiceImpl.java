@@ -3,8 +3,16 @@ package com.matebuilder.service.impl;
 import com.matebuilder.entity.UserCommunity;
 import com.matebuilder.mapper.UserCommunityMapper;
 import com.matebuilder.service.IUserCommunityService;
+import com.matebuilder.vo.JoinedCommunityVO;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 public class UserCommunityServiceImpl extends BaseServiceImpl<UserCommunityMapper, UserCommunity> implements IUserCommunityService {
+
+    @Override
+    public List<JoinedCommunityVO> listJoinedCommunities(Integer userId) {
+        return baseMapper.selectJoinedCommunities(userId);
+    }
 }
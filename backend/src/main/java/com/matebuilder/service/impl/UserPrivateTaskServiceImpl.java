@@ -1,10 +1,234 @@
 package com.matebuilder.service.impl;
 
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.matebuilder.archive.TaskArchiver;
+import com.matebuilder.common.event.EntityChangeEvent.Action;
 import com.matebuilder.entity.UserPrivateTask;
 import com.matebuilder.mapper.UserPrivateTaskMapper;
 import com.matebuilder.service.IUserPrivateTaskService;
+import com.matebuilder.sharding.TaskShards;
+import com.matebuilder.sharding.TaskShards.Shard;
+import org.apache.ibatis.session.ResultHandler;
 import org.springframework.stereotype.Service;
 
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * 用户私人任务Service实现
+ * 写入和按用户的查询只访问用户所属的分片；按任务ID的操作不知道用户，在所有分片上执行（ID全局唯一，最多命中一个）。
+ * 任务的 userId 不能改为其他用户，否则任务会留在原分片。
+ * 指定日期的查询在该月份已有归档分表时同时读取热表和分表后合并，不指定日期的分页查询读取热表和全部分表（见 TaskArchiver），
+ * 分页查询在每个分片上以一条 UNION ALL 语句和一条计数语句完成；
+ * 按ID的操作只访问热表。
+ */
 @Service
 public class UserPrivateTaskServiceImpl extends BaseServiceImpl<UserPrivateTaskMapper, UserPrivateTask> implements IUserPrivateTaskService {
+
+    /**
+     * 跨分片合并时的排序，与 ORDER BY priority DESC, task_date ASC 一致（MySQL 中 NULL 视为最小）
+     */
+    private static final Comparator<UserPrivateTask> LIST_ORDER = Comparator
+            .comparing(UserPrivateTask::getPriority, Comparator.nullsLast(Comparator.<Integer>reverseOrder()))
+            .thenComparing(UserPrivateTask::getTaskDate, Comparator.nullsFirst(Comparator.<LocalDate>naturalOrder()));
+
+    /**
+     * 合并热表和归档表时的排序，与 ORDER BY priority DESC, start_time ASC 一致（开始时间为 HH:mm:ss 字符串，按字典序即时间顺序）
+     */
+    private static final Comparator<UserPrivateTask> DAY_ORDER = Comparator
+            .comparing(UserPrivateTask::getPriority, Comparator.nullsLast(Comparator.<Integer>reverseOrder()))
+            .thenComparing(UserPrivateTask::getStartTime, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+
+    private final TaskShards shards;
+    private final TaskArchiver archiver;
+
+    public UserPrivateTaskServiceImpl(TaskShards shards, TaskArchiver archiver) {
+        this.shards = shards;
+        this.archiver = archiver;
+    }
+
+    @Override
+    public boolean save(UserPrivateTask entity) {
+        boolean saved = shards.forUser(entity.getUserId()).insert(entity) > 0;
+        if (saved) {
+            publish(Action.SAVE, entity);
+        }
+        return saved;
+    }
+
+    @Override
+    public boolean saveBatch(Collection<UserPrivateTask> entityList, int batchSize) {
+        boolean saved = false;
+        for (UserPrivateTask entity : entityList) {
+            saved |= save(entity);
+        }
+        return saved;
+    }
+
+    @Override
+    public boolean updateById(UserPrivateTask entity) {
+        Integer userId = entity.getUserId();
+        int updated = userId != null ? shards.forUser(userId).updateById(entity) : 0;
+        if (updated == 0 && (userId == null || shards.size() > 1)) {
+            // 不在 userId 所属分片上的任务可能是增加分片后尚未搬迁，也可能要改归属到另一个分片上的用户；
+            // 后者在旧分片上改写 user_id 会让任务留在不属于该用户的分片上，因此只放行归属不变的更新
+            if (userId != null) {
+                UserPrivateTask current = getById(entity.getId());
+                if (current == null || !userId.equals(current.getUserId())) {
+                    return false;
+                }
+            }
+            updated = sum(shards.gather(mapper -> mapper.updateById(entity)));
+        }
+        if (updated > 0) {
+            publish(Action.UPDATE, entity);
+        }
+        return updated > 0;
+    }
+
+    @Override
+    public boolean updateBatchById(Collection<UserPrivateTask> entityList, int batchSize) {
+        boolean updated = false;
+        for (UserPrivateTask entity : entityList) {
+            updated |= updateById(entity);
+        }
+        return updated;
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean removed = sum(shards.gather(mapper -> mapper.deleteById(id))) > 0;
+        if (removed) {
+            publishRemove(id);
+        }
+        return removed;
+    }
+
+    @Override
+    public boolean removeByIds(Collection<?> list) {
+        if (list.isEmpty()) {
+            return false;
+        }
+        boolean removed = sum(shards.gather(mapper -> mapper.deleteBatchIds(list))) > 0;
+        if (removed) {
+            list.forEach(id -> publishRemove((Serializable) id));
+        }
+        return removed;
+    }
+
+    @Override
+    public UserPrivateTask getById(Serializable id) {
+        return shards.gather(mapper -> mapper.selectById(id)).stream()
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+    }
+
+    @Override
+    public void scanByUser(Integer userId, ResultHandler<UserPrivateTask> handler) {
+        Shard shard = shards.shard(userId);
+        for (String table : archiver.partitions(shard)) {
+            shard.archive().scanByUser(table, userId, handler);
+        }
+        shard.tasks().scanByUser(userId, handler);
+    }
+
+    @Override
+    public Page<UserPrivateTask> pageTasks(long current, long size, Integer userId, String taskStatus, LocalDate taskDate) {
+        if (userId != null) {
+            return pageShard(shards.shard(userId), current, size, userId, taskStatus, taskDate);
+        }
+        if (shards.size() == 1) {
+            return shards.gatherShards(shard -> pageShard(shard, current, size, null, taskStatus, taskDate)).get(0);
+        }
+        // 每个分片取排序后的前 offset + size 条，合并排序后截取本页
+        long limit = offset(current, size) + size;
+        return merge(current, size, shards.gatherShards(
+                shard -> pageShard(shard, 1, limit, null, taskStatus, taskDate)));
+    }
+
+    /**
+     * 一个分片上的分页查询；需要读取归档分表时热表和分表以 UNION ALL 合并，不论有多少张分表都只有一条分页语句和一条计数语句
+     */
+    private Page<UserPrivateTask> pageShard(Shard shard, long current, long size,
+                                            Integer userId, String taskStatus, LocalDate taskDate) {
+        List<String> tables = archiver.archivedTables(shard, taskDate, taskStatus);
+        if (tables.isEmpty()) {
+            return shard.tasks().selectPage(new Page<>(current, size), listWrapper(userId, taskStatus, taskDate));
+        }
+        long offset = offset(current, size);
+        Page<UserPrivateTask> page = new Page<>(current, size,
+                shard.archive().countMerged(tables, userId, taskStatus, taskDate));
+        page.setRecords(page.getTotal() > offset
+                ? shard.archive().selectMergedPage(tables, userId, taskStatus, taskDate, offset, size, offset + size)
+                : new ArrayList<>());
+        return page;
+    }
+
+    private static long offset(long current, long size) {
+        return current > 1 ? (current - 1) * size : 0;
+    }
+
+    /**
+     * 合并各分片排序后的前 offset + size 条，截取第 current 页，总数为各分片之和
+     */
+    private static Page<UserPrivateTask> merge(long current, long size, List<Page<UserPrivateTask>> pages) {
+        Page<UserPrivateTask> page = new Page<>(current, size, pages.stream().mapToLong(Page::getTotal).sum());
+        page.setRecords(pages.stream()
+                .flatMap(sourcePage -> sourcePage.getRecords().stream())
+                .sorted(LIST_ORDER)
+                .skip(offset(current, size))
+                .limit(size)
+                .collect(Collectors.toList()));
+        return page;
+    }
+
+    @Override
+    public List<UserPrivateTask> listByUserAndDate(Integer userId, LocalDate taskDate) {
+        QueryWrapper<UserPrivateTask> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("user_id", userId)
+                   .eq("task_date", taskDate)
+                   .orderByDesc("priority")
+                   .orderByAsc("start_time");
+        Shard shard = shards.shard(userId);
+        List<UserPrivateTask> tasks = shard.tasks().selectList(queryWrapper);
+        String table = archiver.archivedTable(shard, taskDate, null);
+        if (table == null) {
+            return tasks;
+        }
+        List<UserPrivateTask> merged = new ArrayList<>(tasks);
+        merged.addAll(shard.archive().selectByUserAndDate(table, userId, taskDate));
+        merged.sort(DAY_ORDER);
+        return merged;
+    }
+
+    /**
+     * 每个分片使用各自的 Wrapper，并行查询时不共享
+     */
+    private static QueryWrapper<UserPrivateTask> listWrapper(Integer userId, String taskStatus, LocalDate taskDate) {
+        QueryWrapper<UserPrivateTask> queryWrapper = new QueryWrapper<>();
+        if (userId != null) {
+            queryWrapper.eq("user_id", userId);
+        }
+        if (taskStatus != null) {
+            queryWrapper.eq("task_status", taskStatus);
+        }
+        if (taskDate != null) {
+            queryWrapper.eq("task_date", taskDate);
+        }
+        queryWrapper.orderByDesc("priority")
+                   .orderByAsc("task_date");
+        return queryWrapper;
+    }
+
+    private static int sum(List<Integer> rows) {
+        return rows.stream().mapToInt(Integer::intValue).sum();
+    }
 }
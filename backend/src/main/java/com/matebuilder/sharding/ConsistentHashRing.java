@@ -0,0 +1,90 @@
+package com.matebuilder.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 一致性哈希环
+ * 每个节点按 "名称#序号" 在环上放 virtualNodes 个虚拟节点，键取哈希后顺时针找到的第一个虚拟节点所属的节点。
+ * 节点位置只取决于名称，与传入顺序无关；增加一个节点时只有约 1/(N+1) 的键改为归属新节点，其余键不动。
+ * 构建后不再修改，可并发读取。
+ */
+public final class ConsistentHashRing<T> {
+
+    private final long[] points;
+    private final Object[] owners;
+    private final List<String> names;
+
+    /**
+     * @param nodes 节点名称 -> 节点
+     * @param virtualNodes 每个节点的虚拟节点数
+     */
+    public ConsistentHashRing(Map<String, T> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("Ring needs at least one node");
+        }
+        TreeMap<String, T> sorted = new TreeMap<>(nodes);
+        TreeMap<Long, T> ring = new TreeMap<>();
+        for (Map.Entry<String, T> node : sorted.entrySet()) {
+            for (int i = 0; i < virtualNodes; i++) {
+                // 位置冲突时按名称顺序先到者保留，保证各实例构建出相同的环
+                ring.putIfAbsent(hash(node.getKey() + "#" + i), node.getValue());
+            }
+        }
+        this.points = new long[ring.size()];
+        this.owners = new Object[ring.size()];
+        int i = 0;
+        for (Map.Entry<Long, T> point : ring.entrySet()) {
+            points[i] = point.getKey();
+            owners[i++] = point.getValue();
+        }
+        this.names = new ArrayList<>(sorted.keySet());
+    }
+
+    /**
+     * 键所属的节点
+     */
+    @SuppressWarnings("unchecked")
+    public T route(long key) {
+        int i = Arrays.binarySearch(points, mix(key));
+        if (i < 0) {
+            i = -i - 1;
+            if (i == points.length) {
+                i = 0;
+            }
+        }
+        return (T) owners[i];
+    }
+
+    public List<String> names() {
+        return names;
+    }
+
+    /**
+     * 字符串的64位哈希：UTF-8 字节做 FNV-1a，再经 mix 打散
+     */
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    /**
+     * MurmurHash3 的 fmix64，使连续的用户ID在环上均匀分布
+     */
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
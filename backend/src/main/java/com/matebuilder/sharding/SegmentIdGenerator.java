@@ -0,0 +1,128 @@
+package com.matebuilder.sharding;
+
+import com.baomidou.mybatisplus.core.incrementer.IdentifierGenerator;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 号段方式的全局ID（IdType.ASSIGN_ID 的实体使用）
+ * 每张表在主库 tb_id_segment 中有一行已分配的最大ID，每次取一段 step 个ID在内存中依次发放，
+ * 一段用完后用行锁再取下一段，多个实例各自取不同的号段，因此在所有分片中唯一，但不保证跨实例递增。
+ * 表在 tb_id_segment 中还没有记录时，以主库该表当前的最大ID为起点，从自增主键切换过来的数据不会冲突；
+ * 分片由已有数据拆分而来时需先写入该行（各分片的最大ID）。
+ * 直接使用数据源而不是映射器：SqlSessionFactory 的创建依赖本类，反过来依赖映射器会形成循环依赖；
+ * 号段在单独的连接上提交，不随调用方的事务回滚（回滚只会留下未使用的ID）。
+ */
+@Slf4j
+public class SegmentIdGenerator implements IdentifierGenerator {
+
+    private final DataSource dataSource;
+    private final int step;
+    private final Map<String, Segment> segments = new ConcurrentHashMap<>();
+
+    public SegmentIdGenerator(DataSource dataSource, int step) {
+        this.dataSource = dataSource;
+        this.step = step;
+    }
+
+    @Override
+    public Number nextId(Object entity) {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(entity.getClass());
+        long id = segments.computeIfAbsent(tableInfo.getTableName(), Segment::new).next();
+        Class<?> keyType = tableInfo.getKeyType();
+        if ((keyType == Integer.class || keyType == int.class) && id > Integer.MAX_VALUE) {
+            throw new IllegalStateException("ID space of " + tableInfo.getTableName() + " exhausted");
+        }
+        return id;
+    }
+
+    private final class Segment {
+        private final String table;
+        // 号段用完时持锁访问数据库，用 ReentrantLock 而非 synchronized，避免虚拟线程占住载体线程
+        private final ReentrantLock lock = new ReentrantLock();
+        private long next;
+        private long end;
+
+        Segment(String table) {
+            this.table = table;
+        }
+
+        long next() {
+            lock.lock();
+            try {
+                if (next >= end) {
+                    end = allocate(table);
+                    next = end - step;
+                }
+                return ++next;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 取下一段，返回该段的最大ID（段为 (end - step, end]）
+     */
+    private long allocate(String table) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                if (advance(connection, table) == 0) {
+                    initialize(connection, table);
+                    advance(connection, table);
+                }
+                long end;
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "SELECT max_id FROM tb_id_segment WHERE biz_tag = ?")) {
+                    statement.setString(1, table);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        resultSet.next();
+                        end = resultSet.getLong(1);
+                    }
+                }
+                connection.commit();
+                log.debug("Allocated ids ({}, {}] for {}", end - step, end, table);
+                return end;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to allocate ids for " + table, e);
+        }
+    }
+
+    private int advance(Connection connection, String table) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "UPDATE tb_id_segment SET max_id = max_id + ? WHERE biz_tag = ?")) {
+            statement.setInt(1, step);
+            statement.setString(2, table);
+            return statement.executeUpdate();
+        }
+    }
+
+    private void initialize(Connection connection, String table) throws SQLException {
+        // 表名来自实体注解，不是外部输入
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO tb_id_segment (biz_tag, max_id) SELECT ?, COALESCE(MAX(id), 0) FROM " + table)) {
+            statement.setString(1, table);
+            statement.executeUpdate();
+        } catch (SQLIntegrityConstraintViolationException e) {
+            // 其他实例已先写入
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.matebuilder.sharding;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.matebuilder.entity.UserPrivateTask;
+import com.matebuilder.mapper.TaskArchiveMapper;
+import com.matebuilder.mapper.UserPrivateTaskMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 用户私人任务的分片
+ * 每个分片是一个数据源上的 tb_user_private_task 及其归档分表，用户按 user_id 经一致性哈希环固定到一个分片，
+ * 该用户任务的读写都只访问这个分片；不按用户的查询（按任务ID、跨用户的管理查询）并行发往所有分片再汇总。
+ * 未配置分片时只有一个 primary 分片，即主库的映射器，行为与分片前相同。
+ * 增加分片后环上约 1/(N+1) 的用户改为归属新分片，rebalance 把这些用户的任务搬到新归属的分片；
+ * 搬迁完成前这些用户只能看到已搬过去的部分，应在维护窗口执行。
+ */
+@Slf4j
+public class TaskShards implements AutoCloseable {
+
+    /**
+     * 一个分片：任务表和归档表的映射器，以及该分片数据源上的事务
+     */
+    public static final class Shard {
+        private final String name;
+        private final UserPrivateTaskMapper tasks;
+        private final TaskArchiveMapper archive;
+        private final TransactionTemplate transaction;
+
+        public Shard(String name, UserPrivateTaskMapper tasks, TaskArchiveMapper archive, TransactionTemplate transaction) {
+            this.name = name;
+            this.tasks = tasks;
+            this.archive = archive;
+            this.transaction = transaction;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public UserPrivateTaskMapper tasks() {
+            return tasks;
+        }
+
+        public TaskArchiveMapper archive() {
+            return archive;
+        }
+
+        public TransactionTemplate transaction() {
+            return transaction;
+        }
+    }
+
+    private final Map<String, Shard> shards = new LinkedHashMap<>();
+    private final ConsistentHashRing<Shard> ring;
+    private final int virtualNodes;
+    private final ExecutorService gatherPool;
+    private final List<AutoCloseable> resources;
+
+    private final AtomicLong gathers = new AtomicLong();
+    private final AtomicLong movedUsers = new AtomicLong();
+    private final AtomicLong movedTasks = new AtomicLong();
+    private final ReentrantLock rebalanceLock = new ReentrantLock();
+
+    /**
+     * @param shards 各分片，名称不能重复
+     * @param virtualNodes 每个分片在环上的虚拟节点数
+     * @param parallelism 并行查询所有分片的线程数
+     * @param resources 关闭时一并关闭的资源（各分片的连接池）
+     */
+    public TaskShards(List<Shard> shards, int virtualNodes, int parallelism, List<AutoCloseable> resources) {
+        shards.forEach(shard -> this.shards.put(shard.name(), shard));
+        this.ring = new ConsistentHashRing<>(this.shards, virtualNodes);
+        this.virtualNodes = virtualNodes;
+        this.resources = resources;
+        this.gatherPool = shards.size() > 1 ? Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "task-shard-gather");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    public Collection<Shard> all() {
+        return shards.values();
+    }
+
+    /**
+     * 用户所属的分片
+     */
+    public Shard shard(Integer userId) {
+        if (userId == null) {
+            throw new IllegalArgumentException("userId is required to route a private task");
+        }
+        return ring.route(userId);
+    }
+
+    /**
+     * 用户所属分片的任务映射器
+     */
+    public UserPrivateTaskMapper forUser(Integer userId) {
+        return shard(userId).tasks();
+    }
+
+    /**
+     * 在所有分片的任务映射器上并行执行，结果按分片顺序返回；任一分片失败时抛出该异常
+     */
+    public <R> List<R> gather(Function<UserPrivateTaskMapper, R> call) {
+        return gatherShards(shard -> call.apply(shard.tasks()));
+    }
+
+    /**
+     * 在所有分片上并行执行，结果按分片顺序返回；任一分片失败时抛出该异常
+     */
+    public <R> List<R> gatherShards(Function<Shard, R> call) {
+        if (gatherPool == null) {
+            return List.of(call.apply(shards.values().iterator().next()));
+        }
+        gathers.incrementAndGet();
+        List<Future<R>> futures = new ArrayList<>(shards.size());
+        for (Shard shard : shards.values()) {
+            futures.add(gatherPool.submit(() -> call.apply(shard)));
+        }
+        List<R> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying task shards", e);
+        }
+        return results;
+    }
+
+    /**
+     * 把不属于当前分片的用户的任务搬到环上归属的分片，返回搬迁的任务数（归档分表由 TaskArchiver.rebalance 搬迁）
+     * 每个用户先在目标分片按ID删除再写入，最后删除源分片的任务，中断后重新执行不会产生重复。
+     * 由请求线程触发，用 ReentrantLock 串行化，避免虚拟线程持有监视器阻塞在分片数据库上
+     */
+    public long rebalance() {
+        rebalanceLock.lock();
+        try {
+            return doRebalance();
+        } finally {
+            rebalanceLock.unlock();
+        }
+    }
+
+    private long doRebalance() {
+        long moved = 0;
+        for (Shard source : shards.values()) {
+            for (Integer userId : source.tasks().selectUserIds()) {
+                Shard owner = shard(userId);
+                if (owner == source) {
+                    continue;
+                }
+                List<UserPrivateTask> tasks = source.tasks().selectList(
+                        new QueryWrapper<UserPrivateTask>().eq("user_id", userId));
+                if (tasks.isEmpty()) {
+                    continue;
+                }
+                owner.tasks().deleteBatchIds(ids(tasks));
+                tasks.forEach(owner.tasks()::insert);
+                source.tasks().delete(new QueryWrapper<UserPrivateTask>().eq("user_id", userId));
+                movedUsers.incrementAndGet();
+                movedTasks.addAndGet(tasks.size());
+                moved += tasks.size();
+            }
+        }
+        log.info("Moved {} private tasks to their shards", moved);
+        return moved;
+    }
+
+    public static List<Integer> ids(List<UserPrivateTask> tasks) {
+        return tasks.stream().map(UserPrivateTask::getId).collect(Collectors.toList());
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("shards", ring.names());
+        stats.put("virtualNodes", virtualNodes);
+        stats.put("gathers", gathers.get());
+        stats.put("movedUsers", movedUsers.get());
+        stats.put("movedTasks", movedTasks.get());
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        if (gatherPool != null) {
+            gatherPool.shutdownNow();
+        }
+        for (AutoCloseable resource : resources) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                log.warn("Failed to close task shard resource: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.matebuilder.utils;
 
+import com.matebuilder.common.coalesce.SingleFlight;
+import com.matebuilder.common.metrics.IpfsMetrics;
 import io.ipfs.api.IPFS;
 import io.ipfs.api.MerkleNode;
 import io.ipfs.api.NamedStreamable;
 import io.ipfs.multihash.Multihash;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
@@ -12,10 +17,20 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * IPFS工具类
  * 当本地未运行 IPFS 守护进程时，bean 仍可创建，但调用上传/下载方法会抛出异常。
+ * 同时进行的 IPFS 调用数由公平信号量限制，上限按请求执行模式（execution.mode）分别配置：
+ * ipfs.virtual.max-concurrent-requests（默认64）在虚拟线程模式下生效，此时请求不再受 Tomcat 线程池约束，
+ * 该限制避免慢节点被无限并发压垮；ipfs.platform.max-concurrent-requests（默认0，不限制）在平台线程模式下生效，
+ * 此时并发已受 Tomcat 线程池和 ipfsBulkhead 约束，设为正数时同样限制，两种模式下等待许可都会占住调用线程。
+ * 等待许可和 HTTP I/O 都不持有监视器锁，虚拟线程阻塞时可以让出载体线程。
+ * 每次调用的耗时、字节数和成败记入 IpfsMetrics，进行中的调用数以 ipfs.in.flight 暴露。
+ * 同一 CID 的并发下载合并为一次 cat（ipfs.coalesce-timeout-ms 为等待者的超时），只占一个许可。
  */
 @Slf4j
 @Component
@@ -23,9 +38,36 @@ public class IPFSUtil {
 
     private final IPFS ipfs;
     private final String ipfsNodeUrl;
+    private final int maxConcurrentRequests;
+    /**
+     * 上限为0时为 null，不限制并发
+     */
+    private final Semaphore permits;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final long acquireTimeoutMs;
+    private final SingleFlight<String, byte[]> catFlight;
+    private IpfsMetrics metrics = IpfsMetrics.NOOP;
+
+    @Autowired
+    public IPFSUtil(@Value("${ipfs.node.url:/ip4/127.0.0.1/tcp/5001}") String ipfsNodeUrl,
+                    @Value("${execution.mode:platform}") String executionMode,
+                    @Value("${ipfs.platform.max-concurrent-requests:0}") int platformMaxConcurrentRequests,
+                    @Value("${ipfs.virtual.max-concurrent-requests:64}") int virtualMaxConcurrentRequests,
+                    @Value("${ipfs.acquire-timeout-ms:10000}") long acquireTimeoutMs,
+                    @Value("${ipfs.coalesce-timeout-ms:30000}") long coalesceTimeoutMs) {
+        this(ipfsNodeUrl, "virtual".equals(executionMode) ? virtualMaxConcurrentRequests : platformMaxConcurrentRequests,
+                acquireTimeoutMs, coalesceTimeoutMs);
+    }
 
-    public IPFSUtil(@Value("${ipfs.node.url:/ip4/127.0.0.1/tcp/5001}") String ipfsNodeUrl) {
+    /**
+     * @param maxConcurrentRequests 同时进行的 IPFS 调用上限，0 表示不限制
+     */
+    public IPFSUtil(String ipfsNodeUrl, int maxConcurrentRequests, long acquireTimeoutMs, long coalesceTimeoutMs) {
         this.ipfsNodeUrl = ipfsNodeUrl;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.permits = maxConcurrentRequests > 0 ? new Semaphore(maxConcurrentRequests, true) : null;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.catFlight = new SingleFlight<>("ipfs.cat", coalesceTimeoutMs);
         IPFS instance = null;
         try {
             instance = new IPFS(ipfsNodeUrl);
@@ -36,6 +78,15 @@ public class IPFSUtil {
         this.ipfs = instance;
     }
 
+    @Autowired(required = false)
+    public void setMeterRegistry(MeterRegistry registry) {
+        this.metrics = new IpfsMetrics(registry);
+        Gauge.builder("ipfs.in.flight", this, IPFSUtil::inFlight)
+                .description("进行中的 IPFS 调用数")
+                .register(registry);
+        catFlight.bindTo(registry);
+    }
+
     /**
      * 检查 IPFS 是否可用
      */
@@ -49,6 +100,44 @@ public class IPFSUtil {
         }
     }
 
+    /**
+     * 获取一个并发许可，超时未获取时抛出异常
+     */
+    private void acquire() {
+        if (permits != null) {
+            try {
+                if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    throw new IllegalStateException("IPFS is busy, no permit within " + acquireTimeoutMs + " ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for IPFS", e);
+            }
+        }
+        inFlight.incrementAndGet();
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+    /**
+     * 当前正在进行的 IPFS 调用数
+     */
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * 同时进行的 IPFS 调用上限，0 表示不限制
+     */
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
     /**
      * 上传文件到IPFS
      *
@@ -56,14 +145,24 @@ public class IPFSUtil {
      * @return IPFS哈希值
      */
     public String uploadFile(MultipartFile file) {
-        ensureAvailable();
+        long start = System.nanoTime();
+        boolean success = false;
         try {
-            NamedStreamable.InputStreamWrapper is = new NamedStreamable.InputStreamWrapper(file.getInputStream());
-            MerkleNode response = ipfs.add(is).get(0);
-            return response.hash.toString();
-        } catch (IOException e) {
-            log.error("Upload file to IPFS failed", e);
-            throw new RuntimeException("Upload file to IPFS failed", e);
+            ensureAvailable();
+            acquire();
+            try {
+                NamedStreamable.InputStreamWrapper is = new NamedStreamable.InputStreamWrapper(file.getInputStream());
+                MerkleNode response = ipfs.add(is).get(0);
+                success = true;
+                return response.hash.toString();
+            } catch (IOException e) {
+                log.error("Upload file to IPFS failed", e);
+                throw new RuntimeException("Upload file to IPFS failed", e);
+            } finally {
+                release();
+            }
+        } finally {
+            metrics.recordAdd(System.nanoTime() - start, file.getSize(), success);
         }
     }
 
@@ -74,32 +173,60 @@ public class IPFSUtil {
      * @return IPFS哈希值
      */
     public String uploadBytes(byte[] data) {
-        ensureAvailable();
+        long start = System.nanoTime();
+        boolean success = false;
         try {
-            InputStream inputStream = new ByteArrayInputStream(data);
-            NamedStreamable.InputStreamWrapper is = new NamedStreamable.InputStreamWrapper(inputStream);
-            MerkleNode response = ipfs.add(is).get(0);
-            return response.hash.toString();
-        } catch (IOException e) {
-            log.error("Upload bytes to IPFS failed", e);
-            throw new RuntimeException("Upload bytes to IPFS failed", e);
+            ensureAvailable();
+            acquire();
+            try {
+                InputStream inputStream = new ByteArrayInputStream(data);
+                NamedStreamable.InputStreamWrapper is = new NamedStreamable.InputStreamWrapper(inputStream);
+                MerkleNode response = ipfs.add(is).get(0);
+                success = true;
+                return response.hash.toString();
+            } catch (IOException e) {
+                log.error("Upload bytes to IPFS failed", e);
+                throw new RuntimeException("Upload bytes to IPFS failed", e);
+            } finally {
+                release();
+            }
+        } finally {
+            metrics.recordAdd(System.nanoTime() - start, data.length, success);
         }
     }
 
     /**
      * 从IPFS获取文件
+     * 同一哈希的并发调用共享一次下载，返回的数组由这些调用方共享，不能修改
      *
      * @param hash IPFS哈希值
      * @return 字节数组
      */
     public byte[] getFile(String hash) {
-        ensureAvailable();
+        return catFlight.execute(hash, () -> cat(hash));
+    }
+
+    /**
+     * 实际执行一次 IPFS cat
+     */
+    protected byte[] cat(String hash) {
+        long start = System.nanoTime();
+        byte[] data = null;
         try {
-            Multihash filePointer = Multihash.fromBase58(hash);
-            return ipfs.cat(filePointer);
-        } catch (IOException e) {
-            log.error("Get file from IPFS failed", e);
-            throw new RuntimeException("Get file from IPFS failed", e);
+            ensureAvailable();
+            acquire();
+            try {
+                Multihash filePointer = Multihash.fromBase58(hash);
+                data = ipfs.cat(filePointer);
+                return data;
+            } catch (IOException e) {
+                log.error("Get file from IPFS failed", e);
+                throw new RuntimeException("Get file from IPFS failed", e);
+            } finally {
+                release();
+            }
+        } finally {
+            metrics.recordCat(System.nanoTime() - start, data == null ? 0 : data.length, data != null);
         }
     }
 }
@@ -0,0 +1,29 @@
+package com.matebuilder.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+@ApiModel(value = "CommunitySearchVO对象", description = "社区搜索结果")
+public class CommunitySearchVO {
+
+    @ApiModelProperty(value = "社区ID")
+    private Integer communityId;
+
+    @ApiModelProperty(value = "社区名称")
+    private String communityName;
+
+    @ApiModelProperty(value = "社区描述")
+    private String communityDescription;
+
+    @ApiModelProperty(value = "社区标签ID")
+    private Integer communityLabelId;
+
+    @ApiModelProperty(value = "到期时间")
+    private LocalDateTime expireTime;
+
+    @ApiModelProperty(value = "相关度")
+    private Float score;
+}
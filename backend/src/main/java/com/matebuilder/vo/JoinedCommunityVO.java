@@ -0,0 +1,32 @@
+package com.matebuilder.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+@Data
+@ApiModel(value = "JoinedCommunityVO对象", description = "用户已加入的社区概览")
+public class JoinedCommunityVO {
+
+    @ApiModelProperty(value = "社区ID")
+    private Integer communityId;
+
+    @ApiModelProperty(value = "社区名称")
+    private String communityName;
+
+    @ApiModelProperty(value = "社区标签ID")
+    private Integer communityLabelId;
+
+    @ApiModelProperty(value = "社区标签名称")
+    private String labelName;
+
+    @ApiModelProperty(value = "成员角色")
+    private String memberRole;
+
+    @ApiModelProperty(value = "成员数量")
+    private Integer memberCount;
+
+    @ApiModelProperty(value = "到期时间")
+    private LocalDateTime expireTime;
+}
@@ -0,0 +1,27 @@
+package com.matebuilder.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(value = "LeaderboardEntryVO对象", description = "能力排行榜条目")
+public class LeaderboardEntryVO {
+
+    @ApiModelProperty(value = "名次")
+    private Integer rank;
+
+    @ApiModelProperty(value = "用户ID")
+    private Integer userId;
+
+    @ApiModelProperty(value = "子能力名称")
+    private String abilityName;
+
+    @ApiModelProperty(value = "子能力分数")
+    private BigDecimal abilityScore;
+}
@@ -0,0 +1,20 @@
+package com.matebuilder.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(value = "MateMatchVO对象", description = "能力匹配结果")
+public class MateMatchVO {
+
+    @ApiModelProperty(value = "用户ID")
+    private Integer userId;
+
+    @ApiModelProperty(value = "匹配分数：余弦为相似度（越大越相似），加权距离为距离（越小越相似）")
+    private Float score;
+}
@@ -0,0 +1,48 @@
+package com.matebuilder.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@ApiModel(value = "ProofAnchorVO对象", description = "凭证上链锚定证明")
+public class ProofAnchorVO {
+
+    @ApiModelProperty(value = "凭证ID")
+    private Integer proofId;
+
+    @ApiModelProperty(value = "IPFS哈希值")
+    private String proofHash;
+
+    @ApiModelProperty(value = "叶子哈希")
+    private String leafHash;
+
+    @ApiModelProperty(value = "叶子序号")
+    private Integer leafIndex;
+
+    @ApiModelProperty(value = "批次叶子数量")
+    private Integer leafCount;
+
+    @ApiModelProperty(value = "默克尔路径（自底向上的兄弟节点哈希）")
+    private List<String> merklePath;
+
+    @ApiModelProperty(value = "默克尔根")
+    private String merkleRoot;
+
+    @ApiModelProperty(value = "批次状态")
+    private String status;
+
+    @ApiModelProperty(value = "上链交易哈希")
+    private String txHash;
+
+    @ApiModelProperty(value = "上链区块高度")
+    private Long blockNumber;
+
+    @ApiModelProperty(value = "凭证当前内容与路径可还原出默克尔根")
+    private Boolean included;
+
+    @ApiModelProperty(value = "链上交易记录的根与默克尔根一致，未上链时为空")
+    private Boolean anchoredOnChain;
+}
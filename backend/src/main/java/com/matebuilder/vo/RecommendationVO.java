@@ -0,0 +1,20 @@
+package com.matebuilder.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(value = "RecommendationVO对象", description = "推荐结果")
+public class RecommendationVO {
+
+    @ApiModelProperty(value = "推荐对象ID（用户ID或社区ID）")
+    private Integer id;
+
+    @ApiModelProperty(value = "推荐分数")
+    private Float score;
+}
@@ -0,0 +1,45 @@
+package com.matebuilder.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@ApiModel(value = "ScorePreviewVO对象", description = "参议院评分预览")
+public class ScorePreviewVO {
+
+    @ApiModelProperty(value = "链上社区ID")
+    private Long chainCommunityId;
+
+    @ApiModelProperty(value = "提交者钱包地址")
+    private String member;
+
+    @ApiModelProperty(value = "提交者用户ID")
+    private Integer userId;
+
+    @ApiModelProperty(value = "评分参议员地址（按评分顺序）")
+    private List<String> senators;
+
+    @ApiModelProperty(value = "分数")
+    private List<Long> scores;
+
+    @ApiModelProperty(value = "权重（参议员当前信誉度）")
+    private List<Long> weights;
+
+    @ApiModelProperty(value = "初步加权平均分")
+    private Long preliminaryScore;
+
+    @ApiModelProperty(value = "标准差")
+    private Long stdDev;
+
+    @ApiModelProperty(value = "排除异常值后纳入计算的评分数")
+    private Integer includedScores;
+
+    @ApiModelProperty(value = "此时结算的最终分，合约会回滚时为 null")
+    private Long finalScore;
+
+    @ApiModelProperty(value = "此时结算合约是否会回滚")
+    private Boolean reverted;
+}
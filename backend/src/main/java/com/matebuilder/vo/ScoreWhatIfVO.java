@@ -0,0 +1,39 @@
+package com.matebuilder.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ApiModel(value = "ScoreWhatIfVO对象", description = "评分假设条件")
+public class ScoreWhatIfVO {
+
+    @ApiModelProperty(value = "链上社区ID，为空时计算全部有待结算提交的社区")
+    private List<Long> chainCommunityIds;
+
+    @ApiModelProperty(value = "假设的参议员信誉度，地址 -> 信誉度")
+    private Map<String, Long> reputations;
+
+    @ApiModelProperty(value = "假设的追加评分，已评分的参议员改为该分数")
+    private List<Score> scores;
+
+    @Data
+    @ApiModel(value = "ScoreWhatIfVO.Score对象", description = "假设的评分")
+    public static class Score {
+
+        @ApiModelProperty(value = "链上社区ID")
+        private Long chainCommunityId;
+
+        @ApiModelProperty(value = "提交者钱包地址")
+        private String member;
+
+        @ApiModelProperty(value = "参议员钱包地址")
+        private String senator;
+
+        @ApiModelProperty(value = "分数（0-100）")
+        private Long score;
+    }
+}
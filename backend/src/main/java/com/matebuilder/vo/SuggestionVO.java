@@ -0,0 +1,23 @@
+package com.matebuilder.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@ApiModel(value = "SuggestionVO对象", description = "输入补全候选")
+public class SuggestionVO {
+
+    @ApiModelProperty(value = "ID（用户ID或社区标签ID）")
+    private Integer id;
+
+    @ApiModelProperty(value = "补全文本")
+    private String text;
+
+    @ApiModelProperty(value = "排序依据（用户为等级）")
+    private Integer rank;
+}
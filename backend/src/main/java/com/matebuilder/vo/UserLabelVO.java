@@ -0,0 +1,14 @@
+package com.matebuilder.vo;
+
+import lombok.Data;
+
+/**
+ * 用户与其所在社区标签的对应关系
+ */
+@Data
+public class UserLabelVO {
+
+    private Integer userId;
+
+    private Integer labelId;
+}
@@ -0,0 +1,16 @@
+package com.matebuilder.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+@Data
+@ApiModel(value = "UsernameAvailabilityVO对象", description = "用户名可用性")
+public class UsernameAvailabilityVO {
+
+    @ApiModelProperty(value = "公共用户名是否可用，未查询时为空")
+    private Boolean publicUsername;
+
+    @ApiModelProperty(value = "私人用户名是否可用，未查询时为空")
+    private Boolean privateUsername;
+}
@@ -0,0 +1,278 @@
+package com.matebuilder.wallet;
+
+import com.matebuilder.common.event.EntityChangeEvent;
+import com.matebuilder.entity.User;
+import com.matebuilder.mapper.UserMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 钱包地址 -> 用户ID
+ * 地址统一归一化为小写的 0x + 40 位十六进制，校验和（大小写混合）格式和缺少 0x 前缀的输入同样可解析。
+ * 启动时由流式扫描加载，之后随 IUserService 的写入增量更新并定期重建；多个用户绑定同一地址时取最小的用户ID。
+ * 扫描读到的行可能早于扫描期间提交的写入，重建期间的写入先记下，扫描结束后重放到新目录再替换。
+ * 首次加载完成前直接查询 idx_wallet_address 索引。
+ */
+@Slf4j
+@Component
+public class WalletDirectory {
+
+    private static final class Directory {
+        private final Map<String, Integer> users;
+        /**
+         * 用户ID -> 已归一化的地址，用于用户改绑或删除时找到旧地址
+         */
+        private final Map<Integer, String> addresses;
+
+        Directory(int capacity) {
+            this.users = new ConcurrentHashMap<>(capacity);
+            this.addresses = new ConcurrentHashMap<>(capacity);
+        }
+
+        /**
+         * 返回用户原先的地址，原地址的映射随之移除，调用方需要为仍绑定该地址的其他用户补回映射
+         */
+        String put(Integer userId, String address) {
+            String previous = addresses.put(userId, address);
+            if (previous != null && !previous.equals(address)) {
+                users.remove(previous, userId);
+            }
+            users.merge(address, userId, Math::min);
+            return previous;
+        }
+
+        /**
+         * 返回被移除的地址，调用方需要为仍绑定该地址的其他用户补回映射
+         */
+        String remove(Integer userId) {
+            String address = addresses.remove(userId);
+            if (address != null) {
+                users.remove(address, userId);
+            }
+            return address;
+        }
+    }
+
+    private final UserMapper userMapper;
+    private final int maxBatch;
+
+    /**
+     * 未完成首次加载前为 null
+     */
+    private volatile Directory directory;
+    /**
+     * 重建期间收到的写入：用户ID -> 新地址（null 为解绑或删除），扫描结束后重放到新目录；未在重建时为 null
+     */
+    private Map<Integer, String> pending;
+    /**
+     * 保护写入的应用、pending 以及目录替换
+     * 用 ReentrantLock 而不是 synchronized：补回旧地址时会查询数据库，虚拟线程在 synchronized 内阻塞会钉住载体线程
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    /**
+     * 内存目录中查到和未查到的次数分开计数，未绑定的地址同样计为未命中
+     */
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong memoryMisses = new AtomicLong();
+    private final AtomicLong databaseLookups = new AtomicLong();
+
+    public WalletDirectory(UserMapper userMapper,
+                           @Value("${wallet.resolve.max-addresses:1000}") int maxBatch) {
+        this.userMapper = userMapper;
+        this.maxBatch = maxBatch;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("Wallet directory load failed, address lookups will query the database. Error: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 定期重建以纠正绕过 IUserService 的直接写库
+     */
+    @Scheduled(initialDelayString = "${wallet.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${wallet.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            doRebuild();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void doRebuild() {
+        long start = System.currentTimeMillis();
+        Directory next = new Directory((int) Math.min(Integer.MAX_VALUE / 2, userMapper.selectCount(null) * 2 + 16));
+        lock.lock();
+        try {
+            pending = new HashMap<>();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            userMapper.scanWallets(context -> {
+                User user = context.getResultObject();
+                String address = normalize(user.getWalletAddress());
+                if (address != null) {
+                    next.put(user.getId(), address);
+                }
+            });
+            lock.lock();
+            try {
+                pending.forEach((userId, address) -> apply(next, userId, address));
+                directory = next;
+            } finally {
+                lock.unlock();
+            }
+            log.info("Wallet directory loaded {} addresses in {} ms",
+                    next.users.size(), System.currentTimeMillis() - start);
+        } finally {
+            lock.lock();
+            try {
+                pending = null;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        if (!event.isFor(User.class)) {
+            return;
+        }
+        Integer userId = (Integer) event.getId();
+        String address = null;
+        if (event.getAction() != EntityChangeEvent.Action.REMOVE) {
+            String walletAddress = event.getEntity(User.class).getWalletAddress();
+            if (walletAddress == null) {
+                // 部分更新未修改钱包地址
+                return;
+            }
+            address = normalize(walletAddress);
+        }
+        lock.lock();
+        try {
+            apply(directory, userId, address);
+            if (pending != null) {
+                pending.put(userId, address);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 解析单个地址，格式非法或未绑定时返回 null
+     */
+    public Integer resolve(String walletAddress) {
+        String address = normalize(walletAddress);
+        if (address == null) {
+            return null;
+        }
+        Directory current = directory;
+        if (current != null) {
+            Integer userId = current.users.get(address);
+            (userId != null ? memoryHits : memoryMisses).incrementAndGet();
+            return userId;
+        }
+        databaseLookups.incrementAndGet();
+        return userMapper.selectIdByWallet(address);
+    }
+
+    /**
+     * 批量解析，按输入顺序返回 原始地址 -> 用户ID（未绑定为 null）
+     */
+    public Map<String, Integer> resolveAll(Collection<String> walletAddresses) {
+        Map<String, Integer> users = new LinkedHashMap<>();
+        for (String walletAddress : walletAddresses) {
+            users.put(walletAddress, resolve(walletAddress));
+        }
+        return users;
+    }
+
+    public int getMaxBatch() {
+        return maxBatch;
+    }
+
+    public long getMemoryHits() {
+        return memoryHits.get();
+    }
+
+    public long getMemoryMisses() {
+        return memoryMisses.get();
+    }
+
+    public long getDatabaseLookups() {
+        return databaseLookups.get();
+    }
+
+    public Map<String, Object> stats() {
+        Directory current = directory;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("loaded", current != null);
+        stats.put("addresses", current == null ? 0 : current.users.size());
+        stats.put("memoryHits", memoryHits.get());
+        stats.put("memoryMisses", memoryMisses.get());
+        stats.put("databaseLookups", databaseLookups.get());
+        return stats;
+    }
+
+    private void apply(Directory target, Integer userId, String address) {
+        if (target == null) {
+            return;
+        }
+        String previous = address == null ? target.remove(userId) : target.put(userId, address);
+        if (previous != null && !previous.equals(address) && !target.users.containsKey(previous)) {
+            // 旧地址可能仍被其他用户绑定
+            Integer other = userMapper.selectIdByWallet(previous);
+            if (other != null) {
+                target.put(other, previous);
+            }
+        }
+    }
+
+    /**
+     * 归一化为小写 0x 地址，非法格式返回 null
+     */
+    public static String normalize(String walletAddress) {
+        if (walletAddress == null) {
+            return null;
+        }
+        String hex = walletAddress.trim();
+        if (hex.startsWith("0x") || hex.startsWith("0X")) {
+            hex = hex.substring(2);
+        }
+        if (hex.length() != 40) {
+            return null;
+        }
+        for (int i = 0; i < hex.length(); i++) {
+            char c = hex.charAt(i);
+            if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F')) {
+                return null;
+            }
+        }
+        return "0x" + hex.toLowerCase(Locale.ROOT);
+    }
+}
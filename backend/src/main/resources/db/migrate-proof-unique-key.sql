@@ -0,0 +1,23 @@
+-- 为已有的 tb_community_task_proof 补上 uk_member_task_hash
+-- schema.sql 中的唯一键只对新建的表生效，已上线的库需在部署新版本前执行一次本脚本
+
+-- 同一成员同一任务的同一文件只保留一条：优先已锚定的，其次按 已通过 > 待审核 > 已拒绝，再取 ID 最小的
+-- 被删除的凭证若也已锚定，其 tb_proof_anchor 记录保留不动，查询锚定证明时 proofHash 为空、included 为 false
+CREATE TEMPORARY TABLE `tmp_duplicate_proof` AS
+SELECT `id` FROM (
+    SELECT p.`id`,
+           ROW_NUMBER() OVER (
+               PARTITION BY p.`member_id`, p.`task_title`, p.`proof_hash`
+               ORDER BY a.`proof_id` IS NULL, FIELD(p.`status`, 'approved', 'pending', 'rejected'), p.`id`
+           ) AS `rn`
+    FROM `tb_community_task_proof` p
+    LEFT JOIN `tb_proof_anchor` a ON a.`proof_id` = p.`id`
+) ranked
+WHERE `rn` > 1;
+
+DELETE FROM `tb_community_task_proof` WHERE `id` IN (SELECT `id` FROM `tmp_duplicate_proof`);
+
+DROP TEMPORARY TABLE `tmp_duplicate_proof`;
+
+ALTER TABLE `tb_community_task_proof`
+    ADD UNIQUE KEY `uk_member_task_hash` (`member_id`, `task_title`, `proof_hash`);
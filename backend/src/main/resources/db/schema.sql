@@ -13,7 +13,8 @@ CREATE TABLE IF NOT EXISTS `tb_user` (
     `update_time` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '修改时间',
     PRIMARY KEY (`id`),
     UNIQUE KEY `uk_private_username` (`private_username`),
-    UNIQUE KEY `uk_public_username` (`public_username`)
+    UNIQUE KEY `uk_public_username` (`public_username`),
+    KEY `idx_wallet_address` (`wallet_address`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='用户表';
 
 -- 创建用户能力表
@@ -51,13 +52,15 @@ CREATE TABLE IF NOT EXISTS `tb_user_community` (
     `community_logo` MEDIUMBLOB COMMENT '社区logo图片数据',
     `community_label_id` int DEFAULT NULL COMMENT '社区标签',
     `expire_time` timestamp NULL DEFAULT NULL COMMENT '到期时间',
+    `chain_community_id` bigint DEFAULT NULL COMMENT '链上社区ID',
     `create_by` int DEFAULT NULL COMMENT '创建人',
     `create_time` timestamp NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     `update_by` int DEFAULT NULL COMMENT '修改人',
     `update_time` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '修改时间',
     PRIMARY KEY (`id`),
     KEY `idx_user_id` (`user_id`),
-    KEY `idx_community_label_id` (`community_label_id`)
+    KEY `idx_community_label_id` (`community_label_id`),
+    UNIQUE KEY `uk_chain_community_id` (`chain_community_id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='用户社区表';
 
 -- 创建社区成员表
@@ -117,8 +120,108 @@ CREATE TABLE IF NOT EXISTS `tb_community_task_proof` (
     `update_by` int DEFAULT NULL COMMENT '修改人',
     `update_time` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '修改时间',
     PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_member_task_hash` (`member_id`, `task_title`, `proof_hash`),
     KEY `idx_member_task` (`member_id`),
     KEY `idx_community` (`community_id`),
     KEY `idx_status` (`status`),
     KEY `idx_create_time` (`create_time`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='社区任务凭证表';
+
+-- 创建链上事件表
+CREATE TABLE IF NOT EXISTS `tb_chain_event` (
+    `id` bigint NOT NULL AUTO_INCREMENT COMMENT '事件ID',
+    `block_number` bigint NOT NULL COMMENT '区块高度',
+    `block_hash` char(66) NOT NULL COMMENT '区块哈希',
+    `tx_hash` char(66) NOT NULL COMMENT '交易哈希',
+    `log_index` int NOT NULL COMMENT '日志在区块中的序号',
+    `contract_address` char(42) NOT NULL COMMENT '合约地址',
+    `event_name` varchar(64) NOT NULL COMMENT '事件名称',
+    `chain_community_id` bigint DEFAULT NULL COMMENT '链上社区ID',
+    `account` char(42) DEFAULT NULL COMMENT '事件主体地址（创建者/成员/用户）',
+    `counterparty` char(42) DEFAULT NULL COMMENT '事件相关方地址（参议员）',
+    `category` int DEFAULT NULL COMMENT '社区类别',
+    `amount` decimal(65,0) DEFAULT NULL COMMENT '数值（分数/奖励/能力值）',
+    `create_time` timestamp NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_block_log` (`block_hash`, `log_index`),
+    KEY `idx_block_number` (`block_number`),
+    KEY `idx_chain_community_id` (`chain_community_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='链上事件表';
+
+-- 创建链上同步进度表
+CREATE TABLE IF NOT EXISTS `tb_chain_checkpoint` (
+    `name` varchar(64) NOT NULL COMMENT '同步任务名称',
+    `block_number` bigint NOT NULL COMMENT '已同步到的区块高度',
+    `block_hash` char(66) NOT NULL COMMENT '已同步到的区块哈希',
+    `update_time` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '修改时间',
+    PRIMARY KEY (`name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='链上同步进度表';
+
+-- 创建凭证锚定批次表
+CREATE TABLE IF NOT EXISTS `tb_proof_anchor_batch` (
+    `id` bigint NOT NULL AUTO_INCREMENT COMMENT '批次ID',
+    `merkle_root` char(66) NOT NULL COMMENT '默克尔根',
+    `leaf_count` int NOT NULL COMMENT '叶子数量',
+    `status` enum('pending','submitted','confirmed','failed') NOT NULL DEFAULT 'pending' COMMENT '状态：待提交/已提交/已确认/失败',
+    `tx_hash` char(66) DEFAULT NULL COMMENT '上链交易哈希',
+    `block_number` bigint DEFAULT NULL COMMENT '上链区块高度',
+    `attempts` int NOT NULL DEFAULT '0' COMMENT '提交次数',
+    `submit_time` timestamp NULL DEFAULT NULL COMMENT '最近一次发送交易的时间',
+    `create_time` timestamp NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `update_time` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '修改时间',
+    PRIMARY KEY (`id`),
+    KEY `idx_status` (`status`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='凭证锚定批次表';
+
+-- 创建凭证锚定表
+CREATE TABLE IF NOT EXISTS `tb_proof_anchor` (
+    `id` bigint NOT NULL AUTO_INCREMENT COMMENT 'ID',
+    `proof_id` int NOT NULL COMMENT '凭证ID',
+    `batch_id` bigint NOT NULL COMMENT '批次ID',
+    `leaf_index` int NOT NULL COMMENT '叶子序号',
+    `leaf_hash` char(66) NOT NULL COMMENT '叶子哈希',
+    `merkle_path` text NOT NULL COMMENT '默克尔路径（兄弟节点哈希，逗号分隔）',
+    `create_time` timestamp NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_proof_id` (`proof_id`),
+    KEY `idx_batch_id` (`batch_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='凭证锚定表';
+
+-- 创建缓存失效日志表
+CREATE TABLE IF NOT EXISTS `tb_invalidation_log` (
+    `id` bigint NOT NULL AUTO_INCREMENT COMMENT '日志ID，同时作为版本号',
+    `entity_type` varchar(64) NOT NULL COMMENT '实体类名',
+    `entity_id` varchar(64) NOT NULL COMMENT '实体主键',
+    `action` varchar(16) NOT NULL COMMENT '操作：SAVE/UPDATE/REMOVE',
+    `origin` varchar(64) NOT NULL COMMENT '写入节点',
+    `create_time` timestamp(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '写入时间（数据库时钟）',
+    PRIMARY KEY (`id`),
+    KEY `idx_create_time` (`create_time`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='缓存失效日志表';
+
+-- 创建ID号段表
+CREATE TABLE IF NOT EXISTS `tb_id_segment` (
+    `biz_tag` varchar(64) NOT NULL COMMENT '业务标识（表名）',
+    `max_id` bigint NOT NULL COMMENT '已分配的最大ID',
+    `update_time` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '修改时间',
+    PRIMARY KEY (`biz_tag`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='ID号段表';
+
+-- 创建任务归档分表登记表（与 tb_user_private_task 在同一个库，分片时每个分片一份）
+CREATE TABLE IF NOT EXISTS `tb_task_archive_partition` (
+    `table_name` varchar(64) NOT NULL COMMENT '归档分表名称',
+    `partition_month` date NOT NULL COMMENT '分表对应月份的第一天',
+    `create_time` timestamp NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    PRIMARY KEY (`table_name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='任务归档分表登记表';
+
+-- 创建任务归档进度表（与 tb_user_private_task 在同一个库，分片时每个分片一份）
+CREATE TABLE IF NOT EXISTS `tb_task_archive_progress` (
+    `name` varchar(64) NOT NULL COMMENT '归档任务名称',
+    `cutoff_date` date NOT NULL COMMENT '本轮归档的截止日期（不含）',
+    `last_id` bigint NOT NULL DEFAULT '0' COMMENT '本轮已处理到的任务ID',
+    `archived_rows` bigint NOT NULL DEFAULT '0' COMMENT '本轮已归档的任务数',
+    `state` varchar(16) NOT NULL COMMENT '状态：running/done',
+    `update_time` timestamp NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '修改时间',
+    PRIMARY KEY (`name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='任务归档进度表';
@@ -0,0 +1,115 @@
+package com.matebuilder.archive;
+
+import com.matebuilder.entity.TaskArchiveProgress;
+import com.matebuilder.entity.UserPrivateTask;
+import com.matebuilder.mapper.TaskArchiveMapper;
+import com.matebuilder.mapper.UserPrivateTaskMapper;
+import com.matebuilder.sharding.TaskShards;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TaskArchiverTest {
+
+    private static final String JOB = "user_private_task";
+
+    private final UserPrivateTaskMapper tasks = mock(UserPrivateTaskMapper.class);
+    private final TaskArchiveMapper archive = mock(TaskArchiveMapper.class);
+    private final TaskArchiver archiver;
+
+    public TaskArchiverTest() {
+        TransactionTemplate transaction = mock(TransactionTemplate.class);
+        when(transaction.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        TaskShards shards = new TaskShards(List.of(new TaskShards.Shard("primary", tasks, archive, transaction)),
+                16, 1, Collections.emptyList());
+        archiver = new TaskArchiver(shards, true, 90, 2, 0);
+    }
+
+    @Test
+    public void testResumesUnfinishedRunWithItsCutoff() {
+        LocalDate cutoff = LocalDate.of(2026, 1, 1);
+        when(archive.selectProgress(JOB)).thenReturn(progress("running", cutoff, 42));
+        List<UserPrivateTask> first = Arrays.asList(task(43, LocalDate.of(2025, 12, 5)), task(44, LocalDate.of(2025, 12, 20)));
+        List<UserPrivateTask> second = Collections.singletonList(task(50, LocalDate.of(2025, 11, 3)));
+        when(archive.selectCandidates(42, cutoff, 2)).thenReturn(first);
+        when(archive.selectCandidates(44, cutoff, 2)).thenReturn(second);
+        when(archive.lockCandidates(anyCollection(), eq(cutoff))).thenAnswer(invocation -> {
+            Collection<Integer> ids = invocation.getArgument(0);
+            return ids.contains(50) ? second : first;
+        });
+
+        // 沿用上一轮的截止日期和进度，从ID 42 之后继续，不重新开始本轮
+        assertEquals(3, archiver.run());
+        verify(archive, never()).startProgress(anyString(), any());
+        verify(archive, never()).insertProgress(anyString(), any());
+        verify(archive).copyToPartition("tb_user_private_task_archive_202512", Arrays.asList(43, 44));
+        verify(archive).copyToPartition("tb_user_private_task_archive_202511", Collections.singletonList(50));
+        verify(archive).advanceProgress(JOB, 44, 2);
+        verify(archive).advanceProgress(JOB, 50, 1);
+        verify(archive).finishProgress(JOB, cutoff);
+        assertEquals(1L, archiver.stats().get("resumed"));
+    }
+
+    @Test
+    public void testFinishedRunStartsOverWithNewCutoff() {
+        LocalDate cutoff = LocalDate.now().minusDays(90);
+        when(archive.selectProgress(JOB)).thenReturn(progress("done", LocalDate.of(2026, 1, 1), 500));
+        when(archive.selectCandidates(0, cutoff, 2)).thenReturn(Collections.emptyList());
+
+        assertEquals(0, archiver.run());
+        verify(archive).startProgress(JOB, cutoff);
+        verify(archive, never()).selectCandidates(eq(500L), any(), anyInt());
+        verify(archive, never()).advanceProgress(anyString(), anyLong(), anyInt());
+        verify(archive).finishProgress(JOB, cutoff);
+        assertEquals(0L, archiver.stats().get("resumed"));
+    }
+
+    @Test
+    public void testListWithoutDateReadsAllPartitions() {
+        List<String> tables = Arrays.asList("tb_user_private_task_archive_202511", "tb_user_private_task_archive_202512");
+        when(archive.selectPartitions()).thenReturn(tables);
+        TaskShards.Shard shard = new TaskShards.Shard("primary", tasks, archive, null);
+
+        assertEquals(tables, archiver.archivedTables(shard, null, null));
+        assertEquals(tables, archiver.archivedTables(shard, null, "completed"));
+        assertEquals(Collections.emptyList(), archiver.archivedTables(shard, null, "in_progress"));
+        assertEquals(Collections.singletonList("tb_user_private_task_archive_202512"),
+                archiver.archivedTables(shard, LocalDate.of(2025, 12, 1), null));
+        assertEquals(Collections.emptyList(), archiver.archivedTables(shard, LocalDate.of(2026, 3, 1), null));
+    }
+
+    private static TaskArchiveProgress progress(String state, LocalDate cutoff, long lastId) {
+        TaskArchiveProgress progress = new TaskArchiveProgress();
+        progress.setName(JOB);
+        progress.setState(state);
+        progress.setCutoffDate(cutoff);
+        progress.setLastId(lastId);
+        return progress;
+    }
+
+    private static UserPrivateTask task(int id, LocalDate taskDate) {
+        UserPrivateTask task = new UserPrivateTask();
+        task.setId(id);
+        task.setTaskDate(taskDate);
+        return task;
+    }
+}
@@ -0,0 +1,109 @@
+package com.matebuilder.autocomplete;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PrefixTrieTest {
+
+    @Test
+    public void testRankedCompletion() {
+        PrefixTrie trie = new PrefixTrie(2);
+        trie.put(1, "alice", 3);
+        trie.put(2, "Alan", 5);
+        trie.put(3, "albert", 1);
+        trie.put(4, "bob", 9);
+
+        List<PrefixTrie.Entry> al = trie.complete("AL", 10);
+        assertEquals(2, al.size());
+        assertEquals(2, al.get(0).getId());
+        assertEquals(1, al.get(1).getId());
+
+        // 删除缓存中的条目后应从子树补齐
+        trie.remove(2);
+        al = trie.complete("al", 10);
+        assertEquals(1, al.get(0).getId());
+        assertEquals(3, al.get(1).getId());
+
+        // 改名和改等级
+        trie.put(4, "alf", 7);
+        assertEquals(4, trie.complete("al", 1).get(0).getId());
+        assertTrue(trie.complete("b", 10).isEmpty());
+        assertEquals(3, trie.size());
+    }
+
+    @Test
+    public void testPrefixEndingInsideEdge() {
+        PrefixTrie trie = new PrefixTrie(5);
+        trie.put(1, "mountain", 1);
+        // 前缀落在未拆分的边中间
+        assertEquals(1, trie.complete("moun", 5).get(0).getId());
+        assertTrue(trie.complete("mouse", 5).isEmpty());
+        assertTrue(trie.complete("mountains", 5).isEmpty());
+
+        // 拆分边后两侧都可查到，删除后重新合并仍可查到
+        trie.put(2, "mouse", 2);
+        trie.put(3, "mount", 3);
+        assertEquals(3, trie.complete("mou", 5).size());
+        assertEquals(2, trie.complete("mous", 5).get(0).getId());
+        trie.remove(3);
+        trie.remove(2);
+        assertEquals(1, trie.complete("mounta", 5).get(0).getId());
+        assertTrue(trie.complete("mous", 5).isEmpty());
+    }
+
+    @Test
+    public void testNonPositiveLimit() {
+        PrefixTrie trie = new PrefixTrie(5);
+        trie.put(1, "alice", 1);
+        assertTrue(trie.complete("a", 0).isEmpty());
+        assertTrue(trie.complete("a", -1).isEmpty());
+    }
+
+    @Test
+    public void testMatchesBruteForce() {
+        Random random = new Random(42);
+        PrefixTrie trie = new PrefixTrie(5);
+        Map<Integer, String> names = new HashMap<>();
+        Map<Integer, Integer> ranks = new HashMap<>();
+        for (int step = 0; step < 5000; step++) {
+            int id = random.nextInt(300);
+            if (random.nextInt(4) == 0) {
+                trie.remove(id);
+                names.remove(id);
+                ranks.remove(id);
+            } else {
+                StringBuilder name = new StringBuilder();
+                for (int i = 1 + random.nextInt(8); i > 0; i--) {
+                    name.append((char) ('a' + random.nextInt(3)));
+                }
+                int rank = random.nextInt(10);
+                trie.put(id, name.toString(), rank);
+                names.put(id, name.toString());
+                ranks.put(id, rank);
+            }
+        }
+        for (String prefix : new String[]{"", "a", "ab", "cc", "bac", "abca", "cabbac"}) {
+            List<Integer> expected = names.keySet().stream()
+                    .filter(id -> names.get(id).startsWith(prefix))
+                    .sorted(Comparator.comparing((Integer id) -> -ranks.get(id))
+                            .thenComparing(id -> names.get(id).length())
+                            .thenComparing(names::get)
+                            .thenComparing(id -> id))
+                    .limit(5)
+                    .collect(Collectors.toList());
+            List<Integer> actual = new ArrayList<>();
+            trie.complete(prefix, 5).forEach(e -> actual.add(e.getId()));
+            assertEquals(expected, actual, prefix);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.matebuilder.availability;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BloomFilterTest {
+
+    @Test
+    public void testNoFalseNegativesAndBoundedFalsePositives() {
+        BloomFilter filter = new BloomFilter(100000, 0.01);
+        for (int i = 0; i < 100000; i++) {
+            filter.put("user_" + i);
+        }
+        for (int i = 0; i < 100000; i++) {
+            assertTrue(filter.mightContain("user_" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (filter.mightContain("other_" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    public void testNormalizeFoldsCollationEquivalents() {
+        assertEquals(UsernameAvailability.normalize("alice"), UsernameAvailability.normalize("ÁLICE  "));
+        assertEquals("张三", UsernameAvailability.normalize("张三"));
+    }
+}
@@ -0,0 +1,180 @@
+package com.matebuilder.chain;
+
+import com.matebuilder.entity.User;
+import com.matebuilder.entity.UserAbility;
+import com.matebuilder.mapper.UserMapper;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.abi.datatypes.generated.Uint8;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AbilitySyncTest {
+
+    private static final String CONTRACT = "0x5FbDB2315678afecb367f032d93F642f64180aa3";
+    private static final String ALICE = "0x70997970c51812dc3a010c7d01b50e0d17dc79c8";
+    private static final String BOB = "0x3c44cdddb6a900fa2b585dd299e03d12fa4293bc";
+    private static final String CAROL = "0x90f79bf6eb2c4f870365e785982e1f101e93b906";
+
+    private final ChainClient chainClient = mock(ChainClient.class);
+    private final ChainEventProjector projector = mock(ChainEventProjector.class);
+    private final UserMapper userMapper = mock(UserMapper.class);
+    private final List<User> users = new ArrayList<>();
+    /**
+     * 链上分数：钱包地址 -> (类别, 分数)，不在表中的地址调用失败
+     */
+    private final Map<String, Map<Integer, Long>> chain = new HashMap<>();
+    private final List<UserAbility> written = new ArrayList<>();
+    private AbilitySync sync;
+
+    @SuppressWarnings("unchecked")
+    public AbilitySyncTest() throws Exception {
+        when(chainClient.getUserAbilityAddress()).thenReturn(CONTRACT);
+        when(chainClient.blockNumber()).thenReturn(100L);
+        doAnswer(invocation -> {
+            ResultHandler<User> handler = invocation.getArgument(0);
+            DefaultResultContext<User> context = new DefaultResultContext<>();
+            users.forEach(user -> {
+                context.nextResultObject(user);
+                handler.handleResult(context);
+            });
+            return null;
+        }).when(userMapper).scanWallets(any());
+        when(chainClient.batchCall(anyString(), anyList(), any())).thenAnswer(invocation -> {
+            List<List<Type>> results = new ArrayList<>();
+            for (Function call : (List<Function>) invocation.getArgument(1)) {
+                String wallet = ((Address) call.getInputParameters().get(0)).getValue();
+                Map<Integer, Long> scores = chain.get(wallet);
+                results.add(scores == null ? null : encode(scores));
+            }
+            return results;
+        });
+        when(projector.writeAbilities(any())).thenAnswer(invocation -> {
+            Collection<UserAbility> abilities = invocation.getArgument(0);
+            synchronized (written) {
+                written.addAll(abilities);
+            }
+            return (int) abilities.stream().filter(a -> a.getAbilityScore().signum() > 0).count();
+        });
+    }
+
+    @AfterEach
+    public void close() {
+        if (sync != null) {
+            sync.close();
+        }
+    }
+
+    @Test
+    public void testDisabledDoesNotSync() throws Exception {
+        sync = new AbilitySync(chainClient, projector, userMapper, false, 2, 2);
+        assertFalse(sync.isEnabled());
+        assertNull(sync.trySync());
+        verify(userMapper, never()).scanWallets(any());
+
+        // 启用但未配置合约地址同样视为未启用
+        AbilitySync noContract = new AbilitySync(chainClient, projector, userMapper, true, 2, 2);
+        when(chainClient.getUserAbilityAddress()).thenReturn("");
+        assertFalse(noContract.isEnabled());
+        assertNull(noContract.trySync());
+        noContract.close();
+    }
+
+    @Test
+    public void testSyncWritesEveryCategoryInBatches() throws Exception {
+        sync = new AbilitySync(chainClient, projector, userMapper, true, 2, 2);
+        users.add(user(1, ALICE.toUpperCase().replace("0X", "0x")));
+        users.add(user(2, BOB.substring(2)));
+        users.add(user(3, CAROL));
+        users.add(user(4, "not-a-wallet"));
+        chain.put(ALICE, Map.of(1, 10L, 5, 20L));
+        chain.put(BOB, Map.of(4, 7L));
+
+        assertEquals(3L, sync.trySync());
+
+        // 格式非法的地址跳过，CAROL 的调用失败不写入，其余用户每个类别一行，链上未返回的类别为零
+        assertEquals(2 * ContractEvents.categoryNames().size(), written.size());
+        Map<String, BigDecimal> alice = scores(1);
+        assertEquals(new BigDecimal(10), alice.get("Music"));
+        assertEquals(new BigDecimal(20), alice.get("Technology"));
+        assertEquals(BigDecimal.ZERO, alice.get("Art"));
+        assertEquals(new BigDecimal(7), scores(2).get("Education"));
+        assertTrue(scores(3).isEmpty());
+
+        Map<String, Object> stats = sync.stats();
+        assertEquals(2L, stats.get("batches"));
+        assertEquals(3L, stats.get("ethCalls"));
+        assertEquals(1L, stats.get("failedCalls"));
+        assertEquals(1L, stats.get("invalidWallets"));
+        assertEquals(3L, stats.get("changedRows"));
+        assertEquals(false, stats.get("running"));
+    }
+
+    @Test
+    public void testOverlappingSyncIsRejected() throws Exception {
+        sync = new AbilitySync(chainClient, projector, userMapper, true, 10, 1);
+        users.add(user(1, ALICE));
+        chain.put(ALICE, Map.of(1, 10L));
+        AtomicReference<Long> nested = new AtomicReference<>(-1L);
+        doAnswer(invocation -> {
+            nested.set(sync.trySync());
+            return 1;
+        }).when(projector).writeAbilities(any());
+
+        assertEquals(1L, sync.trySync());
+        assertNull(nested.get());
+        // 上一轮结束后可以再次同步
+        assertEquals(1L, sync.trySync());
+    }
+
+    private Map<String, BigDecimal> scores(int userId) {
+        Map<String, BigDecimal> scores = new HashMap<>();
+        written.stream().filter(a -> a.getUserId() == userId)
+                .forEach(a -> scores.put(a.getAbilityName(), a.getAbilityScore()));
+        return scores;
+    }
+
+    private static User user(int id, String wallet) {
+        User user = new User();
+        user.setId(id);
+        user.setWalletAddress(wallet);
+        return user;
+    }
+
+    private static List<Type> encode(Map<Integer, Long> scores) {
+        List<Uint8> categories = new ArrayList<>();
+        List<Uint256> values = new ArrayList<>();
+        scores.forEach((category, score) -> {
+            categories.add(new Uint8(category));
+            values.add(new Uint256(score));
+        });
+        return Arrays.asList(new DynamicArray<>(Uint8.class, categories), new DynamicArray<>(Uint256.class, values));
+    }
+}
@@ -0,0 +1,93 @@
+package com.matebuilder.chain;
+
+import com.matebuilder.entity.ChainEvent;
+import org.junit.jupiter.api.Test;
+import org.web3j.abi.EventEncoder;
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.TypeEncoder;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Event;
+import org.web3j.abi.datatypes.generated.Uint256;
+import org.web3j.abi.datatypes.generated.Uint8;
+import org.web3j.protocol.core.methods.response.Log;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ContractEventsTest {
+
+    private static final String CONTRACT = "0x5FbDB2315678afecb367f032d93F642f64180aa3";
+    private static final String MEMBER = "0x70997970C51812dc3A010C7d01b50e0d17dc79C8";
+    private static final String SENATOR = "0x3C44CdDdB6a900fa2b585dd299e03d12FA4293BC";
+
+    @Test
+    public void testDecodeCommunityCreated() {
+        ChainEvent event = ContractEvents.decode(log(ContractEvents.COMMUNITY_CREATED,
+                Arrays.asList(topic(new Uint256(7))),
+                FunctionEncoder.encodeConstructor(Arrays.asList(new Address(MEMBER), new Uint8(5)))));
+        assertEquals("CommunityCreated", event.getEventName());
+        assertEquals(7L, event.getChainCommunityId());
+        assertEquals(MEMBER.toLowerCase(), event.getAccount());
+        assertEquals(5, event.getCategory());
+        assertEquals("Technology", ContractEvents.categoryName(event.getCategory()));
+        assertEquals(CONTRACT.toLowerCase(), event.getContractAddress());
+        assertEquals(12L, event.getBlockNumber());
+        assertEquals(3, event.getLogIndex());
+    }
+
+    @Test
+    public void testDecodeIndexedAddresses() {
+        ChainEvent score = ContractEvents.decode(log(ContractEvents.SCORE_SUBMITTED,
+                Arrays.asList(topic(new Uint256(1)), topic(new Address(MEMBER)), topic(new Address(SENATOR))),
+                FunctionEncoder.encodeConstructor(Arrays.asList(new Uint256(88)))));
+        assertEquals(1L, score.getChainCommunityId());
+        assertEquals(MEMBER.toLowerCase(), score.getAccount());
+        assertEquals(SENATOR.toLowerCase(), score.getCounterparty());
+        assertEquals(new BigDecimal(88), score.getAmount());
+
+        ChainEvent ability = ContractEvents.decode(log(ContractEvents.ABILITY_SCORE_INCREASED,
+                Arrays.asList(topic(new Address(MEMBER)), topic(new Uint8(2))),
+                FunctionEncoder.encodeConstructor(Arrays.asList(new Uint256(3)))));
+        assertNull(ability.getChainCommunityId());
+        assertEquals(MEMBER.toLowerCase(), ability.getAccount());
+        assertEquals("Art", ContractEvents.categoryName(ability.getCategory()));
+        assertEquals(new BigDecimal(3), ability.getAmount());
+    }
+
+    @Test
+    public void testIgnoreUnknownAndRemovedLogs() {
+        Log unknown = log(ContractEvents.MEMBER_JOINED, Arrays.asList(topic(new Uint256(1))),
+                FunctionEncoder.encodeConstructor(Arrays.asList(new Address(MEMBER))));
+        unknown.setTopics(Arrays.asList("0x" + "00".repeat(32), unknown.getTopics().get(1)));
+        assertNull(ContractEvents.decode(unknown));
+
+        Log removed = log(ContractEvents.MEMBER_JOINED, Arrays.asList(topic(new Uint256(1))),
+                FunctionEncoder.encodeConstructor(Arrays.asList(new Address(MEMBER))));
+        removed.setRemoved(true);
+        assertNull(ContractEvents.decode(removed));
+    }
+
+    private static String topic(org.web3j.abi.datatypes.Type<?> value) {
+        return "0x" + TypeEncoder.encode(value);
+    }
+
+    private static Log log(Event event, List<String> indexed, String data) {
+        List<String> topics = new ArrayList<>();
+        topics.add(EventEncoder.encode(event));
+        topics.addAll(indexed);
+        Log log = new Log();
+        log.setAddress(CONTRACT);
+        log.setTopics(topics);
+        log.setData("0x" + data);
+        log.setBlockNumber("0xc");
+        log.setBlockHash("0x" + "ab".repeat(32));
+        log.setTransactionHash("0x" + "cd".repeat(32));
+        log.setLogIndex("0x3");
+        return log;
+    }
+}
@@ -0,0 +1,43 @@
+package com.matebuilder.chain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MerkleTreeTest {
+
+    @Test
+    public void testEveryLeafVerifiesForOddAndEvenSizes() {
+        for (int size = 1; size <= 33; size++) {
+            List<byte[]> leaves = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                leaves.add(MerkleTree.leaf(i + 1, "Qm" + i));
+            }
+            MerkleTree tree = new MerkleTree(leaves);
+            for (int i = 0; i < size; i++) {
+                assertTrue(MerkleTree.verify(leaves.get(i), i, size, tree.path(i), tree.root()), size + "/" + i);
+            }
+        }
+    }
+
+    @Test
+    public void testTamperedProofFails() {
+        List<byte[]> leaves = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            leaves.add(MerkleTree.leaf(i + 1, "Qm" + i));
+        }
+        MerkleTree tree = new MerkleTree(leaves);
+        List<byte[]> path = tree.path(2);
+        assertFalse(MerkleTree.verify(MerkleTree.leaf(3, "QmOther"), 2, 5, path, tree.root()));
+        assertFalse(MerkleTree.verify(leaves.get(2), 3, 5, path, tree.root()));
+        assertFalse(MerkleTree.verify(leaves.get(2), 2, 5, path.subList(0, 1), tree.root()));
+
+        MerkleTree single = new MerkleTree(leaves.subList(0, 1));
+        assertArrayEquals(leaves.get(0), single.root());
+    }
+}
@@ -0,0 +1,117 @@
+package com.matebuilder.chain;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.matebuilder.entity.CommunityTaskProof;
+import com.matebuilder.entity.ProofAnchor;
+import com.matebuilder.entity.ProofAnchorBatch;
+import com.matebuilder.mapper.CommunityTaskProofMapper;
+import com.matebuilder.mapper.ProofAnchorBatchMapper;
+import com.matebuilder.mapper.ProofAnchorMapper;
+import com.matebuilder.vo.ProofAnchorVO;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.web3j.utils.Numeric;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ProofAnchoringTest {
+
+    private static final String SUBMISSION_MANAGER = "0xe7f1725e7734ce288f8367e1bb143e90bb3f0512";
+    private static final String TX_HASH = "0x" + "ab".repeat(32);
+
+    private final ChainClient chainClient = mock(ChainClient.class);
+    private final CommunityTaskProofMapper proofMapper = mock(CommunityTaskProofMapper.class);
+    private final ProofAnchorMapper anchorMapper = mock(ProofAnchorMapper.class);
+    private final ProofAnchorBatchMapper batchMapper = mock(ProofAnchorBatchMapper.class);
+    private final ProofAnchorBatch batch = new ProofAnchorBatch();
+
+    @BeforeAll
+    public static void initTableInfo() {
+        MapperBuilderAssistant assistant = new MapperBuilderAssistant(new MybatisConfiguration(), "");
+        TableInfoHelper.initTableInfo(assistant, ProofAnchor.class);
+        TableInfoHelper.initTableInfo(assistant, ProofAnchorBatch.class);
+    }
+
+    public ProofAnchoringTest() throws Exception {
+        when(chainClient.getSubmissionManagerAddress()).thenReturn(SUBMISSION_MANAGER);
+
+        CommunityTaskProof proof = new CommunityTaskProof();
+        proof.setId(7);
+        proof.setProofHash("QmProof");
+        byte[] leaf = MerkleTree.leaf(7, "QmProof");
+        MerkleTree tree = new MerkleTree(Collections.singletonList(leaf));
+
+        ProofAnchor anchor = new ProofAnchor();
+        anchor.setProofId(7);
+        anchor.setBatchId(3L);
+        anchor.setLeafIndex(0);
+        anchor.setLeafHash(Numeric.toHexString(leaf));
+        anchor.setMerklePath("");
+        batch.setId(3L);
+        batch.setMerkleRoot(Numeric.toHexString(tree.root()));
+        batch.setLeafCount(1);
+        batch.setTxHash(TX_HASH);
+
+        when(anchorMapper.selectOne(any())).thenReturn(anchor);
+        when(batchMapper.selectById(3L)).thenReturn(batch);
+        when(proofMapper.selectById(7)).thenReturn(proof);
+        TransactionReceipt receipt = new TransactionReceipt();
+        receipt.setStatus("0x1");
+        receipt.setLogs(Collections.emptyList());
+        when(chainClient.receipt(TX_HASH)).thenReturn(Optional.of(receipt));
+    }
+
+    private ProofAnchoring anchoring(boolean enabled) {
+        return new ProofAnchoring(chainClient, proofMapper, anchorMapper, batchMapper, mock(TransactionTemplate.class),
+                enabled, 16, 1, 0, 300000, 5, 3600000);
+    }
+
+    @Test
+    public void testDisabledDoesNotAnchor() throws Exception {
+        ProofAnchoring anchoring = anchoring(false);
+        assertFalse(anchoring.isEnabled());
+        assertNull(anchoring.tryAnchor());
+        verify(proofMapper, never()).selectUnanchored(anyInt());
+
+        // 启用但未配置合约地址同样视为未启用
+        when(chainClient.getSubmissionManagerAddress()).thenReturn("");
+        assertFalse(anchoring(true).isEnabled());
+        assertNull(anchoring(true).tryAnchor());
+    }
+
+    @Test
+    public void testConfirmedReceiptCachedPerBatch() throws Exception {
+        ProofAnchoring anchoring = anchoring(true);
+
+        // 已提交未确认的批次每次都查询回执
+        batch.setStatus(ProofAnchoring.STATUS_SUBMITTED);
+        anchoring.proof(7);
+        anchoring.proof(7);
+        verify(chainClient, times(2)).receipt(TX_HASH);
+
+        batch.setStatus(ProofAnchoring.STATUS_CONFIRMED);
+        for (int i = 0; i < 3; i++) {
+            ProofAnchorVO vo = anchoring.proof(7);
+            assertTrue(vo.getIncluded());
+            // 回执中没有 SubmissionCreated 事件
+            assertFalse(vo.getAnchoredOnChain());
+        }
+        verify(chainClient, times(3)).receipt(TX_HASH);
+    }
+}
@@ -0,0 +1,66 @@
+package com.matebuilder.common.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdmissionControlTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testBucketAllowsBurstThenRefillsAtRate() {
+        TokenBucket bucket = new TokenBucket(new TokenBucket.Limit(2, 4), 0);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0, bucket.tryAcquire(1, 0));
+        }
+        // 每个令牌 0.5 秒补充
+        assertEquals(SECOND / 2, bucket.tryAcquire(1, 0));
+        assertEquals(0, bucket.tryAcquire(1, SECOND / 2));
+        assertTrue(bucket.tryAcquire(1, SECOND / 2) > 0);
+
+        // 超过容量的请求按一整桶计
+        assertEquals(0, bucket.tryAcquire(100, 10 * SECOND));
+        assertTrue(bucket.isFullSince(12 * SECOND, 0));
+        assertTrue(!bucket.isFullSince(12 * SECOND, SECOND));
+    }
+
+    @Test
+    public void testByteBudgetRejectionReturnsRequestToken() {
+        AdmissionControl control = new AdmissionControl(new TokenBucket.Limit(1, 2), new TokenBucket.Limit(100, 150), 10, 60000);
+        long now = System.nanoTime();
+        assertEquals(0, control.tryAcquire("ip:a", 100, now));
+        // 字节不足：等待 0.5 秒，请求令牌归还
+        assertEquals(SECOND / 2, control.tryAcquire("ip:a", 100, now));
+        assertEquals(0, control.tryAcquire("ip:a", 10, now));
+        // 请求数用完
+        assertEquals(SECOND, control.tryAcquire("ip:a", 0, now));
+        // 其他客户端不受影响
+        assertEquals(0, control.tryAcquire("ip:b", 100, now));
+
+        assertEquals(3L, control.stats().get("admitted"));
+        assertEquals(1L, control.getRejectedBytes());
+        assertEquals(1L, control.getRejectedRequests());
+    }
+
+    @Test
+    public void testIdleBucketsAreEvictedAndOverflowIsShared() {
+        AdmissionControl control = new AdmissionControl(new TokenBucket.Limit(1, 1), new TokenBucket.Limit(1000, 1000), 2, 1000);
+        long now = System.nanoTime();
+        assertEquals(0, control.tryAcquire("ip:a", 0, now));
+        assertEquals(0, control.tryAcquire("ip:b", 0, now));
+        // 已满：新客户端共用溢出桶
+        assertEquals(0, control.tryAcquire("ip:c", 0, now));
+        assertTrue(control.tryAcquire("ip:d", 0, now) > 0);
+        assertEquals(2, control.clientCount());
+
+        // a、b 的桶在 now + 1s 装满，再过 1s 后被清除
+        assertEquals(0, control.tryAcquire("ip:e", 0, now + 2 * SECOND + 1));
+        assertEquals(1, control.clientCount());
+        assertEquals(2L, control.stats().get("evicted"));
+        assertEquals(2L, control.stats().get("overflowed"));
+    }
+}
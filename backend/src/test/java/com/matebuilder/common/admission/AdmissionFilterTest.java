@@ -0,0 +1,103 @@
+package com.matebuilder.common.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.catalina.filters.RemoteIpFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockFilterConfig;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AdmissionFilterTest {
+
+    private static final String LOAD_BALANCER = "10.0.0.5";
+
+    /**
+     * 每个客户端只有一个请求令牌，几乎不补充：同一个桶的第二个请求被拒绝
+     */
+    private final AdmissionControl admissionControl = new AdmissionControl(
+            new TokenBucket.Limit(0.001, 1), new TokenBucket.Limit(1_000_000, 1_000_000), 100, 60000);
+
+    @Test
+    public void testClientsBehindTrustedProxyGetSeparateBuckets() throws Exception {
+        AdmissionFilter filter = filter("");
+        assertEquals(200, post(filter, LOAD_BALANCER, "203.0.113.1", null));
+        assertEquals(200, post(filter, LOAD_BALANCER, "203.0.113.2", null));
+        // 客户端自带的 X-Forwarded-For 在最左边，以负载均衡追加的地址为准
+        assertEquals(429, post(filter, LOAD_BALANCER, "198.51.100.7, 203.0.113.1", null));
+        assertEquals(2, admissionControl.clientCount());
+    }
+
+    @Test
+    public void testForwardedHeaderFromUntrustedAddressIsIgnored() throws Exception {
+        AdmissionFilter filter = filter("");
+        assertEquals(200, post(filter, "198.51.100.7", "203.0.113.1", null));
+        // 公网直连伪造 X-Forwarded-For 仍按来源 IP 计
+        assertEquals(429, post(filter, "198.51.100.7", "203.0.113.2", null));
+        assertEquals(1, admissionControl.clientCount());
+    }
+
+    @Test
+    public void testUserHeaderTakesPrecedenceOverClientAddress() throws Exception {
+        AdmissionFilter filter = filter("X-User-Id");
+        assertEquals(200, post(filter, LOAD_BALANCER, "203.0.113.1", "42"));
+        // 同一用户换了 IP 仍是同一个桶
+        assertEquals(429, post(filter, LOAD_BALANCER, "203.0.113.2", "42"));
+        assertEquals(200, post(filter, LOAD_BALANCER, "203.0.113.2", "43"));
+        // 没有用户请求头时按客户端 IP
+        assertEquals(200, post(filter, LOAD_BALANCER, "203.0.113.2", null));
+        assertEquals(3, admissionControl.clientCount());
+    }
+
+    @Test
+    public void testReadRequestsAreNotCounted() throws Exception {
+        AdmissionFilter filter = filter("");
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/user/info");
+            request.setRemoteAddr(LOAD_BALANCER);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            new MockFilterChain(new OkServlet(), filter).doFilter(request, response);
+            assertEquals(0, admissionControl.clientCount());
+        }
+    }
+
+    /**
+     * 通过准入的请求直接返回 200
+     */
+    private static class OkServlet extends HttpServlet {
+        @Override
+        protected void service(HttpServletRequest req, HttpServletResponse resp) {
+        }
+    }
+
+    private AdmissionFilter filter(String userHeader) {
+        return new AdmissionFilter(admissionControl, new ObjectMapper(), userHeader, 1024);
+    }
+
+    /**
+     * 经过与 forward-headers-strategy=native 相同的 RemoteIpFilter（默认可信代理为内网和回环地址）后进入准入过滤器
+     */
+    private static int post(AdmissionFilter filter, String remoteAddr, String forwardedFor, String user)
+            throws IOException, ServletException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/user-private-task/add");
+        request.setRemoteAddr(remoteAddr);
+        request.addHeader("X-Forwarded-For", forwardedFor);
+        if (user != null) {
+            request.addHeader("X-User-Id", user);
+        }
+        request.setContent(new byte[16]);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RemoteIpFilter remoteIp = new RemoteIpFilter();
+        remoteIp.init(new MockFilterConfig());
+        new MockFilterChain(new OkServlet(), remoteIp, filter).doFilter(request, response);
+        return response.getStatus();
+    }
+}
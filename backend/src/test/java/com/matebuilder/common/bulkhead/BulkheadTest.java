@@ -0,0 +1,85 @@
+package com.matebuilder.common.bulkhead;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BulkheadTest {
+
+    @Test
+    public void testRejectsWhenThreadsAndQueueAreFull() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("test", 2, 3, 0, 7);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        try {
+            CompletableFuture<?>[] accepted = new CompletableFuture<?>[5];
+            for (int i = 0; i < accepted.length; i++) {
+                accepted[i] = bulkhead.submit(() -> {
+                    started.countDown();
+                    await(release);
+                    return 1;
+                });
+            }
+            started.await(5, TimeUnit.SECONDS);
+            assertEquals(3, bulkhead.queueDepth());
+
+            BulkheadFullException e = assertThrows(BulkheadFullException.class, () -> bulkhead.submit(() -> 1));
+            assertEquals(7, e.getRetryAfterSeconds());
+            assertEquals(1L, bulkhead.stats().get("rejected"));
+
+            release.countDown();
+            CompletableFuture.allOf(accepted).get(5, TimeUnit.SECONDS);
+            assertEquals(5L, bulkhead.stats().get("completed"));
+            assertEquals(0, bulkhead.queueDepth());
+        } finally {
+            release.countDown();
+            bulkhead.shutdown();
+        }
+    }
+
+    @Test
+    public void testTimeoutSkipsQueuedTask() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("test", 1, 1, 100, 3);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<Integer> running = bulkhead.submit(() -> {
+                await(release);
+                return 1;
+            });
+            CompletableFuture<Integer> queued = bulkhead.submit(() -> 2);
+
+            ExecutionException e = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(BulkheadTimeoutException.class, e.getCause());
+            assertThrows(ExecutionException.class, () -> running.get(5, TimeUnit.SECONDS));
+
+            release.countDown();
+            // 排队期间超时的任务出队后直接跳过
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (bulkhead.queueDepth() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            CompletableFuture<Integer> next = bulkhead.submit(() -> 3);
+            assertEquals(3, next.get(5, TimeUnit.SECONDS));
+            assertEquals(2L, bulkhead.stats().get("timedOut"));
+            assertEquals(2L, bulkhead.stats().get("completed"));
+        } finally {
+            release.countDown();
+            bulkhead.shutdown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
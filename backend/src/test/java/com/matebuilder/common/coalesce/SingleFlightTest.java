@@ -0,0 +1,98 @@
+package com.matebuilder.common.coalesce;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SingleFlightTest {
+
+    @Test
+    public void testConcurrentCallsShareOneExecution() throws Exception {
+        SingleFlight<Integer, String> flight = new SingleFlight<>("test", 5000);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CompletableFuture<?>[] calls = new CompletableFuture<?>[8];
+            for (int i = 0; i < calls.length; i++) {
+                calls[i] = CompletableFuture.supplyAsync(() -> flight.execute(1, () -> {
+                    executions.incrementAndGet();
+                    await(release);
+                    return "value";
+                }), executor);
+            }
+            waitUntil(() -> (long) flight.stats().get("collapsed") == 7);
+            release.countDown();
+            for (CompletableFuture<?> call : calls) {
+                assertEquals("value", call.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, executions.get());
+            assertEquals(0, flight.inFlight());
+
+            // 加载结束后不缓存，下一次调用重新执行
+            assertEquals("again", flight.execute(1, () -> "again"));
+            assertEquals(2L, flight.stats().get("executed"));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailureIsSharedAndTimeoutStartsNewFlight() throws Exception {
+        SingleFlight<Integer, String> flight = new SingleFlight<>("test", 200);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("boom");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> flight.execute(1, () -> {
+                await(release);
+                throw failure;
+            }), executor);
+            waitUntil(() -> flight.inFlight() == 1);
+            CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> flight.execute(1, () -> "unused"), executor);
+
+            // 等待者在加载开始 200ms 后超时
+            ExecutionException e = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(SingleFlightTimeoutException.class, e.getCause());
+            // 超时的加载不再被加入，新调用另起一次
+            assertEquals("fresh", flight.execute(1, () -> "fresh"));
+
+            release.countDown();
+            e = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+            assertSame(failure, e.getCause());
+            assertEquals(2L, flight.stats().get("executed"));
+            assertEquals(1L, flight.stats().get("timedOut"));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.matebuilder.common.json;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.matebuilder.common.api.R;
+import com.matebuilder.common.config.JacksonConfig;
+import com.matebuilder.entity.CommunityTaskProof;
+import com.matebuilder.entity.UserPrivateTask;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class JacksonConfigTest {
+
+    /**
+     * 引入 RSerializer、IsoTimeModule 和 Blackbird 之前的 ObjectMapper
+     */
+    private static ObjectMapper baseline() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return objectMapper;
+    }
+
+    private static List<Object> payloads() {
+        List<CommunityTaskProof> proofs = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            CommunityTaskProof proof = new CommunityTaskProof();
+            proof.setId(i);
+            proof.setCommunityId(7);
+            proof.setMemberId(i % 5);
+            proof.setTaskTitle("任务 \"" + i + "\"");
+            proof.setProofType("image");
+            proof.setProofHash("QmHash" + i);
+            proof.setFileName("proof-" + i + ".png");
+            proof.setCreateTime(LocalDateTime.of(2024, 5, 1, 12, 0).plusMinutes(i));
+            proofs.add(proof);
+        }
+        Page<UserPrivateTask> page = new Page<>(2, 10, 35);
+        List<UserPrivateTask> tasks = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) {
+            UserPrivateTask task = new UserPrivateTask();
+            task.setId(i);
+            task.setUserId(3);
+            task.setTaskTitle("task " + i);
+            task.setTaskDate(LocalDate.of(2024, 5, i));
+            task.setTaskStatus(i % 2 == 0 ? "completed" : "in_progress");
+            task.setPriority(i);
+            task.setStartTime("09:00:00");
+            task.setCompletionTime(i % 2 == 0 ? LocalDateTime.of(2024, 5, i, 18, 30) : null);
+            tasks.add(task);
+        }
+        page.setRecords(tasks);
+        return Arrays.asList(R.ok(proofs), R.ok(page), R.ok(), R.error(404, "凭证尚未锚定"), R.ok("a\nb"));
+    }
+
+    @Test
+    public void testOutputMatchesBaselineMapper() throws Exception {
+        ObjectMapper baseline = baseline();
+        for (boolean blackbird : new boolean[]{false, true}) {
+            ObjectMapper optimized = JacksonConfig.createObjectMapper(blackbird, false);
+            for (Object payload : payloads()) {
+                assertEquals(baseline.writeValueAsString(payload), optimized.writeValueAsString(payload));
+            }
+        }
+    }
+
+    @Test
+    public void testIsoTimeMatchesJavaTimeModule() throws Exception {
+        ObjectMapper baseline = baseline();
+        ObjectMapper optimized = JacksonConfig.createObjectMapper(false, false);
+        SplittableRandom random = new SplittableRandom(7);
+        int[] nanos = {0, 1, 10, 100_000, 120_000_000, 123_456_789, 999_999_999, 500_000_000};
+        for (int i = 0; i < 20_000; i++) {
+            LocalDateTime value = LocalDateTime.of(random.nextInt(-20, 12000), 1 + random.nextInt(12), 1 + random.nextInt(28),
+                    random.nextInt(24), random.nextInt(60), random.nextInt(60),
+                    i < nanos.length ? nanos[i] : random.nextInt(4) == 0 ? 0 : random.nextInt(1_000_000_000));
+            assertEquals(baseline.writeValueAsString(value), optimized.writeValueAsString(value));
+            assertEquals(baseline.writeValueAsString(value.toLocalDate()), optimized.writeValueAsString(value.toLocalDate()));
+        }
+        // 带 @JsonFormat 的属性仍按注解格式输出
+        UserPrivateTask task = new UserPrivateTask();
+        task.setTaskDate(LocalDate.of(2024, 5, 1));
+        task.setCompletionTime(LocalDateTime.of(2024, 5, 1, 18, 30, 5, 120_000_000));
+        task.setCreateTime(LocalDateTime.of(2024, 5, 1, 8, 0));
+        assertEquals(baseline.writeValueAsString(task), optimized.writeValueAsString(task));
+    }
+
+    @Test
+    public void testCompactEnvelope() throws Exception {
+        ObjectMapper compact = JacksonConfig.createObjectMapper(true, true);
+        assertEquals("{\"c\":200,\"m\":\"操作成功\"}", compact.writeValueAsString(R.ok()));
+        assertEquals("{\"c\":404,\"m\":\"凭证尚未锚定\"}", compact.writeValueAsString(R.error(404, "凭证尚未锚定")));
+        UserPrivateTask task = new UserPrivateTask();
+        task.setId(1);
+        task.setTaskDate(LocalDate.of(2024, 5, 1));
+        assertEquals("{\"c\":200,\"m\":\"操作成功\",\"d\":{\"id\":1,\"taskDate\":\"2024-05-01\"}}",
+                compact.writeValueAsString(R.ok(task)));
+    }
+
+    @Test
+    public void testPooledBuffersOnVirtualThreads() throws Exception {
+        ObjectMapper baseline = baseline();
+        ObjectMapper optimized = JacksonConfig.createObjectMapper(true, false);
+        List<Object> payloads = payloads();
+        List<byte[]> expected = new ArrayList<>();
+        for (Object payload : payloads) {
+            expected.add(baseline.writeValueAsBytes(payload));
+        }
+        List<Future<byte[]>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 2000; i++) {
+                Object payload = payloads.get(i % payloads.size());
+                results.add(executor.submit(() -> optimized.writeValueAsBytes(payload)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertArrayEquals(expected.get(i % payloads.size()), results.get(i).get());
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.matebuilder.common.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StatementTimingInterceptorTest {
+
+    private static final String STATEMENT = "com.matebuilder.mapper.UserMapper.updateById";
+
+    @Test
+    public void testRecordsSuccessAndErrorPerStatement() throws Throwable {
+        Configuration configuration = new Configuration();
+        MappedStatement statement = new MappedStatement.Builder(configuration, STATEMENT,
+                new StaticSqlSource(configuration, "UPDATE tb_user SET level = 1"), SqlCommandType.UPDATE).build();
+        Executor executor = mock(Executor.class);
+        when(executor.update(any(), any())).thenReturn(1).thenThrow(new SQLException("boom"));
+        Method update = Executor.class.getMethod("update", MappedStatement.class, Object.class);
+
+        StatementTimingInterceptor interceptor = new StatementTimingInterceptor();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        interceptor.bindTo(registry);
+
+        assertEquals(1, interceptor.intercept(new Invocation(executor, update, new Object[]{statement, null})));
+        assertThrows(InvocationTargetException.class,
+                () -> interceptor.intercept(new Invocation(executor, update, new Object[]{statement, null})));
+
+        assertEquals(1, registry.get("mybatis.statement").tags("statement", STATEMENT, "type", "update", "outcome", "success")
+                .timer().count());
+        assertEquals(1, registry.get("mybatis.statement").tags("statement", STATEMENT, "outcome", "error")
+                .timer().count());
+    }
+
+    @Test
+    public void testPassesThroughBeforeBound() throws Throwable {
+        Configuration configuration = new Configuration();
+        MappedStatement statement = new MappedStatement.Builder(configuration, STATEMENT,
+                new StaticSqlSource(configuration, "UPDATE tb_user SET level = 1"), SqlCommandType.UPDATE).build();
+        Executor executor = mock(Executor.class);
+        when(executor.update(any(), any())).thenReturn(1);
+        Method update = Executor.class.getMethod("update", MappedStatement.class, Object.class);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        StatementTimingInterceptor interceptor = new StatementTimingInterceptor();
+        assertEquals(1, interceptor.intercept(new Invocation(executor, update, new Object[]{statement, null})));
+        assertNull(registry.find("mybatis.statement").timer());
+    }
+}
@@ -0,0 +1,109 @@
+package com.matebuilder.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.matebuilder.entity.CommunityTaskProof;
+import com.matebuilder.entity.UserPrivateTask;
+import com.matebuilder.mapper.CommunityTaskProofMapper;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RowWriterTest {
+
+    private static final List<ExportColumn<String[]>> COLUMNS = List.of(
+            ExportColumn.of("a", row -> row[0]),
+            ExportColumn.of("b,c", row -> row[1]));
+
+    @Test
+    public void testCsvQuotesOnlyWhenNeeded() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvRowWriter<String[]> writer = new CsvRowWriter<>(out, COLUMNS, 16);
+        writer.begin();
+        writer.write(new String[]{"plain", "任务"});
+        writer.write(new String[]{"say \"hi\"", "line\nbreak"});
+        writer.write(new String[]{null, ""});
+        writer.finish();
+        assertEquals("a,\"b,c\"\r\n"
+                        + "plain,任务\r\n"
+                        + "\"say \"\"hi\"\"\",\"line\nbreak\"\r\n"
+                        + ",\r\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testNdjsonWritesOneObjectPerLine() throws Exception {
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        NdjsonRowWriter<UserPrivateTask> writer = new NdjsonRowWriter<>(out,
+                mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE));
+        writer.begin();
+        for (int i = 1; i <= 3; i++) {
+            UserPrivateTask task = new UserPrivateTask();
+            task.setId(i);
+            task.setTaskTitle("任务" + i);
+            task.setTaskDate(LocalDate.of(2024, 1, i));
+            writer.write(task);
+        }
+        // 未刷出前不应写到底层输出流
+        assertEquals(0, out.size());
+        writer.finish();
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(4, lines.length);
+        assertEquals("", lines[3]);
+        for (int i = 1; i <= 3; i++) {
+            UserPrivateTask task = mapper.readValue(lines[i - 1], UserPrivateTask.class);
+            assertEquals(i, task.getId());
+            assertEquals("任务" + i, task.getTaskTitle());
+            assertEquals(LocalDate.of(2024, 1, i), task.getTaskDate());
+        }
+    }
+
+    @Test
+    public void testTaskProofCsvIncludesFileColumns() throws Exception {
+        CommunityTaskProof proof = new CommunityTaskProof();
+        proof.setId(7);
+        proof.setCommunityId(1);
+        proof.setMemberId(2);
+        proof.setTaskTitle("打卡");
+        proof.setProofType("image");
+        proof.setProofHash("Qm1");
+        proof.setFileName("a.png");
+        proof.setFileSize(1024L);
+        proof.setMimeType("image/png");
+        proof.setCreateTime(LocalDateTime.of(2024, 1, 2, 3, 4, 5));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvRowWriter<CommunityTaskProof> writer = new CsvRowWriter<>(out, ExportColumns.TASK_PROOF, 16);
+        writer.begin();
+        writer.write(proof);
+        writer.finish();
+        assertEquals("id,communityId,memberId,taskTitle,taskDescription,proofType,proofHash,fileName,fileSize,mimeType,createTime\r\n"
+                        + "7,1,2,打卡,,image,Qm1,a.png,1024,image/png,2024-01-02T03:04:05\r\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testTaskProofScansSelectEveryExportColumn() throws Exception {
+        for (String method : List.of("scanByCommunity", "scanByMember")) {
+            String sql = CommunityTaskProofMapper.class.getMethod(method, Integer.class, ResultHandler.class)
+                    .getAnnotation(Select.class).value()[0];
+            for (ExportColumn<CommunityTaskProof> column : ExportColumns.TASK_PROOF) {
+                String name = column.getHeader().replaceAll("([A-Z])", "_$1").toLowerCase();
+                assertTrue(sql.matches("(?s).*\\b" + name + "\\b.*"), method + " does not select " + name);
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.matebuilder.invalidation;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.matebuilder.common.event.EntityChangeEvent;
+import com.matebuilder.common.event.EntityChangeEvent.Action;
+import com.matebuilder.entity.InvalidationRecord;
+import com.matebuilder.entity.User;
+import com.matebuilder.mapper.InvalidationLogMapper;
+import com.matebuilder.service.IBaseService;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class InvalidationBusTest {
+
+    /**
+     * 两个节点共用的 tb_invalidation_log
+     */
+    private final List<InvalidationRecord> log = new ArrayList<>();
+    private final InvalidationLogMapper logMapper = mock(InvalidationLogMapper.class);
+    @SuppressWarnings("unchecked")
+    private final IBaseService<User> userService = mock(IBaseService.class);
+
+    /**
+     * 节点 B 重新发布的事件，发布时同时交给节点 B 自己的监听器，与容器内的行为一致
+     */
+    private final List<EntityChangeEvent> republished = new ArrayList<>();
+    private final InvalidationBus nodeA;
+    private InvalidationBus nodeB;
+
+    @BeforeAll
+    public static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), User.class);
+    }
+
+    public InvalidationBusTest() {
+        doAnswer(invocation -> {
+            InvalidationRecord record = invocation.getArgument(0);
+            record.setId((long) log.size() + 1);
+            record.setCreateTime(LocalDateTime.now());
+            log.add(record);
+            return 1;
+        }).when(logMapper).insert(any(InvalidationRecord.class));
+        when(logMapper.selectMaxId()).thenAnswer(invocation -> (long) log.size());
+        when(logMapper.selectNow()).thenAnswer(invocation -> LocalDateTime.now());
+        when(logMapper.selectAfter(anyLong(), anyInt())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            int limit = invocation.getArgument(1);
+            return log.stream().filter(r -> r.getId() > afterId).limit(limit).collect(Collectors.toList());
+        });
+        when(logMapper.selectByIdList(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return log.stream().filter(r -> ids.contains(r.getId())).collect(Collectors.toList());
+        });
+        when(userService.getEntityClass()).thenReturn(User.class);
+        when(userService.getById(1)).thenAnswer(invocation -> user(1));
+
+        nodeA = bus("node-a", event -> {
+        });
+        nodeB = bus("node-b", event -> {
+            EntityChangeEvent change = (EntityChangeEvent) event;
+            republished.add(change);
+            nodeB.onEntityChange(change);
+        });
+        nodeA.start();
+        nodeB.start();
+    }
+
+    @Test
+    public void testRemoteEventIsAppliedOnceAndNotAppendedAgain() {
+        nodeA.onEntityChange(new EntityChangeEvent(Action.UPDATE, User.class, 1, user(1)));
+        nodeA.onEntityChange(new EntityChangeEvent(Action.UPDATE, User.class, 1, user(1)));
+        nodeA.onEntityChange(new EntityChangeEvent(Action.REMOVE, User.class, 2, null));
+        assertEquals(3, log.size());
+
+        nodeB.poll();
+        // 同一实体只取版本最高的一条，按主键类型解析ID，更新时重新读取实体
+        assertEquals(2, republished.size());
+        EntityChangeEvent update = republished.get(0);
+        assertEquals(Action.UPDATE, update.getAction());
+        assertEquals(1, update.getId());
+        assertEquals(1, ((User) update.getEntity()).getId());
+        assertTrue(update.isRemote());
+        assertEquals(Action.REMOVE, republished.get(1).getAction());
+        assertEquals(2, republished.get(1).getId());
+        // 重新发布的事件带 remote 标记，节点 B 不再追加到日志，也就不会被节点 A 再读回去
+        assertEquals(3, log.size());
+        assertEquals(0L, nodeB.stats().get("appended"));
+        assertEquals(2L, nodeB.stats().get("applied"));
+
+        // 节点 A 跳过自己写入的记录，再次轮询节点 B 也没有新记录
+        nodeA.poll();
+        assertEquals(0L, nodeA.stats().get("applied"));
+        assertEquals(3L, nodeA.stats().get("ownSkipped"));
+        nodeB.poll();
+        assertEquals(2, republished.size());
+        assertEquals(3L, nodeB.stats().get("position"));
+    }
+
+    @Test
+    public void testAppendFailureIsCountedInsteadOfThrown() {
+        doThrow(new DataAccessResourceFailureException("connection reset"))
+                .when(logMapper).insert(any(InvalidationRecord.class));
+
+        nodeA.onEntityChange(new EntityChangeEvent(Action.UPDATE, User.class, 1, user(1)));
+
+        assertEquals(Collections.emptyList(), log);
+        assertEquals(0L, nodeA.stats().get("appended"));
+        assertEquals(1L, nodeA.stats().get("appendFailures"));
+    }
+
+    private InvalidationBus bus(String nodeId, ApplicationEventPublisher publisher) {
+        return new InvalidationBus(logMapper, publisher, Collections.singletonList(userService),
+                "User", nodeId, 500, 60000, 10000, 5000, 24);
+    }
+
+    private static User user(int id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,39 @@
+package com.matebuilder.invalidation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LogCursorTest {
+
+    @Test
+    public void testSkippedIdsArePolledUntilSeenOrExpired() {
+        LogCursor cursor = new LogCursor(10, 1000, 100);
+        cursor.seen(11, 0);
+        // 12、13 尚未提交，先读到 14
+        cursor.seen(14, 0);
+        assertEquals(14, cursor.position());
+        assertEquals(Arrays.asList(12L, 13L), cursor.pendingGaps(500));
+
+        // 之后补查到 13；12 超时后不再补查（事务已回滚）
+        cursor.seen(13, 500);
+        assertEquals(Collections.singletonList(12L), cursor.pendingGaps(999));
+        assertEquals(Collections.emptyList(), cursor.pendingGaps(1000));
+        assertEquals(14, cursor.position());
+    }
+
+    @Test
+    public void testGapCountIsBounded() {
+        LogCursor cursor = new LogCursor(0, 1000, 3);
+        cursor.seen(10, 0);
+        assertEquals(Arrays.asList(7L, 8L, 9L), cursor.pendingGaps(0));
+        assertEquals(6, cursor.droppedGaps());
+
+        cursor.seen(12, 0);
+        assertEquals(Arrays.asList(8L, 9L, 11L), cursor.pendingGaps(0));
+        assertEquals(7, cursor.droppedGaps());
+    }
+}
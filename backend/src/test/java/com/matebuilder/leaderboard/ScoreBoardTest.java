@@ -0,0 +1,55 @@
+package com.matebuilder.leaderboard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ScoreBoardTest {
+
+    @Test
+    public void testRankAndWindow() {
+        // 小分桶，让多个分数落入同一桶并有分数超出范围
+        ScoreBoard board = new ScoreBoard(100, 4);
+        board.update(1, 50, 1);
+        board.update(2, 250, 2);
+        board.update(3, 250, 3);
+        board.update(4, 9999, 4);
+        board.update(5, 120, 5);
+
+        List<ScoreBoard.Entry> top = board.top(3);
+        assertEquals(4, top.get(0).getUserId());
+        assertEquals(2, top.get(1).getUserId());
+        assertEquals(3, top.get(2).getUserId());
+
+        assertEquals(1, board.rankOf(4).getRank());
+        assertEquals(3, board.rankOf(3).getRank());
+        assertEquals(5, board.rankOf(1).getRank());
+
+        List<ScoreBoard.Entry> around = board.around(3, 1);
+        assertEquals(3, around.size());
+        assertEquals(2, around.get(0).getUserId());
+        assertEquals(2, around.get(0).getRank());
+        assertEquals(5, around.get(2).getUserId());
+        assertEquals(4, around.get(2).getRank());
+    }
+
+    @Test
+    public void testUpdateAndRemove() {
+        ScoreBoard board = new ScoreBoard();
+        board.update(1, 100, 10);
+        board.update(2, 200, 20);
+        board.update(1, 300, 10);
+        assertEquals(1, board.rankOf(1).getRank());
+
+        // 来自其他行的删除不影响当前条目
+        board.remove(1, 99);
+        assertEquals(2, board.size());
+
+        board.remove(1, 10);
+        assertNull(board.rankOf(1));
+        assertEquals(1, board.rankOf(2).getRank());
+    }
+}
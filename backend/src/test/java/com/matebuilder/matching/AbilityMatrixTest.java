@@ -0,0 +1,74 @@
+package com.matebuilder.matching;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AbilityMatrixTest {
+
+    @Test
+    public void testBuildsSortedCsrRows() {
+        AbilityMatrix matrix = new AbilityMatrix.Builder()
+                .add(30, 2, 3f)
+                .add(10, 4, 1f)
+                .add(30, 0, 5f)
+                .add(10, 1, 2f)
+                // 重复的列保留后写入的值
+                .add(30, 2, 4f)
+                .level(30, 7)
+                .label(10, 100)
+                .label(30, 100)
+                .label(30, 200)
+                // 没有能力的用户不成行
+                .level(99, 1)
+                .build();
+
+        assertEquals(2, matrix.rows());
+        assertEquals(4, matrix.nonZeros());
+        assertEquals(5, matrix.dim);
+        assertEquals(0, matrix.rowOf(10));
+        assertEquals(1, matrix.rowOf(30));
+        assertEquals(-1, matrix.rowOf(99));
+        assertArrayEquals(new int[]{0, 2, 4}, matrix.rowPtr);
+        assertArrayEquals(new int[]{1, 4, 0, 2}, matrix.cols);
+        assertArrayEquals(new float[]{2f, 1f, 5f, 4f}, matrix.vals);
+        assertArrayEquals(new int[]{0, 7}, matrix.levels);
+        assertEquals((float) Math.sqrt(41), matrix.norms[1], 1e-6);
+        assertTrue(matrix.rowsByLabel.get(100).get(0));
+        assertTrue(matrix.rowsByLabel.get(100).get(1));
+        assertFalse(matrix.rowsByLabel.get(200).get(0));
+
+        UserVector vector = matrix.rowVector(1);
+        assertEquals(30, vector.getUserId());
+        assertArrayEquals(new int[]{0, 2}, vector.cols);
+        assertEquals(7, vector.level);
+    }
+
+    @Test
+    public void testShadowMarksSingleRow() {
+        AbilityMatrix.Builder builder = new AbilityMatrix.Builder();
+        for (int user = 0; user < 130; user++) {
+            builder.add(user, 0, 1f);
+        }
+        AbilityMatrix matrix = builder.build();
+        matrix.shadow(64);
+        matrix.shadow(64);
+        matrix.shadow(129);
+        for (int row = 0; row < matrix.rows(); row++) {
+            assertEquals(row == 64 || row == 129, matrix.isShadowed(row), "row " + row);
+        }
+    }
+
+    @Test
+    public void testBuilderAddsOverlayVector() {
+        UserVector vector = new UserVector(5, new int[]{1, 3}, new float[]{2f, 6f}, 4, new int[]{9}, 1);
+        AbilityMatrix matrix = new AbilityMatrix.Builder().add(vector).build();
+        assertEquals(0, matrix.rowOf(5));
+        assertArrayEquals(new int[]{1, 3}, matrix.cols);
+        assertArrayEquals(new int[]{4}, matrix.levels);
+        assertTrue(matrix.rowsByLabel.get(9).get(0));
+    }
+}
@@ -0,0 +1,172 @@
+package com.matebuilder.matching;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MatchEngineTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+    private final MatchEngine engine = new MatchEngine(pool);
+
+    @AfterEach
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testCosineRanksSnapshotRows() {
+        AbilityMatrix matrix = new AbilityMatrix.Builder()
+                .add(1, 0, 1f).add(1, 1, 1f)
+                .add(2, 0, 1f).add(2, 1, 1f)
+                .add(3, 0, 1f)
+                .add(4, 1, 1f).add(4, 2, 5f)
+                .build();
+        List<MatchEngine.Match> matches = engine.search(matrix, null, Collections.emptyList(),
+                matrix.rowVector(matrix.rowOf(1)), query(3));
+        assertEquals(Arrays.asList(2, 3, 4), ids(matches));
+        assertEquals(1f, matches.get(0).getScore(), 1e-6);
+        assertEquals((float) (1 / Math.sqrt(2)), matches.get(1).getScore(), 1e-6);
+    }
+
+    @Test
+    public void testOverlayReplacesShadowedSnapshotRow() {
+        AbilityMatrix matrix = new AbilityMatrix.Builder()
+                .add(1, 0, 1f)
+                .add(2, 0, 1f)
+                .add(3, 1, 1f)
+                .build();
+        // 用户2改为只有能力1，快照中的旧行被遮蔽
+        matrix.shadow(matrix.rowOf(2));
+        UserVector changed = new UserVector(2, new int[]{1}, new float[]{1f}, 0, new int[0], 1);
+        // 用户5只在覆盖层中
+        UserVector added = new UserVector(5, new int[]{0}, new float[]{2f}, 0, new int[0], 2);
+
+        List<MatchEngine.Match> matches = engine.search(matrix, null, Arrays.asList(changed, added),
+                matrix.rowVector(matrix.rowOf(1)), query(10));
+        assertEquals(5, matches.get(0).getUserId());
+        assertEquals(1f, matches.get(0).getScore(), 1e-6);
+        // 用户2只出现一次，按覆盖层中的新向量计分
+        assertEquals(1, ids(matches).stream().filter(id -> id == 2).count());
+        assertEquals(0f, matches.stream().filter(m -> m.getUserId() == 2).findFirst().get().getScore(), 1e-6);
+    }
+
+    @Test
+    public void testUnshadowedSnapshotRowWinsOverOverlay() {
+        // 快照已切换、覆盖层尚未清理：两处都有该用户时以快照为准，不重复
+        AbilityMatrix matrix = new AbilityMatrix.Builder()
+                .add(1, 0, 1f)
+                .add(2, 0, 1f)
+                .build();
+        UserVector merged = new UserVector(2, new int[]{0}, new float[]{1f}, 0, new int[0], 1);
+        List<MatchEngine.Match> matches = engine.search(matrix, null, Collections.singletonList(merged),
+                matrix.rowVector(matrix.rowOf(1)), query(10));
+        assertEquals(Collections.singletonList(2), ids(matches));
+    }
+
+    @Test
+    public void testFiltersByLevelAndLabel() {
+        AbilityMatrix matrix = new AbilityMatrix.Builder()
+                .add(1, 0, 1f)
+                .add(2, 0, 1f).level(2, 3).label(2, 7)
+                .add(3, 0, 1f).level(3, 3)
+                .add(4, 0, 1f).level(4, 9).label(4, 7)
+                .build();
+        UserVector overlay = new UserVector(5, new int[]{0}, new float[]{1f}, 3, new int[]{7}, 1);
+        MatchQuery query = query(10);
+        query.setMinLevel(2);
+        query.setMaxLevel(5);
+        query.setLabelId(7);
+        List<MatchEngine.Match> matches = engine.search(matrix, null, Collections.singletonList(overlay),
+                matrix.rowVector(matrix.rowOf(1)), query);
+        assertEquals(Arrays.asList(2, 5), ids(matches).stream().sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testWeightedDistance() {
+        AbilityMatrix matrix = new AbilityMatrix.Builder()
+                .add(1, 0, 0f).add(1, 1, 0f)
+                .add(2, 0, 3f)
+                .add(3, 1, 2f)
+                .build();
+        MatchQuery query = query(2);
+        query.setMetric(MatchQuery.Metric.WEIGHTED_DISTANCE);
+        query.setWeights(new float[]{1f, 4f});
+        List<MatchEngine.Match> matches = engine.search(matrix, null, Collections.emptyList(),
+                matrix.rowVector(matrix.rowOf(1)), query);
+        // 用户2距离 sqrt(1*9) = 3，用户3距离 sqrt(4*4) = 4
+        assertEquals(Arrays.asList(2, 3), ids(matches));
+        assertEquals(3f, matches.get(0).getScore(), 1e-5);
+        assertEquals(4f, matches.get(1).getScore(), 1e-5);
+    }
+
+    @Test
+    public void testLshRecallOnClusteredVectors() {
+        Random random = new Random(7);
+        int clusters = 40;
+        int perCluster = 50;
+        int dim = 24;
+        float[][] centers = new float[clusters][dim];
+        for (float[] center : centers) {
+            for (int c = 0; c < dim; c++) {
+                // 以原点为中心分布，各簇方向不同（余弦只看方向）
+                center[c] = (float) random.nextGaussian() * 5;
+            }
+        }
+        AbilityMatrix.Builder builder = new AbilityMatrix.Builder();
+        for (int i = 0; i < clusters * perCluster; i++) {
+            float[] center = centers[i % clusters];
+            for (int c = 0; c < dim; c++) {
+                builder.add(i, c, center[c] + (float) random.nextGaussian() * 0.3f);
+            }
+        }
+        AbilityMatrix matrix = builder.build();
+        LshIndex lsh = new LshIndex(matrix, 12, 10, 20240601L);
+
+        int k = 10;
+        int hits = 0;
+        int queries = 100;
+        long candidateTotal = 0;
+        for (int user = 0; user < queries; user++) {
+            UserVector self = matrix.rowVector(matrix.rowOf(user));
+            MatchQuery exact = query(k);
+            MatchQuery approximate = query(k);
+            approximate.setApproximate(true);
+            List<Integer> expected = ids(engine.search(matrix, null, Collections.emptyList(), self, exact));
+            List<Integer> actual = ids(engine.search(matrix, lsh, Collections.emptyList(), self, approximate));
+            hits += actual.stream().filter(expected::contains).count();
+            float[] q = new float[dim];
+            for (int i = 0; i < self.cols.length; i++) {
+                q[self.cols[i]] = self.vals[i];
+            }
+            BitSet candidates = lsh.candidates(q);
+            // 候选不少于K个，结果确实来自近似索引而不是退回的精确扫描
+            assertTrue(candidates.cardinality() >= k);
+            candidateTotal += candidates.cardinality();
+        }
+        double recall = (double) hits / (queries * k);
+        assertTrue(recall >= 0.9, "recall " + recall);
+        // 候选只占全部行的一小部分，否则近似索引没有意义
+        assertTrue(candidateTotal / queries < matrix.rows() / 4, "candidates " + candidateTotal / queries);
+    }
+
+    private static MatchQuery query(int k) {
+        MatchQuery query = new MatchQuery();
+        query.setK(k);
+        return query;
+    }
+
+    private static List<Integer> ids(List<MatchEngine.Match> matches) {
+        return matches.stream().map(MatchEngine.Match::getUserId).collect(Collectors.toList());
+    }
+}
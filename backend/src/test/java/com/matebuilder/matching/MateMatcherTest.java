@@ -0,0 +1,179 @@
+package com.matebuilder.matching;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.matebuilder.common.event.EntityChangeEvent;
+import com.matebuilder.common.event.EntityChangeEvent.Action;
+import com.matebuilder.entity.User;
+import com.matebuilder.entity.UserAbility;
+import com.matebuilder.mapper.CommunityMemberMapper;
+import com.matebuilder.mapper.UserAbilityMapper;
+import com.matebuilder.mapper.UserMapper;
+import com.matebuilder.vo.MateMatchVO;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MateMatcherTest {
+
+    private final UserAbilityMapper abilities = mock(UserAbilityMapper.class);
+    private final UserMapper users = mock(UserMapper.class);
+    private final CommunityMemberMapper members = mock(CommunityMemberMapper.class);
+    private final MateMatcher matcher = new MateMatcher(abilities, users, members, 1, 1_000_000, 4, 8);
+    /**
+     * 模拟的数据库：用户 → 能力名称 → 分数
+     */
+    private final Map<Integer, Map<String, Integer>> database = new TreeMap<>();
+
+    @BeforeAll
+    public static void initTableInfo() {
+        MapperBuilderAssistant assistant = new MapperBuilderAssistant(new MybatisConfiguration(), "");
+        TableInfoHelper.initTableInfo(assistant, UserAbility.class);
+        TableInfoHelper.initTableInfo(assistant, User.class);
+    }
+
+    public MateMatcherTest() {
+        doAnswer(invocation -> {
+            ResultHandler<UserAbility> handler = invocation.getArgument(0);
+            DefaultResultContext<UserAbility> context = new DefaultResultContext<>();
+            database.forEach((userId, scores) -> rows(userId, scores).forEach(row -> {
+                context.nextResultObject(row);
+                handler.handleResult(context);
+            }));
+            return null;
+        }).when(abilities).scanAll(any());
+        when(members.selectLabelIdsByUser(anyInt())).thenReturn(Collections.emptyList());
+    }
+
+    @AfterEach
+    public void shutdown() {
+        matcher.shutdown();
+    }
+
+    @Test
+    public void testOverlayTakesPrecedenceUntilCompacted() {
+        database.put(1, scores("java", 5, "go", 1));
+        database.put(2, scores("java", 5, "go", 1));
+        database.put(3, scores("go", 5));
+        matcher.warmUp();
+        assertEquals(Arrays.asList(2, 3), ids(matcher.match(1, query())));
+
+        // 用户2、3交换能力，进入覆盖层并遮蔽快照中的旧行
+        database.put(2, scores("go", 5));
+        database.put(3, scores("java", 5, "go", 1));
+        refresh(2);
+        refresh(3);
+        assertEquals(2, matcher.stats().get("overlay"));
+        List<MateMatchVO> beforeCompact = matcher.match(1, query());
+        assertEquals(Arrays.asList(3, 2), ids(beforeCompact));
+        assertEquals(1f, beforeCompact.get(0).getScore(), 1e-6);
+
+        // 合并后覆盖层清空，结果不变
+        matcher.maintain();
+        assertEquals(0, matcher.stats().get("overlay"));
+        assertEquals(3, matcher.stats().get("rows"));
+        List<MateMatchVO> afterCompact = matcher.match(1, query());
+        assertEquals(ids(beforeCompact), ids(afterCompact));
+        assertEquals(beforeCompact.get(1).getScore(), afterCompact.get(1).getScore(), 1e-6);
+    }
+
+    @Test
+    public void testCompactionAddsNewUsersAndKeepsLaterUpdates() {
+        database.put(1, scores("java", 5));
+        database.put(2, scores("go", 5));
+        matcher.warmUp();
+
+        database.put(4, scores("java", 4));
+        refresh(4);
+        matcher.maintain();
+        assertEquals(3, matcher.stats().get("rows"));
+        assertEquals(0, matcher.stats().get("overlay"));
+        assertEquals(Arrays.asList(4, 2), ids(matcher.match(1, query())));
+
+        // 合并后的再次变更仍以覆盖层为准
+        database.put(4, scores("go", 4));
+        refresh(4);
+        assertEquals(Arrays.asList(2, 4), ids(matcher.match(1, query())).subList(0, 2).stream()
+                .sorted().collect(Collectors.toList()));
+        assertEquals(0f, matcher.match(1, query()).get(0).getScore(), 1e-6);
+    }
+
+    @Test
+    public void testRemovalTriggersFullRebuild() {
+        database.put(1, scores("java", 5));
+        database.put(2, scores("java", 5));
+        database.put(3, scores("java", 5));
+        matcher.warmUp();
+        assertEquals(Arrays.asList(2, 3), ids(matcher.match(1, query())).stream().sorted().collect(Collectors.toList()));
+
+        database.remove(3);
+        matcher.onEntityChange(new EntityChangeEvent(Action.REMOVE, UserAbility.class, 30, null));
+        matcher.maintain();
+        assertEquals(2, matcher.stats().get("rows"));
+        assertEquals(Collections.singletonList(2), ids(matcher.match(1, query())));
+    }
+
+    /**
+     * 发出能力变更事件后执行一次脏用户刷新
+     */
+    private void refresh(int userId) {
+        when(abilities.selectList(any())).thenReturn(rows(userId, database.getOrDefault(userId, Collections.emptyMap())));
+        User user = new User();
+        user.setId(userId);
+        user.setLevel(0);
+        when(users.selectOne(any())).thenReturn(user);
+        UserAbility changed = new UserAbility();
+        changed.setUserId(userId);
+        matcher.onEntityChange(new EntityChangeEvent(Action.UPDATE, UserAbility.class, userId, changed));
+        matcher.refreshDirty();
+    }
+
+    private static List<UserAbility> rows(int userId, Map<String, Integer> scores) {
+        List<UserAbility> rows = new ArrayList<>();
+        scores.forEach((name, score) -> {
+            UserAbility ability = new UserAbility();
+            ability.setUserId(userId);
+            ability.setAbilityName(name);
+            ability.setAbilityScore(BigDecimal.valueOf(score));
+            rows.add(ability);
+        });
+        return rows;
+    }
+
+    private static Map<String, Integer> scores(Object... pairs) {
+        Map<String, Integer> scores = new TreeMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            scores.put((String) pairs[i], (Integer) pairs[i + 1]);
+        }
+        return scores;
+    }
+
+    private static MatchQuery query() {
+        MatchQuery query = new MatchQuery();
+        query.setK(2);
+        return query;
+    }
+
+    private static List<Integer> ids(List<MateMatchVO> matches) {
+        return matches.stream().map(MateMatchVO::getUserId).collect(Collectors.toList());
+    }
+}
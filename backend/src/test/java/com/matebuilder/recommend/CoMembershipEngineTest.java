@@ -0,0 +1,134 @@
+package com.matebuilder.recommend;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CoMembershipEngineTest {
+
+    private static final double SQRT6 = Math.sqrt(6);
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * u1:{10,20} u2:{10,20} u3:{20,30} u4:{30}，社区人数 10:2 20:3 30:2
+     */
+    private static MembershipGraph sample() {
+        long[] edges = {
+                MembershipGraph.edge(1, 10), MembershipGraph.edge(1, 20),
+                MembershipGraph.edge(2, 10), MembershipGraph.edge(2, 20),
+                MembershipGraph.edge(3, 20), MembershipGraph.edge(3, 30),
+                MembershipGraph.edge(4, 30),
+                // 重复的边去重
+                MembershipGraph.edge(4, 30)};
+        return MembershipGraph.of(edges, edges.length);
+    }
+
+    @Test
+    public void testCommunityNeighborsUseCosineOfMemberSets() {
+        MembershipGraph g = sample();
+        assertEquals(7, g.edges());
+        Map<Integer, CoMembershipEngine.Neighbors> neighbors = CoMembershipEngine.newNeighborMap();
+        new CoMembershipEngine(pool, 10, 100).communityNeighbors(g, CoMembershipEngine.allRows(g.communities()), neighbors);
+
+        assertArrayEquals(new int[]{20}, neighbors.get(10).ids);
+        assertEquals(2 / SQRT6, neighbors.get(10).scores[0], 1e-6);
+        assertArrayEquals(new int[]{10, 30}, neighbors.get(20).ids);
+        assertEquals(1 / SQRT6, neighbors.get(20).scores[1], 1e-6);
+        assertArrayEquals(new int[]{20}, neighbors.get(30).ids);
+    }
+
+    @Test
+    public void testUserRecommendationsExcludeJoinedCommunities() {
+        MembershipGraph g = sample();
+        CoMembershipEngine engine = new CoMembershipEngine(pool, 10, 100);
+        Map<Integer, Recommendations> recs = compute(engine, g);
+
+        Recommendations u1 = recs.get(1);
+        assertArrayEquals(new int[]{2, 3}, u1.userIds);
+        assertEquals(1f, u1.userScores[0], 1e-6);
+        assertEquals(0.5f, u1.userScores[1], 1e-6);
+        // 10、20 已加入，只推荐 30（来自 20 的相似社区）
+        assertArrayEquals(new int[]{30}, u1.communityIds);
+        assertEquals(1 / SQRT6, u1.communityScores[0], 1e-6);
+
+        Recommendations u4 = recs.get(4);
+        assertArrayEquals(new int[]{3}, u4.userIds);
+        assertEquals(1 / Math.sqrt(2), u4.userScores[0], 1e-6);
+        assertArrayEquals(new int[]{20}, u4.communityIds);
+    }
+
+    @Test
+    public void testOversizedCommunitiesSkippedForUserSimilarity() {
+        MembershipGraph g = sample();
+        // 社区20有3人，超过上限后只按社区10计算共同成员
+        Map<Integer, Recommendations> recs = compute(new CoMembershipEngine(pool, 10, 2), g);
+        assertArrayEquals(new int[]{2}, recs.get(1).userIds);
+        assertEquals(0.5f, recs.get(1).userScores[0], 1e-6);
+    }
+
+    @Test
+    public void testParallelScoresMatchBruteForce() {
+        Random random = new Random(11);
+        List<Long> edgeList = new ArrayList<>();
+        Map<Integer, Set<Integer>> memberships = new HashMap<>();
+        for (int user = 0; user < 3000; user++) {
+            int joined = 1 + random.nextInt(4);
+            for (int i = 0; i < joined; i++) {
+                int community = random.nextInt(150);
+                edgeList.add(MembershipGraph.edge(user, community));
+                memberships.computeIfAbsent(user, k -> new HashSet<>()).add(community);
+            }
+        }
+        long[] edges = edgeList.stream().mapToLong(Long::longValue).toArray();
+        MembershipGraph g = MembershipGraph.of(edges, edges.length);
+        int k = 5;
+        Map<Integer, Recommendations> recs = compute(new CoMembershipEngine(pool, k, Integer.MAX_VALUE), g);
+        assertEquals(3000, recs.size());
+
+        for (int user = 0; user < 3000; user += 97) {
+            Set<Integer> mine = memberships.get(user);
+            List<Float> expected = new ArrayList<>();
+            for (Map.Entry<Integer, Set<Integer>> other : memberships.entrySet()) {
+                if (other.getKey() == user) {
+                    continue;
+                }
+                long common = other.getValue().stream().filter(mine::contains).count();
+                if (common > 0) {
+                    expected.add((float) (common / Math.sqrt((double) mine.size() * other.getValue().size())));
+                }
+            }
+            expected.sort((a, b) -> Float.compare(b, a));
+            float[] actual = recs.get(user).userScores;
+            assertEquals(Math.min(k, expected.size()), actual.length, "user " + user);
+            for (int i = 0; i < actual.length; i++) {
+                assertEquals(expected.get(i), actual[i], 1e-6, "user " + user);
+            }
+        }
+    }
+
+    private static Map<Integer, Recommendations> compute(CoMembershipEngine engine, MembershipGraph g) {
+        Map<Integer, CoMembershipEngine.Neighbors> neighbors = CoMembershipEngine.newNeighborMap();
+        engine.communityNeighbors(g, CoMembershipEngine.allRows(g.communities()), neighbors);
+        Map<Integer, Recommendations> recs = new ConcurrentHashMap<>();
+        engine.userRecommendations(g, CoMembershipEngine.allRows(g.users()), neighbors, recs);
+        return recs;
+    }
+}
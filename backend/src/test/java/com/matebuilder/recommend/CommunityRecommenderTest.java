@@ -0,0 +1,116 @@
+package com.matebuilder.recommend;
+
+import com.matebuilder.common.event.EntityChangeEvent;
+import com.matebuilder.common.event.EntityChangeEvent.Action;
+import com.matebuilder.entity.CommunityMember;
+import com.matebuilder.mapper.CommunityMemberMapper;
+import com.matebuilder.vo.RecommendationVO;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class CommunityRecommenderTest {
+
+    private final CommunityMemberMapper mapper = mock(CommunityMemberMapper.class);
+    private final CommunityRecommender recommender = new CommunityRecommender(mapper, 2, 10, 5000, 50000);
+    /**
+     * 模拟的 tb_community_member：{userId, communityId}
+     */
+    private final List<int[]> memberships = new ArrayList<>();
+
+    public CommunityRecommenderTest() {
+        doAnswer(invocation -> {
+            ResultHandler<CommunityMember> handler = invocation.getArgument(0);
+            DefaultResultContext<CommunityMember> context = new DefaultResultContext<>();
+            for (int[] membership : memberships) {
+                context.nextResultObject(member(membership[0], membership[1]));
+                handler.handleResult(context);
+            }
+            return null;
+        }).when(mapper).scanMemberships(any());
+    }
+
+    @AfterEach
+    public void shutdown() {
+        recommender.shutdown();
+    }
+
+    @Test
+    public void testIncrementalRefreshPicksUpNewMemberships() {
+        join(1, 10);
+        join(2, 10);
+        join(2, 20);
+        recommender.warmUp();
+        assertEquals(Collections.singletonList(2), ids(recommender.similarUsers(1, 10)));
+        assertEquals(Collections.singletonList(20), ids(recommender.suggestedCommunities(1, 10)));
+
+        // 新用户3加入社区20，增量重算社区20的成员
+        join(3, 20);
+        recommender.onEntityChange(new EntityChangeEvent(Action.SAVE, CommunityMember.class, 3, member(3, 20)));
+        recommender.refresh();
+        assertEquals(0, recommender.stats().get("pendingMemberships"));
+        assertEquals(4, recommender.stats().get("memberships"));
+        assertEquals(Collections.singletonList(2), ids(recommender.similarUsers(3, 10)));
+        assertEquals(Collections.singletonList(10), ids(recommender.suggestedCommunities(3, 10)));
+        assertEquals(Arrays.asList(1, 3), ids(recommender.similarUsers(2, 10)).stream().sorted().collect(Collectors.toList()));
+        // 增量刷新不重新扫描全表
+        verify(mapper, times(1)).scanMemberships(any());
+    }
+
+    @Test
+    public void testRemovalFallsBackToFullRebuild() {
+        join(1, 10);
+        join(2, 10);
+        recommender.warmUp();
+        assertEquals(Collections.singletonList(2), ids(recommender.similarUsers(1, 10)));
+
+        memberships.remove(1);
+        recommender.onEntityChange(new EntityChangeEvent(Action.REMOVE, CommunityMember.class, 2, null));
+        recommender.refresh();
+        verify(mapper, times(2)).scanMemberships(any());
+        assertTrue(recommender.similarUsers(1, 10).isEmpty());
+        assertEquals(1, recommender.stats().get("memberships"));
+    }
+
+    @Test
+    public void testLimitTruncatesResults() {
+        for (int user = 1; user <= 5; user++) {
+            join(user, 10);
+        }
+        recommender.warmUp();
+        assertEquals(4, recommender.similarUsers(1, 10).size());
+        assertEquals(2, recommender.similarUsers(1, 2).size());
+        assertTrue(recommender.similarUsers(1, -1).isEmpty());
+        assertTrue(recommender.similarUsers(99, 10).isEmpty());
+    }
+
+    private void join(int userId, int communityId) {
+        memberships.add(new int[]{userId, communityId});
+    }
+
+    private static CommunityMember member(int userId, int communityId) {
+        CommunityMember member = new CommunityMember();
+        member.setUserId(userId);
+        member.setCommunityId(communityId);
+        return member;
+    }
+
+    private static List<Integer> ids(List<RecommendationVO> recommendations) {
+        return recommendations.stream().map(RecommendationVO::getId).collect(Collectors.toList());
+    }
+}
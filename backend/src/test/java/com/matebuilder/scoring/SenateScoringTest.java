@@ -0,0 +1,99 @@
+package com.matebuilder.scoring;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SenateScoringTest {
+
+    /**
+     * 与 chainend/test/SenateScoring.golden.test.js 共用的向量，后者在 Hardhat 节点上用合约核对同一份期望值
+     */
+    @Test
+    public void testGoldenVectors() throws IOException {
+        JsonNode golden;
+        try (InputStream in = getClass().getResourceAsStream("/scoring/senate-golden.json")) {
+            golden = new ObjectMapper().readTree(in);
+        }
+        int rounds = 0;
+        for (JsonNode scenario : golden.get("scenarios")) {
+            String name = scenario.get("name").asText();
+            int senators = scenario.get("senators").asInt();
+            long[] reputation = new long[senators];
+            Arrays.fill(reputation, SenateScoring.INITIAL_REPUTATION);
+            boolean[] initialized = new boolean[senators];
+
+            for (JsonNode round : scenario.get("rounds")) {
+                JsonNode entries = round.get("scores");
+                int n = entries.size();
+                int[] slots = new int[n];
+                Map<Integer, Long> latest = new HashMap<>();
+                for (int i = 0; i < n; i++) {
+                    slots[i] = entries.get(i).get(0).asInt();
+                    latest.put(slots[i], entries.get(i).get(1).asLong());
+                }
+                long[] scores = new long[n];
+                for (int i = 0; i < n; i++) {
+                    scores[i] = latest.get(slots[i]);
+                }
+
+                long finalScore = SenateScoring.settle(reputation, slots, scores, n, new long[SenateScoring.STATS_LENGTH]);
+                String label = name + " round " + rounds;
+                if (round.get("finalScore").isNull()) {
+                    assertEquals(SenateScoring.REVERTED, finalScore, label);
+                } else {
+                    assertEquals(round.get("finalScore").asLong(), finalScore, label);
+                    for (int slot : slots) {
+                        initialized[slot] = true;
+                    }
+                }
+                JsonNode expected = round.get("reputations");
+                for (int s = 0; s < senators; s++) {
+                    assertEquals(expected.get(s).isNull(), !initialized[s], label + " senator " + s);
+                    if (initialized[s]) {
+                        assertEquals(expected.get(s).asLong(), reputation[s], label + " senator " + s);
+                    }
+                }
+                rounds++;
+            }
+        }
+        assertTrue(rounds > 40);
+    }
+
+    @Test
+    public void testSqrtIsFloorSquareRoot() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long x = i < 10_000 ? i : (random.nextLong() >>> 1) >>> random.nextInt(63);
+            long root = SenateScoring.sqrt(x);
+            assertTrue(root * root <= x, "sqrt(" + x + ")");
+            assertTrue(root + 1 > 3_037_000_499L || (root + 1) * (root + 1) > x, "sqrt(" + x + ")");
+        }
+        assertEquals(3_037_000_499L, SenateScoring.sqrt(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testZeroWeightsRevertWithoutMoves() {
+        long[] stats = new long[SenateScoring.STATS_LENGTH];
+        byte[] moves = new byte[3];
+        assertEquals(SenateScoring.REVERTED,
+                SenateScoring.evaluate(new long[]{50, 60, 70}, new long[]{0, 0, 0}, 3, stats, moves));
+        assertEquals(SenateScoring.REVERTED,
+                SenateScoring.evaluate(new long[]{50, 60, 70}, new long[]{0, 0, 0}, 2, stats, moves));
+
+        long[] reputation = {5, 1000, 1000};
+        assertEquals(60, SenateScoring.settle(reputation, new int[]{0, 1, 2}, new long[]{10, 60, 62}, 3, stats));
+        assertEquals(60, stats[SenateScoring.PRELIMINARY_SCORE]);
+        assertEquals(0, reputation[0]);
+    }
+}
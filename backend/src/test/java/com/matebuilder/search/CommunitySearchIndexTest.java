@@ -0,0 +1,144 @@
+package com.matebuilder.search;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.matebuilder.common.event.EntityChangeEvent;
+import com.matebuilder.common.event.EntityChangeEvent.Action;
+import com.matebuilder.entity.UserCommunity;
+import com.matebuilder.mapper.UserCommunityMapper;
+import com.matebuilder.vo.CommunitySearchVO;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CommunitySearchIndexTest {
+
+    private final UserCommunityMapper mapper = mock(UserCommunityMapper.class);
+    private final List<UserCommunity> communities = new ArrayList<>();
+    private final CommunitySearchIndex index;
+
+    @BeforeAll
+    public static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), UserCommunity.class);
+    }
+
+    public CommunitySearchIndexTest() throws Exception {
+        index = new CommunitySearchIndex(mapper, "", 2, 5000);
+        communities.add(community(1, "编程学习小组", "一起学习Java编程", 10, null));
+        communities.add(community(2, "英语角", "每天练习英语口语", 20, null));
+        communities.add(community(3, "算法刷题", "学习算法和数据结构", 10, LocalDateTime.now().minusDays(1)));
+        when(mapper.selectMaps(any())).thenAnswer(invocation -> {
+            Map<String, Object> bounds = new HashMap<>();
+            bounds.put("min_id", communities.stream().mapToInt(UserCommunity::getId).min().orElse(0));
+            bounds.put("max_id", communities.stream().mapToInt(UserCommunity::getId).max().orElse(0));
+            return Collections.singletonList(bounds);
+        });
+        when(mapper.selectList(any())).thenAnswer(invocation -> new ArrayList<>(communities));
+    }
+
+    @AfterEach
+    public void close() throws Exception {
+        index.close();
+    }
+
+    @Test
+    public void testSearchByKeywordAndFilters() throws Exception {
+        index.rebuild();
+        // 名称命中加权高于只在描述中命中
+        assertEquals(Arrays.asList(1, 3), ids(index.search("学习", null, false, 1, 10)));
+        assertEquals(Collections.singletonList(2), ids(index.search("英语", null, false, 1, 10)));
+        assertEquals(Arrays.asList(1, 3), sorted(index.search(null, 10, false, 1, 10)));
+        // 社区3已到期
+        assertEquals(Collections.singletonList(1), ids(index.search(null, 10, true, 1, 10)));
+    }
+
+    @Test
+    public void testPagingWithinWindow() throws Exception {
+        index.rebuild();
+        Page<CommunitySearchVO> first = index.search(null, null, false, 1, 2);
+        Page<CommunitySearchVO> second = index.search(null, null, false, 2, 2);
+        assertEquals(3, first.getTotal());
+        assertEquals(2, first.getRecords().size());
+        assertEquals(1, second.getRecords().size());
+        assertEquals(Arrays.asList(1, 2, 3), sorted(first, second));
+        assertEquals(Collections.emptyList(), ids(index.search(null, null, false, 3, 2)));
+
+        // 超出窗口的页拒绝而不是返回空页
+        assertThrows(IllegalArgumentException.class,
+                () -> index.search(null, null, false, CommunitySearchIndex.MAX_WINDOW / 10 + 1, 10));
+        assertEquals(3, index.search(null, null, false, CommunitySearchIndex.MAX_WINDOW / 10, 10).getTotal());
+    }
+
+    @Test
+    public void testWriteEventsVisibleAfterRefresh() throws Exception {
+        index.rebuild();
+        UserCommunity added = community(4, "摄影爱好者", "分享摄影作品", 30, null);
+        index.onEntityChange(new EntityChangeEvent(Action.SAVE, UserCommunity.class, 4, added));
+        index.onEntityChange(new EntityChangeEvent(Action.REMOVE, UserCommunity.class, 2, null));
+        index.refresh();
+        assertEquals(Collections.singletonList(4), ids(index.search("摄影", null, false, 1, 10)));
+        assertEquals(Collections.emptyList(), ids(index.search("英语", null, false, 1, 10)));
+    }
+
+    @Test
+    public void testFailedRebuildKeepsPreviousIndex() throws Exception {
+        index.rebuild();
+        UserCommunity added = community(4, "摄影爱好者", "分享摄影作品", 30, null);
+        when(mapper.selectOne(any())).thenReturn(added);
+        // 重建加载时先有一次并发写入，随后加载失败
+        when(mapper.selectList(any())).thenAnswer(invocation -> {
+            index.onEntityChange(new EntityChangeEvent(Action.SAVE, UserCommunity.class, 4, added));
+            throw new IllegalStateException("database down");
+        });
+        assertThrows(Exception.class, index::rebuild);
+
+        index.refresh();
+        // 回滚到重建前提交的索引，并补上重建期间的写入
+        assertEquals(4, index.search(null, null, false, 1, 10).getTotal());
+        assertEquals(Collections.singletonList(4), ids(index.search("摄影", null, false, 1, 10)));
+
+        // 回滚后仍可正常写入和重建
+        doAnswer(invocation -> new ArrayList<>(communities)).when(mapper).selectList(any());
+        index.rebuild();
+        assertEquals(3, index.search(null, null, false, 1, 10).getTotal());
+    }
+
+    private static UserCommunity community(int id, String name, String description, Integer labelId,
+                                           LocalDateTime expireTime) {
+        UserCommunity community = new UserCommunity();
+        community.setId(id);
+        community.setCommunityName(name);
+        community.setCommunityDescription(description);
+        community.setCommunityLabelId(labelId);
+        community.setExpireTime(expireTime);
+        return community;
+    }
+
+    private static List<Integer> ids(Page<CommunitySearchVO> page) {
+        return page.getRecords().stream().map(CommunitySearchVO::getCommunityId).collect(Collectors.toList());
+    }
+
+    @SafeVarargs
+    private static List<Integer> sorted(Page<CommunitySearchVO>... pages) {
+        return Arrays.stream(pages).flatMap(page -> page.getRecords().stream())
+                .map(CommunitySearchVO::getCommunityId).sorted().collect(Collectors.toList());
+    }
+}
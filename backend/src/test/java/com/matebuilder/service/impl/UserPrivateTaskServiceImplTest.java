@@ -0,0 +1,88 @@
+package com.matebuilder.service.impl;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.matebuilder.archive.TaskArchiver;
+import com.matebuilder.entity.UserPrivateTask;
+import com.matebuilder.mapper.TaskArchiveMapper;
+import com.matebuilder.mapper.UserPrivateTaskMapper;
+import com.matebuilder.sharding.TaskShards;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UserPrivateTaskServiceImplTest {
+
+    private static final String NOVEMBER = "tb_user_private_task_archive_202511";
+    private static final String DECEMBER = "tb_user_private_task_archive_202512";
+
+    private final UserPrivateTaskMapper tasks = mock(UserPrivateTaskMapper.class);
+    private final TaskArchiveMapper archive = mock(TaskArchiveMapper.class);
+    private final UserPrivateTaskServiceImpl service;
+
+    public UserPrivateTaskServiceImplTest() {
+        TaskShards shards = new TaskShards(List.of(new TaskShards.Shard("primary", tasks, archive, null)),
+                16, 1, Collections.emptyList());
+        service = new UserPrivateTaskServiceImpl(shards, new TaskArchiver(shards, true, 90, 1000, 0));
+        when(archive.selectPartitions()).thenReturn(Arrays.asList(NOVEMBER, DECEMBER));
+    }
+
+    @Test
+    public void testUserListWithoutDateReadsHotAndArchivedTablesInOneQuery() {
+        List<String> tables = Arrays.asList(NOVEMBER, DECEMBER);
+        when(archive.countMerged(tables, 7, null, null)).thenReturn(5L);
+        when(archive.selectMergedPage(tables, 7, null, null, 3L, 3L, 6L)).thenReturn(Arrays.asList(
+                task(2, 1, LocalDate.of(2026, 10, 12)), task(5, 0, LocalDate.of(2025, 12, 2))));
+
+        // 不论有多少张分表，一页只有一条计数语句和一条 UNION ALL 查询，每个来源取前 offset + size 条
+        Page<UserPrivateTask> second = service.pageTasks(2, 3, 7, null, null);
+        assertEquals(5, second.getTotal());
+        assertEquals(Arrays.asList(2, 5), ids(second));
+        verify(archive, times(1)).countMerged(any(), any(), any(), any());
+        verify(archive, times(1)).selectMergedPage(any(), any(), any(), any(), anyLong(), anyLong(), anyLong());
+        verify(tasks, never()).selectPage(any(), any());
+
+        // 超出总数的页不再查询
+        assertEquals(Collections.emptyList(), ids(service.pageTasks(3, 3, 7, null, null)));
+        verify(archive, times(1)).selectMergedPage(any(), any(), any(), any(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    public void testInProgressListReadsOnlyHotTable() {
+        when(tasks.selectPage(any(), any())).thenReturn(page(1, task(1, 5, LocalDate.of(2026, 10, 10))));
+
+        assertEquals(Collections.singletonList(1), ids(service.pageTasks(1, 10, 7, "in_progress", null)));
+        verify(archive, never()).countMerged(any(), any(), any(), any());
+    }
+
+    private static Page<UserPrivateTask> page(long total, UserPrivateTask... records) {
+        Page<UserPrivateTask> page = new Page<>(1, 10, total);
+        page.setRecords(Arrays.asList(records));
+        return page;
+    }
+
+    private static UserPrivateTask task(int id, int priority, LocalDate taskDate) {
+        UserPrivateTask task = new UserPrivateTask();
+        task.setId(id);
+        task.setUserId(7);
+        task.setPriority(priority);
+        task.setTaskDate(taskDate);
+        return task;
+    }
+
+    private static List<Integer> ids(Page<UserPrivateTask> page) {
+        return page.getRecords().stream().map(UserPrivateTask::getId).collect(Collectors.toList());
+    }
+}
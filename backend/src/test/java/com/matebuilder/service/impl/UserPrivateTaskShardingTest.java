@@ -0,0 +1,265 @@
+package com.matebuilder.service.impl;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
+import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.matebuilder.archive.TaskArchiver;
+import com.matebuilder.common.config.ShardingConfig;
+import com.matebuilder.entity.UserPrivateTask;
+import com.matebuilder.sharding.H2Database;
+import com.matebuilder.sharding.SegmentIdGenerator;
+import com.matebuilder.sharding.TaskShards;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 多分片下的私人任务：每个分片一个 H2 内存库，按 ShardingConfig 的方式装配，号段表在单独的主库上
+ */
+public class UserPrivateTaskShardingTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2026, 10, 1);
+
+    private final H2Database primary = new H2Database("primary");
+    private final HikariDataSource primaryDataSource = primary.dataSource();
+    private final SegmentIdGenerator idGenerator = new SegmentIdGenerator(primaryDataSource, 100);
+    private final List<H2Database> databases = IntStream.range(0, 3)
+            .mapToObj(i -> new H2Database("shard" + i)).collect(Collectors.toList());
+    private final List<TaskShards> opened = new ArrayList<>();
+
+    @AfterEach
+    public void close() {
+        opened.forEach(TaskShards::close);
+        primaryDataSource.close();
+        primary.drop();
+        databases.forEach(H2Database::drop);
+    }
+
+    @Test
+    public void testRebalanceMovesEveryUserToItsShardAndIsIdempotent() {
+        TaskShards one = shards(1);
+        UserPrivateTaskServiceImpl before = service(one);
+        for (int user = 1; user <= 40; user++) {
+            for (int day = 0; day < 3; day++) {
+                before.save(task(user, day, day));
+            }
+        }
+        Map<Integer, List<Integer>> tasksByUser = tasksByUser(one);
+        assertEquals(120, tasksByUser.values().stream().mapToInt(List::size).sum());
+
+        TaskShards three = shards(3);
+        long expected = tasksByUser.entrySet().stream()
+                .filter(e -> !three.shard(e.getKey()).name().equals("s0"))
+                .mapToLong(e -> e.getValue().size()).sum();
+        assertTrue(expected > 0);
+
+        // 模拟上次搬迁在写入目标分片后、删除源分片前中断：重新执行不会在目标分片留下重复
+        int interrupted = tasksByUser.keySet().stream()
+                .filter(user -> !three.shard(user).name().equals("s0")).findFirst().orElseThrow();
+        databaseTasks(three, "s0", interrupted).forEach(three.shard(interrupted).tasks()::insert);
+
+        assertEquals(expected, three.rebalance());
+        assertEquals(tasksByUser, tasksByUser(three));
+        for (Map.Entry<Integer, List<Integer>> entry : tasksByUser.entrySet()) {
+            TaskShards.Shard owner = three.shard(entry.getKey());
+            for (TaskShards.Shard shard : three.all()) {
+                long count = shard.tasks().selectCount(new QueryWrapper<UserPrivateTask>().eq("user_id", entry.getKey()));
+                assertEquals(shard == owner ? entry.getValue().size() : 0, count, "user " + entry.getKey() + " on " + shard.name());
+            }
+        }
+        assertEquals(3, service(three).pageTasks(1, 10, interrupted, null, null).getTotal());
+
+        assertEquals(0, three.rebalance());
+        assertEquals(tasksByUser, tasksByUser(three));
+    }
+
+    @Test
+    public void testCrossShardPageMatchesSingleDatabaseOrder() {
+        TaskShards three = shards(3);
+        UserPrivateTaskServiceImpl service = service(three);
+        List<UserPrivateTask> all = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            // 每 4 条有一条没有优先级，任务日期各不相同，排序没有并列
+            UserPrivateTask task = task(1 + i % 13, i, i % 4 == 3 ? null : i % 5);
+            service.save(task);
+            if (task.getPriority() == null) {
+                // 插入时跳过 null 字段，列默认值为 0，这里显式写入 NULL
+                three.forUser(task.getUserId()).update(null, new UpdateWrapper<UserPrivateTask>()
+                        .set("priority", null).eq("id", task.getId()));
+            }
+            all.add(task);
+        }
+        assertTrue(three.all().stream().allMatch(shard -> shard.tasks().selectCount(null) > 0));
+
+        // ORDER BY priority DESC, task_date ASC：MySQL 中 NULL 最小，降序时排在最后
+        List<Integer> expected = all.stream()
+                .sorted(Comparator.comparing(UserPrivateTask::getPriority, Comparator.nullsLast(Comparator.<Integer>reverseOrder()))
+                        .thenComparing(UserPrivateTask::getTaskDate))
+                .map(UserPrivateTask::getId)
+                .collect(Collectors.toList());
+        List<Integer> paged = new ArrayList<>();
+        for (long current = 1; current <= 6; current++) {
+            Page<UserPrivateTask> page = service.pageTasks(current, 7, null, null, null);
+            assertEquals(40, page.getTotal());
+            assertEquals(current, page.getCurrent());
+            paged.addAll(TaskShards.ids(page.getRecords()));
+        }
+        assertEquals(expected, paged);
+
+        // 按状态筛选时总数同样是各分片之和
+        all.get(0).setTaskStatus("completed");
+        assertTrue(service.updateById(all.get(0)));
+        Page<UserPrivateTask> completed = service.pageTasks(1, 10, null, "completed", null);
+        assertEquals(1, completed.getTotal());
+        assertEquals(List.of(all.get(0).getId()), TaskShards.ids(completed.getRecords()));
+    }
+
+    @Test
+    public void testUpdateCannotMoveTaskToAnotherShardsUser() {
+        TaskShards three = shards(3);
+        UserPrivateTaskServiceImpl service = service(three);
+        int owner = 1;
+        int other = IntStream.rangeClosed(2, 100)
+                .filter(user -> three.shard(user) != three.shard(owner)).findFirst().orElseThrow();
+        UserPrivateTask task = task(owner, 0, 1);
+        service.save(task);
+
+        UserPrivateTask moved = task(other, 0, 1);
+        moved.setId(task.getId());
+        moved.setTaskTitle("改到其他用户");
+        assertFalse(service.updateById(moved));
+        UserPrivateTask current = service.getById(task.getId());
+        assertEquals(owner, current.getUserId());
+        assertEquals("任务", current.getTaskTitle());
+
+        // 增加分片后尚未搬迁的任务：归属不变的更新在所在分片上执行
+        int stale = IntStream.rangeClosed(2, 100)
+                .filter(user -> three.shard(user) != three.shard(owner)).skip(1).findFirst().orElseThrow();
+        UserPrivateTask unmoved = task(stale, 0, 1);
+        unmoved.setId(idGenerator.nextId(unmoved).intValue());
+        three.shard(owner).tasks().insert(unmoved);
+        unmoved.setTaskTitle("搬迁前修改");
+        assertTrue(service.updateById(unmoved));
+        assertEquals("搬迁前修改", three.shard(owner).tasks().selectById(unmoved.getId()).getTaskTitle());
+    }
+
+    @Test
+    public void testDatelessListMergesArchivedPartitionsInDatabaseOrder() {
+        TaskShards three = shards(3);
+        TaskArchiver archiver = new TaskArchiver(three, true, 90, 1000, 0);
+        UserPrivateTaskServiceImpl service = service(three, archiver);
+        LocalDate old = LocalDate.now().minusDays(200);
+        List<UserPrivateTask> all = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            // 前 40 条是半年前已完成的任务，跨 2 个月以上，归档后分布在各分片的多张分表中
+            UserPrivateTask task = task(1 + i % 7, 0, i % 6 == 5 ? null : i % 4);
+            task.setTaskDate(i < 40 ? old.plusDays(i * 2L) : LocalDate.now().minusDays(i - 40));
+            task.setTaskStatus(i < 40 ? "completed" : "in_progress");
+            service.save(task);
+            if (task.getPriority() == null) {
+                three.forUser(task.getUserId()).update(null, new UpdateWrapper<UserPrivateTask>()
+                        .set("priority", null).eq("id", task.getId()));
+            }
+            all.add(task);
+        }
+        assertEquals(40, archiver.run());
+        assertTrue(three.all().stream().anyMatch(shard -> archiver.partitions(shard).size() >= 2));
+
+        Comparator<UserPrivateTask> order = Comparator
+                .comparing(UserPrivateTask::getPriority, Comparator.nullsLast(Comparator.<Integer>reverseOrder()))
+                .thenComparing(UserPrivateTask::getTaskDate);
+        List<Integer> expected = all.stream().sorted(order).map(UserPrivateTask::getId).collect(Collectors.toList());
+        List<Integer> paged = new ArrayList<>();
+        for (long current = 1; current <= 7; current++) {
+            Page<UserPrivateTask> page = service.pageTasks(current, 9, null, null, null);
+            assertEquals(60, page.getTotal());
+            paged.addAll(TaskShards.ids(page.getRecords()));
+        }
+        assertEquals(expected, paged);
+
+        // 单个用户：只访问其分片，热表和分表合并
+        List<Integer> userExpected = all.stream().filter(task -> task.getUserId() == 3)
+                .sorted(order).map(UserPrivateTask::getId).collect(Collectors.toList());
+        Page<UserPrivateTask> userPage = service.pageTasks(2, 4, 3, null, null);
+        assertEquals(userExpected.size(), userPage.getTotal());
+        assertEquals(userExpected.subList(4, 8), TaskShards.ids(userPage.getRecords()));
+        assertEquals(List.of(), service.pageTasks(10, 4, 3, null, null).getRecords());
+        // 按状态筛选已完成的任务只来自分表
+        assertEquals(40, service.pageTasks(1, 5, null, "completed", null).getTotal());
+    }
+
+    private TaskShards shards(int count) {
+        MockEnvironment environment = new MockEnvironment();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            names.add("s" + i);
+            environment.setProperty("sharding.private-task.datasource.s" + i + ".url", databases.get(i).url());
+            environment.setProperty("sharding.private-task.datasource.s" + i + ".username", "sa");
+        }
+        MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
+        interceptor.addInnerInterceptor(new PaginationInnerInterceptor(DbType.MYSQL));
+        TaskShards shards = new ShardingConfig().taskShards(null, null, null, List.of(interceptor), idGenerator,
+                environment, String.join(",", names), 160, 4, 2);
+        opened.add(shards);
+        return shards;
+    }
+
+    private static UserPrivateTaskServiceImpl service(TaskShards shards) {
+        return service(shards, new TaskArchiver(shards, true, 90, 1000, 0));
+    }
+
+    private static UserPrivateTaskServiceImpl service(TaskShards shards, TaskArchiver archiver) {
+        UserPrivateTaskServiceImpl service = new UserPrivateTaskServiceImpl(shards, archiver);
+        ReflectionTestUtils.setField(service, "eventPublisher", (ApplicationEventPublisher) event -> {
+        });
+        return service;
+    }
+
+    /**
+     * 各分片上的任务，按用户分组、ID升序
+     */
+    private static Map<Integer, List<Integer>> tasksByUser(TaskShards shards) {
+        Map<Integer, List<Integer>> tasks = new HashMap<>();
+        for (TaskShards.Shard shard : shards.all()) {
+            for (UserPrivateTask task : shard.tasks().selectList(null)) {
+                tasks.computeIfAbsent(task.getUserId(), user -> new ArrayList<>()).add(task.getId());
+            }
+        }
+        tasks.values().forEach(ids -> ids.sort(null));
+        return tasks;
+    }
+
+    private static List<UserPrivateTask> databaseTasks(TaskShards shards, String shard, int userId) {
+        return shards.all().stream().filter(s -> s.name().equals(shard)).findFirst().orElseThrow()
+                .tasks().selectList(new QueryWrapper<UserPrivateTask>().eq("user_id", userId));
+    }
+
+    private static UserPrivateTask task(int userId, int day, Integer priority) {
+        UserPrivateTask task = new UserPrivateTask();
+        task.setUserId(userId);
+        task.setTaskTitle("任务");
+        task.setTaskDate(FIRST_DAY.plusDays(day));
+        task.setTaskStatus("in_progress");
+        task.setPriority(priority);
+        return task;
+    }
+}
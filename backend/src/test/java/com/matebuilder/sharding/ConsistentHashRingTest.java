@@ -0,0 +1,55 @@
+package com.matebuilder.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConsistentHashRingTest {
+
+    private static final int KEYS = 100000;
+
+    @Test
+    public void testKeysSpreadEvenlyAndRoutingIgnoresInsertionOrder() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(nodes("s0", "s1", "s2"), 160);
+        ConsistentHashRing<String> reversed = new ConsistentHashRing<>(nodes("s2", "s1", "s0"), 160);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int key = 1; key <= KEYS; key++) {
+            String owner = ring.route(key);
+            assertEquals(owner, reversed.route(key));
+            counts.merge(owner, 1, Integer::sum);
+        }
+        assertEquals(3, counts.size());
+        for (int count : counts.values()) {
+            assertTrue(count > KEYS * 0.25 && count < KEYS * 0.42, "unbalanced: " + counts);
+        }
+    }
+
+    @Test
+    public void testAddingNodeOnlyMovesKeysToIt() {
+        ConsistentHashRing<String> before = new ConsistentHashRing<>(nodes("s0", "s1", "s2"), 160);
+        ConsistentHashRing<String> after = new ConsistentHashRing<>(nodes("s0", "s1", "s2", "s3"), 160);
+        int moved = 0;
+        for (int key = 1; key <= KEYS; key++) {
+            String owner = after.route(key);
+            if (!owner.equals(before.route(key))) {
+                assertEquals("s3", owner);
+                moved++;
+            }
+        }
+        // 约 1/4 的键移到新节点
+        assertTrue(moved > KEYS * 0.18 && moved < KEYS * 0.32, "moved " + moved);
+    }
+
+    private static Map<String, String> nodes(String... names) {
+        Map<String, String> nodes = new LinkedHashMap<>();
+        for (String name : names) {
+            nodes.put(name, name);
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,92 @@
+package com.matebuilder.sharding;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 测试用的 H2 内存库，以 MySQL 兼容模式执行 db/schema.sql
+ * 库名带随机后缀，DB_CLOSE_DELAY=-1 使数据在连接池关闭后保留，同一个库可以先后交给多组分片使用，用完调用 drop。
+ */
+public final class H2Database {
+
+    private static final Pattern TABLE = Pattern.compile("CREATE TABLE IF NOT EXISTS `(\\w+)`");
+    private static final Pattern INDEX = Pattern.compile("KEY `(\\w+)`");
+
+    private final String url;
+
+    public H2Database(String name) {
+        this.url = "jdbc:h2:mem:" + name + "-" + UUID.randomUUID()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        execute(schema());
+    }
+
+    public String url() {
+        return url;
+    }
+
+    /**
+     * 新的连接池，由调用方关闭
+     */
+    public HikariDataSource dataSource() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(url);
+        config.setUsername("sa");
+        config.setPassword("");
+        config.setMaximumPoolSize(8);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * 在单独的连接上依次执行
+     */
+    public void execute(String... statements) {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to execute on " + url, e);
+        }
+    }
+
+    /**
+     * 删除全部表；内存库本身保留到进程结束，不再占用数据
+     */
+    public void drop() {
+        execute("DROP ALL OBJECTS");
+    }
+
+    /**
+     * H2 的索引名在库内全局唯一，按表名加前缀
+     */
+    private static String[] schema() {
+        String script;
+        try (InputStream in = H2Database.class.getResourceAsStream("/db/schema.sql")) {
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Arrays.stream(script.split(";"))
+                .map(sql -> sql.replaceAll("(?m)^\\s*--.*$", "").trim())
+                .filter(sql -> !sql.isEmpty())
+                .map(sql -> {
+                    Matcher table = TABLE.matcher(sql);
+                    return table.find() ? INDEX.matcher(sql).replaceAll("KEY `" + table.group(1) + "_$1`") : sql;
+                })
+                .toArray(String[]::new);
+    }
+}
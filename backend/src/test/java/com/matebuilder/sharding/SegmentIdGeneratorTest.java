@@ -0,0 +1,117 @@
+package com.matebuilder.sharding;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.matebuilder.entity.UserPrivateTask;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class SegmentIdGeneratorTest {
+
+    private static final UserPrivateTask TASK = new UserPrivateTask();
+
+    private final H2Database database = new H2Database("segment");
+    private final HikariDataSource dataSource = database.dataSource();
+
+    @BeforeAll
+    public static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), UserPrivateTask.class);
+    }
+
+    @AfterEach
+    public void close() {
+        dataSource.close();
+        database.drop();
+    }
+
+    @Test
+    public void testFirstSegmentStartsAfterExistingIdsAndInstancesDoNotOverlap() throws SQLException {
+        database.execute("INSERT INTO tb_user_private_task (id, user_id, task_title, task_date) VALUES (42, 1, 't', '2026-10-01')");
+        SegmentIdGenerator first = new SegmentIdGenerator(dataSource, 10);
+        SegmentIdGenerator second = new SegmentIdGenerator(dataSource, 10);
+
+        // 第一段 (42, 52]，第二个实例取到 (52, 62]
+        assertEquals(43L, first.nextId(TASK));
+        assertEquals(53L, second.nextId(TASK));
+        for (long id = 44; id <= 52; id++) {
+            assertEquals(id, first.nextId(TASK));
+        }
+        // 第一个实例用完后取 (62, 72]
+        assertEquals(63L, first.nextId(TASK));
+        assertEquals(54L, second.nextId(TASK));
+        assertEquals(72L, maxId());
+    }
+
+    @Test
+    public void testConcurrentInitializeAllocatesDisjointSegments() throws Exception {
+        int instances = 8;
+        int idsPerInstance = 25;
+        ExecutorService pool = Executors.newFixedThreadPool(instances);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            // 每个实例都是第一次为该表取号，同时发现 tb_id_segment 中没有记录并尝试写入
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for (int i = 0; i < instances; i++) {
+                SegmentIdGenerator generator = new SegmentIdGenerator(dataSource, 10);
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    List<Long> ids = new ArrayList<>();
+                    for (int n = 0; n < idsPerInstance; n++) {
+                        ids.add(generator.nextId(TASK).longValue());
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+            Set<Long> ids = new HashSet<>();
+            for (Future<List<Long>> future : futures) {
+                ids.addAll(future.get());
+            }
+            assertEquals(instances * idsPerInstance, ids.size());
+            // 每个实例取了 3 段，没有号段被重复分配或跳过
+            assertEquals(instances * 3 * 10L, maxId());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testIntegerKeyOverflowIsRejected() {
+        database.execute("INSERT INTO tb_id_segment (biz_tag, max_id) VALUES ('tb_user_private_task', "
+                + (Integer.MAX_VALUE - 1) + ")");
+        SegmentIdGenerator generator = new SegmentIdGenerator(dataSource, 10);
+
+        assertEquals((long) Integer.MAX_VALUE, generator.nextId(TASK));
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> generator.nextId(TASK));
+        assertEquals("ID space of tb_user_private_task exhausted", e.getMessage());
+    }
+
+    private long maxId() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT max_id FROM tb_id_segment WHERE biz_tag = 'tb_user_private_task'")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.matebuilder.wallet;
+
+import com.matebuilder.common.event.EntityChangeEvent;
+import com.matebuilder.common.event.EntityChangeEvent.Action;
+import com.matebuilder.entity.User;
+import com.matebuilder.mapper.UserMapper;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class WalletDirectoryTest {
+
+    private static final String ALICE = "0x70997970c51812dc3a010c7d01b50e0d17dc79c8";
+    private static final String BOB = "0x3c44cdddb6a900fa2b585dd299e03d12fa4293bc";
+    private static final String CAROL = "0x90f79bf6eb2c4f870365e785982e1f101e93b906";
+
+    private final UserMapper userMapper = mock(UserMapper.class);
+    /**
+     * tb_user 中的钱包地址：用户ID -> 地址（原样保存，可能不是归一化格式）
+     */
+    private final Map<Integer, String> database = new TreeMap<>();
+    /**
+     * 扫描到该用户ID时先执行的动作，模拟扫描期间提交的写入
+     */
+    private final Map<Integer, Runnable> duringScan = new TreeMap<>();
+    private final WalletDirectory directory = new WalletDirectory(userMapper, 1000);
+
+    public WalletDirectoryTest() {
+        when(userMapper.selectCount(any())).thenAnswer(invocation -> (long) database.size());
+        doAnswer(invocation -> {
+            ResultHandler<User> handler = invocation.getArgument(0);
+            DefaultResultContext<User> context = new DefaultResultContext<>();
+            // 一致性读：扫描看到的是开始时的快照
+            new TreeMap<>(database).forEach((id, wallet) -> {
+                duringScan.getOrDefault(id, () -> {
+                }).run();
+                context.nextResultObject(user(id, wallet));
+                handler.handleResult(context);
+            });
+            return null;
+        }).when(userMapper).scanWallets(any());
+        when(userMapper.selectIdByWallet(anyString())).thenAnswer(invocation -> {
+            String address = invocation.getArgument(0);
+            return database.entrySet().stream()
+                    .filter(e -> address.equals(WalletDirectory.normalize(e.getValue())))
+                    .map(Map.Entry::getKey).findFirst().orElse(null);
+        });
+    }
+
+    @Test
+    public void testResolveAcceptsEveryAddressForm() {
+        database.put(1, ALICE.substring(2).toUpperCase());
+        // 未加载前查询数据库
+        assertEquals(1, directory.resolve(ALICE));
+        assertEquals(1L, directory.getDatabaseLookups());
+
+        directory.rebuild();
+        assertEquals(1, directory.resolve(ALICE));
+        assertEquals(1, directory.resolve(ALICE.substring(2)));
+        assertEquals(1, directory.resolve("0X" + ALICE.substring(2).toUpperCase()));
+        assertNull(directory.resolve("0x1234"));
+        assertNull(directory.resolve(BOB));
+        assertEquals(1L, directory.getDatabaseLookups());
+        // 格式非法的地址不计数，目录中没有的地址计为未命中
+        assertEquals(3L, directory.getMemoryHits());
+        assertEquals(1L, directory.getMemoryMisses());
+    }
+
+    @Test
+    public void testUpdateRemovesOldAddress() {
+        database.put(1, ALICE);
+        directory.rebuild();
+
+        change(1, BOB);
+        assertEquals(1, directory.resolve(BOB));
+        assertNull(directory.resolve(ALICE));
+
+        change(1, null);
+        assertNull(directory.resolve(BOB));
+    }
+
+    @Test
+    public void testSharedAddressFallsBackToOtherUser() {
+        database.put(1, ALICE);
+        database.put(2, ALICE);
+        directory.rebuild();
+        assertEquals(1, directory.resolve(ALICE));
+
+        // 最小ID的用户改绑后，原地址仍由另一个用户绑定
+        change(1, BOB);
+        assertEquals(2, directory.resolve(ALICE));
+        assertEquals(1, directory.resolve(BOB));
+    }
+
+    @Test
+    public void testWritesDuringRebuildWinOverScannedRows() {
+        database.put(1, ALICE);
+        database.put(2, BOB);
+        database.put(3, CAROL);
+        directory.rebuild();
+
+        // 扫描到用户1之前，用户2改绑、用户3删除；扫描之后仍读到两者的旧行
+        duringScan.put(1, () -> {
+            change(2, ALICE.replace("7", "8"));
+            remove(3);
+        });
+        directory.rebuild();
+
+        assertEquals(2, directory.resolve(ALICE.replace("7", "8")));
+        assertNull(directory.resolve(BOB));
+        assertNull(directory.resolve(CAROL));
+        assertEquals(1, directory.resolve(ALICE));
+        assertEquals(2, directory.stats().get("addresses"));
+    }
+
+    private void change(int userId, String wallet) {
+        if (wallet == null) {
+            database.remove(userId);
+        } else {
+            database.put(userId, wallet);
+        }
+        // 解绑时写入空串，与 null（未修改钱包地址的部分更新）区分
+        directory.onEntityChange(new EntityChangeEvent(Action.UPDATE, User.class, userId,
+                user(userId, wallet == null ? "" : wallet)));
+    }
+
+    private void remove(int userId) {
+        database.remove(userId);
+        directory.onEntityChange(new EntityChangeEvent(Action.REMOVE, User.class, userId, null));
+    }
+
+    private static User user(int id, String wallet) {
+        User user = new User();
+        user.setId(id);
+        user.setWalletAddress(wallet);
+        return user;
+    }
+}
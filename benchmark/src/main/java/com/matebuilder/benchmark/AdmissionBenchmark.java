@@ -0,0 +1,79 @@
+package com.matebuilder.benchmark;
+
+import com.matebuilder.common.admission.AdmissionControl;
+import com.matebuilder.common.admission.TokenBucket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 准入控制在准入路径上的开销：AdmissionControl.tryAcquire 与单纯的 ConcurrentHashMap 查找、System.nanoTime() 对比
+ * 预算足够大，所有请求都被准入；clients 个客户端轮流请求，桶都已创建，即写接口稳定运行时的情形。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class AdmissionBenchmark {
+
+    @Param({"1", "10000"})
+    public int clients;
+
+    private AdmissionControl admissionControl;
+    private ConcurrentHashMap<String, Object> map;
+    private String[] keys;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup
+    public void setUp() {
+        admissionControl = new AdmissionControl(new TokenBucket.Limit(1e12, Long.MAX_VALUE / 4),
+                new TokenBucket.Limit(1e12, Long.MAX_VALUE / 4), clients, 60000);
+        map = new ConcurrentHashMap<>();
+        keys = new String[clients];
+        for (int i = 0; i < clients; i++) {
+            keys[i] = "ip:10.0." + (i >> 8) + "." + (i & 255);
+            admissionControl.tryAcquire(keys[i], 0);
+            map.put(keys[i], keys[i]);
+        }
+    }
+
+    private String key(Cursor cursor) {
+        String key = keys[cursor.next];
+        cursor.next = cursor.next + 1 == keys.length ? 0 : cursor.next + 1;
+        return key;
+    }
+
+    @Benchmark
+    public Object mapLookup(Cursor cursor) {
+        return map.get(key(cursor));
+    }
+
+    @Benchmark
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Benchmark
+    public long tryAcquire(Cursor cursor) {
+        return admissionControl.tryAcquire(key(cursor), 4096);
+    }
+}
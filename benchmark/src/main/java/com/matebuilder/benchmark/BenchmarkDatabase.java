@@ -0,0 +1,335 @@
+package com.matebuilder.benchmark;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
+import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.matebuilder.mapper.CommunityMemberMapper;
+import com.matebuilder.mapper.CommunityTaskProofMapper;
+import com.matebuilder.mapper.UserPrivateTaskMapper;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.function.IntPredicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 基准测试用的嵌入式数据库
+ * H2 以 MySQL 兼容模式运行后端的 db/schema.sql，MyBatis-Plus 的配置与 MybatisPlusConfig、application.yml 一致
+ * （下划线转驼峰、MySQL 分页拦截器）。一级缓存限定在单条语句内，与 Spring 中每次调用使用新 SqlSession 的行为相同。
+ */
+public final class BenchmarkDatabase implements AutoCloseable {
+
+    private static final Pattern TABLE = Pattern.compile("CREATE TABLE IF NOT EXISTS `(\\w+)`");
+    private static final Pattern INDEX = Pattern.compile("KEY `(\\w+)`");
+    private static final int BATCH_SIZE = 10000;
+
+    private final HikariDataSource dataSource;
+    private SqlSessionFactory sqlSessionFactory;
+
+    public BenchmarkDatabase(String name) {
+        this(jdbcUrl(name), 4);
+    }
+
+    private BenchmarkDatabase(String url, int maximumPoolSize) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(url);
+        config.setUsername("sa");
+        config.setPassword("");
+        config.setMaximumPoolSize(maximumPoolSize);
+        this.dataSource = new HikariDataSource(config);
+        loadSchema();
+    }
+
+    /**
+     * 文件库，供另起进程的应用连接；目录中已有的数据库先删除
+     */
+    public static BenchmarkDatabase file(Path directory) throws IOException {
+        if (Files.exists(directory)) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+        Files.createDirectories(directory);
+        return new BenchmarkDatabase(fileUrl(directory), 1);
+    }
+
+    /**
+     * 内存库的连接串；DB_CLOSE_DELAY=-1 使数据在连接池关闭后仍保留到进程结束，供同一进程内的应用使用
+     */
+    public static String jdbcUrl(String name) {
+        return "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    }
+
+    /**
+     * 文件库的连接串
+     */
+    public static String fileUrl(Path directory) {
+        return "jdbc:h2:file:" + directory.toAbsolutePath().resolve("matebuilder") + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+    }
+
+    /**
+     * 首次调用时构建 SqlSessionFactory；只用来准备数据时不注册映射器，避免与同一进程内启动的应用争用 TableInfo 缓存
+     */
+    public synchronized SqlSessionFactory getSqlSessionFactory() {
+        if (sqlSessionFactory == null) {
+            MybatisConfiguration configuration = new MybatisConfiguration();
+            configuration.setMapUnderscoreToCamelCase(true);
+            configuration.setLocalCacheScope(LocalCacheScope.STATEMENT);
+            configuration.setEnvironment(new Environment("benchmark", new JdbcTransactionFactory(), dataSource));
+            MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
+            interceptor.addInnerInterceptor(new PaginationInnerInterceptor(DbType.MYSQL));
+            configuration.addInterceptor(interceptor);
+            configuration.addMapper(UserPrivateTaskMapper.class);
+            configuration.addMapper(CommunityTaskProofMapper.class);
+            configuration.addMapper(CommunityMemberMapper.class);
+            sqlSessionFactory = new MybatisSqlSessionFactoryBuilder().build(configuration);
+        }
+        return sqlSessionFactory;
+    }
+
+    /**
+     * 写入用户：用户名为 user{id}，密码哈希为固定值
+     */
+    public void seedUsers(int users) {
+        String sql = "INSERT INTO tb_user (private_username, public_username, password_hash, level) VALUES (?, ?, ?, ?)";
+        batchInsert(sql, batch -> {
+            PreparedStatement statement = batch.statement();
+            for (int user = 1; user <= users; user++) {
+                statement.setString(1, "user" + user);
+                statement.setString(2, "public" + user);
+                statement.setString(3, "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3lYf1dDY2sX3D2n6lHiY5xK");
+                statement.setInt(4, user % 10);
+                batch.add();
+            }
+        });
+    }
+
+    /**
+     * 写入社区：创建者在 users 个用户之间轮换，前 withLogo 个社区带 logoSize 字节的 logo
+     */
+    public void seedCommunities(int communities, int users, int withLogo, int logoSize) {
+        String sql = "INSERT INTO tb_user_community (user_id, community_name, community_description, community_logo)"
+                + " VALUES (?, ?, ?, ?)";
+        byte[] logo = new byte[logoSize];
+        new SplittableRandom(42).nextBytes(logo);
+        batchInsert(sql, batch -> {
+            PreparedStatement statement = batch.statement();
+            for (int community = 1; community <= communities; community++) {
+                statement.setInt(1, 1 + (community - 1) % users);
+                statement.setString(2, "社区 " + community);
+                statement.setString(3, "一起学习、互相监督打卡");
+                statement.setBytes(4, community <= withLogo ? logo : null);
+                batch.add();
+            }
+        });
+    }
+
+    /**
+     * 写入社区成员：每个社区 membersPerCommunity 个互不相同的用户（membersPerCommunity 不超过 users）
+     */
+    public void seedMembers(int communities, int membersPerCommunity, int users) {
+        String sql = "INSERT INTO tb_community_member (community_id, user_id, member_role) VALUES (?, ?, ?)";
+        batchInsert(sql, batch -> {
+            PreparedStatement statement = batch.statement();
+            for (int community = 1; community <= communities; community++) {
+                for (int i = 0; i < membersPerCommunity; i++) {
+                    statement.setInt(1, community);
+                    statement.setInt(2, (int) ((community * 7919L + i) % users) + 1);
+                    statement.setString(3, i == 0 ? "creator" : "member");
+                    batch.add();
+                }
+            }
+        });
+    }
+
+    /**
+     * 写入用户私人任务：每个用户从 startDate 起每天 tasksPerDay 条，共 days 天
+     */
+    public void seedPrivateTasks(int users, int days, int tasksPerDay, LocalDate startDate) {
+        seedPrivateTasks(users, days, tasksPerDay, startDate, user -> true);
+    }
+
+    /**
+     * 只写入 include 接受的用户的任务，用于按分片写入；任务ID和内容与全部写入时相同，各分片的ID不重复
+     */
+    public void seedPrivateTasks(int users, int days, int tasksPerDay, LocalDate startDate, IntPredicate include) {
+        String sql = "INSERT INTO tb_user_private_task (id, user_id, task_title, task_description, task_date, task_status,"
+                + " priority, start_time, end_time, create_time) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        SplittableRandom random = new SplittableRandom(42);
+        batchInsert(sql, batch -> {
+            PreparedStatement statement = batch.statement();
+            int id = 0;
+            for (int user = 1; user <= users; user++) {
+                boolean included = include.test(user);
+                for (int day = 0; day < days; day++) {
+                    LocalDate date = startDate.plusDays(day);
+                    for (int i = 0; i < tasksPerDay; i++) {
+                        id++;
+                        boolean completed = random.nextBoolean();
+                        int priority = random.nextInt(5);
+                        if (!included) {
+                            continue;
+                        }
+                        statement.setInt(1, id);
+                        statement.setInt(2, user);
+                        statement.setString(3, "任务 " + day + "-" + i);
+                        statement.setString(4, "阅读并整理笔记，记录遇到的问题");
+                        statement.setDate(5, Date.valueOf(date));
+                        statement.setString(6, completed ? "completed" : "in_progress");
+                        statement.setInt(7, priority);
+                        statement.setString(8, String.format("%02d:00:00", 8 + i % 12));
+                        statement.setString(9, String.format("%02d:30:00", 8 + i % 12));
+                        statement.setTimestamp(10, Timestamp.valueOf(date.atTime(7, 0)));
+                        batch.add();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * 设置号段表中某张表已分配的最大ID（任务写在分片中、主库表为空时，新任务的ID从这里之后分配）
+     */
+    public void seedIdSegment(String table, long maxId) {
+        batchInsert("INSERT INTO tb_id_segment (biz_tag, max_id) VALUES (?, ?)", batch -> {
+            batch.statement().setString(1, table);
+            batch.statement().setLong(2, maxId);
+            batch.add();
+        });
+    }
+
+    /**
+     * 写入社区任务凭证：每个社区 proofsPerCommunity 条，成员在 members 个之间轮换
+     */
+    public void seedProofs(int communities, int proofsPerCommunity, int members) {
+        String sql = "INSERT INTO tb_community_task_proof (community_id, member_id, task_title, task_description,"
+                + " proof_type, proof_hash, file_name, file_size, mime_type, create_time)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        LocalDateTime base = LocalDateTime.of(2024, 5, 1, 12, 0);
+        batchInsert(sql, batch -> {
+            PreparedStatement statement = batch.statement();
+            for (int community = 1; community <= communities; community++) {
+                for (int i = 0; i < proofsPerCommunity; i++) {
+                    statement.setInt(1, community);
+                    statement.setInt(2, community * 1000 + i % members);
+                    statement.setString(3, "社区打卡任务 " + i);
+                    statement.setString(4, "上传当天的学习截图");
+                    statement.setString(5, "image");
+                    statement.setString(6, "QmYwAPJzv5CZsnA625s3Xf2nemtYgPpHdWEz79ojWnPbd" + (i % 10));
+                    statement.setString(7, "screenshot-" + i + ".png");
+                    statement.setLong(8, 64 * 1024);
+                    statement.setString(9, "image/png");
+                    statement.setTimestamp(10, Timestamp.valueOf(base.plusMinutes(i)));
+                    batch.add();
+                }
+            }
+        });
+    }
+
+    private interface BatchFiller {
+        void fill(Batch batch) throws SQLException;
+    }
+
+    /**
+     * 攒满 BATCH_SIZE 行执行一次，百万行级别的数据不会全部积压在一个批次里
+     */
+    private static final class Batch {
+        private final PreparedStatement statement;
+        private int pending;
+
+        Batch(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        PreparedStatement statement() {
+            return statement;
+        }
+
+        void add() throws SQLException {
+            statement.addBatch();
+            if (++pending == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() throws SQLException {
+            if (pending > 0) {
+                statement.executeBatch();
+                pending = 0;
+            }
+        }
+    }
+
+    private void batchInsert(String sql, BatchFiller filler) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            Batch batch = new Batch(statement);
+            filler.fill(batch);
+            batch.flush();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to seed data", e);
+        }
+    }
+
+    /**
+     * 执行后端的建表脚本
+     * H2 的索引名在整个 schema 内唯一，而 MySQL 只要求表内唯一，因此给索引名加上表名前缀。
+     */
+    private void loadSchema() {
+        String script;
+        try (InputStream in = BenchmarkDatabase.class.getResourceAsStream("/db/schema.sql")) {
+            if (in == null) {
+                throw new IllegalStateException("db/schema.sql not found on classpath");
+            }
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            for (String sql : script.split(";")) {
+                sql = sql.replaceAll("(?m)^\\s*--.*$", "").trim();
+                if (sql.isEmpty()) {
+                    continue;
+                }
+                Matcher table = TABLE.matcher(sql);
+                if (table.find()) {
+                    sql = INDEX.matcher(sql).replaceAll("KEY `" + table.group(1) + "_$1`");
+                }
+                statement.execute(sql);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to load schema", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        dataSource.close();
+    }
+}
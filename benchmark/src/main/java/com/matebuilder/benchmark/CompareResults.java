@@ -0,0 +1,112 @@
+package com.matebuilder.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 比较两次 JMH 运行的 JSON 结果（-rf json）
+ * 按基准方法和参数组合对齐，输出得分和每次调用分配量（需 -prof gc）的变化；
+ * 吞吐下降或耗时上升超过阈值的条目标记为回归，存在回归时以退出码 1 结束，便于在脚本中使用。
+ *
+ * 用法：java -cp target/benchmarks.jar com.matebuilder.benchmark.CompareResults baseline.json current.json [--threshold 10]
+ */
+public class CompareResults {
+
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareResults <baseline.json> <current.json> [--threshold percent]");
+            System.exit(2);
+        }
+        double threshold = 10;
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            if ("--threshold".equals(args[i])) {
+                threshold = Double.parseDouble(args[i + 1]);
+            } else {
+                throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        ObjectMapper objectMapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = index(objectMapper.readTree(new File(args[0])));
+        Map<String, JsonNode> current = index(objectMapper.readTree(new File(args[1])));
+
+        int regressions = 0;
+        System.out.printf(Locale.ROOT, "%-70s %14s %14s %9s %12s %12s%n",
+                "benchmark", "baseline", "current", "change", "B/op before", "B/op after");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            JsonNode after = entry.getValue();
+            double score = after.path("primaryMetric").path("score").asDouble();
+            String unit = after.path("primaryMetric").path("scoreUnit").asText();
+            if (before == null) {
+                System.out.printf(Locale.ROOT, "%-70s %14s %14s %9s%n", entry.getKey(), "-", format(score, unit), "new");
+                continue;
+            }
+            double previous = before.path("primaryMetric").path("score").asDouble();
+            double change = previous == 0 ? 0 : (score - previous) / previous * 100;
+            // 吞吐类指标越大越好，耗时类指标越小越好
+            boolean higherIsBetter = unit.startsWith("ops/");
+            boolean regression = higherIsBetter ? change < -threshold : change > threshold;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf(Locale.ROOT, "%-70s %14s %14s %+8.1f%% %12s %12s%s%n",
+                    entry.getKey(), format(previous, unit), format(score, unit), change,
+                    allocation(before), allocation(after), regression ? "  REGRESSION" : "");
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf(Locale.ROOT, "%-70s %14s %14s %9s%n", key, "", "-", "removed");
+            }
+        }
+        if (regressions > 0) {
+            System.out.printf(Locale.ROOT, "%d regression(s) beyond %.1f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 以 "类名.方法名 {参数=值, ...}" 为键
+     */
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> map = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            String benchmark = result.path("benchmark").asText();
+            benchmark = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+            List<String> params = new ArrayList<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = result.path("params").fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                params.add(field.getKey() + "=" + field.getValue().asText());
+            }
+            map.put(params.isEmpty() ? benchmark : benchmark + " " + params, result);
+        }
+        return map;
+    }
+
+    private static String allocation(JsonNode result) {
+        // JMH 在分析器指标名前加 "·"
+        Iterator<Map.Entry<String, JsonNode>> metrics = result.path("secondaryMetrics").fields();
+        while (metrics.hasNext()) {
+            Map.Entry<String, JsonNode> metric = metrics.next();
+            if (metric.getKey().endsWith(ALLOC_NORM)) {
+                return String.format(Locale.ROOT, "%.0f", metric.getValue().path("score").asDouble());
+            }
+        }
+        return "-";
+    }
+
+    private static String format(double score, String unit) {
+        return String.format(Locale.ROOT, "%.1f %s", score, unit);
+    }
+}
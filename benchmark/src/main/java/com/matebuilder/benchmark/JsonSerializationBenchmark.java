@@ -0,0 +1,144 @@
+package com.matebuilder.benchmark;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.matebuilder.common.api.R;
+import com.matebuilder.common.config.JacksonConfig;
+import com.matebuilder.entity.CommunityTaskProof;
+import com.matebuilder.entity.UserPrivateTask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * R 响应的 JSON 序列化吞吐：原 ObjectMapper 与 JacksonConfig 中的优化/紧凑 ObjectMapper 对比
+ * 与 MappingJackson2HttpMessageConverter 一样直接写到输出流，输出流只计数不保存。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    /**
+     * baseline：引入 RSerializer 和 Blackbird 之前的 ObjectMapper；optimized：当前默认；compact：紧凑格式
+     */
+    @Param({"baseline", "optimized", "compact"})
+    public String mapper;
+
+    /**
+     * taskPage：一页 20 条的 Page&lt;UserPrivateTask&gt;；proofList：社区的 200 条 CommunityTaskProof
+     */
+    @Param({"taskPage", "proofList"})
+    public String payload;
+
+    private ObjectWriter writer;
+    private R<?> response;
+
+    @State(Scope.Thread)
+    public static class Sink extends OutputStream {
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper;
+        switch (mapper) {
+            case "baseline":
+                objectMapper = new ObjectMapper();
+                objectMapper.registerModule(new JavaTimeModule());
+                objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+                break;
+            case "optimized":
+                objectMapper = JacksonConfig.createObjectMapper(true, false);
+                break;
+            case "compact":
+                objectMapper = JacksonConfig.createObjectMapper(true, true);
+                break;
+            default:
+                throw new IllegalArgumentException(mapper);
+        }
+        writer = objectMapper.writer();
+        response = "taskPage".equals(payload) ? R.ok(taskPage(20)) : R.ok(proofList(200));
+    }
+
+    @Benchmark
+    public long serialize(Sink sink) throws IOException {
+        writer.writeValue(sink, response);
+        return sink.bytes;
+    }
+
+    private static Page<UserPrivateTask> taskPage(int size) {
+        SplittableRandom random = new SplittableRandom(42);
+        Page<UserPrivateTask> page = new Page<>(1, size, 1000);
+        List<UserPrivateTask> records = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            UserPrivateTask task = new UserPrivateTask();
+            task.setId(i);
+            task.setUserId(1001);
+            task.setTaskTitle("完成第" + i + "章阅读");
+            task.setTaskDescription("阅读并整理笔记，记录遇到的问题");
+            task.setTaskDate(LocalDate.of(2024, 5, 1).plusDays(random.nextInt(30)));
+            task.setTaskStatus(random.nextBoolean() ? "completed" : "in_progress");
+            task.setPriority(random.nextInt(5));
+            task.setStartTime("09:00:00");
+            task.setEndTime("10:30:00");
+            task.setCompletionTime("completed".equals(task.getTaskStatus()) ? LocalDateTime.of(2024, 5, 1, 10, 20) : null);
+            task.setCreateTime(LocalDateTime.of(2024, 4, 30, 8, 0));
+            task.setUpdateTime(LocalDateTime.of(2024, 5, 1, 10, 20));
+            records.add(task);
+        }
+        page.setRecords(records);
+        return page;
+    }
+
+    private static List<CommunityTaskProof> proofList(int size) {
+        List<CommunityTaskProof> proofs = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            CommunityTaskProof proof = new CommunityTaskProof();
+            proof.setId(i);
+            proof.setCommunityId(7);
+            proof.setMemberId(100 + i % 50);
+            proof.setTaskTitle("社区打卡任务 " + i);
+            proof.setTaskDescription("上传当天的学习截图");
+            proof.setProofType("image");
+            proof.setProofHash("QmYwAPJzv5CZsnA625s3Xf2nemtYgPpHdWEz79ojWnPbd" + (i % 10));
+            proof.setFileName("screenshot-" + i + ".png");
+            proof.setCreateTime(LocalDateTime.of(2024, 5, 1, 12, 0).plusMinutes(i));
+            proofs.add(proof);
+        }
+        return proofs;
+    }
+}
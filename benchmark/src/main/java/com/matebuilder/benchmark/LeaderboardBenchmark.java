@@ -0,0 +1,82 @@
+package com.matebuilder.benchmark;
+
+import com.matebuilder.leaderboard.ScoreBoard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 能力排行榜吞吐量：更新、前N名、名次和附近窗口查询
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class LeaderboardBenchmark {
+
+    /**
+     * 分数上限（单位：分），即 0.00 ~ 1000.00
+     */
+    private static final int MAX_SCORE = 100_000;
+
+    @Param({"1000000"})
+    public int users;
+
+    private ScoreBoard board;
+
+    @State(Scope.Thread)
+    public static class ThreadRandom {
+        SplittableRandom random;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            random = new SplittableRandom(Thread.currentThread().getId());
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        board = new ScoreBoard();
+        SplittableRandom random = new SplittableRandom(42);
+        for (int userId = 1; userId <= users; userId++) {
+            board.update(userId, random.nextInt(MAX_SCORE), userId);
+        }
+    }
+
+    @Benchmark
+    public void update(ThreadRandom r) {
+        int userId = 1 + r.random.nextInt(users);
+        board.update(userId, r.random.nextInt(MAX_SCORE), userId);
+    }
+
+    @Benchmark
+    public List<ScoreBoard.Entry> top10() {
+        return board.top(10);
+    }
+
+    @Benchmark
+    public void rankOf(ThreadRandom r, Blackhole bh) {
+        bh.consume(board.rankOf(1 + r.random.nextInt(users)));
+    }
+
+    @Benchmark
+    public List<ScoreBoard.Entry> aroundMe(ThreadRandom r) {
+        return board.around(1 + r.random.nextInt(users), 5);
+    }
+}
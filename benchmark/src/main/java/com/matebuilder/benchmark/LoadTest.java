@@ -0,0 +1,434 @@
+package com.matebuilder.benchmark;
+
+import com.matebuilder.MateBuilderApplication;
+import com.matebuilder.sharding.ConsistentHashRing;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 端到端压测
+ * 在 H2（MySQL 兼容模式）内存库中执行 db/schema.sql 并生成数据，以 loadtest 环境在同一进程内启动 MateBuilderApplication
+ * （见 application-loadtest.yml、LoadTestConfig，IPFS 由 LocalIpfsStandIn 代替），然后按权重混合请求：
+ * 任务分页列表、当日任务、社区 logo、凭证上传。每个接口的延迟记入 HdrHistogram，预热后统计吞吐和延迟分位数。
+ *
+ * 默认闭环压测：每个客户端收到响应后立即发下一个请求。指定 --rate 时按固定总速率发送，
+ * 延迟从计划发送时刻算起，服务端变慢时排队等待的时间也计入延迟（避免协调遗漏）。
+ * 默认数据量（约 210 万条任务、100 万社区成员）建议 -Xmx3g 以上。
+ * 指定 --shards N 时任务按一致性哈希环写入 N 个分片内存库，应用以同样的分片配置启动（见 TaskShards），
+ * 混合请求中的 all（不指定用户的分页列表）并行查询所有分片。
+ *
+ * 用法：java -Xmx3g -cp target/benchmarks.jar com.matebuilder.benchmark.LoadTest
+ *      [--users 100000] [--days 7] [--tasks-per-day 3] [--communities 20000] [--members-per-community 50]
+ *      [--logos 20000] [--logo-bytes 8192] [--upload-bytes 65536]
+ *      [--clients 32] [--warmup-seconds 10] [--seconds 60] [--rate 0] [--report-seconds 5]
+ *      [--mix list=40,today=40,logo=15,upload=5] [--hgrm-dir target/loadtest] [--shards 0]
+ */
+public class LoadTest {
+
+    private static final String DATABASE = "loadtest";
+    private static final String BOUNDARY = "----MateBuilderLoadTest";
+    private static final int VIRTUAL_NODES = 160;
+
+    private int users = 100000;
+    private int days = 7;
+    private int tasksPerDay = 3;
+    private int communities = 20000;
+    private int membersPerCommunity = 50;
+    private int logos = 20000;
+    private int logoBytes = 8192;
+    private int uploadBytes = 65536;
+    private int clients = 32;
+    private int warmupSeconds = 10;
+    private int seconds = 60;
+    private double rate;
+    private int reportSeconds = 5;
+    private String mix = "list=40,today=40,logo=15,upload=5";
+    private Path hgrmDir;
+    private int shards;
+
+    private final AtomicLong uploadSequence = new AtomicLong();
+    private List<Endpoint> endpoints;
+    private int totalWeight;
+
+    public static void main(String[] args) throws Exception {
+        LoadTest test = new LoadTest();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--users": test.users = Integer.parseInt(value); break;
+                case "--days": test.days = Integer.parseInt(value); break;
+                case "--tasks-per-day": test.tasksPerDay = Integer.parseInt(value); break;
+                case "--communities": test.communities = Integer.parseInt(value); break;
+                case "--members-per-community": test.membersPerCommunity = Integer.parseInt(value); break;
+                case "--logos": test.logos = Integer.parseInt(value); break;
+                case "--logo-bytes": test.logoBytes = Integer.parseInt(value); break;
+                case "--upload-bytes": test.uploadBytes = Integer.parseInt(value); break;
+                case "--clients": test.clients = Integer.parseInt(value); break;
+                case "--warmup-seconds": test.warmupSeconds = Integer.parseInt(value); break;
+                case "--seconds": test.seconds = Integer.parseInt(value); break;
+                case "--rate": test.rate = Double.parseDouble(value); break;
+                case "--report-seconds": test.reportSeconds = Integer.parseInt(value); break;
+                case "--mix": test.mix = value; break;
+                case "--hgrm-dir": test.hgrmDir = Path.of(value); break;
+                case "--shards": test.shards = Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (test.membersPerCommunity > test.users) {
+            throw new IllegalArgumentException("--members-per-community must not exceed --users");
+        }
+        test.run();
+    }
+
+    public void run() throws Exception {
+        // 应用启动前日志系统尚未按 Spring Boot 配置，默认输出 DEBUG
+        LoggingSystem.get(LoadTest.class.getClassLoader()).setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.INFO);
+        seed();
+
+        long start = System.nanoTime();
+        List<String> args = new ArrayList<>(List.of("--spring.datasource.url=" + BenchmarkDatabase.jdbcUrl(DATABASE), "--server.port=0"));
+        if (shards > 0) {
+            args.add("--sharding.private-task.shards=" + String.join(",", shardNames()));
+            args.add("--sharding.private-task.virtual-nodes=" + VIRTUAL_NODES);
+            for (String shard : shardNames()) {
+                args.add("--sharding.private-task.datasource." + shard + ".url=" + BenchmarkDatabase.jdbcUrl(DATABASE + "-" + shard));
+            }
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(MateBuilderApplication.class)
+                .profiles("loadtest")
+                .run(args.toArray(new String[0]));
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        System.out.printf(Locale.ROOT, "application started on port %d in %.1f s%n", port, (System.nanoTime() - start) / 1e9);
+
+        try {
+            endpoints = endpoints("http://127.0.0.1:" + port);
+            drive();
+        } finally {
+            context.close();
+        }
+    }
+
+    private void seed() {
+        long start = System.nanoTime();
+        try (BenchmarkDatabase database = new BenchmarkDatabase(DATABASE)) {
+            database.seedUsers(users);
+            database.seedCommunities(communities, users, logos, logoBytes);
+            database.seedMembers(communities, membersPerCommunity, users);
+            // 任务日期截至今天，使当日任务接口有数据
+            LocalDate startDate = LocalDate.now().minusDays(days - 1);
+            if (shards > 0) {
+                seedShards(startDate);
+                database.seedIdSegment("tb_user_private_task", (long) users * days * tasksPerDay);
+            } else {
+                database.seedPrivateTasks(users, days, tasksPerDay, startDate);
+            }
+        }
+        System.out.printf(Locale.ROOT, "seeded %d users, %d communities, %d members, %d tasks in %.1f s%n",
+                users, communities, (long) communities * membersPerCommunity, (long) users * days * tasksPerDay,
+                (System.nanoTime() - start) / 1e9);
+    }
+
+    private List<String> shardNames() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            names.add("s" + i);
+        }
+        return names;
+    }
+
+    /**
+     * 按应用使用的同一个环把各用户的任务写入所属分片；分片库在进程结束前保留（DB_CLOSE_DELAY=-1）
+     */
+    private void seedShards(LocalDate startDate) {
+        Map<String, String> nodes = new LinkedHashMap<>();
+        shardNames().forEach(name -> nodes.put(name, name));
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(nodes, VIRTUAL_NODES);
+        for (String shard : shardNames()) {
+            try (BenchmarkDatabase database = new BenchmarkDatabase(DATABASE + "-" + shard)) {
+                database.seedPrivateTasks(users, days, tasksPerDay, startDate, user -> ring.route(user).equals(shard));
+            }
+        }
+    }
+
+    private List<Endpoint> endpoints(String base) {
+        int pages = Math.max(1, days * tasksPerDay / 10);
+        List<Endpoint> list = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=");
+            String name = parts[0].trim();
+            int weight = Integer.parseInt(parts[1].trim());
+            RequestFactory factory;
+            switch (name) {
+                case "list":
+                    factory = random -> HttpRequest.newBuilder(URI.create(base + "/api/user-private-task/list?current="
+                            + (1 + random.nextInt(pages)) + "&size=10&userId=" + (1 + random.nextInt(users)))).build();
+                    break;
+                case "all":
+                    factory = random -> HttpRequest.newBuilder(URI.create(base + "/api/user-private-task/list?current="
+                            + (1 + random.nextInt(pages)) + "&size=10")).build();
+                    break;
+                case "today":
+                    factory = random -> HttpRequest.newBuilder(URI.create(base + "/api/user-private-task/today/"
+                            + (1 + random.nextInt(users)))).build();
+                    break;
+                case "logo":
+                    factory = random -> HttpRequest.newBuilder(URI.create(base + "/api/user-community/"
+                            + (1 + random.nextInt(Math.max(1, logos))) + "/logo")).build();
+                    break;
+                case "upload":
+                    factory = random -> upload(base, random);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown endpoint " + name);
+            }
+            list.add(new Endpoint(name, weight, factory, !"logo".equals(name)));
+            totalWeight += weight;
+        }
+        return list;
+    }
+
+    /**
+     * 凭证上传：每次的文件内容不同（前8字节为序号），与真实上传一样产生新的内容哈希
+     */
+    private HttpRequest upload(String base, SplittableRandom random) {
+        int memberId = 1 + random.nextInt(communities * membersPerCommunity);
+        int communityId = (memberId - 1) / membersPerCommunity + 1;
+        byte[] content = new byte[uploadBytes];
+        random.nextBytes(content);
+        long sequence = uploadSequence.incrementAndGet();
+        for (int i = 0; i < Math.min(8, content.length); i++) {
+            content[i] = (byte) (sequence >>> (i * 8));
+        }
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream(uploadBytes + 1024);
+        field(body, "communityId", String.valueOf(communityId));
+        field(body, "memberId", String.valueOf(memberId));
+        field(body, "taskTitle", "每日打卡");
+        write(body, "--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"proofFile\"; filename=\"proof.png\"\r\n"
+                + "Content-Type: image/png\r\n\r\n");
+        body.writeBytes(content);
+        write(body, "\r\n--" + BOUNDARY + "--\r\n");
+        return HttpRequest.newBuilder(URI.create(base + "/api/community/task/proof/upload"))
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+    }
+
+    private static void field(ByteArrayOutputStream body, String name, String value) {
+        write(body, "--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n" + value + "\r\n");
+    }
+
+    private static void write(ByteArrayOutputStream body, String text) {
+        body.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void drive() throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        AtomicBoolean running = new AtomicBoolean(true);
+        // 固定速率时每个客户端的发送间隔
+        long intervalNanos = rate > 0 ? (long) (clients * 1e9 / rate) : 0;
+        System.out.printf(Locale.ROOT, "%d clients, %s, mix %s, warmup %d s, measure %d s%n", clients,
+                rate > 0 ? String.format(Locale.ROOT, "%.0f req/s", rate) : "closed loop", mix, warmupSeconds, seconds);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                long seed = i;
+                executor.submit(() -> client(client, new SplittableRandom(seed), running, intervalNanos));
+            }
+            TimeUnit.SECONDS.sleep(warmupSeconds);
+            for (Endpoint endpoint : endpoints) {
+                endpoint.reset();
+            }
+
+            long begin = System.nanoTime();
+            long end = begin + TimeUnit.SECONDS.toNanos(seconds);
+            long last = begin;
+            while (System.nanoTime() < end) {
+                long next = Math.min(end, last + TimeUnit.SECONDS.toNanos(reportSeconds));
+                LockSupport.parkNanos(next - System.nanoTime());
+                long now = System.nanoTime();
+                double elapsed = (now - last) / 1e9;
+                StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "[%5.1fs]", (now - begin) / 1e9));
+                for (Endpoint endpoint : endpoints) {
+                    Histogram interval = endpoint.interval();
+                    line.append(String.format(Locale.ROOT, "  %s %.0f/s p99 %.1fms", endpoint.name,
+                            interval.getTotalCount() / elapsed, interval.getValueAtPercentile(99) / 1000.0));
+                }
+                System.out.println(line);
+                last = now;
+            }
+            double elapsed = (System.nanoTime() - begin) / 1e9;
+            running.set(false);
+            report(elapsed);
+        }
+    }
+
+    private void client(HttpClient client, SplittableRandom random, AtomicBoolean running, long intervalNanos) {
+        // 各客户端的起始时刻错开，避免固定速率下同时发送
+        long intended = System.nanoTime() + (intervalNanos > 0 ? random.nextLong(intervalNanos) : 0);
+        while (running.get()) {
+            if (intervalNanos > 0) {
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            Endpoint endpoint = pick(random);
+            HttpRequest request = endpoint.factory.create(random);
+            long start = intervalNanos > 0 ? intended : System.nanoTime();
+            boolean ok;
+            try {
+                HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                ok = response.statusCode() == 200 && (!endpoint.json || isSuccess(response.body()));
+            } catch (IOException e) {
+                ok = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            endpoint.record(System.nanoTime() - start, ok);
+            intended += intervalNanos;
+        }
+    }
+
+    private Endpoint pick(SplittableRandom random) {
+        int value = random.nextInt(totalWeight);
+        for (Endpoint endpoint : endpoints) {
+            value -= endpoint.weight;
+            if (value < 0) {
+                return endpoint;
+            }
+        }
+        return endpoints.get(endpoints.size() - 1);
+    }
+
+    /**
+     * R 响应的 code 字段在最前面，只检查前缀
+     */
+    private static boolean isSuccess(byte[] body) {
+        byte[] prefix = "{\"code\":200".getBytes(StandardCharsets.US_ASCII);
+        if (body.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (body[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void report(double elapsed) throws IOException {
+        System.out.printf(Locale.ROOT, "%n%-8s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        Histogram all = new Histogram(3);
+        long allErrors = 0;
+        for (Endpoint endpoint : endpoints) {
+            Histogram total = endpoint.total();
+            all.add(total);
+            allErrors += endpoint.errors.get();
+            print(endpoint.name, total, endpoint.errors.get(), elapsed);
+            if (hgrmDir != null) {
+                Files.createDirectories(hgrmDir);
+                try (PrintStream out = new PrintStream(Files.newOutputStream(hgrmDir.resolve(endpoint.name + ".hgrm")))) {
+                    // 以微秒记录，按毫秒输出
+                    total.outputPercentileDistribution(out, 1000.0);
+                }
+            }
+        }
+        print("all", all, allErrors, elapsed);
+        if (hgrmDir != null) {
+            System.out.println("histograms written to " + hgrmDir.toAbsolutePath());
+        }
+    }
+
+    private static void print(String name, Histogram histogram, long errors, double elapsed) {
+        System.out.printf(Locale.ROOT, "%-8s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name, histogram.getTotalCount(), errors, histogram.getTotalCount() / elapsed,
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0, histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+
+    private interface RequestFactory {
+        HttpRequest create(SplittableRandom random);
+    }
+
+    /**
+     * 一个接口的统计：Recorder 供各客户端无锁记录（微秒），报告线程定期取出区间直方图并累加到总量
+     */
+    private static final class Endpoint {
+        final String name;
+        final int weight;
+        final RequestFactory factory;
+        final boolean json;
+        final Recorder recorder = new Recorder(3);
+        final Histogram total = new Histogram(3);
+        final AtomicLong errors = new AtomicLong();
+        private Histogram recycled;
+
+        Endpoint(String name, int weight, RequestFactory factory, boolean json) {
+            this.name = name;
+            this.weight = weight;
+            this.factory = factory;
+            this.json = json;
+        }
+
+        void record(long nanos, boolean ok) {
+            if (ok) {
+                recorder.recordValue(Math.max(1, nanos / 1000));
+            } else {
+                errors.incrementAndGet();
+            }
+        }
+
+        synchronized void reset() {
+            recorder.reset();
+            total.reset();
+            errors.set(0);
+        }
+
+        synchronized Histogram interval() {
+            recycled = recorder.getIntervalHistogram(recycled);
+            total.add(recycled);
+            return recycled;
+        }
+
+        synchronized Histogram total() {
+            interval();
+            return total;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.matebuilder.benchmark;
+
+import com.matebuilder.utils.IPFSUtil;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * 压测环境的替身组件
+ * benchmark 模块位于 com.matebuilder 包下，LoadTest 启动应用时会被组件扫描到；仅在 loadtest 环境生效。
+ */
+@Configuration
+@Profile("loadtest")
+public class LoadTestConfig {
+
+    /**
+     * 以进程内的 IPFS 替身代替真实节点，上传与下载不经过网络；loadtest.ipfs-stand-in=false 时使用真实的 IPFSUtil
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "loadtest.ipfs-stand-in", havingValue = "true", matchIfMissing = true)
+    public IPFSUtil loadTestIpfs() {
+        return new LocalIpfsStandIn();
+    }
+}
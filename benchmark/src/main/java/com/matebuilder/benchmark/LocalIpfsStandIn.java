@@ -0,0 +1,66 @@
+package com.matebuilder.benchmark;
+
+import com.matebuilder.utils.IPFSUtil;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 进程内的 IPFS 替身：按内容的 SHA-256 寻址存放在内存中
+ * 上传时与 IPFS 客户端一样完整读取输入流并计算哈希，下载时返回内容的副本，不涉及网络；
+ * 下载只替换实际的 cat，同一哈希的并发下载仍经过 IPFSUtil 的请求合并。
+ */
+public class LocalIpfsStandIn extends IPFSUtil {
+
+    private final Map<String, byte[]> blocks = new ConcurrentHashMap<>();
+
+    public LocalIpfsStandIn() {
+        // 指向一个不会有守护进程监听的地址，父类只记录一条警告
+        super("/ip4/127.0.0.1/tcp/1", 64, 10000, 30000);
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public String uploadFile(MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            return uploadBytes(in.readAllBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public String uploadBytes(byte[] data) {
+        String cid = cid(data);
+        blocks.putIfAbsent(cid, data.clone());
+        return cid;
+    }
+
+    @Override
+    protected byte[] cat(String hash) {
+        byte[] data = blocks.get(hash);
+        if (data == null) {
+            throw new IllegalArgumentException("Unknown block " + hash);
+        }
+        return data.clone();
+    }
+
+    private static String cid(byte[] data) {
+        try {
+            return "sha256-" + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
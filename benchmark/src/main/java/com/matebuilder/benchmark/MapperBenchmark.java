@@ -0,0 +1,136 @@
+package com.matebuilder.benchmark;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.matebuilder.entity.CommunityTaskProof;
+import com.matebuilder.entity.UserPrivateTask;
+import com.matebuilder.mapper.CommunityTaskProofMapper;
+import com.matebuilder.mapper.UserPrivateTaskMapper;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MyBatis-Plus 查询与结果映射（H2 MySQL 兼容模式，内存库）
+ * 与 Spring 中的 SqlSessionTemplate 一样每次调用打开新的 SqlSession 并从连接池取连接，
+ * 查询条件与控制器、服务中的写法相同。数据：200 个用户各 30 天、每天 3 条任务；20 个社区各 500 条凭证。
+ * 内存库没有网络往返，结果主要反映 SQL 解析、分页拦截器、参数绑定和结果映射的开销。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    private static final int USERS = 200;
+    private static final int DAYS = 30;
+    private static final int COMMUNITIES = 20;
+    private static final int PROOFS_PER_COMMUNITY = 500;
+    private static final LocalDate START_DATE = LocalDate.of(2024, 5, 1);
+
+    private BenchmarkDatabase database;
+    private SqlSessionFactory sqlSessionFactory;
+
+    @State(Scope.Thread)
+    public static class Keys {
+        private final SplittableRandom random = new SplittableRandom(7);
+
+        int userId() {
+            return 1 + random.nextInt(USERS);
+        }
+
+        LocalDate taskDate() {
+            return START_DATE.plusDays(random.nextInt(DAYS));
+        }
+
+        int communityId() {
+            return 1 + random.nextInt(COMMUNITIES);
+        }
+
+        int proofId() {
+            return 1 + random.nextInt(COMMUNITIES * PROOFS_PER_COMMUNITY);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        database = new BenchmarkDatabase("mapper");
+        database.seedPrivateTasks(USERS, DAYS, 3, START_DATE);
+        database.seedProofs(COMMUNITIES, PROOFS_PER_COMMUNITY, 50);
+        sqlSessionFactory = database.getSqlSessionFactory();
+    }
+
+    @TearDown
+    public void tearDown() {
+        database.close();
+    }
+
+    /**
+     * UserPrivateTaskController.list：按用户分页，每页 10 条（COUNT + LIMIT 两条语句）
+     */
+    @Benchmark
+    public Page<UserPrivateTask> taskPage(Keys keys) {
+        QueryWrapper<UserPrivateTask> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("user_id", keys.userId())
+                .orderByDesc("priority")
+                .orderByAsc("task_date");
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            return session.getMapper(UserPrivateTaskMapper.class).selectPage(new Page<>(1, 10), queryWrapper);
+        }
+    }
+
+    /**
+     * UserPrivateTaskController.getTodayTasks
+     */
+    @Benchmark
+    public List<UserPrivateTask> todayTasks(Keys keys) {
+        QueryWrapper<UserPrivateTask> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("user_id", keys.userId())
+                .eq("task_date", keys.taskDate())
+                .orderByDesc("priority")
+                .orderByAsc("start_time");
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            return session.getMapper(UserPrivateTaskMapper.class).selectList(queryWrapper);
+        }
+    }
+
+    /**
+     * CommunityTaskProofServiceImpl.getCommunityTaskProofs：一个社区的全部 500 条凭证
+     */
+    @Benchmark
+    public List<CommunityTaskProof> communityProofs(Keys keys) {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            return session.getMapper(CommunityTaskProofMapper.class).selectList(new LambdaQueryWrapper<CommunityTaskProof>()
+                    .eq(CommunityTaskProof::getCommunityId, keys.communityId())
+                    .orderByDesc(CommunityTaskProof::getCreateTime));
+        }
+    }
+
+    /**
+     * 按主键查询单条凭证
+     */
+    @Benchmark
+    public CommunityTaskProof proofById(Keys keys) {
+        try (SqlSession session = sqlSessionFactory.openSession(true)) {
+            return session.getMapper(CommunityTaskProofMapper.class).selectById(keys.proofId());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.matebuilder.benchmark;
+
+import com.matebuilder.matching.AbilityMatrix;
+import com.matebuilder.matching.LshIndex;
+import com.matebuilder.matching.MatchEngine;
+import com.matebuilder.matching.MatchQuery;
+import com.matebuilder.matching.UserVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 学伴匹配查询吞吐量（ops/s 即 QPS）
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class MatchingBenchmark {
+
+    @Param({"1000000"})
+    public int users;
+
+    @Param({"64"})
+    public int abilities;
+
+    /**
+     * 每个用户的非零能力数
+     */
+    @Param({"8"})
+    public int abilitiesPerUser;
+
+    private AbilityMatrix matrix;
+    private LshIndex lsh;
+    private ForkJoinPool pool;
+    private MatchEngine engine;
+    private UserVector[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(7);
+        AbilityMatrix.Builder builder = new AbilityMatrix.Builder();
+        for (int userId = 1; userId <= users; userId++) {
+            for (int i = 0; i < abilitiesPerUser; i++) {
+                builder.add(userId, random.nextInt(abilities), 1 + random.nextInt(100));
+            }
+            builder.level(userId, random.nextInt(10));
+            builder.label(userId, random.nextInt(20));
+        }
+        matrix = builder.build();
+        lsh = new LshIndex(matrix, 12, 10, 1);
+        pool = new ForkJoinPool();
+        engine = new MatchEngine(pool);
+
+        queries = new UserVector[1024];
+        for (int i = 0; i < queries.length; i++) {
+            int[] cols = new int[abilitiesPerUser];
+            float[] vals = new float[abilitiesPerUser];
+            for (int j = 0; j < abilitiesPerUser; j++) {
+                cols[j] = j * (abilities / abilitiesPerUser) + random.nextInt(abilities / abilitiesPerUser);
+                vals[j] = 1 + random.nextInt(100);
+            }
+            queries[i] = new UserVector(-i - 1, cols, vals, 5, new int[0], 0);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    private UserVector nextQuery() {
+        return queries[next++ & (queries.length - 1)];
+    }
+
+    @Benchmark
+    public List<MatchEngine.Match> exactCosine() {
+        return engine.search(matrix, lsh, Collections.emptyList(), nextQuery(), new MatchQuery());
+    }
+
+    @Benchmark
+    public List<MatchEngine.Match> exactWeightedDistance() {
+        MatchQuery query = new MatchQuery();
+        query.setMetric(MatchQuery.Metric.WEIGHTED_DISTANCE);
+        return engine.search(matrix, lsh, Collections.emptyList(), nextQuery(), query);
+    }
+
+    @Benchmark
+    public List<MatchEngine.Match> exactCosineFiltered() {
+        MatchQuery query = new MatchQuery();
+        query.setLabelId(3);
+        query.setMinLevel(2);
+        query.setMaxLevel(6);
+        return engine.search(matrix, lsh, Collections.emptyList(), nextQuery(), query);
+    }
+
+    @Benchmark
+    public List<MatchEngine.Match> approximateCosine() {
+        MatchQuery query = new MatchQuery();
+        query.setApproximate(true);
+        return engine.search(matrix, lsh, Collections.emptyList(), nextQuery(), query);
+    }
+}
@@ -0,0 +1,115 @@
+package com.matebuilder.benchmark;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.matebuilder.common.coalesce.SingleFlights;
+import com.matebuilder.entity.CommunityTaskProof;
+import com.matebuilder.mapper.CommunityTaskProofMapper;
+import com.matebuilder.service.impl.CommunityTaskProofServiceImpl;
+import org.apache.ibatis.session.SqlSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 凭证上传与下载
+ * 上传走 CommunityTaskProofServiceImpl.uploadTaskProof（读取文件、计算内容哈希、写入凭证记录），
+ * 下载按主键查出凭证后按 proof_hash 取回文件内容。IPFS 由进程内的 LocalIpfsStandIn 代替，
+ * 数据库为 H2 内存库，因此结果不含网络往返，反映的是请求路径上的拷贝、哈希和持久化开销。
+ * 凭证按成员、任务标题和内容哈希去重，每次上传使用带序号的任务标题，保证每次都写入新记录；
+ * 每轮迭代结束时删除本轮上传的记录。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ProofStorageBenchmark {
+
+    private static final int UPLOAD_COMMUNITY = 999;
+    private static final int SEEDED_PROOFS = 64;
+
+    /**
+     * 文件大小（字节）
+     */
+    @Param({"65536", "1048576"})
+    public int fileSize;
+
+    private BenchmarkDatabase database;
+    private SqlSession session;
+    private CommunityTaskProofMapper mapper;
+    private LocalIpfsStandIn ipfs;
+    private CommunityTaskProofServiceImpl service;
+    private BytesMultipartFile upload;
+    private long uploads;
+    private int[] downloadIds;
+    private int next;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        database = new BenchmarkDatabase("storage");
+        session = database.getSqlSessionFactory().openSession(true);
+        mapper = session.getMapper(CommunityTaskProofMapper.class);
+        ipfs = new LocalIpfsStandIn();
+        service = new CommunityTaskProofServiceImpl(ipfs, new SingleFlights(5000));
+        // Spring 通过字段注入设置 baseMapper
+        Field baseMapper = ServiceImpl.class.getDeclaredField("baseMapper");
+        baseMapper.setAccessible(true);
+        baseMapper.set(service, mapper);
+
+        SplittableRandom random = new SplittableRandom(42);
+        byte[] content = new byte[fileSize];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) random.nextInt(256);
+        }
+        upload = new BytesMultipartFile("file", "proof.png", "image/png", content);
+
+        // 预先上传若干份不同内容的凭证供下载
+        downloadIds = new int[SEEDED_PROOFS];
+        for (int i = 0; i < SEEDED_PROOFS; i++) {
+            byte[] seeded = content.clone();
+            seeded[0] = (byte) i;
+            downloadIds[i] = service.uploadTaskProof(1, 1001, "打卡", null,
+                    new BytesMultipartFile("file", "seed-" + i + ".png", "image/png", seeded)).getId();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteUploads() {
+        mapper.delete(new LambdaQueryWrapper<CommunityTaskProof>()
+                .eq(CommunityTaskProof::getCommunityId, UPLOAD_COMMUNITY));
+    }
+
+    @TearDown
+    public void tearDown() {
+        session.close();
+        database.close();
+    }
+
+    @Benchmark
+    public CommunityTaskProof upload() {
+        return service.uploadTaskProof(UPLOAD_COMMUNITY, 1001, "每日打卡-" + ++uploads, "上传当天的学习截图", upload);
+    }
+
+    @Benchmark
+    public byte[] download() {
+        int id = downloadIds[next++ & (SEEDED_PROOFS - 1)];
+        CommunityTaskProof proof = service.getById(id);
+        return ipfs.getFile(proof.getProofHash());
+    }
+}
@@ -0,0 +1,64 @@
+package com.matebuilder.benchmark;
+
+import com.matebuilder.service.impl.CommunityTaskProofServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CommunityTaskProofServiceImpl.getProofType 的 MIME 类型分类
+ * 方法为私有，通过 MethodHandle 调用；mimeType 覆盖三个分支和空值。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProofTypeBenchmark {
+
+    @Param({"image/png", "video/mp4", "application/pdf", "null"})
+    public String mimeType;
+
+    /**
+     * static final 使 JIT 能把句柄调用内联为直接调用
+     */
+    private static final MethodHandle GET_PROOF_TYPE;
+
+    static {
+        try {
+            Method method = CommunityTaskProofServiceImpl.class.getDeclaredMethod("getProofType", String.class);
+            method.setAccessible(true);
+            GET_PROOF_TYPE = MethodHandles.lookup().unreflect(method);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private String value;
+    private CommunityTaskProofServiceImpl service;
+
+    @Setup
+    public void setUp() {
+        value = "null".equals(mimeType) ? null : mimeType;
+        service = new CommunityTaskProofServiceImpl(null, null);
+    }
+
+    @Benchmark
+    public String getProofType() throws Throwable {
+        return (String) GET_PROOF_TYPE.invokeExact(service, value);
+    }
+}
@@ -0,0 +1,94 @@
+package com.matebuilder.benchmark;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.matebuilder.entity.CommunityTaskProof;
+import com.matebuilder.entity.UserPrivateTask;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 条件构造器的构建开销
+ * 与 UserPrivateTaskController、CommunityTaskProofServiceImpl 中的写法相同，每次调用新建条件构造器并生成 SQL 片段
+ * （MyBatis-Plus 执行前同样会调用 getCustomSqlSegment），不访问数据库。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class QueryWrapperBenchmark {
+
+    private final Integer userId = 1001;
+    private final String taskStatus = "completed";
+    private final LocalDate taskDate = LocalDate.of(2024, 5, 1);
+    private final Integer communityId = 7;
+
+    @Setup
+    public void setUp() {
+        // Lambda 条件构造器按实体的 TableInfo 解析列名，Spring 中由映射器注册时完成
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setMapUnderscoreToCamelCase(true);
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(configuration, ""), CommunityTaskProof.class);
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(configuration, ""), UserPrivateTask.class);
+    }
+
+    /**
+     * UserPrivateTaskController.list 带全部筛选条件
+     */
+    @Benchmark
+    public String taskListQueryWrapper() {
+        QueryWrapper<UserPrivateTask> queryWrapper = new QueryWrapper<>();
+        if (userId != null) {
+            queryWrapper.eq("user_id", userId);
+        }
+        if (taskStatus != null) {
+            queryWrapper.eq("task_status", taskStatus);
+        }
+        if (taskDate != null) {
+            queryWrapper.eq("task_date", taskDate);
+        }
+        queryWrapper.orderByDesc("priority")
+                .orderByAsc("task_date");
+        return queryWrapper.getCustomSqlSegment();
+    }
+
+    /**
+     * UserPrivateTaskController.getTodayTasks
+     */
+    @Benchmark
+    public String todayTasksQueryWrapper() {
+        QueryWrapper<UserPrivateTask> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("user_id", userId)
+                .eq("task_date", taskDate)
+                .orderByDesc("priority")
+                .orderByAsc("start_time");
+        return queryWrapper.getCustomSqlSegment();
+    }
+
+    /**
+     * CommunityTaskProofServiceImpl.getCommunityTaskProofs
+     */
+    @Benchmark
+    public String communityProofsLambdaQueryWrapper() {
+        return new LambdaQueryWrapper<CommunityTaskProof>()
+                .eq(CommunityTaskProof::getCommunityId, communityId)
+                .orderByDesc(CommunityTaskProof::getCreateTime)
+                .getCustomSqlSegment();
+    }
+}
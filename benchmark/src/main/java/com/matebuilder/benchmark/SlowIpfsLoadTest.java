@@ -0,0 +1,354 @@
+package com.matebuilder.benchmark;
+
+import com.matebuilder.MateBuilderApplication;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 慢 IPFS 条件下两种请求执行模式的对比压测
+ * 每种模式在 H2 内存库上以 loadtest 环境启动一次完整的 MateBuilderApplication（execution.mode=platform|virtual，
+ * 后者由 ExecutionModeConfig 切换为每请求虚拟线程），IPFSUtil 不使用 LocalIpfsStandIn，而是通过 ipfs.node.url
+ * 连接进程内一个固定延迟的假 IPFS 节点（实现 version/add/cat 接口），因此上传经过真实的控制器、ipfsBulkhead
+ * 和 IPFSUtil 的并发许可。大量凭证上传（/api/community/task/proof/upload）占用 IPFS 时，
+ * 比较 /api/community-label/list 的吞吐和延迟。上传被隔舱拒绝（429）、超时（503）或 R 响应的 code 不是 200 时计为错误。
+ *
+ * 用法：java -cp target/benchmarks.jar com.matebuilder.benchmark.SlowIpfsLoadTest
+ *      [--mode platform|virtual|both] [--seconds 15] [--ipfs-delay-ms 500] [--ipfs-clients 400]
+ *      [--label-clients 50] [--ipfs-permits 64] [--upload-bytes 4096] [--<应用配置>=<值> ...]
+ * --ipfs-permits 同时设置 ipfs.platform.max-concurrent-requests 和 ipfs.virtual.max-concurrent-requests，
+ * 小于0时两者都取应用默认值；形如 --bulkhead.ipfs.threads=64 的参数原样传给应用。
+ */
+public class SlowIpfsLoadTest {
+
+    private static final String BOUNDARY = "----MateBuilderSlowIpfs";
+    private static final int USERS = 1000;
+    private static final int COMMUNITIES = 100;
+    private static final int MEMBERS_PER_COMMUNITY = 10;
+
+    private final int seconds;
+    private final int ipfsDelayMs;
+    private final int ipfsClients;
+    private final int labelClients;
+    private final int ipfsPermits;
+    private final int uploadBytes;
+    private final List<String> applicationArgs;
+    private final AtomicLong uploads = new AtomicLong();
+
+    public SlowIpfsLoadTest(int seconds, int ipfsDelayMs, int ipfsClients, int labelClients, int ipfsPermits,
+                            int uploadBytes, List<String> applicationArgs) {
+        this.seconds = seconds;
+        this.ipfsDelayMs = ipfsDelayMs;
+        this.ipfsClients = ipfsClients;
+        this.labelClients = labelClients;
+        this.ipfsPermits = ipfsPermits;
+        this.uploadBytes = uploadBytes;
+        this.applicationArgs = applicationArgs;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String mode = "both";
+        int seconds = 15;
+        int ipfsDelayMs = 500;
+        int ipfsClients = 400;
+        int labelClients = 50;
+        int ipfsPermits = 64;
+        int uploadBytes = 4096;
+        List<String> applicationArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].startsWith("--") && args[i].contains("=")) {
+                applicationArgs.add(args[i]);
+                continue;
+            }
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            String value = args[++i];
+            switch (args[i - 1]) {
+                case "--mode": mode = value; break;
+                case "--seconds": seconds = Integer.parseInt(value); break;
+                case "--ipfs-delay-ms": ipfsDelayMs = Integer.parseInt(value); break;
+                case "--ipfs-clients": ipfsClients = Integer.parseInt(value); break;
+                case "--label-clients": labelClients = Integer.parseInt(value); break;
+                case "--ipfs-permits": ipfsPermits = Integer.parseInt(value); break;
+                case "--upload-bytes": uploadBytes = Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i - 1]);
+            }
+        }
+        // 应用启动前日志系统尚未按 Spring Boot 配置，默认输出 DEBUG
+        LoggingSystem.get(SlowIpfsLoadTest.class.getClassLoader()).setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.INFO);
+        SlowIpfsLoadTest test = new SlowIpfsLoadTest(seconds, ipfsDelayMs, ipfsClients, labelClients, ipfsPermits,
+                uploadBytes, applicationArgs);
+        System.out.printf("ipfs delay %d ms, %d upload clients, %d label clients, %s ipfs permits, %d s per mode%n",
+                ipfsDelayMs, ipfsClients, labelClients, ipfsPermits < 0 ? "default" : String.valueOf(ipfsPermits), seconds);
+        for (String m : "both".equals(mode) ? Arrays.asList("platform", "virtual") : List.of(mode)) {
+            test.run(m);
+        }
+    }
+
+    public void run(String mode) throws Exception {
+        String database = "slow-ipfs-" + mode;
+        try (BenchmarkDatabase seed = new BenchmarkDatabase(database)) {
+            seed.seedUsers(USERS);
+            seed.seedCommunities(COMMUNITIES, USERS, 0, 0);
+            seed.seedMembers(COMMUNITIES, MEMBERS_PER_COMMUNITY, USERS);
+        }
+        HttpServer fakeIpfs = startFakeIpfs();
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + BenchmarkDatabase.jdbcUrl(database),
+                "--server.port=0",
+                "--execution.mode=" + mode,
+                "--ipfs.node.url=/ip4/127.0.0.1/tcp/" + fakeIpfs.getAddress().getPort(),
+                // 使用真实的 IPFSUtil 而不是 LoadTestConfig 中的进程内替身
+                "--loadtest.ipfs-stand-in=false"));
+        if (ipfsPermits >= 0) {
+            args.add("--ipfs.platform.max-concurrent-requests=" + ipfsPermits);
+            args.add("--ipfs.virtual.max-concurrent-requests=" + ipfsPermits);
+        }
+        args.addAll(applicationArgs);
+        ConfigurableApplicationContext context = null;
+        try {
+            context = new SpringApplicationBuilder(MateBuilderApplication.class)
+                    .profiles("loadtest")
+                    .run(args.toArray(new String[0]));
+            String base = "http://127.0.0.1:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            Stats upload = new Stats();
+            Stats label = new Stats();
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+            AtomicBoolean running = new AtomicBoolean(true);
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < ipfsClients; i++) {
+                    SplittableRandom random = new SplittableRandom(i);
+                    clients.submit(() -> drive(client, () -> upload(base, random), running, upload));
+                }
+                HttpRequest labels = HttpRequest.newBuilder(URI.create(base + "/api/community-label/list"))
+                        .timeout(Duration.ofSeconds(60)).build();
+                for (int i = 0; i < labelClients; i++) {
+                    clients.submit(() -> drive(client, () -> labels, running, label));
+                }
+                // 预热后清零统计
+                TimeUnit.SECONDS.sleep(Math.min(3, seconds));
+                upload.reset();
+                label.reset();
+                long start = System.nanoTime();
+                TimeUnit.SECONDS.sleep(seconds);
+                double elapsed = (System.nanoTime() - start) / 1e9;
+                running.set(false);
+                upload.print(mode, "upload", elapsed);
+                label.print(mode, "label", elapsed);
+            }
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            fakeIpfs.stop(0);
+        }
+    }
+
+    private void drive(HttpClient client, RequestFactory requests, AtomicBoolean running, Stats stats) {
+        while (running.get()) {
+            long start = System.nanoTime();
+            try {
+                HttpResponse<byte[]> response = client.send(requests.next(), HttpResponse.BodyHandlers.ofByteArray());
+                stats.record(System.nanoTime() - start, response.statusCode() == 200 && isSuccess(response.body()));
+            } catch (IOException e) {
+                stats.record(System.nanoTime() - start, false);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 异常由 GlobalExceptionHandler 以 HTTP 200 返回，成败看 R 响应最前面的 code 字段
+     */
+    private static boolean isSuccess(byte[] body) {
+        byte[] prefix = "{\"code\":200".getBytes(StandardCharsets.US_ASCII);
+        return body.length >= prefix.length && Arrays.equals(body, 0, prefix.length, prefix, 0, prefix.length);
+    }
+
+        private interface RequestFactory {
+        HttpRequest next();
+    }
+
+    /**
+     * 凭证上传，每次的任务标题不同，不会命中幂等去重
+     */
+    private HttpRequest upload(String base, SplittableRandom random) {
+        int community = 1 + random.nextInt(COMMUNITIES);
+        int member = 1 + random.nextInt(USERS);
+        byte[] content = new byte[uploadBytes];
+        random.nextBytes(content);
+        ByteArrayOutputStream body = new ByteArrayOutputStream(uploadBytes + 1024);
+        field(body, "communityId", String.valueOf(community));
+        field(body, "memberId", String.valueOf(member));
+        field(body, "taskTitle", "每日打卡-" + uploads.incrementAndGet());
+        write(body, "--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"proofFile\"; filename=\"proof.png\"\r\n"
+                + "Content-Type: image/png\r\n\r\n");
+        body.writeBytes(content);
+        write(body, "\r\n--" + BOUNDARY + "--\r\n");
+        return HttpRequest.newBuilder(URI.create(base + "/api/community/task/proof/upload"))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+    }
+
+    private static void field(ByteArrayOutputStream body, String name, String value) {
+        write(body, "--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n" + value + "\r\n");
+    }
+
+    private static void write(ByteArrayOutputStream body, String text) {
+        body.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 假 IPFS 节点：version 供客户端启动时的版本检查，add 和 cat 在固定延迟后返回
+     * add 读完请求体后返回按序号生成的 CIDv0，cat 返回 1KB 内容
+     */
+    private HttpServer startFakeIpfs() throws IOException {
+        byte[] block = new byte[1024];
+        AtomicLong added = new AtomicLong();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/api/v0/version", exchange ->
+                respond(exchange, "{\"Version\":\"0.20.0\"}".getBytes(StandardCharsets.UTF_8)));
+        server.createContext("/api/v0/add", exchange -> {
+            long size;
+            try (InputStream in = exchange.getRequestBody()) {
+                size = in.transferTo(OutputStream.nullOutputStream());
+            }
+            delay();
+            String json = "{\"Name\":\"proof.png\",\"Hash\":\"" + cid(added.incrementAndGet())
+                    + "\",\"Size\":\"" + size + "\"}";
+            respond(exchange, json.getBytes(StandardCharsets.UTF_8));
+        });
+        server.createContext("/api/v0/cat", exchange -> {
+            delay();
+            respond(exchange, block);
+        });
+        server.start();
+        return server;
+    }
+
+    private void delay() {
+        try {
+            Thread.sleep(ipfsDelayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * 以序号的 SHA-256 构造 CIDv0（0x12 0x20 + 摘要的 base58 编码）
+     */
+    private static String cid(long sequence) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(ByteBuffer.allocate(8).putLong(sequence).array());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] multihash = new byte[digest.length + 2];
+        multihash[0] = 0x12;
+        multihash[1] = 0x20;
+        System.arraycopy(digest, 0, multihash, 2, digest.length);
+        String alphabet = "123456789ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz";
+        StringBuilder encoded = new StringBuilder();
+        BigInteger value = new BigInteger(1, multihash);
+        BigInteger base = BigInteger.valueOf(58);
+        while (value.signum() > 0) {
+            BigInteger[] division = value.divideAndRemainder(base);
+            encoded.append(alphabet.charAt(division[1].intValue()));
+            value = division[0];
+        }
+        return encoded.reverse().toString();
+    }
+
+    private static final class Stats {
+        private final List<long[]> chunks = new ArrayList<>();
+        private long[] current = new long[1 << 16];
+        private int size;
+        private long errors;
+
+        synchronized void record(long nanos, boolean ok) {
+            if (!ok) {
+                errors++;
+                return;
+            }
+            if (size == current.length) {
+                chunks.add(current);
+                current = new long[1 << 16];
+                size = 0;
+            }
+            current[size++] = nanos;
+        }
+
+        synchronized void reset() {
+            chunks.clear();
+            size = 0;
+            errors = 0;
+        }
+
+        synchronized void print(String mode, String path, double seconds) {
+            long[] all = new long[chunks.size() * current.length + size];
+            int n = 0;
+            for (long[] chunk : chunks) {
+                System.arraycopy(chunk, 0, all, n, chunk.length);
+                n += chunk.length;
+            }
+            System.arraycopy(current, 0, all, n, size);
+            n += size;
+            Arrays.sort(all, 0, n);
+            System.out.printf(Locale.ROOT, "%-8s %-6s %8.1f req/s  p50 %8.1f ms  p99 %8.1f ms  max %8.1f ms  errors %d%n",
+                    mode, path, n / seconds, percentile(all, n, 0.50), percentile(all, n, 0.99),
+                    n == 0 ? 0 : all[n - 1] / 1e6, errors);
+        }
+
+        private static double percentile(long[] sorted, int n, double p) {
+            return n == 0 ? 0 : sorted[Math.min(n - 1, (int) Math.ceil(p * n) - 1)] / 1e6;
+        }
+    }
+}
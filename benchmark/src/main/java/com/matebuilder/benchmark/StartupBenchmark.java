@@ -0,0 +1,181 @@
+package com.matebuilder.benchmark;
+
+import com.matebuilder.MateBuilderApplication;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+
+import java.io.File;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 启动耗时基准：从启动 JVM 到第一个业务请求返回 200 的时间
+ * 先在 H2 文件库中执行 db/schema.sql 并写入少量数据，然后对每种模式重复若干次：另起 JVM 以 loadtest 环境
+ * 启动 MateBuilderApplication，每 10ms 请求一次当日任务接口，直到返回 200。
+ * 模式：
+ * default：默认配置；
+ * fast-startup：叠加 fast-startup 环境（Bean 延迟初始化，Swagger 文档在首次访问时扫描，见 StartupConfig）；
+ * fast-startup+cds：再加 AppCDS 动态归档，归档由一次训练运行（-XX:ArchiveClassesAtExit）在首个请求返回后退出时生成。
+ * benchmarks.jar 是普通的扁平 jar，可以直接归档；正式部署的归档见 backend 的 cds 构建配置。
+ *
+ * 用法：java -cp target/benchmarks.jar com.matebuilder.benchmark.StartupBenchmark
+ *      [--runs 5] [--modes default,fast-startup,fast-startup+cds] [--work-dir target/startup]
+ *      [--path /api/user-private-task/today/1] [--jvm-args -Xmx512m] [--timeout-seconds 120]
+ */
+public class StartupBenchmark {
+
+    private int runs = 5;
+    private List<String> modes = Arrays.asList("default", "fast-startup", "fast-startup+cds");
+    private Path workDir = Path.of("target", "startup");
+    private String path = "/api/user-private-task/today/1";
+    private List<String> jvmArgs = Arrays.asList("-Xmx512m");
+    private int timeoutSeconds = 120;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    private String classPath;
+    private String databaseUrl;
+
+    public static void main(String[] args) throws Exception {
+        StartupBenchmark benchmark = new StartupBenchmark();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--runs": benchmark.runs = Integer.parseInt(value); break;
+                case "--modes": benchmark.modes = Arrays.asList(value.split(",")); break;
+                case "--work-dir": benchmark.workDir = Path.of(value); break;
+                case "--path": benchmark.path = value; break;
+                case "--jvm-args": benchmark.jvmArgs = Arrays.asList(value.trim().split("\\s+")); break;
+                case "--timeout-seconds": benchmark.timeoutSeconds = Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        benchmark.run();
+    }
+
+    public void run() throws Exception {
+        LoggingSystem.get(StartupBenchmark.class.getClassLoader()).setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.INFO);
+        classPath = Path.of(StartupBenchmark.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        Path databaseDir = workDir.resolve("db");
+        try (BenchmarkDatabase database = BenchmarkDatabase.file(databaseDir)) {
+            database.seedUsers(100);
+            database.seedPrivateTasks(100, 7, 3, LocalDate.now().minusDays(6));
+        }
+        databaseUrl = BenchmarkDatabase.fileUrl(databaseDir);
+
+        Map<String, long[]> results = new LinkedHashMap<>();
+        for (String mode : modes) {
+            List<String> options = new ArrayList<>(jvmArgs);
+            if (mode.endsWith("+cds")) {
+                Path archive = workDir.resolve("matebuilder.jsa").toAbsolutePath();
+                Files.deleteIfExists(archive);
+                List<String> training = new ArrayList<>(jvmArgs);
+                training.add("-XX:ArchiveClassesAtExit=" + archive);
+                Sample sample = launch(training, profiles(mode));
+                System.out.printf(Locale.ROOT, "%-18s training run %d ms, archive %d MB%n", mode, sample.firstResponseMs,
+                        Files.exists(archive) ? Files.size(archive) >> 20 : 0);
+                options.add("-XX:SharedArchiveFile=" + archive);
+            }
+            long[] firstResponse = new long[runs];
+            long[] firstRequest = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                Sample sample = launch(options, profiles(mode));
+                firstResponse[i] = sample.firstResponseMs;
+                firstRequest[i] = sample.firstRequestMs;
+                System.out.printf(Locale.ROOT, "%-18s run %d: first response after %d ms (request took %d ms)%n",
+                        mode, i + 1, sample.firstResponseMs, sample.firstRequestMs);
+            }
+            results.put(mode + " first response", firstResponse);
+            results.put(mode + " request", firstRequest);
+        }
+
+        System.out.println();
+        System.out.printf(Locale.ROOT, "%-34s %8s %8s %8s%n", "ms", "min", "median", "max");
+        for (Map.Entry<String, long[]> entry : results.entrySet()) {
+            long[] values = entry.getValue().clone();
+            Arrays.sort(values);
+            System.out.printf(Locale.ROOT, "%-34s %8d %8d %8d%n",
+                    entry.getKey(), values[0], values[values.length / 2], values[values.length - 1]);
+        }
+    }
+
+    private static String profiles(String mode) {
+        return mode.startsWith("fast-startup") ? "loadtest,fast-startup" : "loadtest";
+    }
+
+    /**
+     * 启动一次应用并等到首个请求返回 200，然后结束进程
+     */
+    private Sample launch(List<String> options, String profiles) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(options);
+        command.add("-cp");
+        command.add(classPath);
+        command.add(MateBuilderApplication.class.getName());
+        command.add("--spring.profiles.active=" + profiles);
+        command.add("--spring.datasource.url=" + databaseUrl);
+        command.add("--server.port=" + port);
+        File log = workDir.resolve("startup.log").toFile();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + path))
+                .timeout(Duration.ofSeconds(timeoutSeconds)).build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(log)).start();
+        try {
+            long deadline = start + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue() + ", see " + log);
+                }
+                long sent = System.nanoTime();
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() == 200) {
+                        long now = System.nanoTime();
+                        return new Sample((now - start) / 1_000_000, (now - sent) / 1_000_000);
+                    }
+                } catch (ConnectException e) {
+                    // 端口尚未监听
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("No 200 response within " + timeoutSeconds + " s, see " + log);
+        } finally {
+            // SIGTERM 使 JVM 正常退出，训练运行在退出时写出归档
+            process.destroy();
+            if (!process.waitFor(60, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static class Sample {
+        final long firstResponseMs;
+        final long firstRequestMs;
+
+        Sample(long firstResponseMs, long firstRequestMs) {
+            this.firstResponseMs = firstResponseMs;
+            this.firstRequestMs = firstRequestMs;
+        }
+    }
+}
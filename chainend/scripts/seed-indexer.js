@@ -0,0 +1,93 @@
+const hre = require("hardhat");
+
+// 在本地 Hardhat 节点上部署合约并产生后端事件同步所需的全部事件：
+// CommunityCreated / MemberJoined / ScoreSubmitted / FinalScoreCalculated / AbilityScoreIncreased / RewardClaimed
+// 用法：npx hardhat node 启动节点后执行 npx hardhat run scripts/seed-indexer.js --network localhost
+async function main() {
+  const { ethers } = hre;
+  const [owner, member1, member2, senator] = await ethers.getSigners();
+  const TECHNOLOGY = 5;
+
+  const TestToken = await ethers.getContractFactory("TestToken");
+  const token = await TestToken.deploy("Test Token", "TEST", ethers.parseEther("1000000"));
+  await token.waitForDeployment();
+
+  const Senate = await ethers.getContractFactory("Senate");
+  const senate = await Senate.deploy();
+  await senate.waitForDeployment();
+
+  const Community = await ethers.getContractFactory("GoalOrientedCommunity");
+  const community = await Community.deploy(await senate.getAddress(), await token.getAddress());
+  await community.waitForDeployment();
+
+  const SubmissionManager = await ethers.getContractFactory("SubmissionManager");
+  const submissionManager = await SubmissionManager.deploy(await senate.getAddress());
+  await submissionManager.waitForDeployment();
+
+  const UserAbility = await ethers.getContractFactory("UserAbility");
+  const userAbility = await UserAbility.deploy(await community.getAddress());
+  await userAbility.waitForDeployment();
+
+  // 创建社区（创建者自动成为成员）
+  const now = (await ethers.provider.getBlock("latest")).timestamp;
+  const memberDeposit = ethers.parseEther("1");
+  const rewardPerMember = ethers.parseEther("2");
+  const maxMembers = 10;
+  await (await community.createCommunity(
+    "Indexer Community",
+    "用于验证链上事件同步的社区",
+    "完成一次提交",
+    now + 60,
+    now + 7 * 24 * 3600,
+    memberDeposit,
+    rewardPerMember,
+    maxMembers,
+    TECHNOLOGY,
+    { value: rewardPerMember * BigInt(maxMembers) }
+  )).wait();
+  await (await community.setCommunityKeys(0, "indexer-public-key")).wait();
+
+  // 两名成员加入（前10名加入者同时成为reviewer）
+  for (const member of [member1, member2]) {
+    await (await token.transfer(member.address, ethers.parseEther("10"))).wait();
+    await (await token.connect(member).approve(await community.getAddress(), ethers.parseEther("10"))).wait();
+    await (await community.connect(member).joinCommunity(0, { value: memberDeposit })).wait();
+  }
+
+  // member1 提交并由 member2 评审通过，随后领取奖励并记录能力值
+  await (await community.connect(member1).submitCompletion(0, "ipfs://indexer-proof")).wait();
+  await (await community.connect(member2).reviewerScore(0, member1.address, 90, "ok")).wait();
+  await (await community.connect(member1).claimReward(0)).wait();
+  await (await userAbility.connect(member1).recordCompletion(0)).wait();
+
+  // SubmissionManager：唯一的参议员评分后即计算最终得分
+  await (await senate.addSenator(senator.address, TECHNOLOGY)).wait();
+  await (await submissionManager.connect(member1).submitContent(0, "ipfs://indexer-proof", TECHNOLOGY)).wait();
+  await (await submissionManager.connect(senator).submitScore(0, member1.address, 88)).wait();
+
+  // 补足确认数，使事件进入后端的安全高度
+  for (let i = 0; i < 12; i++) {
+    await hre.network.provider.send("evm_mine");
+  }
+
+  console.log("Add to backend application.yml:");
+  console.log("chain:");
+  console.log("  rpc-url: http://127.0.0.1:8545");
+  console.log("  contracts:");
+  console.log(`    community: "${await community.getAddress()}"`);
+  console.log(`    submission-manager: "${await submissionManager.getAddress()}"`);
+  console.log(`    user-ability: "${await userAbility.getAddress()}"`);
+  console.log("  indexer:");
+  console.log("    enabled: true");
+  console.log("Wallet addresses to bind to tb_user.wallet_address:");
+  for (const [name, signer] of [["creator", owner], ["member1", member1], ["member2", member2], ["senator", senator]]) {
+    console.log(`  ${name}: ${signer.address}`);
+  }
+}
+
+main()
+  .then(() => process.exit(0))
+  .catch((error) => {
+    console.error(error);
+    process.exit(1);
+  });
@@ -0,0 +1,50 @@
+const { expect } = require("chai");
+const { ethers } = require("hardhat");
+const golden = require("../../backend/src/test/resources/scoring/senate-golden.json");
+
+// 用合约核对 backend/src/test/resources/scoring/senate-golden.json 中的期望值，
+// 后端 SenateScoringTest 用同一份向量核对链下评分引擎，两边都通过即说明链下结果与合约一致
+describe("SubmissionManager 评分黄金向量", function () {
+  const MUSIC = 1;
+
+  for (const scenario of golden.scenarios) {
+    it(scenario.name, async function () {
+      const signers = await ethers.getSigners();
+      const senators = signers.slice(1, 1 + scenario.senators);
+      const member = signers[1 + scenario.senators];
+
+      const Senate = await ethers.getContractFactory("Senate");
+      const senate = await Senate.deploy();
+      const SubmissionManager = await ethers.getContractFactory("SubmissionManager");
+      const submissionManager = await SubmissionManager.deploy(await senate.getAddress());
+      for (const senator of senators) {
+        await senate.addSenator(senator.address, MUSIC);
+      }
+
+      for (let round = 0; round < scenario.rounds.length; round++) {
+        const { scores, finalScore, reputations } = scenario.rounds[round];
+        await submissionManager.connect(member).submitContent(round, "golden", MUSIC);
+
+        for (let i = 0; i < scores.length; i++) {
+          const [senator, score] = scores[i];
+          const tx = submissionManager.connect(senators[senator]).submitScore(round, member.address, score);
+          if (i < scores.length - 1) {
+            await tx;
+          } else if (finalScore === null) {
+            await expect(tx).to.be.reverted;
+          } else {
+            await expect(tx)
+              .to.emit(submissionManager, "FinalScoreCalculated")
+              .withArgs(round, member.address, finalScore);
+          }
+        }
+
+        for (let s = 0; s < scenario.senators; s++) {
+          const info = await submissionManager.scorerInfo(senators[s].address);
+          const actual = info.isInitialized ? Number(info.reputation) : null;
+          expect(actual, `round ${round} senator ${s}`).to.equal(reputations[s]);
+        }
+      }
+    });
+  }
+});